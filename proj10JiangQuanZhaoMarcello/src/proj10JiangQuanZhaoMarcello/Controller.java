@@ -17,6 +17,8 @@ import proj10JiangQuanZhaoMarcello.controllers.SettingMenuController;
 import proj10JiangQuanZhaoMarcello.controllers.FindMenuController;
 import proj10JiangQuanZhaoMarcello.controllers.DirectoryController;
 import proj10JiangQuanZhaoMarcello.controllers.StructureViewController;
+import proj10JiangQuanZhaoMarcello.controllers.ProjectIndex;
+import proj10JiangQuanZhaoMarcello.controllers.SymbolIndex;
 
 
 import javafx.beans.property.ReadOnlyBooleanProperty;
@@ -232,6 +234,10 @@ public class Controller {
     private void setupFindMenuController() {
         this.findMenuController = new FindMenuController();
         this.findMenuController.setTabPane(this.tabPane);
+        this.findMenuController.setFileMenuController(this.fileMenuController);
+        SymbolIndex symbolIndex = new SymbolIndex(ProjectIndex.getWorkspace());
+        this.findMenuController.setSymbolIndex(symbolIndex);
+        this.fileMenuController.setSymbolIndex(symbolIndex);
     }
 
     /**
@@ -244,6 +250,7 @@ public class Controller {
         this.directoryController.setFileMenuController(this.fileMenuController);
         this.directoryController.setDirectoryTree(this.directoryTree);
         this.fileMenuController.setDirectoryController(this.directoryController);
+        this.findMenuController.setDirectoryController(this.directoryController);
     }
 
     /**
@@ -254,6 +261,7 @@ public class Controller {
         this.structureViewController.setTreeView(this.fileStructTree);
         this.structureViewController.setTabFileMap(this.tabFileMap);
         this.structureViewController.setTabPane(this.tabPane);
+        this.structureViewController.setConsole(this.console);
         this.structureViewController.setDisplayFileStructCheckBox(this.displayFileStructCheckBox);
         this.structureViewController.initialize(this.treeSplitPane);
         this.fileMenuController.setStructureViewController(this.structureViewController);
@@ -349,6 +357,11 @@ public class Controller {
      */
     @FXML private void handleOpenAction() { this.fileMenuController.handleOpenAction(); }
 
+    /**
+     * Calls the method that handles the Open File by Name menu item action from the fileMenuController.
+     */
+    @FXML private void handleOpenByNameAction() { this.fileMenuController.handleOpenByNameAction(); }
+
     /**
      * Calls the method that handles the Close menu item action from the fileMenuController.
      *
@@ -445,6 +458,21 @@ public class Controller {
      */
     @FXML public void handleFindReplaceAction() { this.findMenuController.handleFindReplace(); }
 
+    /**
+     * Calls the method that handles find in files from the findMenuController.
+     */
+    @FXML public void handleFindInFilesAction() { this.findMenuController.handleFindInFiles(); }
+
+    /**
+     * Calls the method that handles find usages from the findMenuController.
+     */
+    @FXML public void handleFindUsagesAction() { this.findMenuController.handleFindUsages(); }
+
+    /**
+     * Calls the method that handles go to definition from the findMenuController.
+     */
+    @FXML public void handleGoToDefinitionAction() { this.findMenuController.handleGoToDefinition(); }
+
     /**
      * Calls the method that handles java help menu from the helpMenuController.
      */
@@ -0,0 +1,77 @@
+/*
+ * File: BantamClassLoader.java
+ * F18 CS361 Project 10
+ * Names: Liwei Jiang, Tracy Quan, Danqing Zhao, Chris Marcello
+ * Date: 12/07/2018
+ * This file contains the BantamClassLoader class, loading the classes generated from a Bantam program.
+ */
+
+package proj10JiangQuanZhaoMarcello.bantam.codegen;
+
+import java.util.Map;
+
+/**
+ * The BantamClassLoader class defines the classes generated from a Bantam program in memory.
+ * The generated classes are looked up before the parent loader,
+ * so that a Bantam class never resolves to a class of the IDE with the same name.
+ * The built-in classes TextIO and Sys are loaded from the parent loader.
+ *
+ * @author Liwei Jiang
+ * @author Tracy Quan
+ * @author Danqing Zhao
+ * @author Chris Marcello
+ */
+public class BantamClassLoader extends ClassLoader {
+    /**
+     * a map from the names of the generated classes to their class files
+     */
+    private Map<String, byte[]> classFiles;
+
+    /**
+     * Constructor of the BantamClassLoader class.
+     *
+     * @param classFiles a map from the names of the generated classes to their class files
+     */
+    public BantamClassLoader(Map<String, byte[]> classFiles) {
+        super(BantamClassLoader.class.getClassLoader());
+        this.classFiles = classFiles;
+    }
+
+    /**
+     * Loads the class with the specified name, looking up the generated classes first.
+     *
+     * @param name the binary name of the class
+     * @param resolve whether to resolve the class
+     * @return the class
+     * @throws ClassNotFoundException if the class is not found
+     */
+    @Override
+    protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+        synchronized (this.getClassLoadingLock(name)) {
+            Class<?> loaded = this.findLoadedClass(name);
+            if (loaded == null) {
+                loaded = this.classFiles.containsKey(name) ? this.findClass(name) : super.loadClass(name, false);
+            }
+            if (resolve) {
+                this.resolveClass(loaded);
+            }
+            return loaded;
+        }
+    }
+
+    /**
+     * Defines a generated class.
+     *
+     * @param name the binary name of the class
+     * @return the class
+     * @throws ClassNotFoundException if the class is not one of the generated classes
+     */
+    @Override
+    protected Class<?> findClass(String name) throws ClassNotFoundException {
+        byte[] classFile = this.classFiles.get(name);
+        if (classFile == null) {
+            throw new ClassNotFoundException(name);
+        }
+        return this.defineClass(name, classFile, 0, classFile.length);
+    }
+}
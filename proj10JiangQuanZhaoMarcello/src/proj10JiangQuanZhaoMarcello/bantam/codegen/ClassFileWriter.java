@@ -0,0 +1,377 @@
+/*
+ * File: ClassFileWriter.java
+ * F18 CS361 Project 10
+ * Names: Liwei Jiang, Tracy Quan, Danqing Zhao, Chris Marcello
+ * Date: 12/07/2018
+ * This file contains the ClassFileWriter class, writing a JVM class file with its constant pool.
+ */
+
+package proj10JiangQuanZhaoMarcello.bantam.codegen;
+
+import proj10JiangQuanZhaoMarcello.bantam.util.CompilationException;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The ClassFileWriter class writes a single JVM class file.
+ * The class files are written in version 49 (Java 5) of the format,
+ * which does not need the StackMapTable attribute, so the code generator
+ * only has to compute the maximum stack depth of each method.
+ *
+ * @author Liwei Jiang
+ * @author Tracy Quan
+ * @author Danqing Zhao
+ * @author Chris Marcello
+ */
+public class ClassFileWriter {
+    /**
+     * the class file format version written
+     */
+    private static final int MAJOR_VERSION = 49;
+
+    // constant pool tags
+    private static final int CONSTANT_UTF8 = 1;
+    private static final int CONSTANT_INTEGER = 3;
+    private static final int CONSTANT_CLASS = 7;
+    private static final int CONSTANT_STRING = 8;
+    private static final int CONSTANT_FIELDREF = 9;
+    private static final int CONSTANT_METHODREF = 10;
+    private static final int CONSTANT_NAME_AND_TYPE = 12;
+
+    /**
+     * the constant pool entries written so far
+     */
+    private ByteArrayOutputStream pool;
+    /**
+     * the data stream writing to the constant pool
+     */
+    private DataOutputStream poolOut;
+    /**
+     * a map from the keys of the constant pool entries to their indices, so that each entry is written once
+     */
+    private Map<String, Integer> poolIndexMap;
+    /**
+     * the index the next constant pool entry gets
+     */
+    private int nextPoolIndex;
+    /**
+     * the fields written so far
+     */
+    private ByteArrayOutputStream fields;
+    /**
+     * the number of fields written so far
+     */
+    private int fieldCount;
+    /**
+     * the methods written so far
+     */
+    private ByteArrayOutputStream methods;
+    /**
+     * the number of methods written so far
+     */
+    private int methodCount;
+    /**
+     * the constant pool index of this class
+     */
+    private int thisClass;
+    /**
+     * the constant pool index of the super class
+     */
+    private int superClass;
+    /**
+     * the constant pool index of the source file name
+     */
+    private int sourceFile;
+
+    /**
+     * Constructor of the ClassFileWriter class.
+     *
+     * @param className the internal name of the class, such as Main
+     * @param superName the internal name of the super class, such as java/lang/Object
+     * @param sourceFileName the name of the source file the class is compiled from
+     */
+    public ClassFileWriter(String className, String superName, String sourceFileName) {
+        this.pool = new ByteArrayOutputStream();
+        this.poolOut = new DataOutputStream(this.pool);
+        this.poolIndexMap = new HashMap<>();
+        this.nextPoolIndex = 1;
+        this.fields = new ByteArrayOutputStream();
+        this.methods = new ByteArrayOutputStream();
+
+        this.thisClass = this.classRef(className);
+        this.superClass = this.classRef(superName);
+        this.sourceFile = this.utf8(sourceFileName);
+    }
+
+    /**
+     * Helper method to look up a constant pool entry.
+     *
+     * @param key the key identifying the entry
+     * @return the index of the entry if it is already written; -1 otherwise
+     */
+    private int lookup(String key) {
+        Integer index = this.poolIndexMap.get(key);
+        return index == null ? -1 : index;
+    }
+
+    /**
+     * Helper method to assign the next constant pool index to the entry just written.
+     *
+     * @param key the key identifying the entry
+     * @return the constant pool index of the entry
+     */
+    private int register(String key) {
+        if (this.nextPoolIndex > 0xffff) {
+            throw new CompilationException("Too many constants in a class.");
+        }
+        this.poolIndexMap.put(key, this.nextPoolIndex);
+        return this.nextPoolIndex++;
+    }
+
+    /**
+     * Gets the index of a Utf8 constant.
+     *
+     * @param value the string
+     * @return the constant pool index
+     */
+    public int utf8(String value) {
+        int index = this.lookup("U" + value);
+        if (index >= 0) return index;
+        try {
+            this.poolOut.writeByte(CONSTANT_UTF8);
+            this.poolOut.writeUTF(value);
+        } catch (IOException e) {
+            throw new CompilationException("String constant is too long.");
+        }
+        return this.register("U" + value);
+    }
+
+    /**
+     * Gets the index of an Integer constant.
+     *
+     * @param value the int value
+     * @return the constant pool index
+     */
+    public int intConstant(int value) {
+        int index = this.lookup("I" + value);
+        if (index >= 0) return index;
+        this.writeEntry(CONSTANT_INTEGER, value >>> 16, value & 0xffff);
+        return this.register("I" + value);
+    }
+
+    /**
+     * Gets the index of a Class constant.
+     *
+     * @param internalName the internal name of the class, or the descriptor of an array class
+     * @return the constant pool index
+     */
+    public int classRef(String internalName) {
+        int index = this.lookup("C" + internalName);
+        if (index >= 0) return index;
+        int name = this.utf8(internalName);
+        this.writeEntry(CONSTANT_CLASS, name);
+        return this.register("C" + internalName);
+    }
+
+    /**
+     * Gets the index of a String constant.
+     *
+     * @param value the string
+     * @return the constant pool index
+     */
+    public int stringConstant(String value) {
+        int index = this.lookup("S" + value);
+        if (index >= 0) return index;
+        int utf8 = this.utf8(value);
+        this.writeEntry(CONSTANT_STRING, utf8);
+        return this.register("S" + value);
+    }
+
+    /**
+     * Gets the index of a Fieldref constant.
+     *
+     * @param owner the internal name of the class declaring the field
+     * @param name the name of the field
+     * @param descriptor the descriptor of the field
+     * @return the constant pool index
+     */
+    public int fieldRef(String owner, String name, String descriptor) {
+        return this.memberRef(CONSTANT_FIELDREF, owner, name, descriptor);
+    }
+
+    /**
+     * Gets the index of a Methodref constant.
+     *
+     * @param owner the internal name of the class declaring the method
+     * @param name the name of the method
+     * @param descriptor the descriptor of the method
+     * @return the constant pool index
+     */
+    public int methodRef(String owner, String name, String descriptor) {
+        return this.memberRef(CONSTANT_METHODREF, owner, name, descriptor);
+    }
+
+    /**
+     * Helper method to get the index of a Fieldref or Methodref constant.
+     *
+     * @param tag CONSTANT_FIELDREF or CONSTANT_METHODREF
+     * @param owner the internal name of the class declaring the member
+     * @param name the name of the member
+     * @param descriptor the descriptor of the member
+     * @return the constant pool index
+     */
+    private int memberRef(int tag, String owner, String name, String descriptor) {
+        String key = tag + owner + "." + name + ":" + descriptor;
+        int index = this.lookup(key);
+        if (index >= 0) return index;
+        int ownerIndex = this.classRef(owner);
+        int nameAndType = this.nameAndType(name, descriptor);
+        this.writeEntry(tag, ownerIndex, nameAndType);
+        return this.register(key);
+    }
+
+    /**
+     * Helper method to get the index of a NameAndType constant.
+     *
+     * @param name the name of the member
+     * @param descriptor the descriptor of the member
+     * @return the constant pool index
+     */
+    private int nameAndType(String name, String descriptor) {
+        String key = "N" + name + ":" + descriptor;
+        int index = this.lookup(key);
+        if (index >= 0) return index;
+        int nameIndex = this.utf8(name);
+        int descriptorIndex = this.utf8(descriptor);
+        this.writeEntry(CONSTANT_NAME_AND_TYPE, nameIndex, descriptorIndex);
+        return this.register(key);
+    }
+
+    /**
+     * Helper method to write a constant pool entry made of a tag and 16-bit values.
+     *
+     * @param tag the tag of the entry
+     * @param values the 16-bit values following the tag
+     */
+    private void writeEntry(int tag, int... values) {
+        try {
+            this.poolOut.writeByte(tag);
+            for (int value : values) {
+                this.poolOut.writeShort(value);
+            }
+        } catch (IOException e) {
+            throw new CompilationException("Constant pool cannot be written.");
+        }
+    }
+
+    /**
+     * Adds a field to the class.
+     *
+     * @param access the access flags of the field
+     * @param name the name of the field
+     * @param descriptor the descriptor of the field
+     */
+    public void addField(int access, String name, String descriptor) {
+        DataOutputStream out = new DataOutputStream(this.fields);
+        try {
+            out.writeShort(access);
+            out.writeShort(this.utf8(name));
+            out.writeShort(this.utf8(descriptor));
+            out.writeShort(0);
+        } catch (IOException e) {
+            throw new CompilationException("Field " + name + " cannot be written.");
+        }
+        this.fieldCount++;
+    }
+
+    /**
+     * Adds a method with a Code attribute to the class.
+     *
+     * @param access the access flags of the method
+     * @param name the name of the method
+     * @param descriptor the descriptor of the method
+     * @param code the bytecode of the method
+     * @param maxLocals the number of local variable slots used by the method, including this and the parameters
+     */
+    public void addMethod(int access, String name, String descriptor, CodeBuffer code, int maxLocals) {
+        byte[] bytecode = code.toByteArray();
+        if (bytecode.length > 0xffff) {
+            throw new CompilationException("Method " + name + " is too large.");
+        }
+        List<int[]> lineNumbers = code.getLineNumbers();
+        int codeIndex = this.utf8("Code");
+        int lineNumberTableIndex = this.utf8("LineNumberTable");
+
+        DataOutputStream out = new DataOutputStream(this.methods);
+        try {
+            out.writeShort(access);
+            out.writeShort(this.utf8(name));
+            out.writeShort(this.utf8(descriptor));
+            out.writeShort(1);
+
+            // Code attribute
+            int lineNumberTableLength = 2 + 4 * lineNumbers.size();
+            out.writeShort(codeIndex);
+            out.writeInt(2 + 2 + 4 + bytecode.length + 2 + 2 + 6 + lineNumberTableLength);
+            out.writeShort(code.getMaxStack());
+            out.writeShort(maxLocals);
+            out.writeInt(bytecode.length);
+            out.write(bytecode);
+            out.writeShort(0);
+            out.writeShort(1);
+
+            // LineNumberTable attribute of the Code attribute
+            out.writeShort(lineNumberTableIndex);
+            out.writeInt(lineNumberTableLength);
+            out.writeShort(lineNumbers.size());
+            for (int[] entry : lineNumbers) {
+                out.writeShort(entry[0]);
+                out.writeShort(entry[1]);
+            }
+        } catch (IOException e) {
+            throw new CompilationException("Method " + name + " cannot be written.");
+        }
+        this.methodCount++;
+    }
+
+    /**
+     * Writes the class file.
+     *
+     * @param access the access flags of the class
+     * @return the bytes of the class file
+     */
+    public byte[] toByteArray(int access) {
+        int sourceFileAttribute = this.utf8("SourceFile");
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        try {
+            out.writeInt(0xCAFEBABE);
+            out.writeShort(0);
+            out.writeShort(MAJOR_VERSION);
+            out.writeShort(this.nextPoolIndex);
+            this.pool.writeTo(out);
+            out.writeShort(access);
+            out.writeShort(this.thisClass);
+            out.writeShort(this.superClass);
+            out.writeShort(0);
+            out.writeShort(this.fieldCount);
+            this.fields.writeTo(out);
+            out.writeShort(this.methodCount);
+            this.methods.writeTo(out);
+
+            // SourceFile attribute
+            out.writeShort(1);
+            out.writeShort(sourceFileAttribute);
+            out.writeInt(2);
+            out.writeShort(this.sourceFile);
+        } catch (IOException e) {
+            throw new CompilationException("Class file cannot be written.");
+        }
+        return bytes.toByteArray();
+    }
+}
@@ -0,0 +1,292 @@
+/*
+ * File: CodeBuffer.java
+ * F18 CS361 Project 10
+ * Names: Liwei Jiang, Tracy Quan, Danqing Zhao, Chris Marcello
+ * Date: 12/07/2018
+ * This file contains the CodeBuffer class, collecting the bytecode of a single JVM method.
+ */
+
+package proj10JiangQuanZhaoMarcello.bantam.codegen;
+
+import proj10JiangQuanZhaoMarcello.bantam.util.CompilationException;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import static proj10JiangQuanZhaoMarcello.bantam.codegen.Opcodes.*;
+
+/**
+ * The CodeBuffer class collects the bytecode of a single method.
+ * It resolves the branch offsets of forward jumps once their labels are placed,
+ * keeps track of the operand stack depth to compute max_stack,
+ * and records the line number table.
+ *
+ * @author Liwei Jiang
+ * @author Tracy Quan
+ * @author Danqing Zhao
+ * @author Chris Marcello
+ */
+public class CodeBuffer {
+    /**
+     * the bytecode emitted so far
+     */
+    private ByteArrayOutputStream code;
+    /**
+     * the current operand stack depth
+     */
+    private int stack;
+    /**
+     * the maximum operand stack depth reached so far
+     */
+    private int maxStack;
+    /**
+     * the line number table as pairs of (start pc, line number)
+     */
+    private List<int[]> lineNumbers;
+
+    /**
+     * Constructor of the CodeBuffer class.
+     */
+    public CodeBuffer() {
+        this.code = new ByteArrayOutputStream();
+        this.lineNumbers = new ArrayList<>();
+    }
+
+    /**
+     * Gets the current code length, i.e. the pc of the next instruction.
+     *
+     * @return the current code length
+     */
+    public int getPosition() { return this.code.size(); }
+
+    /**
+     * Gets the maximum operand stack depth of the method.
+     *
+     * @return the maximum operand stack depth
+     */
+    public int getMaxStack() { return this.maxStack; }
+
+    /**
+     * Gets the bytecode emitted so far.
+     *
+     * @return the bytecode
+     */
+    public byte[] toByteArray() { return this.code.toByteArray(); }
+
+    /**
+     * Gets the line number table.
+     *
+     * @return a list of pairs of (start pc, line number)
+     */
+    public List<int[]> getLineNumbers() { return this.lineNumbers; }
+
+    /**
+     * Records that the following instructions come from the specified source line.
+     *
+     * @param line the source line number
+     */
+    public void markLine(int line) {
+        if (!this.lineNumbers.isEmpty()) {
+            int[] last = this.lineNumbers.get(this.lineNumbers.size() - 1);
+            if (last[1] == line) return;
+            if (last[0] == this.getPosition()) {
+                last[1] = line;
+                return;
+            }
+        }
+        this.lineNumbers.add(new int[] {this.getPosition(), line});
+    }
+
+    /**
+     * Helper method to update the stack depth after an instruction.
+     *
+     * @param delta the change of the stack depth
+     */
+    private void adjustStack(int delta) {
+        this.stack += delta;
+        if (this.stack > this.maxStack) {
+            this.maxStack = this.stack;
+        }
+    }
+
+    /**
+     * Helper method to write a 16-bit value.
+     *
+     * @param value the value to write
+     */
+    private void writeShort(int value) {
+        this.code.write((value >> 8) & 0xff);
+        this.code.write(value & 0xff);
+    }
+
+    /**
+     * Emits an instruction without operands.
+     *
+     * @param opcode the opcode
+     * @param stackDelta the change of the stack depth caused by the instruction
+     */
+    public void emit(int opcode, int stackDelta) {
+        this.code.write(opcode);
+        this.adjustStack(stackDelta);
+    }
+
+    /**
+     * Emits an instruction with a constant pool index operand,
+     * such as new, getfield or invokevirtual.
+     *
+     * @param opcode the opcode
+     * @param poolIndex the constant pool index
+     * @param stackDelta the change of the stack depth caused by the instruction
+     */
+    public void emitPoolRef(int opcode, int poolIndex, int stackDelta) {
+        if (opcode == LDC && poolIndex > 0xff) {
+            opcode = LDC_W;
+        }
+        this.code.write(opcode);
+        if (opcode == LDC) {
+            this.code.write(poolIndex);
+        } else {
+            this.writeShort(poolIndex);
+        }
+        this.adjustStack(stackDelta);
+    }
+
+    /**
+     * Emits the shortest instruction pushing the given int constant, or an ldc of the given pool index.
+     *
+     * @param value the int constant
+     * @param pool the constant pool, used for constants that do not fit in 16 bits
+     */
+    public void emitIntConstant(int value, ClassFileWriter pool) {
+        if (value >= -1 && value <= 5) {
+            this.emit(ICONST_0 + value, 1);
+        }
+        else if (value >= Byte.MIN_VALUE && value <= Byte.MAX_VALUE) {
+            this.code.write(BIPUSH);
+            this.code.write(value);
+            this.adjustStack(1);
+        }
+        else if (value >= Short.MIN_VALUE && value <= Short.MAX_VALUE) {
+            this.code.write(SIPUSH);
+            this.writeShort(value);
+            this.adjustStack(1);
+        }
+        else {
+            this.emitPoolRef(LDC, pool.intConstant(value), 1);
+        }
+    }
+
+    /**
+     * Emits a load or store of a local variable.
+     *
+     * @param opcode ILOAD, ALOAD, ISTORE or ASTORE
+     * @param slot the local variable slot
+     */
+    public void emitLocal(int opcode, int slot) {
+        if (slot > 0xff) {
+            throw new CompilationException("Too many local variables.");
+        }
+        this.code.write(opcode);
+        this.code.write(slot);
+        this.adjustStack(opcode == ILOAD || opcode == ALOAD ? 1 : -1);
+    }
+
+    /**
+     * Emits an increment of an int local variable.
+     *
+     * @param slot the local variable slot
+     * @param amount the increment, between -128 and 127
+     */
+    public void emitIinc(int slot, int amount) {
+        this.code.write(IINC);
+        this.code.write(slot);
+        this.code.write(amount);
+    }
+
+    /**
+     * Emits a newarray instruction for a primitive array.
+     *
+     * @param arrayType T_INT or T_BOOLEAN
+     */
+    public void emitNewArray(int arrayType) {
+        this.code.write(NEWARRAY);
+        this.code.write(arrayType);
+    }
+
+    /**
+     * Emits a branch to the specified label.
+     * Jumps to labels not placed yet are patched once the label is placed.
+     *
+     * @param opcode the branch opcode
+     * @param target the label to jump to
+     * @param stackDelta the change of the stack depth caused by the instruction
+     */
+    public void emitJump(int opcode, Label target, int stackDelta) {
+        int instructionPos = this.getPosition();
+        this.code.write(opcode);
+        this.adjustStack(stackDelta);
+        target.stack = this.stack;
+        if (target.position >= 0) {
+            this.writeShort(this.checkOffset(target.position - instructionPos));
+        }
+        else {
+            target.fixups.add(new int[] {instructionPos, this.getPosition()});
+            this.writeShort(0);
+        }
+    }
+
+    /**
+     * Places the label at the current position.
+     * Patches the jumps emitted to the label so far and
+     * restores the stack depth the jumps to the label arrive with.
+     *
+     * @param label the label to place
+     */
+    public void placeLabel(Label label) {
+        label.position = this.getPosition();
+        if (label.stack >= 0) {
+            this.stack = label.stack;
+        }
+        if (label.fixups.isEmpty()) return;
+
+        byte[] bytes = this.code.toByteArray();
+        for (int[] fixup : label.fixups) {
+            int offset = this.checkOffset(label.position - fixup[0]);
+            bytes[fixup[1]] = (byte) (offset >> 8);
+            bytes[fixup[1] + 1] = (byte) offset;
+        }
+        label.fixups.clear();
+        this.code.reset();
+        this.code.write(bytes, 0, bytes.length);
+    }
+
+    /**
+     * Helper method to make sure a branch offset fits in 16 bits.
+     *
+     * @param offset the branch offset
+     * @return the branch offset
+     */
+    private int checkOffset(int offset) {
+        if (offset < Short.MIN_VALUE || offset > Short.MAX_VALUE) {
+            throw new CompilationException("Method is too large, a branch exceeds 32KB.");
+        }
+        return offset;
+    }
+
+    /**
+     * A position in the bytecode that branches jump to.
+     */
+    public static class Label {
+        /**
+         * the pc of the label; -1 if not placed yet
+         */
+        private int position = -1;
+        /**
+         * the stack depth the jumps to this label arrive with; -1 if unknown
+         */
+        private int stack = -1;
+        /**
+         * the jumps to be patched once the label is placed, as pairs of (instruction pc, offset pc)
+         */
+        private List<int[]> fixups = new ArrayList<>();
+    }
+}
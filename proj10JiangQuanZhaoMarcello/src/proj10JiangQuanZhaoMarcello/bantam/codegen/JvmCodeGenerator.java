@@ -0,0 +1,1412 @@
+/*
+ * File: JvmCodeGenerator.java
+ * F18 CS361 Project 10
+ * Names: Liwei Jiang, Tracy Quan, Danqing Zhao, Chris Marcello
+ * Date: 12/07/2018
+ * This file contains the JvmCodeGenerator class, compiling the AST of a Bantam program to JVM classes.
+ */
+
+package proj10JiangQuanZhaoMarcello.bantam.codegen;
+
+import proj10JiangQuanZhaoMarcello.bantam.ast.*;
+import proj10JiangQuanZhaoMarcello.bantam.optimizer.Optimizer;
+import proj10JiangQuanZhaoMarcello.bantam.optimizer.StrengthReducer;
+import proj10JiangQuanZhaoMarcello.bantam.runtime.Sys;
+import proj10JiangQuanZhaoMarcello.bantam.util.*;
+import proj10JiangQuanZhaoMarcello.bantam.util.Error;
+import proj10JiangQuanZhaoMarcello.bantam.visitor.Visitor;
+import java.io.File;
+import java.lang.reflect.InvocationTargetException;
+import java.util.*;
+import static proj10JiangQuanZhaoMarcello.bantam.codegen.Opcodes.*;
+import static proj10JiangQuanZhaoMarcello.bantam.util.ClassTable.*;
+
+/**
+ * The JvmCodeGenerator class compiles the AST of a Bantam program to JVM classes.
+ * Each Bantam class becomes a JVM class in the default package, each field a field
+ * and each method a method; int and boolean values stay primitive.
+ * The built-in classes Object and String map to their java.lang counterparts,
+ * TextIO and Sys map to the classes of the bantam.runtime package.
+ * The generated classes are loaded by a BantamClassLoader, so that hot Bantam loops
+ * are compiled to native code by the JIT compiler of the JVM.
+ *
+ * Visiting an expression emits the code pushing its value and returns its type.
+ *
+ * @author Liwei Jiang
+ * @author Tracy Quan
+ * @author Danqing Zhao
+ * @author Chris Marcello
+ */
+public class JvmCodeGenerator extends Visitor {
+    /**
+     * the internal name prefix of the classes implementing the built-in TextIO and Sys classes
+     */
+    private static final String RUNTIME_PACKAGE = "proj10JiangQuanZhaoMarcello/bantam/runtime/";
+
+    /**
+     * an error handler storing the Errors in a list
+     */
+    private ErrorHandler errorHandler;
+    /**
+     * the class table of the program being compiled
+     */
+    private ClassTable classTable;
+    /**
+     * a map from the names of the generated classes to their class files
+     */
+    private Map<String, byte[]> classFiles;
+    /**
+     * the name of the file the current class is declared in
+     */
+    private String filename;
+    /**
+     * the entry of the class being compiled
+     */
+    private ClassTable.ClassEntry currentClass;
+    /**
+     * the writer of the class file being generated
+     */
+    private ClassFileWriter classFile;
+    /**
+     * the bytecode of the method being generated
+     */
+    private CodeBuffer code;
+    /**
+     * the return type of the method being generated
+     */
+    private String returnType;
+    /**
+     * the scopes of the local variables, innermost first
+     */
+    private Deque<Map<String, LocalVariable>> scopes;
+    /**
+     * the next free local variable slot
+     */
+    private int nextSlot;
+    /**
+     * the number of local variable slots used by the method being generated
+     */
+    private int maxLocals;
+    /**
+     * the labels the break statements of the enclosing loops jump to, innermost first
+     */
+    private Deque<CodeBuffer.Label> breakLabels;
+
+    /**
+     * Constructor of the JvmCodeGenerator class.
+     *
+     * @param errorHandler the ErrorHandler object that stores a list of errors
+     */
+    public JvmCodeGenerator(ErrorHandler errorHandler) { this.errorHandler = errorHandler; }
+
+    /**
+     * Compiles the given program.
+     * Records a PassEvent for the code generation.
+     *
+     * @param program the root of the AST
+     * @return a map from the names of the generated classes to their class files
+     */
+    public Map<String, byte[]> generate(Program program) {
+        Map<String, byte[]> generated = null;
+        PassEvent event = new PassEvent();
+        event.begin();
+        try {
+            this.classFiles = new LinkedHashMap<>();
+            this.classTable = new ClassTable(program, this.errorHandler);
+            if (this.errorHandler.errorsFound()) {
+                throw new CompilationException("The class hierarchy of the program is illegal.");
+            }
+            ClassTable.MethodEntry main = this.classTable.getClass("Main") == null ? null
+                    : this.classTable.getClass("Main").getMethods().get("main");
+            if (main == null || !main.getParamTypes().isEmpty()) {
+                String message = "The program has no class Main with a main method without parameters.";
+                this.errorHandler.register(Error.Kind.CODEGEN_ERROR, message);
+                throw new CompilationException(message);
+            }
+            program.accept(this);
+            generated = this.classFiles;
+            return generated;
+        } finally {
+            event.complete("codegen", program, () -> NodeCounter.countNodes(program),
+                    CompilerEvent.outcome(generated != null, this.errorHandler));
+        }
+    }
+
+    /**
+     * Loads the classes of a compiled program and runs its main method.
+     *
+     * @param classFiles a map from the names of the generated classes to their class files
+     * @return the exit status of the program
+     * @throws ReflectiveOperationException if the classes cannot be loaded or the program throws an exception
+     */
+    public static int run(Map<String, byte[]> classFiles) throws ReflectiveOperationException {
+        Class<?> mainClass = new BantamClassLoader(classFiles).loadClass("Main");
+        Object main = mainClass.getConstructor().newInstance();
+        try {
+            mainClass.getMethod("main").invoke(main);
+        } catch (InvocationTargetException e) {
+            if (e.getCause() instanceof Sys.ExitException) {
+                return ((Sys.ExitException) e.getCause()).getStatus();
+            }
+            throw e;
+        }
+        return 0;
+    }
+
+    /**
+     * Helper method to register a code generation error and throw a CompilationException.
+     *
+     * @param lineNum the line number of the error
+     * @param message the error message
+     */
+    private void registerError(int lineNum, String message) {
+        this.errorHandler.register(Error.Kind.CODEGEN_ERROR, this.filename, lineNum, message);
+        throw new CompilationException(message);
+    }
+
+    // ---------------------------------------- Types ----------------------------------------
+
+    /**
+     * Helper method to get the internal name of the JVM class a Bantam class compiles to.
+     *
+     * @param className the name of the Bantam class
+     * @return the internal name of the JVM class
+     */
+    private static String internalName(String className) {
+        switch (className) {
+            case "Object":
+                return "java/lang/Object";
+            case "String":
+                return "java/lang/String";
+            case "TextIO":
+            case "Sys":
+                return RUNTIME_PACKAGE + className;
+            default:
+                return className;
+        }
+    }
+
+    /**
+     * Helper method to get the JVM descriptor of a Bantam type.
+     *
+     * @param type the Bantam type
+     * @return the JVM descriptor
+     */
+    private static String descriptor(String type) {
+        switch (type) {
+            case "void":
+                return "V";
+            case "int":
+                return "I";
+            case "boolean":
+                return "Z";
+            default:
+                return isArray(type) ? "[" + descriptor(elementType(type)) : "L" + internalName(type) + ";";
+        }
+    }
+
+    /**
+     * Helper method to get the JVM descriptor of a method.
+     *
+     * @param method the method entry
+     * @return the JVM method descriptor
+     */
+    private static String descriptor(ClassTable.MethodEntry method) {
+        StringBuilder builder = new StringBuilder("(");
+        for (String paramType : method.getParamTypes()) {
+            builder.append(descriptor(paramType));
+        }
+        return builder.append(")").append(descriptor(method.getReturnType())).toString();
+    }
+
+    /**
+     * Helper method to get the name used by the class constants of checkcast, instanceof and anewarray.
+     *
+     * @param type the Bantam reference type
+     * @return the internal name of a class type, or the descriptor of an array type
+     */
+    private static String classConstantName(String type) {
+        return isArray(type) ? descriptor(type) : internalName(type);
+    }
+
+    /**
+     * Helper method to make sure a type exists.
+     *
+     * @param type the Bantam type
+     * @param lineNum the line number the type is used at
+     */
+    private void checkType(String type, int lineNum) {
+        if (!this.classTable.isDefinedType(type)) {
+            this.registerError(lineNum, "Type " + type + " is undefined.");
+        }
+    }
+
+    /**
+     * Helper method to register an error if a value of a type cannot be assigned to a variable of another type.
+     *
+     * @param from the type of the value
+     * @param to the type of the variable
+     * @param lineNum the line number of the assignment
+     */
+    private void checkAssignable(String from, String to, int lineNum) {
+        if (!this.classTable.isAssignable(from, to)) {
+            this.registerError(lineNum, "A value of type " + from + " cannot be assigned to type " + to + ".");
+        }
+    }
+
+    /**
+     * Helper method to visit an expression, making sure it has the expected type.
+     *
+     * @param expr the expression
+     * @param expected the expected type
+     */
+    private void generate(Expr expr, String expected) {
+        String type = this.generate(expr);
+        if (!type.equals(expected)) {
+            this.registerError(expr.getLineNum(), "Expected an expression of type " + expected
+                    + " but found type " + type + ".");
+        }
+    }
+
+    /**
+     * Helper method to visit an expression.
+     *
+     * @param expr the expression
+     * @return the type of the expression
+     */
+    private String generate(Expr expr) { return (String) expr.accept(this); }
+
+    // ---------------------------------------- Classes and members ----------------------------------------
+
+    /**
+     * Visits a class node, generating its class file.
+     *
+     * @param node the class node
+     * @return null
+     */
+    @Override
+    public Object visit(Class_ node) {
+        this.filename = node.getFilename();
+        this.currentClass = this.classTable.getClass(node.getName());
+        if (ClassTable.BUILTIN_CLASSES.contains(node.getName())) {
+            this.registerError(node.getLineNum(), "Class " + node.getName() + " redefines a built-in class.");
+        }
+        String superName = internalName(this.currentClass.getParent());
+        this.classFile = new ClassFileWriter(node.getName(), superName, new File(this.filename).getName());
+
+        for (Map.Entry<String, String> field : this.currentClass.getFields().entrySet()) {
+            this.checkType(field.getValue(), node.getLineNum());
+            this.classFile.addField(ACC_PUBLIC, field.getKey(), descriptor(field.getValue()));
+        }
+        this.generateConstructor(node, superName);
+        node.getMemberList().accept(this);
+
+        this.classFiles.put(node.getName(), this.classFile.toByteArray(ACC_PUBLIC | ACC_SUPER));
+        return null;
+    }
+
+    /**
+     * Helper method to reset the state kept per method.
+     *
+     * @param returnType the return type of the method
+     */
+    private void beginMethod(String returnType) {
+        this.code = new CodeBuffer();
+        this.returnType = returnType;
+        this.scopes = new ArrayDeque<>();
+        this.breakLabels = new ArrayDeque<>();
+        this.nextSlot = 1;
+        this.maxLocals = 1;
+    }
+
+    /**
+     * Helper method to generate the constructor of a class.
+     * The constructor calls the constructor of the super class and evaluates the field initializers.
+     *
+     * @param node the class node
+     * @param superName the internal name of the super class
+     */
+    private void generateConstructor(Class_ node, String superName) {
+        this.beginMethod("void");
+        this.code.markLine(node.getLineNum());
+        this.code.emitLocal(ALOAD, 0);
+        this.code.emitPoolRef(INVOKESPECIAL, this.classFile.methodRef(superName, "<init>", "()V"), -1);
+
+        for (ASTNode member : node.getMemberList()) {
+            if (member instanceof Field && ((Field) member).getInit() != null) {
+                Field field = (Field) member;
+                this.code.markLine(field.getLineNum());
+                this.code.emitLocal(ALOAD, 0);
+                this.checkAssignable(this.generate(field.getInit()), field.getType(), field.getLineNum());
+                this.code.emitPoolRef(PUTFIELD, this.classFile.fieldRef(node.getName(), field.getName(),
+                        descriptor(field.getType())), -2);
+            }
+        }
+        this.code.emit(RETURN, 0);
+        this.classFile.addMethod(ACC_PUBLIC, "<init>", "()V", this.code, this.maxLocals);
+    }
+
+    /**
+     * Visits a field node; fields are generated by the class and its constructor.
+     *
+     * @param node the field node
+     * @return null
+     */
+    @Override
+    public Object visit(Field node) { return null; }
+
+    /**
+     * Visits a method node, generating the method.
+     * A method whose end is reachable returns the default value of its return type.
+     *
+     * @param node the method node
+     * @return null
+     */
+    @Override
+    public Object visit(Method node) {
+        this.beginMethod(node.getReturnType());
+        if (!node.getReturnType().equals("void")) {
+            this.checkType(node.getReturnType(), node.getLineNum());
+        }
+        this.scopes.push(new HashMap<>());
+        for (ASTNode formalNode : node.getFormalList()) {
+            Formal formal = (Formal) formalNode;
+            this.checkType(formal.getType(), formal.getLineNum());
+            this.declareLocal(formal.getName(), formal.getType(), formal.getLineNum());
+        }
+        node.getStmtList().accept(this);
+        this.scopes.pop();
+
+        if (this.returnType.equals("void")) {
+            this.code.emit(RETURN, 0);
+        }
+        else {
+            this.code.emit(isPrimitive(this.returnType) ? ICONST_0 : ACONST_NULL, 1);
+            this.code.emit(isPrimitive(this.returnType) ? IRETURN : ARETURN, -1);
+        }
+        ClassTable.MethodEntry method = this.currentClass.getMethods().get(node.getName());
+        this.classFile.addMethod(ACC_PUBLIC, node.getName(), descriptor(method), this.code, this.maxLocals);
+        return null;
+    }
+
+    // ---------------------------------------- Local variables ----------------------------------------
+
+    /**
+     * Helper method to declare a local variable in the innermost scope.
+     *
+     * @param name the name of the variable
+     * @param type the type of the variable
+     * @param lineNum the line number of the declaration
+     * @return the local variable
+     */
+    private LocalVariable declareLocal(String name, String type, int lineNum) {
+        if (this.lookupLocal(name) != null) {
+            this.registerError(lineNum, "Variable " + name + " is already defined.");
+        }
+        if (this.nextSlot > 0xff) {
+            this.registerError(lineNum, "Method has too many local variables.");
+        }
+        LocalVariable local = new LocalVariable(this.nextSlot++, type);
+        this.maxLocals = Math.max(this.maxLocals, this.nextSlot);
+        this.scopes.peek().put(name, local);
+        return local;
+    }
+
+    /**
+     * Helper method to find a local variable, searching the innermost scope first.
+     *
+     * @param name the name of the variable
+     * @return the local variable; null if there is no such local variable
+     */
+    private LocalVariable lookupLocal(String name) {
+        for (Map<String, LocalVariable> scope : this.scopes) {
+            LocalVariable local = scope.get(name);
+            if (local != null) {
+                return local;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Helper method to visit a statement in a new scope.
+     * The slots of the variables declared in the scope are reused after it.
+     *
+     * @param stmt the statement
+     */
+    private void generateScoped(Stmt stmt) {
+        this.scopes.push(new HashMap<>());
+        stmt.accept(this);
+        this.nextSlot -= this.scopes.pop().size();
+    }
+
+    /**
+     * Helper method to resolve the variable referred to by a name.
+     * Without a reference object the name is looked up among the local variables first, then the fields;
+     * with this or super as the reference object the name is looked up among the fields.
+     * For a field, the code pushing this is emitted.
+     *
+     * @param refName the name of the reference object; null if there is none
+     * @param name the name of the variable
+     * @param lineNum the line number of the reference
+     * @return the variable
+     */
+    private Variable resolveVariable(String refName, String name, int lineNum) {
+        String className;
+        if (refName == null) {
+            LocalVariable local = this.lookupLocal(name);
+            if (local != null) {
+                return new Variable(local);
+            }
+            className = this.currentClass.getName();
+        }
+        else if (refName.equals("this")) {
+            className = this.currentClass.getName();
+        }
+        else if (refName.equals("super")) {
+            className = this.currentClass.getParent();
+        }
+        else {
+            this.registerError(lineNum, "Illegal reference to variable " + name + ".");
+            return null;
+        }
+        ClassTable.ClassEntry owner = this.classTable.lookupFieldOwner(className, name);
+        if (owner == null) {
+            this.registerError(lineNum, "Variable " + name + " is undefined.");
+        }
+        this.code.emitLocal(ALOAD, 0);
+        return new Variable(owner.getName(), name, owner.getFields().get(name));
+    }
+
+    /**
+     * Helper method to get the name of the reference object of a variable expression.
+     *
+     * @param ref the reference expression
+     * @return this or super; null if there is no reference expression or it is not this or super
+     */
+    private static String getRefName(Expr ref) {
+        if (ref instanceof VarExpr && ((VarExpr) ref).getRef() == null) {
+            String name = ((VarExpr) ref).getName();
+            if (name.equals("this") || name.equals("super")) {
+                return name;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Helper method to emit the load of a variable; for a field, this must be on the stack.
+     *
+     * @param variable the variable
+     */
+    private void emitLoad(Variable variable) {
+        if (variable.local != null) {
+            this.code.emitLocal(isPrimitive(variable.type) ? ILOAD : ALOAD, variable.local.slot);
+        }
+        else {
+            this.code.emitPoolRef(GETFIELD, this.classFile.fieldRef(internalName(variable.owner),
+                    variable.name, descriptor(variable.type)), 0);
+        }
+    }
+
+    /**
+     * Helper method to emit the store of a variable; for a field, this must be below the value on the stack.
+     *
+     * @param variable the variable
+     */
+    private void emitStore(Variable variable) {
+        if (variable.local != null) {
+            this.code.emitLocal(isPrimitive(variable.type) ? ISTORE : ASTORE, variable.local.slot);
+        }
+        else {
+            this.code.emitPoolRef(PUTFIELD, this.classFile.fieldRef(internalName(variable.owner),
+                    variable.name, descriptor(variable.type)), -2);
+        }
+    }
+
+    // ---------------------------------------- Statements ----------------------------------------
+
+    /**
+     * Visits a declaration statement node.
+     * The type of the variable is the type of its initial value; Object if the initial value is null.
+     *
+     * @param node the declaration statement node
+     * @return null
+     */
+    @Override
+    public Object visit(DeclStmt node) {
+        this.code.markLine(node.getLineNum());
+        String type = this.generate(node.getInit());
+        if (type.equals("void")) {
+            this.registerError(node.getLineNum(), "Variable " + node.getName() + " cannot be void.");
+        }
+        LocalVariable local = this.declareLocal(node.getName(), type.equals("null") ? "Object" : type,
+                node.getLineNum());
+        this.code.emitLocal(isPrimitive(type) ? ISTORE : ASTORE, local.slot);
+        return null;
+    }
+
+    /**
+     * Visits an expression statement node, discarding the value of the expression.
+     *
+     * @param node the expression statement node
+     * @return null
+     */
+    @Override
+    public Object visit(ExprStmt node) {
+        this.code.markLine(node.getLineNum());
+        if (!this.generate(node.getExpr()).equals("void")) {
+            this.code.emit(POP, -1);
+        }
+        return null;
+    }
+
+    /**
+     * Visits an if statement node.
+     *
+     * @param node the if statement node
+     * @return null
+     */
+    @Override
+    public Object visit(IfStmt node) {
+        this.code.markLine(node.getLineNum());
+        CodeBuffer.Label elseLabel = new CodeBuffer.Label();
+        this.generateJump(node.getPredExpr(), elseLabel, false);
+        this.generateScoped(node.getThenStmt());
+        if (node.getElseStmt() != null) {
+            CodeBuffer.Label endLabel = new CodeBuffer.Label();
+            this.code.emitJump(GOTO, endLabel, 0);
+            this.code.placeLabel(elseLabel);
+            this.generateScoped(node.getElseStmt());
+            this.code.placeLabel(endLabel);
+        }
+        else {
+            this.code.placeLabel(elseLabel);
+        }
+        return null;
+    }
+
+    /**
+     * Visits a while statement node.
+     *
+     * @param node the while statement node
+     * @return null
+     */
+    @Override
+    public Object visit(WhileStmt node) {
+        this.code.markLine(node.getLineNum());
+        CodeBuffer.Label startLabel = new CodeBuffer.Label();
+        CodeBuffer.Label endLabel = new CodeBuffer.Label();
+        this.code.placeLabel(startLabel);
+        this.generateJump(node.getPredExpr(), endLabel, false);
+        this.breakLabels.push(endLabel);
+        this.generateScoped(node.getBodyStmt());
+        this.breakLabels.pop();
+        this.code.emitJump(GOTO, startLabel, 0);
+        this.code.placeLabel(endLabel);
+        return null;
+    }
+
+    /**
+     * Visits a for statement node.
+     *
+     * @param node the for statement node
+     * @return null
+     */
+    @Override
+    public Object visit(ForStmt node) {
+        this.code.markLine(node.getLineNum());
+        if (node.getInitExpr() != null && !this.generate(node.getInitExpr()).equals("void")) {
+            this.code.emit(POP, -1);
+        }
+        CodeBuffer.Label startLabel = new CodeBuffer.Label();
+        CodeBuffer.Label endLabel = new CodeBuffer.Label();
+        this.code.placeLabel(startLabel);
+        if (node.getPredExpr() != null) {
+            this.generateJump(node.getPredExpr(), endLabel, false);
+        }
+        this.breakLabels.push(endLabel);
+        this.generateScoped(node.getBodyStmt());
+        this.breakLabels.pop();
+        if (node.getUpdateExpr() != null && !this.generate(node.getUpdateExpr()).equals("void")) {
+            this.code.emit(POP, -1);
+        }
+        this.code.emitJump(GOTO, startLabel, 0);
+        this.code.placeLabel(endLabel);
+        return null;
+    }
+
+    /**
+     * Visits a break statement node.
+     *
+     * @param node the break statement node
+     * @return null
+     */
+    @Override
+    public Object visit(BreakStmt node) {
+        this.code.markLine(node.getLineNum());
+        if (this.breakLabels.isEmpty()) {
+            this.registerError(node.getLineNum(), "Break statement is not in a loop.");
+        }
+        this.code.emitJump(GOTO, this.breakLabels.peek(), 0);
+        return null;
+    }
+
+    /**
+     * Visits a block statement node.
+     *
+     * @param node the block statement node
+     * @return null
+     */
+    @Override
+    public Object visit(BlockStmt node) {
+        this.scopes.push(new HashMap<>());
+        node.getStmtList().accept(this);
+        this.nextSlot -= this.scopes.pop().size();
+        return null;
+    }
+
+    /**
+     * Visits a return statement node.
+     *
+     * @param node the return statement node
+     * @return null
+     */
+    @Override
+    public Object visit(ReturnStmt node) {
+        this.code.markLine(node.getLineNum());
+        if (node.getExpr() == null) {
+            if (!this.returnType.equals("void")) {
+                this.registerError(node.getLineNum(), "Missing return value of type " + this.returnType + ".");
+            }
+            this.code.emit(RETURN, 0);
+        }
+        else {
+            if (this.returnType.equals("void")) {
+                this.registerError(node.getLineNum(), "A void method cannot return a value.");
+            }
+            this.checkAssignable(this.generate(node.getExpr()), this.returnType, node.getLineNum());
+            this.code.emit(isPrimitive(this.returnType) ? IRETURN : ARETURN, -1);
+        }
+        return null;
+    }
+
+    // ---------------------------------------- Conditions ----------------------------------------
+
+    /**
+     * Helper method to emit the code jumping to a label if a boolean expression has the given value.
+     * The operators &&, || and ! are compiled to jumps, so that they short-circuit
+     * without computing intermediate boolean values.
+     *
+     * @param expr the boolean expression
+     * @param target the label to jump to
+     * @param jumpIf the value of the expression for which the jump is taken
+     */
+    private void generateJump(Expr expr, CodeBuffer.Label target, boolean jumpIf) {
+        if (expr instanceof BinaryLogicAndExpr || expr instanceof BinaryLogicOrExpr) {
+            BinaryExpr binaryExpr = (BinaryExpr) expr;
+            // && jumps as soon as the left operand is false, || as soon as it is true
+            boolean shortCircuit = expr instanceof BinaryLogicOrExpr;
+            if (jumpIf == shortCircuit) {
+                this.generateJump(binaryExpr.getLeftExpr(), target, jumpIf);
+                this.generateJump(binaryExpr.getRightExpr(), target, jumpIf);
+            }
+            else {
+                CodeBuffer.Label skipLabel = new CodeBuffer.Label();
+                this.generateJump(binaryExpr.getLeftExpr(), skipLabel, shortCircuit);
+                this.generateJump(binaryExpr.getRightExpr(), target, jumpIf);
+                this.code.placeLabel(skipLabel);
+            }
+        }
+        else if (expr instanceof UnaryNotExpr) {
+            this.generateJump(((UnaryNotExpr) expr).getExpr(), target, !jumpIf);
+        }
+        else if (expr instanceof ConstBooleanExpr) {
+            if (Boolean.parseBoolean(((ConstBooleanExpr) expr).getConstant()) == jumpIf) {
+                this.code.emitJump(GOTO, target, 0);
+            }
+        }
+        else if (expr instanceof BinaryCompExpr) {
+            int opcode = this.generateComparison((BinaryCompExpr) expr);
+            this.code.emitJump(jumpIf ? opcode : negate(opcode), target, -2);
+        }
+        else {
+            this.generate(expr, "boolean");
+            this.code.emitJump(jumpIf ? IFNE : IFEQ, target, -1);
+        }
+    }
+
+    /**
+     * Helper method to emit the operands of a comparison.
+     *
+     * @param node the comparison node
+     * @return the opcode of the branch taken if the comparison is true
+     */
+    private int generateComparison(BinaryCompExpr node) {
+        String leftType = this.generate(node.getLeftExpr());
+        String rightType = this.generate(node.getRightExpr());
+        boolean equality = node instanceof BinaryCompEqExpr || node instanceof BinaryCompNeExpr;
+
+        if (equality && !isPrimitive(leftType) && !isPrimitive(rightType)) {
+            if (!this.classTable.isAssignable(leftType, rightType)
+                    && !this.classTable.isAssignable(rightType, leftType)) {
+                this.registerError(node.getLineNum(), "Types " + leftType + " and " + rightType
+                        + " cannot be compared.");
+            }
+            return node instanceof BinaryCompEqExpr ? IF_ACMPEQ : IF_ACMPNE;
+        }
+        if (!leftType.equals(rightType) || !(equality ? isPrimitive(leftType) : leftType.equals("int"))) {
+            this.registerError(node.getLineNum(), "Types " + leftType + " and " + rightType
+                    + " cannot be compared with " + node.getOpName() + ".");
+        }
+        if (node instanceof BinaryCompEqExpr) return IF_ICMPEQ;
+        if (node instanceof BinaryCompNeExpr) return IF_ICMPNE;
+        if (node instanceof BinaryCompLtExpr) return IF_ICMPLT;
+        if (node instanceof BinaryCompLeqExpr) return IF_ICMPLE;
+        if (node instanceof BinaryCompGtExpr) return IF_ICMPGT;
+        return IF_ICMPGE;
+    }
+
+    /**
+     * Helper method to get the branch opcode with the opposite condition.
+     *
+     * @param opcode the branch opcode
+     * @return the opcode of the branch taken exactly when the given branch is not
+     */
+    private static int negate(int opcode) {
+        switch (opcode) {
+            case IF_ICMPEQ: return IF_ICMPNE;
+            case IF_ICMPNE: return IF_ICMPEQ;
+            case IF_ICMPLT: return IF_ICMPGE;
+            case IF_ICMPGE: return IF_ICMPLT;
+            case IF_ICMPGT: return IF_ICMPLE;
+            case IF_ICMPLE: return IF_ICMPGT;
+            case IF_ACMPEQ: return IF_ACMPNE;
+            default: return IF_ACMPEQ;
+        }
+    }
+
+    /**
+     * Helper method to emit the code pushing the value of a boolean expression made of jumps.
+     *
+     * @param expr the boolean expression
+     * @return boolean
+     */
+    private String generateCondition(Expr expr) {
+        CodeBuffer.Label falseLabel = new CodeBuffer.Label();
+        CodeBuffer.Label endLabel = new CodeBuffer.Label();
+        this.generateJump(expr, falseLabel, false);
+        this.code.emit(ICONST_1, 1);
+        this.code.emitJump(GOTO, endLabel, 0);
+        this.code.placeLabel(falseLabel);
+        this.code.emit(ICONST_0, 1);
+        this.code.placeLabel(endLabel);
+        return "boolean";
+    }
+
+    // ---------------------------------------- Expressions ----------------------------------------
+
+    /**
+     * Visits a dispatch expression node.
+     * A dispatch on super is compiled to invokespecial, any other dispatch to invokevirtual.
+     *
+     * @param node the dispatch expression node
+     * @return the return type of the method
+     */
+    @Override
+    public Object visit(DispatchExpr node) {
+        String refType;
+        if (node.getRefExpr() == null) {
+            this.code.emitLocal(ALOAD, 0);
+            refType = this.currentClass.getName();
+        }
+        else {
+            refType = this.generate(node.getRefExpr());
+        }
+        if (isPrimitive(refType) || isArray(refType) || refType.equals("null") || refType.equals("void")) {
+            this.registerError(node.getLineNum(), "Cannot call method " + node.getMethodName()
+                    + " on a value of type " + refType + ".");
+        }
+        ClassTable.MethodEntry method = this.classTable.lookupMethod(refType, node.getMethodName());
+        if (method == null) {
+            this.registerError(node.getLineNum(), "Method " + node.getMethodName()
+                    + " is undefined in class " + refType + ".");
+        }
+        List<String> paramTypes = method.getParamTypes();
+        if (paramTypes.size() != node.getActualList().getSize()) {
+            this.registerError(node.getLineNum(), "Method " + node.getMethodName() + " expects "
+                    + paramTypes.size() + " arguments but is given " + node.getActualList().getSize() + ".");
+        }
+        for (int i = 0; i < paramTypes.size(); i++) {
+            Expr actual = (Expr) node.getActualList().get(i);
+            this.checkAssignable(this.generate(actual), paramTypes.get(i), actual.getLineNum());
+        }
+
+        int opcode = "super".equals(getRefName(node.getRefExpr())) ? INVOKESPECIAL : INVOKEVIRTUAL;
+        int stackDelta = -1 - paramTypes.size() + (method.getReturnType().equals("void") ? 0 : 1);
+        this.code.emitPoolRef(opcode, this.classFile.methodRef(internalName(method.getOwner().getName()),
+                method.getName(), descriptor(method)), stackDelta);
+        return method.getReturnType();
+    }
+
+    /**
+     * Visits a new expression node.
+     *
+     * @param node the new expression node
+     * @return the type of the new object
+     */
+    @Override
+    public Object visit(NewExpr node) {
+        this.checkType(node.getType(), node.getLineNum());
+        if (isPrimitive(node.getType())) {
+            this.registerError(node.getLineNum(), "Cannot create an object of type " + node.getType() + ".");
+        }
+        String className = internalName(node.getType());
+        this.code.emitPoolRef(NEW, this.classFile.classRef(className), 1);
+        this.code.emit(DUP, 1);
+        this.code.emitPoolRef(INVOKESPECIAL, this.classFile.methodRef(className, "<init>", "()V"), -1);
+        return node.getType();
+    }
+
+    /**
+     * Visits a new array expression node.
+     *
+     * @param node the new array expression node
+     * @return the type of the new array
+     */
+    @Override
+    public Object visit(NewArrayExpr node) {
+        String type = node.getType();
+        this.checkType(type, node.getLineNum());
+        if (isArray(type)) {
+            this.registerError(node.getLineNum(), "Arrays of arrays are not supported.");
+        }
+        this.generate(node.getSize(), "int");
+        if (isPrimitive(type)) {
+            this.code.emitNewArray(type.equals("int") ? T_INT : T_BOOLEAN);
+        }
+        else {
+            this.code.emitPoolRef(ANEWARRAY, this.classFile.classRef(classConstantName(type)), 0);
+        }
+        return type + "[]";
+    }
+
+    /**
+     * Visits an instanceof expression node.
+     *
+     * @param node the instanceof expression node
+     * @return boolean
+     */
+    @Override
+    public Object visit(InstanceofExpr node) {
+        String type = this.generate(node.getExpr());
+        this.checkType(node.getType(), node.getLineNum());
+        if (isPrimitive(type) || isPrimitive(node.getType())) {
+            this.registerError(node.getLineNum(), "The operands of instanceof must be objects.");
+        }
+        this.code.emitPoolRef(INSTANCEOF, this.classFile.classRef(classConstantName(node.getType())), 0);
+        return "boolean";
+    }
+
+    /**
+     * Visits a cast expression node. Only downcasts are checked at run time.
+     *
+     * @param node the cast expression node
+     * @return the type cast to
+     */
+    @Override
+    public Object visit(CastExpr node) {
+        String type = this.generate(node.getExpr());
+        this.checkType(node.getType(), node.getLineNum());
+        if (this.classTable.isAssignable(type, node.getType())) {
+            return node.getType();
+        }
+        if (isPrimitive(type) || !this.classTable.isAssignable(node.getType(), type)) {
+            this.registerError(node.getLineNum(), "Cannot cast type " + type + " to type " + node.getType() + ".");
+        }
+        this.code.emitPoolRef(CHECKCAST, this.classFile.classRef(classConstantName(node.getType())), 0);
+        return node.getType();
+    }
+
+    /**
+     * Visits an assignment expression node.
+     *
+     * @param node the assignment expression node
+     * @return the type of the variable
+     */
+    @Override
+    public Object visit(AssignExpr node) {
+        Variable variable = this.resolveVariable(node.getRefName(), node.getName(), node.getLineNum());
+        this.checkAssignable(this.generate(node.getExpr()), variable.type, node.getLineNum());
+        this.code.emit(variable.local != null ? DUP : DUP_X1, 1);
+        this.emitStore(variable);
+        return variable.type;
+    }
+
+    /**
+     * Visits an array assignment expression node.
+     *
+     * @param node the array assignment expression node
+     * @return the element type of the array
+     */
+    @Override
+    public Object visit(ArrayAssignExpr node) {
+        String elementType = this.generateArrayElement(node.getRefName(), node.getName(),
+                node.getIndex(), node.getLineNum());
+        this.checkAssignable(this.generate(node.getExpr()), elementType, node.getLineNum());
+        this.code.emit(DUP_X2, 1);
+        this.code.emit(arrayOpcode(elementType, IASTORE, BASTORE, AASTORE), -3);
+        return elementType;
+    }
+
+    /**
+     * Helper method to emit the code pushing an array variable and an index.
+     *
+     * @param refName the name of the reference object of the array variable; null if there is none
+     * @param name the name of the array variable
+     * @param index the index expression
+     * @param lineNum the line number of the array access
+     * @return the element type of the array
+     */
+    private String generateArrayElement(String refName, String name, Expr index, int lineNum) {
+        Variable variable = this.resolveVariable(refName, name, lineNum);
+        this.emitLoad(variable);
+        if (!isArray(variable.type)) {
+            this.registerError(lineNum, "Variable " + name + " is not an array.");
+        }
+        this.generate(index, "int");
+        return elementType(variable.type);
+    }
+
+    /**
+     * Helper method to choose the array load or store opcode for an element type.
+     *
+     * @param elementType the element type of the array
+     * @param intOpcode the opcode for int arrays
+     * @param booleanOpcode the opcode for boolean arrays
+     * @param referenceOpcode the opcode for arrays of objects
+     * @return the opcode
+     */
+    private static int arrayOpcode(String elementType, int intOpcode, int booleanOpcode, int referenceOpcode) {
+        if (elementType.equals("int")) return intOpcode;
+        if (elementType.equals("boolean")) return booleanOpcode;
+        return referenceOpcode;
+    }
+
+    /**
+     * Helper method to visit a binary arithmetic expression node.
+     * A multiplication, division or modulus by a constant power of two is lowered to shifts and masks.
+     *
+     * @param node the binary arithmetic expression node
+     * @param opcode the opcode of the operation
+     * @return int
+     */
+    private String generateArithmetic(BinaryArithExpr node, int opcode) {
+        if (opcode == IMUL || opcode == IDIV || opcode == IREM) {
+            int exponent = StrengthReducer.getPowerOfTwoExponent(node.getRightExpr());
+            if (exponent >= 0) {
+                this.generate(node.getLeftExpr(), "int");
+                this.generatePowerOfTwoArithmetic(opcode, exponent);
+                return "int";
+            }
+            exponent = StrengthReducer.getPowerOfTwoExponent(node.getLeftExpr());
+            if (opcode == IMUL && exponent >= 0) {
+                this.generate(node.getRightExpr(), "int");
+                this.generatePowerOfTwoArithmetic(opcode, exponent);
+                return "int";
+            }
+        }
+        this.generate(node.getLeftExpr(), "int");
+        this.generate(node.getRightExpr(), "int");
+        this.code.emit(opcode, -1);
+        return "int";
+    }
+
+    /**
+     * Helper method to emit the multiplication, division or modulus of the int on the stack
+     * by a power of two. The division rounds toward zero as idiv does, by adding 2^exponent - 1
+     * to a negative dividend before the arithmetic shift, and the modulus keeps the sign of the dividend.
+     *
+     * @param opcode the opcode of the operation replaced: imul, idiv or irem
+     * @param exponent the exponent of the power of two, from 0 to 30
+     */
+    private void generatePowerOfTwoArithmetic(int opcode, int exponent) {
+        if (opcode == IMUL) {
+            if (exponent > 0) {
+                this.code.emitIntConstant(exponent, this.classFile);
+                this.code.emit(ISHL, -1);
+            }
+            return;
+        }
+        if (exponent == 0) {
+            if (opcode == IREM) {
+                this.code.emit(POP, -1);
+                this.code.emit(ICONST_0, 1);
+            }
+            return;
+        }
+        if (opcode == IREM) {
+            this.code.emit(DUP, 1);
+        }
+        // x + (x < 0 ? 2^exponent - 1 : 0)
+        this.code.emit(DUP, 1);
+        this.code.emitIntConstant(31, this.classFile);
+        this.code.emit(ISHR, -1);
+        this.code.emitIntConstant(32 - exponent, this.classFile);
+        this.code.emit(IUSHR, -1);
+        this.code.emit(IADD, -1);
+        if (opcode == IDIV) {
+            this.code.emitIntConstant(exponent, this.classFile);
+            this.code.emit(ISHR, -1);
+        }
+        else {
+            this.code.emitIntConstant(-(1 << exponent), this.classFile);
+            this.code.emit(IAND, -1);
+            this.code.emit(ISUB, -1);
+        }
+    }
+
+    @Override
+    public Object visit(BinaryArithPlusExpr node) { return this.generateArithmetic(node, IADD); }
+
+    @Override
+    public Object visit(BinaryArithMinusExpr node) { return this.generateArithmetic(node, ISUB); }
+
+    @Override
+    public Object visit(BinaryArithTimesExpr node) { return this.generateArithmetic(node, IMUL); }
+
+    @Override
+    public Object visit(BinaryArithDivideExpr node) { return this.generateArithmetic(node, IDIV); }
+
+    @Override
+    public Object visit(BinaryArithModulusExpr node) { return this.generateArithmetic(node, IREM); }
+
+    @Override
+    public Object visit(BinaryCompEqExpr node) { return this.generateCondition(node); }
+
+    @Override
+    public Object visit(BinaryCompNeExpr node) { return this.generateCondition(node); }
+
+    @Override
+    public Object visit(BinaryCompLtExpr node) { return this.generateCondition(node); }
+
+    @Override
+    public Object visit(BinaryCompLeqExpr node) { return this.generateCondition(node); }
+
+    @Override
+    public Object visit(BinaryCompGtExpr node) { return this.generateCondition(node); }
+
+    @Override
+    public Object visit(BinaryCompGeqExpr node) { return this.generateCondition(node); }
+
+    @Override
+    public Object visit(BinaryLogicAndExpr node) { return this.generateCondition(node); }
+
+    @Override
+    public Object visit(BinaryLogicOrExpr node) { return this.generateCondition(node); }
+
+    @Override
+    public Object visit(UnaryNotExpr node) { return this.generateCondition(node); }
+
+    /**
+     * Visits a unary negation expression node.
+     *
+     * @param node the unary negation expression node
+     * @return int
+     */
+    @Override
+    public Object visit(UnaryNegExpr node) {
+        this.generate(node.getExpr(), "int");
+        this.code.emit(INEG, 0);
+        return "int";
+    }
+
+    @Override
+    public Object visit(UnaryIncrExpr node) { return this.generateIncrement(node, 1); }
+
+    @Override
+    public Object visit(UnaryDecrExpr node) { return this.generateIncrement(node, -1); }
+
+    /**
+     * Helper method to visit an increment or decrement expression node.
+     * The operand is an int variable or an element of an int array.
+     *
+     * @param node the increment or decrement expression node
+     * @param delta 1 for an increment, -1 for a decrement
+     * @return int
+     */
+    private String generateIncrement(UnaryExpr node, int delta) {
+        Expr operand = node.getExpr();
+        if (operand instanceof VarExpr && (((VarExpr) operand).getRef() == null
+                || getRefName(((VarExpr) operand).getRef()) != null)) {
+            VarExpr varExpr = (VarExpr) operand;
+            Variable variable = this.resolveVariable(getRefName(varExpr.getRef()), varExpr.getName(),
+                    node.getLineNum());
+            if (!variable.type.equals("int")) {
+                this.registerError(node.getLineNum(), "The operand of " + node.getOpName() + " must be an int.");
+            }
+            if (variable.local != null) {
+                if (node.isPostfix()) {
+                    this.emitLoad(variable);
+                }
+                this.code.emitIinc(variable.local.slot, delta);
+                if (!node.isPostfix()) {
+                    this.emitLoad(variable);
+                }
+                return "int";
+            }
+            this.code.emit(DUP, 1);
+            this.emitLoad(variable);
+            this.generateIncrementValue(node.isPostfix(), delta, DUP_X1);
+            this.emitStore(variable);
+        }
+        else if (operand instanceof ArrayExpr && (((ArrayExpr) operand).getRef() == null
+                || getRefName(((ArrayExpr) operand).getRef()) != null)) {
+            ArrayExpr arrayExpr = (ArrayExpr) operand;
+            String elementType = this.generateArrayElement(getRefName(arrayExpr.getRef()), arrayExpr.getName(),
+                    arrayExpr.getIndex(), node.getLineNum());
+            if (!elementType.equals("int")) {
+                this.registerError(node.getLineNum(), "The operand of " + node.getOpName() + " must be an int.");
+            }
+            this.code.emit(DUP2, 2);
+            this.code.emit(IALOAD, -1);
+            this.generateIncrementValue(node.isPostfix(), delta, DUP_X2);
+            this.code.emit(IASTORE, -3);
+        }
+        else {
+            this.registerError(node.getLineNum(), "The operand of " + node.getOpName() + " must be a variable.");
+        }
+        return "int";
+    }
+
+    /**
+     * Helper method to compute the new value of an incremented field or array element,
+     * leaving the value of the expression below the location it is stored to.
+     *
+     * @param isPostfix whether the old value is the value of the expression
+     * @param delta 1 for an increment, -1 for a decrement
+     * @param dupOpcode DUP_X1 for a field, DUP_X2 for an array element
+     */
+    private void generateIncrementValue(boolean isPostfix, int delta, int dupOpcode) {
+        if (isPostfix) {
+            this.code.emit(dupOpcode, 1);
+        }
+        this.code.emitIntConstant(delta, this.classFile);
+        this.code.emit(IADD, -1);
+        if (!isPostfix) {
+            this.code.emit(dupOpcode, 1);
+        }
+    }
+
+    /**
+     * Visits a variable expression node.
+     * this, super and null are variable expressions without a reference object,
+     * length is the length of an array.
+     *
+     * @param node the variable expression node
+     * @return the type of the variable
+     */
+    @Override
+    public Object visit(VarExpr node) {
+        Expr ref = node.getRef();
+        if (ref == null) {
+            switch (node.getName()) {
+                case "this":
+                    this.code.emitLocal(ALOAD, 0);
+                    return this.currentClass.getName();
+                case "super":
+                    this.code.emitLocal(ALOAD, 0);
+                    return this.currentClass.getParent();
+                case "null":
+                    this.code.emit(ACONST_NULL, 1);
+                    return "null";
+                default:
+                    break;
+            }
+        }
+        else if (getRefName(ref) == null) {
+            String refType = this.generate(ref);
+            if (!node.getName().equals("length") || !isArray(refType)) {
+                this.registerError(node.getLineNum(), "Illegal reference to variable " + node.getName() + ".");
+            }
+            this.code.emit(ARRAYLENGTH, 0);
+            return "int";
+        }
+        Variable variable = this.resolveVariable(getRefName(ref), node.getName(), node.getLineNum());
+        this.emitLoad(variable);
+        return variable.type;
+    }
+
+    /**
+     * Visits an array expression node.
+     *
+     * @param node the array expression node
+     * @return the element type of the array
+     */
+    @Override
+    public Object visit(ArrayExpr node) {
+        if (node.getRef() != null && getRefName(node.getRef()) == null) {
+            this.registerError(node.getLineNum(), "Illegal reference to array " + node.getName() + ".");
+        }
+        String elementType = this.generateArrayElement(getRefName(node.getRef()), node.getName(),
+                node.getIndex(), node.getLineNum());
+        this.code.emit(arrayOpcode(elementType, IALOAD, BALOAD, AALOAD), -1);
+        return elementType;
+    }
+
+    /**
+     * Visits an int constant node.
+     *
+     * @param node the int constant node
+     * @return int
+     */
+    @Override
+    public Object visit(ConstIntExpr node) {
+        this.code.emitIntConstant(node.getIntConstant(), this.classFile);
+        return "int";
+    }
+
+    /**
+     * Visits a boolean constant node.
+     *
+     * @param node the boolean constant node
+     * @return boolean
+     */
+    @Override
+    public Object visit(ConstBooleanExpr node) {
+        this.code.emit(Boolean.parseBoolean(node.getConstant()) ? ICONST_1 : ICONST_0, 1);
+        return "boolean";
+    }
+
+    /**
+     * Visits a String constant node.
+     *
+     * @param node the String constant node
+     * @return String
+     */
+    @Override
+    public Object visit(ConstStringExpr node) {
+        this.code.emitPoolRef(LDC, this.classFile.stringConstant(unescape(node.getConstant())), 1);
+        return "String";
+    }
+
+    /**
+     * Helper method to get the value of a String constant as spelled in the source,
+     * removing the double quotes and replacing the escape sequences.
+     *
+     * @param spelling the spelling of the String constant
+     * @return the value of the String constant
+     */
+    private static String unescape(String spelling) {
+        String constant = spelling;
+        if (constant.length() >= 2 && constant.startsWith("\"") && constant.endsWith("\"")) {
+            constant = constant.substring(1, constant.length() - 1);
+        }
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < constant.length(); i++) {
+            char c = constant.charAt(i);
+            if (c == '\\' && i + 1 < constant.length()) {
+                c = constant.charAt(++i);
+                switch (c) {
+                    case 'n': c = '\n'; break;
+                    case 't': c = '\t'; break;
+                    case 'f': c = '\f'; break;
+                    default: break;
+                }
+            }
+            builder.append(c);
+        }
+        return builder.toString();
+    }
+
+    /**
+     * A local variable of the method being generated.
+     */
+    private static class LocalVariable {
+        /**
+         * the slot of the local variable
+         */
+        private final int slot;
+        /**
+         * the type of the local variable
+         */
+        private final String type;
+
+        /**
+         * Constructor of the LocalVariable class.
+         *
+         * @param slot the slot of the local variable
+         * @param type the type of the local variable
+         */
+        private LocalVariable(int slot, String type) {
+            this.slot = slot;
+            this.type = type;
+        }
+    }
+
+    /**
+     * A variable an expression refers to, either a local variable or a field of this.
+     */
+    private static class Variable {
+        /**
+         * the local variable; null for a field
+         */
+        private final LocalVariable local;
+        /**
+         * the class declaring the field; null for a local variable
+         */
+        private final String owner;
+        /**
+         * the name of the field; null for a local variable
+         */
+        private final String name;
+        /**
+         * the type of the variable
+         */
+        private final String type;
+
+        /**
+         * Constructor of the Variable class for a local variable.
+         *
+         * @param local the local variable
+         */
+        private Variable(LocalVariable local) {
+            this.local = local;
+            this.owner = null;
+            this.name = null;
+            this.type = local.type;
+        }
+
+        /**
+         * Constructor of the Variable class for a field.
+         *
+         * @param owner the class declaring the field
+         * @param name the name of the field
+         * @param type the type of the field
+         */
+        private Variable(String owner, String name, String type) {
+            this.local = null;
+            this.owner = owner;
+            this.name = name;
+            this.type = type;
+        }
+    }
+
+    /**
+     * Main method compiling and running the given Bantam files.
+     *
+     * @param args the names of the Bantam files
+     */
+    public static void main(String[] args) {
+        BatchDriver.run(args, (program, handler, profiler) -> {
+            program = BatchDriver.optimize(new Optimizer(), program, profiler);
+            profiler.begin("codegen");
+            Map<String, byte[]> classFiles = new JvmCodeGenerator(handler).generate(program);
+            profiler.end();
+            profiler.begin("run");
+            int status = run(classFiles);
+            profiler.end();
+            System.out.println("\nProgram exited with status " + status + ".");
+        });
+    }
+}
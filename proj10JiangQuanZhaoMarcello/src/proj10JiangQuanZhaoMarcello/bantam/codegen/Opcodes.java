@@ -0,0 +1,104 @@
+/*
+ * File: Opcodes.java
+ * F18 CS361 Project 10
+ * Names: Liwei Jiang, Tracy Quan, Danqing Zhao, Chris Marcello
+ * Date: 12/07/2018
+ * This file contains the Opcodes class, listing the JVM instructions and flags used by the code generator.
+ */
+
+package proj10JiangQuanZhaoMarcello.bantam.codegen;
+
+/**
+ * The JVM opcodes, access flags and array types used by the Bantam code generator.
+ *
+ * @author Liwei Jiang
+ * @author Tracy Quan
+ * @author Danqing Zhao
+ * @author Chris Marcello
+ */
+public final class Opcodes {
+    // access flags
+    public static final int ACC_PUBLIC = 0x0001;
+    public static final int ACC_SUPER = 0x0020;
+
+    // array types of the newarray instruction
+    public static final int T_BOOLEAN = 4;
+    public static final int T_INT = 10;
+
+    // constants
+    public static final int ACONST_NULL = 0x01;
+    public static final int ICONST_0 = 0x03;
+    public static final int ICONST_1 = 0x04;
+    public static final int BIPUSH = 0x10;
+    public static final int SIPUSH = 0x11;
+    public static final int LDC = 0x12;
+    public static final int LDC_W = 0x13;
+
+    // loads and stores
+    public static final int ILOAD = 0x15;
+    public static final int ALOAD = 0x19;
+    public static final int IALOAD = 0x2e;
+    public static final int AALOAD = 0x32;
+    public static final int BALOAD = 0x33;
+    public static final int ISTORE = 0x36;
+    public static final int ASTORE = 0x3a;
+    public static final int IASTORE = 0x4f;
+    public static final int AASTORE = 0x53;
+    public static final int BASTORE = 0x54;
+
+    // stack
+    public static final int POP = 0x57;
+    public static final int DUP = 0x59;
+    public static final int DUP_X1 = 0x5a;
+    public static final int DUP_X2 = 0x5b;
+    public static final int DUP2 = 0x5c;
+
+    // arithmetic
+    public static final int IADD = 0x60;
+    public static final int ISUB = 0x64;
+    public static final int IMUL = 0x68;
+    public static final int IDIV = 0x6c;
+    public static final int IREM = 0x70;
+    public static final int INEG = 0x74;
+    public static final int ISHL = 0x78;
+    public static final int ISHR = 0x7a;
+    public static final int IUSHR = 0x7c;
+    public static final int IAND = 0x7e;
+    public static final int IXOR = 0x82;
+    public static final int IINC = 0x84;
+
+    // branches
+    public static final int IFEQ = 0x99;
+    public static final int IFNE = 0x9a;
+    public static final int IF_ICMPEQ = 0x9f;
+    public static final int IF_ICMPNE = 0xa0;
+    public static final int IF_ICMPLT = 0xa1;
+    public static final int IF_ICMPGE = 0xa2;
+    public static final int IF_ICMPGT = 0xa3;
+    public static final int IF_ICMPLE = 0xa4;
+    public static final int IF_ACMPEQ = 0xa5;
+    public static final int IF_ACMPNE = 0xa6;
+    public static final int GOTO = 0xa7;
+
+    // returns
+    public static final int IRETURN = 0xac;
+    public static final int ARETURN = 0xb0;
+    public static final int RETURN = 0xb1;
+
+    // fields, methods and objects
+    public static final int GETFIELD = 0xb4;
+    public static final int PUTFIELD = 0xb5;
+    public static final int INVOKEVIRTUAL = 0xb6;
+    public static final int INVOKESPECIAL = 0xb7;
+    public static final int NEW = 0xbb;
+    public static final int NEWARRAY = 0xbc;
+    public static final int ANEWARRAY = 0xbd;
+    public static final int ARRAYLENGTH = 0xbe;
+    public static final int CHECKCAST = 0xc0;
+    public static final int INSTANCEOF = 0xc1;
+
+    /**
+     * Private constructor, this class only holds constants.
+     */
+    private Opcodes() { }
+}
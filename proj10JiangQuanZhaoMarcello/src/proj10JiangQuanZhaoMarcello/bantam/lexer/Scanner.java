@@ -12,7 +12,12 @@ package proj10JiangQuanZhaoMarcello.bantam.lexer;
 import proj10JiangQuanZhaoMarcello.bantam.util.Error;
 import proj10JiangQuanZhaoMarcello.bantam.util.ErrorHandler;
 import proj10JiangQuanZhaoMarcello.bantam.util.CompilationException;
+import proj10JiangQuanZhaoMarcello.bantam.util.PhaseProfiler;
+import proj10JiangQuanZhaoMarcello.bantam.util.CompilerEvent;
+import proj10JiangQuanZhaoMarcello.bantam.util.ScanEvent;
 import proj10JiangQuanZhaoMarcello.bantam.lexer.Token.Kind;
+import java.io.Reader;
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -50,6 +55,22 @@ public class Scanner {
      * an integer storing the first line number of the current token.
      */
     private int position;
+    /**
+     * the number of tokens created so far, including the comments and the error tokens
+     */
+    private int tokenCount;
+    /**
+     * the offset of the first character of the current token
+     */
+    private int tokenStart;
+    /**
+     * whether the first token continues a block comment opened before the source, as when scanning a line
+     */
+    private boolean resumeBlockComment;
+    /**
+     * whether the source ended inside a block comment
+     */
+    private boolean inBlockComment;
 
     /**
      * A constructor of the Scanner class.
@@ -63,6 +84,58 @@ public class Scanner {
         this.currentChar = ' ';
     }
 
+    /**
+     * A constructor of the Scanner class, scanning a source read from a reader, such as the text of an editor.
+     * The source can start inside a block comment, so that a text can be scanned a line at a time.
+     *
+     * @param filename the name of the source, used in the error messages
+     * @param reader the reader of the source
+     * @param handler an ErrorHandler object
+     * @param inBlockComment true if the source starts inside a block comment; false otherwise
+     */
+    public Scanner(String filename, Reader reader, ErrorHandler handler, boolean inBlockComment) {
+        this.errorHandler = handler;
+        this.sourceFile = new SourceFile(filename, reader);
+        this.currentChar = ' ';
+        this.resumeBlockComment = inBlockComment;
+    }
+
+    /**
+     * A constructor of the Scanner class, scanning a text in memory, such as a snapshot of the text of an editor,
+     * so that the source does not need to be saved nor read from its file.
+     *
+     * @param filename the name of the source, used in the error messages
+     * @param source the text of the source
+     * @param handler an ErrorHandler object
+     */
+    public Scanner(String filename, CharSequence source, ErrorHandler handler) {
+        this.errorHandler = handler;
+        this.sourceFile = new SourceFile(filename, source);
+        this.currentChar = ' ';
+    }
+
+    /**
+     * Checks whether the source scanned so far ended inside a block comment.
+     *
+     * @return true if the last token is an unterminated block comment; false otherwise
+     */
+    public boolean isInBlockComment() { return this.inBlockComment; }
+
+    /**
+     * Gets the number of tokens scanned so far, including the comments and the error tokens.
+     *
+     * @return the number of tokens scanned
+     */
+    public int getTokenCount() { return this.tokenCount; }
+
+    /**
+     * Gets the number of characters of the source scanned so far, which may be the text of an editor
+     * rather than the file saved.
+     *
+     * @return the number of characters scanned
+     */
+    public int getSourceLength() { return this.sourceFile.getLength(); }
+
     /**
      * Helper method to register an error to the error handler.
      *
@@ -94,7 +167,10 @@ public class Scanner {
      * @return the new Token object created
      */
     private Token createNewToken(Token.Kind kind, String spelling, boolean getNextChar) {
-        Token newToken = new Token(kind, spelling, this.position);
+        // the last character read ends the token unless it is the character after the token
+        int tokenEnd = getNextChar ? this.sourceFile.getCharsRead() : this.sourceFile.getCharsRead() - 1;
+        Token newToken = new Token(kind, spelling, this.position, this.tokenStart, tokenEnd);
+        this.tokenCount++;
         // get the next character as specified
         if (getNextChar) {
             this.currentChar = this.getNextChar();
@@ -207,7 +283,9 @@ public class Scanner {
         this.currentChar = this.getNextChar();
         while (!(this.currentChar == '*' && this.getNextChar() == '/')) {
             blockComment += this.currentChar;
-            if (this.getNextChar() == SourceFile.eof) {
+            // after a * the next character has been read already
+            if ((this.currentChar == '*' ? this.sourceFileCurrentChar : this.getNextChar()) == SourceFile.eof) {
+                this.inBlockComment = true;
                 return createAndRegisterErrorToken("Unterminated Block Comment", blockComment, true);
             }
             this.currentChar = this.sourceFileCurrentChar;
@@ -308,13 +386,22 @@ public class Scanner {
     public Token scan() {
         try {
 
+            // continue the block comment the source starts in
+            if (this.resumeBlockComment) {
+                this.resumeBlockComment = false;
+                this.position = this.sourceFile.getCurrentLineNumber();
+                this.tokenStart = 0;
+                return this.constructBlockCommentToken();
+            }
+
             // ignore spaces, tabs, or newlines
             while (this.currentChar == ' ' || this.currentChar == '\t' || this.currentChar == SourceFile.eol) {
                 this.currentChar = this.getNextChar();
             }
 
-            // store the first line number of the current token.
+            // store the first line number and the offset of the current token.
             this.position = this.sourceFile.getCurrentLineNumber();
+            this.tokenStart = this.sourceFile.getCharsRead() - 1;
 
             // -------------------- EOF
             if (this.currentChar == SourceFile.eof) {
@@ -431,6 +518,10 @@ public class Scanner {
             else if (this.currentChar == ':') {
                 return this.createNewToken(Token.Kind.COLON, ":", true);
             }
+            // a single & or |, whose next character has been read already, so it ends the token
+            else if (this.currentChar == '&' || this.currentChar == '|') {
+                return createAndRegisterErrorToken("Illegal Special Character", Character.toString(this.currentChar), false);
+            }
             // Illegal Special Characters
             else {
                 return createAndRegisterErrorToken("Illegal Special Character", Character.toString(this.currentChar), true);
@@ -445,19 +536,28 @@ public class Scanner {
 
     /**
      * Scans the file and returns a String containing all tokens of the given file, including the error tokens.
+     * Records a ScanEvent for the batch of tokens scanned.
      *
      * @return a String containing all tokens of the given file, each on a separate line, including the error tokens.
      */
     public String scanFile() {
         Token curToken = null; // the current token
         String tokenResult = ""; // a String a String containing all tokens of the given file
-
-        // scan the file from the beginning to the end of the file
-        while (curToken == null || (curToken.getKind() != Token.Kind.EOF)) {
-            curToken = this.scan();
-            tokenResult += curToken.toString();
+        int startCount = this.tokenCount;
+        ScanEvent event = new ScanEvent();
+        event.begin();
+        try {
+            // scan the file from the beginning to the end of the file
+            while (curToken == null || (curToken.getKind() != Token.Kind.EOF)) {
+                curToken = this.scan();
+                tokenResult += curToken.toString();
+            }
+            return tokenResult;
+        } finally {
+            boolean completed = curToken != null && curToken.getKind() == Token.Kind.EOF;
+            event.complete(this.sourceFile.getFilename(), this.getSourceLength(), this.tokenCount - startCount,
+                    CompilerEvent.outcome(completed, this.errorHandler));
         }
-        return tokenResult;
     }
 
     /**
@@ -468,13 +568,20 @@ public class Scanner {
     public static void main(String[] args) {
         // command line arguments we used for testing purpose
         // test/test1.java test/test2.java test/test3.java test/test4.java test/badtest.java
+        List<PhaseProfiler> profilers = new ArrayList<>();
         for (int i=0; i < args.length; i++) {
             String filename = args[i];
             System.out.println("\n------------------ " + filename + " ------------------" + "\n");
+            PhaseProfiler profiler = new PhaseProfiler(filename);
+            profilers.add(profiler);
             try {
                 ErrorHandler handler = new ErrorHandler();
                 Scanner scanner = new Scanner(filename, handler);
-                System.out.println(scanner.scanFile());
+                profiler.begin("scan");
+                String tokenStr = scanner.scanFile();
+                profiler.end();
+                profiler.setCounts(scanner.getTokenCount(), 0);
+                System.out.println(tokenStr);
                 List<Error> errorList = handler.getErrorList();
                 for (Error err: errorList){
                     System.out.println(err.toString());
@@ -493,5 +600,6 @@ public class Scanner {
                 System.out.println("ERROR: Scanning " + filename + " failed!");
             }
         }
+        PhaseProfiler.writeReport(profilers);
     }
 }
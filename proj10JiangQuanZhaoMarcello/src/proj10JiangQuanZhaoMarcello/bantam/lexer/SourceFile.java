@@ -28,9 +28,12 @@ class SourceFile {
     static final char eof = '\u0000';     // end of file character
 
     private Reader sourceReader;   // the reader of the file
+    private CharSequence source;   // the text read, when it is not read from a reader
     private int currentLineNumber; // for proj10JiangQuanZhaoMarcello.bantam.error messages
     private int prevChar;          // the previous character read
     private String filename;       // the file currently being scanned.
+    private int charsRead;         // the number of characters read, counting each end of file read
+    private int length;            // the number of characters of the source read, not counting the end of file
 
     /**
      * Creates a new SourceFile object for the file with the given name
@@ -50,6 +53,34 @@ class SourceFile {
         this.filename = filename;
     }
 
+    /**
+     * Creates a new SourceFile object reading the characters of a source from the given reader,
+     * such as the text of an editor.
+     *
+     * @param filename the name of the source, used in the error messages.
+     * @param sourceReader the reader of the source.
+     */
+    SourceFile(String filename, Reader sourceReader) {
+        this.sourceReader = sourceReader;
+        this.currentLineNumber = 1;
+        this.prevChar = -1;
+        this.filename = filename;
+    }
+
+    /**
+     * Creates a new SourceFile object reading the characters of a source directly from a text in memory,
+     * such as a snapshot of the text of an editor, so that no file is read.
+     *
+     * @param filename the name of the source, used in the error messages.
+     * @param source the text of the source.
+     */
+    SourceFile(String filename, CharSequence source) {
+        this.source = source;
+        this.currentLineNumber = 1;
+        this.prevChar = -1;
+        this.filename = filename;
+    }
+
     /**
      * Gets the current line number as an integer.
      *
@@ -64,6 +95,22 @@ class SourceFile {
      */
     String getFilename() { return this.filename; }
 
+    /**
+     * Gets the number of characters read so far, counting each end of file read.
+     * The offset of the last character read is one less.
+     *
+     * @return the number of characters read as an int.
+     */
+    int getCharsRead() { return this.charsRead; }
+
+    /**
+     * Gets the number of characters of the source read so far, not counting the end of file,
+     * which is the length of the source once it is read to the end.
+     *
+     * @return the number of characters of the source read as an int.
+     */
+    int getLength() { return this.length; }
+
     /**
      * Finds and returns the next character in the source file.
      * If the end of the file has been reached or an exception occurs,
@@ -75,13 +122,22 @@ class SourceFile {
      */
     char getNextChar(){
         try {
-            int c = this.sourceReader.read();
+            int c;
+            if (this.source != null) {
+                c = this.charsRead < this.source.length() ? this.source.charAt(this.charsRead) : -1;
+            } else {
+                c = this.sourceReader.read();
+            }
+            this.charsRead++;
 
             if (c == -1) {
                 c = eof;
             }
-            else if (c == cr || (c == eol && this.prevChar != cr)) {
-                this.currentLineNumber++;
+            else {
+                this.length++;
+                if (c == cr || (c == eol && this.prevChar != cr)) {
+                    this.currentLineNumber++;
+                }
             }
             this.prevChar = c;
             return (char) c;
@@ -25,6 +25,8 @@
      public Kind kind; // an enum type of the token
      public String spelling; // the actual sequence of chars in the token
      public int position; // the line number where the token was found
+     public int startOffset; // the offset of the first character of the token in the source
+     public int endOffset; // the offset after the last character of the token in the source
 
      /**
       * Constructor of the Token class.
@@ -34,6 +36,21 @@
       * @param position the position of the token as an int
       */
      Token(Kind kind, String spelling, int position) {
+         this(kind, spelling, position, 0, 0);
+     }
+
+     /**
+      * Constructor of the Token class, with the offsets of the token in the source.
+      *
+      * @param kind the emum type of the token
+      * @param spelling the spelling of the token as a String
+      * @param position the position of the token as an int
+      * @param startOffset the offset of the first character of the token in the source
+      * @param endOffset the offset after the last character of the token in the source
+      */
+     Token(Kind kind, String spelling, int position, int startOffset, int endOffset) {
+         this.startOffset = startOffset;
+         this.endOffset = endOffset;
          this.spelling = spelling;
          this.position = position;
 
@@ -75,6 +92,21 @@
       */
      public String getSpelling() { return this.spelling; }
 
+     /**
+      * Gets the offset of the first character of the token in the source.
+      *
+      * @return the start offset of the token
+      */
+     public int getStartOffset() { return this.startOffset; }
+
+     /**
+      * Gets the offset after the last character of the token in the source.
+      * The offset may be past the end of the source for a token ended by the end of the file.
+      *
+      * @return the end offset of the token
+      */
+     public int getEndOffset() { return this.endOffset; }
+
      /**
       * Definition of the enum type fo the Token.
       */
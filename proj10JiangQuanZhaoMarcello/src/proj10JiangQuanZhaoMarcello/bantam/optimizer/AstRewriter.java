@@ -0,0 +1,505 @@
+/*
+ * File: AstRewriter.java
+ * F18 CS361 Project 10
+ * Names: Liwei Jiang, Tracy Quan, Danqing Zhao, Chris Marcello
+ * Date: 12/07/2018
+ * This file contains the AstRewriter class, the base of the passes of the AST optimizer.
+ */
+
+package proj10JiangQuanZhaoMarcello.bantam.optimizer;
+
+import proj10JiangQuanZhaoMarcello.bantam.ast.*;
+import proj10JiangQuanZhaoMarcello.bantam.visitor.Visitor;
+
+/**
+ * The AstRewriter class is a Visitor rebuilding the AST bottom up.
+ * Visiting a node returns the node replacing it: the node itself if none of its children changed,
+ * a copy with the new children otherwise. A visit of a statement may return null to remove the statement.
+ * The passes of the optimizer override the hooks rewriteBinary, rewriteUnary, rewriteIf,
+ * rewriteWhile and rewriteFor, which are given a node and its rewritten children.
+ *
+ * On its own the AstRewriter returns the tree unchanged.
+ *
+ * @author Liwei Jiang
+ * @author Tracy Quan
+ * @author Danqing Zhao
+ * @author Chris Marcello
+ */
+public class AstRewriter extends Visitor {
+    /**
+     * the number of nodes visited
+     */
+    private int nodeCount;
+    /**
+     * the number of nodes replaced by the hooks
+     */
+    private int rewriteCount;
+
+    /**
+     * Gets the number of nodes visited.
+     *
+     * @return the number of nodes visited
+     */
+    public int getNodeCount() { return this.nodeCount; }
+
+    /**
+     * Gets the number of nodes replaced by the hooks.
+     *
+     * @return the number of rewrites
+     */
+    public int getRewriteCount() { return this.rewriteCount; }
+
+    /**
+     * Rewrites a program.
+     *
+     * @param program the root of the AST
+     * @return the root of the rewritten AST
+     */
+    public Program rewrite(Program program) { return this.rewriteNode(program); }
+
+    /**
+     * Records that a hook replaced a node.
+     */
+    protected void countRewrite() { this.rewriteCount++; }
+
+    /**
+     * Helper method to rewrite a node, counting it.
+     *
+     * @param node the node; may be null
+     * @param <T> the type of the node
+     * @return the node replacing it; null if the node is null or removed
+     */
+    @SuppressWarnings("unchecked")
+    private <T extends ASTNode> T rewriteNode(T node) {
+        if (node == null) {
+            return null;
+        }
+        this.nodeCount++;
+        return (T) node.accept(this);
+    }
+
+    /**
+     * Helper method to rewrite the elements of a list node, leaving out the removed elements.
+     *
+     * @param list the list node
+     * @param copy an empty list node of the same class, filled if an element changed
+     * @param <L> the type of the list node
+     * @return the list node replacing it
+     */
+    private <L extends ListNode> L rewriteList(L list, L copy) {
+        boolean changed = false;
+        for (ASTNode element : list) {
+            ASTNode rewritten = this.rewriteNode(element);
+            changed |= rewritten != element;
+            if (rewritten != null) {
+                copy.addElement(rewritten);
+            }
+        }
+        return changed ? copy : list;
+    }
+
+    /**
+     * Helper method to rewrite a statement that cannot be removed, such as the body of a loop.
+     * A removed statement is replaced by an empty block.
+     *
+     * @param stmt the statement; may be null
+     * @return the statement replacing it
+     */
+    private Stmt rewriteBody(Stmt stmt) {
+        Stmt rewritten = this.rewriteNode(stmt);
+        if (rewritten == null && stmt != null) {
+            return new BlockStmt(stmt.getLineNum(), new StmtList(stmt.getLineNum()));
+        }
+        return rewritten;
+    }
+
+    // ---------------------------------------- Hooks ----------------------------------------
+
+    /**
+     * Rewrites a binary expression whose operands are rewritten.
+     *
+     * @param node the binary expression node
+     * @param left the rewritten left operand
+     * @param right the rewritten right operand
+     * @return the expression replacing the node
+     */
+    protected Expr rewriteBinary(BinaryExpr node, Expr left, Expr right) {
+        return copyBinary(node, left, right);
+    }
+
+    /**
+     * Rewrites a unary expression whose operand is rewritten.
+     *
+     * @param node the unary expression node
+     * @param operand the rewritten operand
+     * @return the expression replacing the node
+     */
+    protected Expr rewriteUnary(UnaryExpr node, Expr operand) {
+        if (operand == node.getExpr()) {
+            return node;
+        }
+        int lineNum = node.getLineNum();
+        if (node instanceof UnaryNegExpr) return new UnaryNegExpr(lineNum, operand);
+        if (node instanceof UnaryNotExpr) return new UnaryNotExpr(lineNum, operand);
+        if (node instanceof UnaryIncrExpr) return new UnaryIncrExpr(lineNum, operand, node.isPostfix());
+        return new UnaryDecrExpr(lineNum, operand, node.isPostfix());
+    }
+
+    /**
+     * Rewrites an if statement whose children are rewritten.
+     *
+     * @param node the if statement node
+     * @param predExpr the rewritten predicate
+     * @param thenStmt the rewritten then statement
+     * @param elseStmt the rewritten else statement; null if there is none
+     * @return the statement replacing the node; null to remove it
+     */
+    protected Stmt rewriteIf(IfStmt node, Expr predExpr, Stmt thenStmt, Stmt elseStmt) {
+        if (predExpr == node.getPredExpr() && thenStmt == node.getThenStmt() && elseStmt == node.getElseStmt()) {
+            return node;
+        }
+        return new IfStmt(node.getLineNum(), predExpr, thenStmt, elseStmt);
+    }
+
+    /**
+     * Rewrites a while statement whose children are rewritten.
+     *
+     * @param node the while statement node
+     * @param predExpr the rewritten predicate
+     * @param bodyStmt the rewritten body
+     * @return the statement replacing the node; null to remove it
+     */
+    protected Stmt rewriteWhile(WhileStmt node, Expr predExpr, Stmt bodyStmt) {
+        if (predExpr == node.getPredExpr() && bodyStmt == node.getBodyStmt()) {
+            return node;
+        }
+        return new WhileStmt(node.getLineNum(), predExpr, bodyStmt);
+    }
+
+    /**
+     * Rewrites a for statement whose children are rewritten.
+     *
+     * @param node the for statement node
+     * @param initExpr the rewritten initialization; null if there is none
+     * @param predExpr the rewritten predicate; null if there is none
+     * @param updateExpr the rewritten update; null if there is none
+     * @param bodyStmt the rewritten body
+     * @return the statement replacing the node; null to remove it
+     */
+    protected Stmt rewriteFor(ForStmt node, Expr initExpr, Expr predExpr, Expr updateExpr, Stmt bodyStmt) {
+        if (initExpr == node.getInitExpr() && predExpr == node.getPredExpr()
+                && updateExpr == node.getUpdateExpr() && bodyStmt == node.getBodyStmt()) {
+            return node;
+        }
+        return new ForStmt(node.getLineNum(), initExpr, predExpr, updateExpr, bodyStmt);
+    }
+
+    /**
+     * Creates a binary expression of the same class as a node with the given operands.
+     *
+     * @param node the binary expression node
+     * @param left the left operand
+     * @param right the right operand
+     * @return the node itself if its operands are the given ones; a new node otherwise
+     */
+    protected static Expr copyBinary(BinaryExpr node, Expr left, Expr right) {
+        if (left == node.getLeftExpr() && right == node.getRightExpr()) {
+            return node;
+        }
+        int lineNum = node.getLineNum();
+        if (node instanceof BinaryArithPlusExpr) return new BinaryArithPlusExpr(lineNum, left, right);
+        if (node instanceof BinaryArithMinusExpr) return new BinaryArithMinusExpr(lineNum, left, right);
+        if (node instanceof BinaryArithTimesExpr) return new BinaryArithTimesExpr(lineNum, left, right);
+        if (node instanceof BinaryArithDivideExpr) return new BinaryArithDivideExpr(lineNum, left, right);
+        if (node instanceof BinaryArithModulusExpr) return new BinaryArithModulusExpr(lineNum, left, right);
+        if (node instanceof BinaryCompEqExpr) return new BinaryCompEqExpr(lineNum, left, right);
+        if (node instanceof BinaryCompNeExpr) return new BinaryCompNeExpr(lineNum, left, right);
+        if (node instanceof BinaryCompLtExpr) return new BinaryCompLtExpr(lineNum, left, right);
+        if (node instanceof BinaryCompLeqExpr) return new BinaryCompLeqExpr(lineNum, left, right);
+        if (node instanceof BinaryCompGtExpr) return new BinaryCompGtExpr(lineNum, left, right);
+        if (node instanceof BinaryCompGeqExpr) return new BinaryCompGeqExpr(lineNum, left, right);
+        if (node instanceof BinaryLogicAndExpr) return new BinaryLogicAndExpr(lineNum, left, right);
+        return new BinaryLogicOrExpr(lineNum, left, right);
+    }
+
+    /**
+     * Checks whether an expression is an int whatever the types of the variables in it.
+     *
+     * @param expr the expression
+     * @return true if the expression is known to be an int; false otherwise
+     */
+    protected static boolean isIntExpr(Expr expr) {
+        return expr instanceof ConstIntExpr || expr instanceof BinaryArithExpr || expr instanceof UnaryNegExpr
+                || expr instanceof UnaryIncrExpr || expr instanceof UnaryDecrExpr;
+    }
+
+    /**
+     * Checks whether an expression is a boolean whatever the types of the variables in it.
+     *
+     * @param expr the expression
+     * @return true if the expression is known to be a boolean; false otherwise
+     */
+    protected static boolean isBooleanExpr(Expr expr) {
+        return expr instanceof ConstBooleanExpr || expr instanceof BinaryCompExpr
+                || expr instanceof BinaryLogicExpr || expr instanceof UnaryNotExpr || expr instanceof InstanceofExpr;
+    }
+
+    // ---------------------------------------- Program structure ----------------------------------------
+
+    @Override
+    public Object visit(Program node) {
+        ClassList classList = this.rewriteNode(node.getClassList());
+        return classList == node.getClassList() ? node : new Program(node.getLineNum(), classList);
+    }
+
+    @Override
+    public Object visit(ClassList node) { return this.rewriteList(node, new ClassList(node.getLineNum())); }
+
+    @Override
+    public Object visit(Class_ node) {
+        MemberList memberList = this.rewriteNode(node.getMemberList());
+        if (memberList == node.getMemberList()) {
+            return node;
+        }
+        return new Class_(node.getLineNum(), node.getFilename(), node.getName(), node.getParent(), memberList);
+    }
+
+    @Override
+    public Object visit(MemberList node) { return this.rewriteList(node, new MemberList(node.getLineNum())); }
+
+    @Override
+    public Object visit(Field node) {
+        Expr init = this.rewriteNode(node.getInit());
+        return init == node.getInit() ? node : new Field(node.getLineNum(), node.getType(), node.getName(), init);
+    }
+
+    @Override
+    public Object visit(Method node) {
+        FormalList formalList = this.rewriteNode(node.getFormalList());
+        StmtList stmtList = this.rewriteNode(node.getStmtList());
+        if (formalList == node.getFormalList() && stmtList == node.getStmtList()) {
+            return node;
+        }
+        return new Method(node.getLineNum(), node.getReturnType(), node.getName(), formalList, stmtList);
+    }
+
+    @Override
+    public Object visit(FormalList node) { return this.rewriteList(node, new FormalList(node.getLineNum())); }
+
+    @Override
+    public Object visit(Formal node) { return node; }
+
+    // ---------------------------------------- Statements ----------------------------------------
+
+    @Override
+    public Object visit(StmtList node) { return this.rewriteList(node, new StmtList(node.getLineNum())); }
+
+    @Override
+    public Object visit(DeclStmt node) {
+        Expr init = this.rewriteNode(node.getInit());
+        if (init == node.getInit()) {
+            return node;
+        }
+        DeclStmt declStmt = new DeclStmt(node.getLineNum(), node.getName(), init);
+        declStmt.setType(node.getType());
+        return declStmt;
+    }
+
+    @Override
+    public Object visit(ExprStmt node) {
+        Expr expr = this.rewriteNode(node.getExpr());
+        return expr == node.getExpr() ? node : new ExprStmt(node.getLineNum(), expr);
+    }
+
+    @Override
+    public Object visit(IfStmt node) {
+        Expr predExpr = this.rewriteNode(node.getPredExpr());
+        Stmt thenStmt = this.rewriteBody(node.getThenStmt());
+        Stmt elseStmt = this.rewriteNode(node.getElseStmt());
+        return this.rewriteIf(node, predExpr, thenStmt, elseStmt);
+    }
+
+    @Override
+    public Object visit(WhileStmt node) {
+        Expr predExpr = this.rewriteNode(node.getPredExpr());
+        Stmt bodyStmt = this.rewriteBody(node.getBodyStmt());
+        return this.rewriteWhile(node, predExpr, bodyStmt);
+    }
+
+    @Override
+    public Object visit(ForStmt node) {
+        Expr initExpr = this.rewriteNode(node.getInitExpr());
+        Expr predExpr = this.rewriteNode(node.getPredExpr());
+        Expr updateExpr = this.rewriteNode(node.getUpdateExpr());
+        Stmt bodyStmt = this.rewriteBody(node.getBodyStmt());
+        return this.rewriteFor(node, initExpr, predExpr, updateExpr, bodyStmt);
+    }
+
+    @Override
+    public Object visit(BreakStmt node) { return node; }
+
+    @Override
+    public Object visit(BlockStmt node) {
+        StmtList stmtList = this.rewriteNode(node.getStmtList());
+        return stmtList == node.getStmtList() ? node : new BlockStmt(node.getLineNum(), stmtList);
+    }
+
+    @Override
+    public Object visit(ReturnStmt node) {
+        Expr expr = this.rewriteNode(node.getExpr());
+        return expr == node.getExpr() ? node : new ReturnStmt(node.getLineNum(), expr);
+    }
+
+    // ---------------------------------------- Expressions ----------------------------------------
+
+    @Override
+    public Object visit(ExprList node) { return this.rewriteList(node, new ExprList(node.getLineNum())); }
+
+    @Override
+    public Object visit(DispatchExpr node) {
+        Expr refExpr = this.rewriteNode(node.getRefExpr());
+        ExprList actualList = this.rewriteNode(node.getActualList());
+        if (refExpr == node.getRefExpr() && actualList == node.getActualList()) {
+            return node;
+        }
+        return new DispatchExpr(node.getLineNum(), refExpr, node.getMethodName(), actualList);
+    }
+
+    @Override
+    public Object visit(NewExpr node) { return node; }
+
+    @Override
+    public Object visit(NewArrayExpr node) {
+        Expr size = this.rewriteNode(node.getSize());
+        return size == node.getSize() ? node : new NewArrayExpr(node.getLineNum(), node.getType(), size);
+    }
+
+    @Override
+    public Object visit(InstanceofExpr node) {
+        Expr expr = this.rewriteNode(node.getExpr());
+        if (expr == node.getExpr()) {
+            return node;
+        }
+        InstanceofExpr instanceofExpr = new InstanceofExpr(node.getLineNum(), expr, node.getType());
+        instanceofExpr.setUpCheck(node.getUpCheck());
+        return instanceofExpr;
+    }
+
+    @Override
+    public Object visit(CastExpr node) {
+        Expr expr = this.rewriteNode(node.getExpr());
+        if (expr == node.getExpr()) {
+            return node;
+        }
+        CastExpr castExpr = new CastExpr(node.getLineNum(), node.getType(), expr);
+        castExpr.setUpCast(node.getUpCast());
+        return castExpr;
+    }
+
+    @Override
+    public Object visit(AssignExpr node) {
+        Expr expr = this.rewriteNode(node.getExpr());
+        if (expr == node.getExpr()) {
+            return node;
+        }
+        return new AssignExpr(node.getLineNum(), node.getRefName(), node.getName(), expr);
+    }
+
+    @Override
+    public Object visit(ArrayAssignExpr node) {
+        Expr index = this.rewriteNode(node.getIndex());
+        Expr expr = this.rewriteNode(node.getExpr());
+        if (index == node.getIndex() && expr == node.getExpr()) {
+            return node;
+        }
+        return new ArrayAssignExpr(node.getLineNum(), node.getRefName(), node.getName(), index, expr);
+    }
+
+    /**
+     * Helper method to visit a binary expression node, rewriting its operands first.
+     *
+     * @param node the binary expression node
+     * @return the expression replacing the node
+     */
+    private Expr visitBinary(BinaryExpr node) {
+        Expr left = this.rewriteNode(node.getLeftExpr());
+        Expr right = this.rewriteNode(node.getRightExpr());
+        return this.rewriteBinary(node, left, right);
+    }
+
+    @Override
+    public Object visit(BinaryArithPlusExpr node) { return this.visitBinary(node); }
+
+    @Override
+    public Object visit(BinaryArithMinusExpr node) { return this.visitBinary(node); }
+
+    @Override
+    public Object visit(BinaryArithTimesExpr node) { return this.visitBinary(node); }
+
+    @Override
+    public Object visit(BinaryArithDivideExpr node) { return this.visitBinary(node); }
+
+    @Override
+    public Object visit(BinaryArithModulusExpr node) { return this.visitBinary(node); }
+
+    @Override
+    public Object visit(BinaryCompEqExpr node) { return this.visitBinary(node); }
+
+    @Override
+    public Object visit(BinaryCompNeExpr node) { return this.visitBinary(node); }
+
+    @Override
+    public Object visit(BinaryCompLtExpr node) { return this.visitBinary(node); }
+
+    @Override
+    public Object visit(BinaryCompLeqExpr node) { return this.visitBinary(node); }
+
+    @Override
+    public Object visit(BinaryCompGtExpr node) { return this.visitBinary(node); }
+
+    @Override
+    public Object visit(BinaryCompGeqExpr node) { return this.visitBinary(node); }
+
+    @Override
+    public Object visit(BinaryLogicAndExpr node) { return this.visitBinary(node); }
+
+    @Override
+    public Object visit(BinaryLogicOrExpr node) { return this.visitBinary(node); }
+
+    @Override
+    public Object visit(UnaryNegExpr node) { return this.rewriteUnary(node, this.rewriteNode(node.getExpr())); }
+
+    @Override
+    public Object visit(UnaryNotExpr node) { return this.rewriteUnary(node, this.rewriteNode(node.getExpr())); }
+
+    @Override
+    public Object visit(UnaryIncrExpr node) { return this.rewriteUnary(node, this.rewriteNode(node.getExpr())); }
+
+    @Override
+    public Object visit(UnaryDecrExpr node) { return this.rewriteUnary(node, this.rewriteNode(node.getExpr())); }
+
+    @Override
+    public Object visit(VarExpr node) {
+        Expr ref = this.rewriteNode(node.getRef());
+        return ref == node.getRef() ? node : new VarExpr(node.getLineNum(), ref, node.getName());
+    }
+
+    @Override
+    public Object visit(ArrayExpr node) {
+        Expr ref = this.rewriteNode(node.getRef());
+        Expr index = this.rewriteNode(node.getIndex());
+        if (ref == node.getRef() && index == node.getIndex()) {
+            return node;
+        }
+        return new ArrayExpr(node.getLineNum(), ref, node.getName(), index);
+    }
+
+    @Override
+    public Object visit(ConstIntExpr node) { return node; }
+
+    @Override
+    public Object visit(ConstBooleanExpr node) { return node; }
+
+    @Override
+    public Object visit(ConstStringExpr node) { return node; }
+}
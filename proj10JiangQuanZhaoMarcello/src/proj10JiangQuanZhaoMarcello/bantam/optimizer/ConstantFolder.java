@@ -0,0 +1,111 @@
+/*
+ * File: ConstantFolder.java
+ * F18 CS361 Project 10
+ * Names: Liwei Jiang, Tracy Quan, Danqing Zhao, Chris Marcello
+ * Date: 12/07/2018
+ * This file contains the ConstantFolder class, the constant folding pass of the AST optimizer.
+ */
+
+package proj10JiangQuanZhaoMarcello.bantam.optimizer;
+
+import proj10JiangQuanZhaoMarcello.bantam.ast.*;
+
+/**
+ * The ConstantFolder class replaces the operations on constants by their values.
+ * Arithmetic follows the overflow rules of Java ints; a division or modulus by the constant 0 is kept
+ * so that it still fails at run time. A logical operator whose left operand is a constant
+ * is reduced to one of its operands when the other operand is known to be a boolean.
+ *
+ * @author Liwei Jiang
+ * @author Tracy Quan
+ * @author Danqing Zhao
+ * @author Chris Marcello
+ */
+public class ConstantFolder extends AstRewriter {
+
+    /**
+     * Folds a binary expression whose operands are constants.
+     *
+     * @param node the binary expression node
+     * @param left the rewritten left operand
+     * @param right the rewritten right operand
+     * @return the constant value of the expression if it can be computed; the expression otherwise
+     */
+    @Override
+    protected Expr rewriteBinary(BinaryExpr node, Expr left, Expr right) {
+        int lineNum = node.getLineNum();
+        if (left instanceof ConstIntExpr && right instanceof ConstIntExpr) {
+            int a = ((ConstIntExpr) left).getIntConstant();
+            int b = ((ConstIntExpr) right).getIntConstant();
+            if (node instanceof BinaryArithPlusExpr) return this.intConstant(lineNum, a + b);
+            if (node instanceof BinaryArithMinusExpr) return this.intConstant(lineNum, a - b);
+            if (node instanceof BinaryArithTimesExpr) return this.intConstant(lineNum, a * b);
+            if (node instanceof BinaryArithDivideExpr && b != 0) return this.intConstant(lineNum, a / b);
+            if (node instanceof BinaryArithModulusExpr && b != 0) return this.intConstant(lineNum, a % b);
+            if (node instanceof BinaryCompEqExpr) return this.booleanConstant(lineNum, a == b);
+            if (node instanceof BinaryCompNeExpr) return this.booleanConstant(lineNum, a != b);
+            if (node instanceof BinaryCompLtExpr) return this.booleanConstant(lineNum, a < b);
+            if (node instanceof BinaryCompLeqExpr) return this.booleanConstant(lineNum, a <= b);
+            if (node instanceof BinaryCompGtExpr) return this.booleanConstant(lineNum, a > b);
+            if (node instanceof BinaryCompGeqExpr) return this.booleanConstant(lineNum, a >= b);
+        }
+        else if (left instanceof ConstBooleanExpr && right instanceof ConstBooleanExpr) {
+            boolean a = Boolean.parseBoolean(((ConstBooleanExpr) left).getConstant());
+            boolean b = Boolean.parseBoolean(((ConstBooleanExpr) right).getConstant());
+            if (node instanceof BinaryCompEqExpr) return this.booleanConstant(lineNum, a == b);
+            if (node instanceof BinaryCompNeExpr) return this.booleanConstant(lineNum, a != b);
+            if (node instanceof BinaryLogicAndExpr) return this.booleanConstant(lineNum, a && b);
+            if (node instanceof BinaryLogicOrExpr) return this.booleanConstant(lineNum, a || b);
+        }
+        else if (node instanceof BinaryLogicExpr && left instanceof ConstBooleanExpr && isBooleanExpr(right)) {
+            // true && x is x and false && x is false; false || x is x and true || x is true
+            boolean a = Boolean.parseBoolean(((ConstBooleanExpr) left).getConstant());
+            this.countRewrite();
+            return a == (node instanceof BinaryLogicAndExpr) ? right : left;
+        }
+        return copyBinary(node, left, right);
+    }
+
+    /**
+     * Folds a negation or a logical not of a constant.
+     *
+     * @param node the unary expression node
+     * @param operand the rewritten operand
+     * @return the constant value of the expression if it can be computed; the expression otherwise
+     */
+    @Override
+    protected Expr rewriteUnary(UnaryExpr node, Expr operand) {
+        if (node instanceof UnaryNegExpr && operand instanceof ConstIntExpr) {
+            return this.intConstant(node.getLineNum(), -((ConstIntExpr) operand).getIntConstant());
+        }
+        if (node instanceof UnaryNotExpr && operand instanceof ConstBooleanExpr) {
+            return this.booleanConstant(node.getLineNum(),
+                    !Boolean.parseBoolean(((ConstBooleanExpr) operand).getConstant()));
+        }
+        return super.rewriteUnary(node, operand);
+    }
+
+    /**
+     * Helper method to create an int constant replacing an expression.
+     *
+     * @param lineNum the line number of the expression
+     * @param value the value of the expression
+     * @return the int constant node
+     */
+    private Expr intConstant(int lineNum, int value) {
+        this.countRewrite();
+        return new ConstIntExpr(lineNum, Integer.toString(value));
+    }
+
+    /**
+     * Helper method to create a boolean constant replacing an expression.
+     *
+     * @param lineNum the line number of the expression
+     * @param value the value of the expression
+     * @return the boolean constant node
+     */
+    private Expr booleanConstant(int lineNum, boolean value) {
+        this.countRewrite();
+        return new ConstBooleanExpr(lineNum, Boolean.toString(value));
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * File: DeadBranchEliminator.java
+ * F18 CS361 Project 10
+ * Names: Liwei Jiang, Tracy Quan, Danqing Zhao, Chris Marcello
+ * Date: 12/07/2018
+ * This file contains the DeadBranchEliminator class, the dead branch elimination pass of the AST optimizer.
+ */
+
+package proj10JiangQuanZhaoMarcello.bantam.optimizer;
+
+import proj10JiangQuanZhaoMarcello.bantam.ast.*;
+
+/**
+ * The DeadBranchEliminator class removes the branches that can never run.
+ * An if statement with a constant predicate is replaced by the branch taken,
+ * and a loop whose predicate is the constant false by its initialization, if any.
+ * It runs after the ConstantFolder, which turns constant predicates into boolean constants.
+ *
+ * @author Liwei Jiang
+ * @author Tracy Quan
+ * @author Danqing Zhao
+ * @author Chris Marcello
+ */
+public class DeadBranchEliminator extends AstRewriter {
+
+    /**
+     * Replaces an if statement with a constant predicate by the branch taken.
+     *
+     * @param node the if statement node
+     * @param predExpr the rewritten predicate
+     * @param thenStmt the rewritten then statement
+     * @param elseStmt the rewritten else statement; null if there is none
+     * @return the branch taken; null if no branch is taken
+     */
+    @Override
+    protected Stmt rewriteIf(IfStmt node, Expr predExpr, Stmt thenStmt, Stmt elseStmt) {
+        if (!(predExpr instanceof ConstBooleanExpr)) {
+            return super.rewriteIf(node, predExpr, thenStmt, elseStmt);
+        }
+        this.countRewrite();
+        Stmt taken = Boolean.parseBoolean(((ConstBooleanExpr) predExpr).getConstant()) ? thenStmt : elseStmt;
+        if (taken instanceof DeclStmt) {
+            // the variable stays local to the branch
+            return new BlockStmt(taken.getLineNum(), (StmtList) new StmtList(taken.getLineNum()).addElement(taken));
+        }
+        return taken;
+    }
+
+    /**
+     * Removes a while loop whose predicate is false.
+     *
+     * @param node the while statement node
+     * @param predExpr the rewritten predicate
+     * @param bodyStmt the rewritten body
+     * @return null if the body never runs; the loop otherwise
+     */
+    @Override
+    protected Stmt rewriteWhile(WhileStmt node, Expr predExpr, Stmt bodyStmt) {
+        if (isFalse(predExpr)) {
+            this.countRewrite();
+            return null;
+        }
+        return super.rewriteWhile(node, predExpr, bodyStmt);
+    }
+
+    /**
+     * Replaces a for loop whose predicate is false by its initialization.
+     *
+     * @param node the for statement node
+     * @param initExpr the rewritten initialization; null if there is none
+     * @param predExpr the rewritten predicate; null if there is none
+     * @param updateExpr the rewritten update; null if there is none
+     * @param bodyStmt the rewritten body
+     * @return the initialization or null if the body never runs; the loop otherwise
+     */
+    @Override
+    protected Stmt rewriteFor(ForStmt node, Expr initExpr, Expr predExpr, Expr updateExpr, Stmt bodyStmt) {
+        if (isFalse(predExpr)) {
+            this.countRewrite();
+            return initExpr == null ? null : new ExprStmt(node.getLineNum(), initExpr);
+        }
+        return super.rewriteFor(node, initExpr, predExpr, updateExpr, bodyStmt);
+    }
+
+    /**
+     * Helper method to check whether a predicate is the constant false.
+     *
+     * @param predExpr the predicate; may be null
+     * @return true if the predicate is the constant false; false otherwise
+     */
+    private static boolean isFalse(Expr predExpr) {
+        return predExpr instanceof ConstBooleanExpr
+                && !Boolean.parseBoolean(((ConstBooleanExpr) predExpr).getConstant());
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * File: Optimizer.java
+ * F18 CS361 Project 10
+ * Names: Liwei Jiang, Tracy Quan, Danqing Zhao, Chris Marcello
+ * Date: 12/07/2018
+ * This file contains the Optimizer class, running the passes of the AST optimizer.
+ */
+
+package proj10JiangQuanZhaoMarcello.bantam.optimizer;
+
+import proj10JiangQuanZhaoMarcello.bantam.ast.Program;
+import proj10JiangQuanZhaoMarcello.bantam.util.BatchDriver;
+import proj10JiangQuanZhaoMarcello.bantam.util.CompilerEvent;
+import proj10JiangQuanZhaoMarcello.bantam.util.NodeCounter;
+import proj10JiangQuanZhaoMarcello.bantam.util.PassEvent;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The Optimizer class runs the passes of the AST optimizer in order:
+ * constant folding, dead branch elimination and strength reduction.
+ * The passes build a new tree and leave the given tree unchanged.
+ * For each pass it records the number of nodes before and after the pass and the number of rewrites.
+ *
+ * @author Liwei Jiang
+ * @author Tracy Quan
+ * @author Danqing Zhao
+ * @author Chris Marcello
+ */
+public class Optimizer {
+    /**
+     * a line per pass run: its name, the node counts before and after it and its number of rewrites
+     */
+    private final List<String> report = new ArrayList<>();
+
+    /**
+     * Optimizes a program.
+     * Records a PassEvent for the optimizer, with the number of nodes of the optimized AST.
+     *
+     * @param program the root of the AST
+     * @return the root of the optimized AST
+     */
+    public Program optimize(Program program) {
+        Program optimized = null;
+        PassEvent event = new PassEvent();
+        event.begin();
+        try {
+            optimized = this.runPass("constant folding", new ConstantFolder(), program);
+            optimized = this.runPass("dead branch elimination", new DeadBranchEliminator(), optimized);
+            optimized = this.runPass("strength reduction", new StrengthReducer(), optimized);
+            return optimized;
+        } finally {
+            Program result = optimized == null ? program : optimized;
+            event.complete("optimize", result, () -> NodeCounter.countNodes(result),
+                    optimized == null ? CompilerEvent.FAILED : CompilerEvent.SUCCESS);
+        }
+    }
+
+    /**
+     * Gets the report of the passes run.
+     *
+     * @return an unmodifiable list of a line per pass run
+     */
+    public List<String> getReport() { return Collections.unmodifiableList(this.report); }
+
+    /**
+     * Helper method to run a pass and report it.
+     *
+     * @param name the name of the pass
+     * @param pass the pass
+     * @param program the root of the AST
+     * @return the root of the rewritten AST
+     */
+    private Program runPass(String name, AstRewriter pass, Program program) {
+        Program rewritten = pass.rewrite(program);
+        this.report.add(String.format("%-24s %6d -> %6d nodes, %d rewrites",
+                name + ":", pass.getNodeCount(), NodeCounter.countNodes(rewritten), pass.getRewriteCount()));
+        return rewritten;
+    }
+
+    /**
+     * Optimizes each Bantam program given on the command line, printing the report of the passes or the errors.
+     *
+     * @param args the names of the Bantam source files
+     */
+    public static void main(String[] args) {
+        BatchDriver.run(args, (program, handler, profiler) -> {
+            Optimizer optimizer = new Optimizer();
+            BatchDriver.optimize(optimizer, program, profiler);
+            for (String line : optimizer.getReport()) {
+                System.out.println(line);
+            }
+        });
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * File: StrengthReducer.java
+ * F18 CS361 Project 10
+ * Names: Liwei Jiang, Tracy Quan, Danqing Zhao, Chris Marcello
+ * Date: 12/07/2018
+ * This file contains the StrengthReducer class, the strength reduction pass of the AST optimizer.
+ */
+
+package proj10JiangQuanZhaoMarcello.bantam.optimizer;
+
+import proj10JiangQuanZhaoMarcello.bantam.ast.*;
+
+/**
+ * The StrengthReducer class replaces multiplications, divisions and modulus operations
+ * by the powers of two 1 and 2 with cheaper expressions:
+ * x * 1 and x / 1 become x, x % 1 and x * 0 become 0, and x * 2 becomes x + x.
+ * Bantam has no shift operators, so the other powers of two are lowered to shifts and masks by the backends,
+ * through getPowerOfTwoExponent, where the types of the variables are known.
+ *
+ * An operand is only dropped if it is known to be an int whatever the types of the variables,
+ * so that type errors are still reported; i * 1 on a variable i is thus left to the backends too.
+ * An operand is only dropped or duplicated if evaluating it has no side effect.
+ *
+ * @author Liwei Jiang
+ * @author Tracy Quan
+ * @author Danqing Zhao
+ * @author Chris Marcello
+ */
+public class StrengthReducer extends AstRewriter {
+
+    /**
+     * Reduces a multiplication, division or modulus by a constant.
+     *
+     * @param node the binary expression node
+     * @param left the rewritten left operand
+     * @param right the rewritten right operand
+     * @return the reduced expression; the expression itself if it cannot be reduced
+     */
+    @Override
+    protected Expr rewriteBinary(BinaryExpr node, Expr left, Expr right) {
+        int lineNum = node.getLineNum();
+        if (node instanceof BinaryArithTimesExpr) {
+            boolean constantRight = right instanceof ConstIntExpr;
+            Expr operand = constantRight ? left : right;
+            Expr constant = constantRight ? right : left;
+            if (constant instanceof ConstIntExpr) {
+                int factor = ((ConstIntExpr) constant).getIntConstant();
+                if (factor == 1 && isIntExpr(operand)) {
+                    this.countRewrite();
+                    return operand;
+                }
+                if (factor == 0 && isIntExpr(operand) && isPure(operand)) {
+                    this.countRewrite();
+                    return constant;
+                }
+                if (factor == 2 && operand instanceof VarExpr && isPure(operand)) {
+                    this.countRewrite();
+                    VarExpr varExpr = (VarExpr) operand;
+                    return new BinaryArithPlusExpr(lineNum, operand,
+                            new VarExpr(varExpr.getLineNum(), varExpr.getRef(), varExpr.getName()));
+                }
+            }
+        }
+        else if ((node instanceof BinaryArithDivideExpr || node instanceof BinaryArithModulusExpr)
+                && right instanceof ConstIntExpr && ((ConstIntExpr) right).getIntConstant() == 1
+                && isIntExpr(left)) {
+            if (node instanceof BinaryArithDivideExpr) {
+                this.countRewrite();
+                return left;
+            }
+            if (isPure(left)) {
+                this.countRewrite();
+                return new ConstIntExpr(lineNum, "0");
+            }
+        }
+        return copyBinary(node, left, right);
+    }
+
+    /**
+     * Gets the exponent of an int constant that is a power of two.
+     *
+     * @param expr the expression
+     * @return the exponent, from 0 to 30, if the expression is a constant power of two; -1 otherwise
+     */
+    public static int getPowerOfTwoExponent(Expr expr) {
+        if (!(expr instanceof ConstIntExpr)) {
+            return -1;
+        }
+        int value = ((ConstIntExpr) expr).getIntConstant();
+        return value > 0 && Integer.bitCount(value) == 1 ? Integer.numberOfTrailingZeros(value) : -1;
+    }
+
+    /**
+     * Helper method to check whether evaluating an expression has no side effect and cannot fail.
+     * Such expressions are constants, variables and fields of this, and arithmetic on them
+     * other than division and modulus.
+     *
+     * @param expr the expression
+     * @return true if the expression can be dropped or evaluated twice; false otherwise
+     */
+    private static boolean isPure(Expr expr) {
+        if (expr instanceof ConstExpr) {
+            return true;
+        }
+        if (expr instanceof VarExpr) {
+            Expr ref = ((VarExpr) expr).getRef();
+            return ref == null || (ref instanceof VarExpr && ((VarExpr) ref).getRef() == null
+                    && (((VarExpr) ref).getName().equals("this") || ((VarExpr) ref).getName().equals("super")));
+        }
+        if (expr instanceof BinaryArithPlusExpr || expr instanceof BinaryArithMinusExpr
+                || expr instanceof BinaryArithTimesExpr) {
+            return isPure(((BinaryExpr) expr).getLeftExpr()) && isPure(((BinaryExpr) expr).getRightExpr());
+        }
+        return expr instanceof UnaryNegExpr && isPure(((UnaryNegExpr) expr).getExpr());
+    }
+}
@@ -11,7 +11,6 @@
  */
 package proj10JiangQuanZhaoMarcello.bantam.parser;
 
-import java.util.List;
 import proj10JiangQuanZhaoMarcello.bantam.util.*;
 import proj10JiangQuanZhaoMarcello.bantam.util.Error;
 import proj10JiangQuanZhaoMarcello.bantam.lexer.*;
@@ -55,17 +54,48 @@ public class Parser {
 
     /**
      * Parses the given file and returns the root node of the AST.
+     * Records a ParseEvent for the call.
      *
      * @param filename The name of the Bantam Java file to be parsed
      * @return The Program node forming the root of the AST generated by the parser
      */
-    public Program parse(String filename) {
-        this.fileName = filename;
-        this.scanner = new Scanner(filename, this.errorHandler);
-        this.scan();
-        return parseProgram();
+    public Program parse(String filename) { return this.parse(filename, null); }
+
+    /**
+     * Parses the given text, such as a snapshot of the text of an editor, and returns the root node of the AST.
+     * The source does not need to be saved nor read from its file.
+     * Records a ParseEvent for the call.
+     *
+     * @param filename The name of the source, used in the error messages
+     * @param source The text of the source; null to read the file with the given name
+     * @return The Program node forming the root of the AST generated by the parser
+     */
+    public Program parse(String filename, CharSequence source) {
+        Program program = null;
+        ParseEvent event = new ParseEvent();
+        event.begin();
+        try {
+            this.fileName = filename;
+            this.scanner = source == null ? new Scanner(filename, this.errorHandler)
+                    : new Scanner(filename, source, this.errorHandler);
+            this.scan();
+            program = parseProgram();
+            return program;
+        } finally {
+            Program parsed = program;
+            event.complete(filename, this.scanner == null ? 0 : this.scanner.getSourceLength(), this.getTokenCount(),
+                    () -> parsed == null ? 0 : NodeCounter.countNodes(parsed),
+                    CompilerEvent.outcome(parsed != null, this.errorHandler));
+        }
     }
 
+    /**
+     * Gets the number of tokens scanned by the last parse, including the comments.
+     *
+     * @return the number of tokens scanned; 0 if nothing was parsed
+     */
+    public int getTokenCount() { return this.scanner == null ? 0 : this.scanner.getTokenCount(); }
+
     /**
      * Gets the next Token from the scanner and assigns it to the currentToken field.
      * Skips the COMMENT Tokens.
@@ -520,22 +550,63 @@ public class Parser {
      */
     private Expr parseExpression() {
         int position = this.currentToken.position;
-        String name = this.currentToken.spelling;
 
         // <LogicalOrExpr>
         Expr left = this.parseOrExpr();
 
         // <OptionalAssignment>
         // "="
-        while (this.currentToken.spelling.equals("=")){
+        if (this.currentToken.spelling.equals("=")){
             this.scan();
-            // <LogicalOrExpr>
-            Expr right = this.parseOrExpr();
-            left = new AssignExpr(position, null, name, right);
+            // <Expression>, assignment is right associative
+            Expr right = this.parseExpression();
+            left = this.createAssignment(position, left, right);
         }
         return left;
     }
 
+    /**
+     * Helper method to build the assignment node for the given target expression.
+     * A variable target such as x or this.x yields an AssignExpr,
+     * an array element target such as a[i] or this.a[i] yields an ArrayAssignExpr.
+     *
+     * @param position the position of the assignment
+     * @param target the expression on the left hand side of the = sign
+     * @param value the expression on the right hand side of the = sign
+     * @return the assignment expression node
+     */
+    private Expr createAssignment(int position, Expr target, Expr value) {
+        if (target instanceof VarExpr) {
+            VarExpr varExpr = (VarExpr) target;
+            return new AssignExpr(position, this.getRefName(varExpr.getRef()), varExpr.getName(), value);
+        }
+        else if (target instanceof ArrayExpr) {
+            ArrayExpr arrayExpr = (ArrayExpr) target;
+            return new ArrayAssignExpr(position, this.getRefName(arrayExpr.getRef()),
+                    arrayExpr.getName(), arrayExpr.getIndex(), value);
+        }
+        this.registerError("Illegal left hand side of an assignment.");
+        return null;
+    }
+
+    /**
+     * Helper method to get the name of the reference object of an assignment target.
+     * Only this and super (or no reference at all) may prefix an assignment target.
+     *
+     * @param ref the reference expression of the target; null if there is none
+     * @return the name of the reference object; null if there is none
+     */
+    private String getRefName(Expr ref) {
+        if (ref == null) {
+            return null;
+        }
+        if (ref instanceof VarExpr && ((VarExpr) ref).getRef() == null) {
+            return ((VarExpr) ref).getName();
+        }
+        this.registerError("Illegal left hand side of an assignment.");
+        return null;
+    }
+
     /*
      * <LogicalOR> ::= <logicalAND> <LogicalORRest>
      * <LogicalORRest> ::= EMPTY |  || <LogicalAND> <LogicalORRest>
@@ -820,47 +891,33 @@ public class Parser {
         return new CastExpr(position, type, expr);
     }
 
-    /**
-     * Checks whether the current token is a PrefixOp.
-     *
-     * @return true if the current token is one of the PrefixOp.
-     *         false if the current token is not one of the PrefixOp
-     */
-    private boolean isPrefixOp() {
-        return this.currentToken.spelling.equals("-") || this.currentToken.spelling.equals("!")
-                || this.currentToken.spelling.equals("++") || this.currentToken.spelling.equals("--");
-    }
-
     /*
      * <UnaryPrefix> ::= <PrefixOp> <UnaryPrefix> | <UnaryPostfix>
      * <PrefixOp> ::= - | ! | ++ | --
      */
     private Expr parseUnaryPrefix() {
-        Expr expr = null;
+        int position = this.currentToken.position;
 
-        // if this.currentToken is <PrefixOp>
-        if (this.isPrefixOp()) {
-            while (this.isPrefixOp()) {
-                if (this.currentToken.spelling.equals("-")) {
-                    this.scan();
-                    expr = new UnaryNegExpr(this.currentToken.position, this.parseUnaryPrefix());
-                } else if (this.currentToken.spelling.equals("!")) {
-                    this.scan();
-                    expr = new UnaryNotExpr(this.currentToken.position, this.parseUnaryPrefix());
-                } else if (this.currentToken.spelling.equals("++")) {
-                    this.scan();
-                    expr = new UnaryIncrExpr(this.currentToken.position, this.parseUnaryPrefix(), false);
-                } else if (this.currentToken.spelling.equals("--")) {
-                    this.scan();
-                    expr = new UnaryDecrExpr(this.currentToken.position, this.parseUnaryPrefix(), false);
-                }
-            }
+        // <PrefixOp> <UnaryPrefix>, binding tighter than any binary operator after it
+        if (this.currentToken.spelling.equals("-")) {
+            this.scan();
+            return new UnaryNegExpr(position, this.parseUnaryPrefix());
         }
-        else {
-            // <UnaryPostfix>
-            expr = this.parseUnaryPostfix();
+        else if (this.currentToken.spelling.equals("!")) {
+            this.scan();
+            return new UnaryNotExpr(position, this.parseUnaryPrefix());
         }
-        return expr;
+        else if (this.currentToken.spelling.equals("++")) {
+            this.scan();
+            return new UnaryIncrExpr(position, this.parseUnaryPrefix(), false);
+        }
+        else if (this.currentToken.spelling.equals("--")) {
+            this.scan();
+            return new UnaryDecrExpr(position, this.parseUnaryPrefix(), false);
+        }
+
+        // <UnaryPostfix>
+        return this.parseUnaryPostfix();
     }
 
     /*
@@ -913,6 +970,17 @@ public class Parser {
         else if (currentToken.kind == BOOLEAN) {
             expr = this.parseBoolean();
         }
+        // ( <Expression> )
+        else if (currentToken.kind == LPAREN) {
+            this.scan();
+            expr = this.parseExpression();
+            this.checkCurrentTokenMatched(")", "Parenthesized expression missing a right parenthesis ).");
+            this.scan();
+            while (this.currentToken.spelling.equals(".")) {
+                this.scan();
+                expr = this.parseMethod(expr, position);
+            }
+        }
         else {
             if (currentToken.spelling.equals("this") || currentToken.spelling.equals("super")) {
                 expr = new VarExpr(position, null, currentToken.spelling);
@@ -947,14 +1015,23 @@ public class Parser {
                 this.scan();
 
                 if(this.currentToken.spelling.equals("length")){
-                    expr = new VarExpr(position, ref, "length" );
-                    if (this.currentToken.spelling.equals(".")||this.currentToken.spelling.equals("(")) {
-                        this.registerError("Cannot call method on length");
-                    }
                     this.scan();
-                    return expr;
+                    // length() is a method of String, length without arguments is the length of an array
+                    if (this.currentToken.spelling.equals("(")) {
+                        this.scan();
+                        expr = new DispatchExpr(position, expr, "length", this.parseArguments());
+                    }
+                    else {
+                        expr = new VarExpr(position, expr, "length" );
+                        if (this.currentToken.spelling.equals(".")) {
+                            this.registerError("Cannot call method on length");
+                        }
+                        return expr;
+                    }
+                }
+                else {
+                    expr = parseMethod(expr, position);
                 }
-                expr = parseMethod(ref, position);
             }
             while(this.currentToken.spelling.equals(".")){
                 this.scan();
@@ -1114,38 +1191,17 @@ public class Parser {
     }
 
     /**
-     * Main test method
-     * @param args
+     * Main test method, parsing each Bantam file given on the command line and drawing its AST.
+     *
+     * @param args the names of the Bantam source files
      */
     public static void main(String[] args) {
-        // command line arguments we used for testing purpose
-        for (int i=0; i < args.length; i++) {
-            String filename = args[i];
-            System.out.println("\n------------------ " + filename + " ------------------" + "\n");
-
-            ErrorHandler handler = new ErrorHandler();
-            Parser parser = new Parser(handler);
-
-            try{
-                Program program = parser.parse(filename);
-                Drawer drawer = new Drawer();
-                drawer.draw(filename, program);
-            } catch (CompilationException e) {
-                List<Error> errorList = handler.getErrorList();
-                for (Error err : errorList) {
-                    System.out.println(err.toString());
-                }
-                if (errorList.size() == 0) {
-                    System.out.println("Parsing was successful!");
-                } else if (errorList.size() == 1) {
-                    System.out.println("\n1 error was found.");
-                } else {
-                    System.out.println("\n" + errorList.size() + " errors were found.");
-                }
-            } catch (Exception e) {
-                System.out.println(e);
-                System.out.println("ERROR: Parsing " + filename + " failed!");
-            }
-        }
+        BatchDriver.run(args, (program, handler, profiler) -> {
+            profiler.begin("draw");
+            new Drawer().draw(profiler.getFilename(), program);
+            profiler.end();
+            // drawing produces no tokens nor AST nodes
+            profiler.setCounts(0, 0);
+        });
     }
 }
\ No newline at end of file
@@ -0,0 +1,78 @@
+/*
+ * File: Sys.java
+ * F18 CS361 Project 10
+ * Names: Liwei Jiang, Tracy Quan, Danqing Zhao, Chris Marcello
+ * Date: 12/07/2018
+ * This file contains the Sys class, the built-in Bantam class for system services.
+ */
+
+package proj10JiangQuanZhaoMarcello.bantam.runtime;
+
+import java.util.Random;
+
+/**
+ * The built-in Bantam Sys class providing exit, time and random number services.
+ *
+ * @author Liwei Jiang
+ * @author Tracy Quan
+ * @author Danqing Zhao
+ * @author Chris Marcello
+ */
+public class Sys {
+    /**
+     * the random number generator shared by all Sys objects
+     */
+    private static final Random random = new Random();
+
+    /**
+     * Exits the program with the given status.
+     *
+     * @param status the exit status
+     */
+    public void exit(int status) { throw new ExitException(status); }
+
+    /**
+     * Returns the current time.
+     *
+     * @return the number of seconds since the epoch
+     */
+    public int time() { return (int) (System.currentTimeMillis() / 1000); }
+
+    /**
+     * Returns a random non-negative integer.
+     *
+     * @return a random non-negative integer
+     */
+    public int random() { return random.nextInt(Integer.MAX_VALUE); }
+
+    /**
+     * Thrown by exit to unwind a running Bantam program without exiting the JVM.
+     */
+    public static class ExitException extends RuntimeException {
+        /**
+         * the version of the serialized form of the exception
+         */
+        private static final long serialVersionUID = 1L;
+        /**
+         * the exit status
+         */
+        private final int status;
+
+        /**
+         * Constructor of the ExitException class.
+         *
+         * @param status the exit status
+         */
+        public ExitException(int status) {
+            super("Bantam program exited with status " + status);
+            this.status = status;
+        }
+
+        /**
+         * Gets the exit status.
+         *
+         * @return the exit status
+         */
+        public int getStatus() { return this.status; }
+    }
+}
@@ -0,0 +1,152 @@
+/*
+ * File: TextIO.java
+ * F18 CS361 Project 10
+ * Names: Liwei Jiang, Tracy Quan, Danqing Zhao, Chris Marcello
+ * Date: 12/07/2018
+ * This file contains the TextIO class, the built-in Bantam class for reading and writing text.
+ */
+
+package proj10JiangQuanZhaoMarcello.bantam.runtime;
+
+import java.io.*;
+
+/**
+ * The built-in Bantam TextIO class.
+ * Reads from the standard input and writes to the standard output by default.
+ * Compiled Bantam programs call these methods directly.
+ *
+ * @author Liwei Jiang
+ * @author Tracy Quan
+ * @author Danqing Zhao
+ * @author Chris Marcello
+ */
+public class TextIO {
+    /**
+     * the reader the get methods read from
+     */
+    private BufferedReader reader;
+    /**
+     * the writer the put methods write to
+     */
+    private PrintStream writer;
+
+    /**
+     * Constructor of the TextIO class.
+     * Reads from the standard input and writes to the standard output.
+     */
+    public TextIO() {
+        this.reader = new BufferedReader(new InputStreamReader(System.in));
+        this.writer = System.out;
+    }
+
+    /**
+     * Reads from the standard input from now on.
+     *
+     * @return this TextIO object
+     */
+    public TextIO readStdin() {
+        this.reader = new BufferedReader(new InputStreamReader(System.in));
+        return this;
+    }
+
+    /**
+     * Reads from the specified file from now on.
+     *
+     * @param filename the name of the file to read from
+     * @return this TextIO object
+     */
+    public TextIO readFile(String filename) {
+        try {
+            this.reader = new BufferedReader(new FileReader(filename));
+        } catch (FileNotFoundException e) {
+            throw new RuntimeException("File " + filename + " not found.");
+        }
+        return this;
+    }
+
+    /**
+     * Writes to the standard output from now on.
+     *
+     * @return this TextIO object
+     */
+    public TextIO writeStdout() {
+        this.writer = System.out;
+        return this;
+    }
+
+    /**
+     * Writes to the standard error from now on.
+     *
+     * @return this TextIO object
+     */
+    public TextIO writeStderr() {
+        this.writer = System.err;
+        return this;
+    }
+
+    /**
+     * Writes to the specified file from now on.
+     *
+     * @param filename the name of the file to write to
+     * @return this TextIO object
+     */
+    public TextIO writeFile(String filename) {
+        try {
+            this.writer = new PrintStream(new FileOutputStream(filename), true);
+        } catch (FileNotFoundException e) {
+            throw new RuntimeException("File " + filename + " cannot be written.");
+        }
+        return this;
+    }
+
+    /**
+     * Reads the next line.
+     *
+     * @return the next line; null at the end of the input
+     */
+    public String getString() {
+        try {
+            return this.reader.readLine();
+        } catch (IOException e) {
+            throw new RuntimeException("Input cannot be read.");
+        }
+    }
+
+    /**
+     * Reads the next line as an integer.
+     *
+     * @return the integer read; 0 if the line is not an integer
+     */
+    public int getInt() {
+        String line = this.getString();
+        try {
+            return Integer.parseInt(line.trim());
+        } catch (Exception e) {
+            return 0;
+        }
+    }
+
+    /**
+     * Writes a string.
+     *
+     * @param s the string to write
+     * @return this TextIO object
+     */
+    public TextIO putString(String s) {
+        this.writer.print(s);
+        this.writer.flush();
+        return this;
+    }
+
+    /**
+     * Writes an integer.
+     *
+     * @param i the integer to write
+     * @return this TextIO object
+     */
+    public TextIO putInt(int i) {
+        this.writer.print(i);
+        this.writer.flush();
+        return this;
+    }
+}
@@ -18,6 +18,9 @@
 package proj10JiangQuanZhaoMarcello.bantam.treedrawer;
 
 import proj10JiangQuanZhaoMarcello.bantam.ast.Program;
+import proj10JiangQuanZhaoMarcello.bantam.util.CompilerEvent;
+import proj10JiangQuanZhaoMarcello.bantam.util.NodeCounter;
+import proj10JiangQuanZhaoMarcello.bantam.util.PassEvent;
 
 import java.awt.*;
 
@@ -26,6 +29,7 @@ public class Drawer
 
     /**
      * Displays a Swing window with a drawing of the AST
+     * Records a PassEvent for the layout of the drawing
      * @param sourceName the name of the file containing the program parsed into the AST
      * @param AST The AST created when parsing the file with the given name.
      */
@@ -39,9 +43,12 @@ public class Drawer
 
         FontMetrics fontMetrics = frame.getFontMetrics(font);
 
+        PassEvent event = new PassEvent();
+        event.begin();
         proj10JiangQuanZhaoMarcello.bantam.treedrawer.LayoutVisitor layout = new LayoutVisitor(fontMetrics);
         proj10JiangQuanZhaoMarcello.bantam.treedrawer.DrawingTree theDrawing = (DrawingTree) AST.accept(layout);
         theDrawing.position(new Point(2048, 10));
+        event.complete("layout", AST, () -> NodeCounter.countNodes(AST), CompilerEvent.SUCCESS);
         panel.setDrawing(theDrawing);
 
         frame.setVisible(true);
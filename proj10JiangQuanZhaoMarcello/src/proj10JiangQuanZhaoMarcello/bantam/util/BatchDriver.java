@@ -0,0 +1,105 @@
+/*
+ * File: BatchDriver.java
+ * F18 CS361 Project 10
+ * Names: Liwei Jiang, Tracy Quan, Danqing Zhao, Chris Marcello
+ * Date: 12/07/2018
+ * This file contains the BatchDriver class, the command line driver shared by the phases of the compiler.
+ */
+
+package proj10JiangQuanZhaoMarcello.bantam.util;
+
+import proj10JiangQuanZhaoMarcello.bantam.ast.Program;
+import proj10JiangQuanZhaoMarcello.bantam.optimizer.Optimizer;
+import proj10JiangQuanZhaoMarcello.bantam.parser.Parser;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The BatchDriver class runs a phase of the compiler on each Bantam file given on the command line,
+ * as the main methods of the Parser, the Optimizer, the JvmCodeGenerator and the Interpreter do.
+ * It parses each file, prints the errors found or the exception thrown,
+ * and writes the profiles of all the files as a report.
+ *
+ * @author Liwei Jiang
+ * @author Tracy Quan
+ * @author Danqing Zhao
+ * @author Chris Marcello
+ */
+public final class BatchDriver {
+
+    /**
+     * A Phase is run on the AST of each file parsed, printing its results.
+     */
+    public interface Phase {
+        /**
+         * Runs the phase on the AST of a file.
+         *
+         * @param program the root of the AST parsed
+         * @param handler the ErrorHandler the errors are registered to
+         * @param profiler the PhaseProfiler of the file
+         * @throws Exception if the phase fails
+         */
+        void run(Program program, ErrorHandler handler, PhaseProfiler profiler) throws Exception;
+    }
+
+    /**
+     * Private constructor, this class only holds static methods.
+     */
+    private BatchDriver() { }
+
+    /**
+     * Parses each Bantam file given and runs the phase on it, printing the errors found
+     * or the exception thrown, then writes the report of the profiles.
+     *
+     * @param filenames the names of the Bantam source files
+     * @param phase the phase run on each file parsed
+     */
+    public static void run(String[] filenames, Phase phase) {
+        List<PhaseProfiler> profilers = new ArrayList<>();
+        for (String filename : filenames) {
+            System.out.println("\n------------------ " + filename + " ------------------" + "\n");
+
+            ErrorHandler handler = new ErrorHandler();
+            PhaseProfiler profiler = new PhaseProfiler(filename);
+            profilers.add(profiler);
+            try {
+                Parser parser = new Parser(handler);
+                profiler.begin("parse");
+                Program program = parser.parse(filename);
+                profiler.end();
+                profiler.setCounts(parser.getTokenCount(), NodeCounter.countNodes(program));
+                phase.run(program, handler, profiler);
+            } catch (CompilationException e) {
+                List<Error> errorList = handler.getErrorList();
+                for (Error err : errorList) {
+                    System.out.println(err.toString());
+                }
+                if (errorList.size() == 1) {
+                    System.out.println("\n1 error was found.");
+                } else {
+                    System.out.println("\n" + errorList.size() + " errors were found.");
+                }
+            } catch (Exception e) {
+                System.out.println(e.getMessage() != null ? e.getMessage() : e.toString());
+                System.out.println("ERROR: Running " + filename + " failed!");
+            }
+        }
+        PhaseProfiler.writeReport(profilers);
+    }
+
+    /**
+     * Optimizes the AST of a file, measured as the optimize phase.
+     *
+     * @param optimizer the Optimizer
+     * @param program the root of the AST
+     * @param profiler the PhaseProfiler of the file
+     * @return the root of the optimized AST
+     */
+    public static Program optimize(Optimizer optimizer, Program program, PhaseProfiler profiler) {
+        profiler.begin("optimize");
+        Program optimized = optimizer.optimize(program);
+        profiler.end();
+        profiler.setCounts(0, NodeCounter.countNodes(optimized));
+        return optimized;
+    }
+}
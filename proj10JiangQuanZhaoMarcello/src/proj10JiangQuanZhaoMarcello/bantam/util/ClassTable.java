@@ -0,0 +1,436 @@
+/*
+ * File: ClassTable.java
+ * F18 CS361 Project 10
+ * Names: Liwei Jiang, Tracy Quan, Danqing Zhao, Chris Marcello
+ * Date: 12/07/2018
+ * This file contains the ClassTable class, storing the classes, fields and methods of a Bantam program.
+ */
+
+package proj10JiangQuanZhaoMarcello.bantam.util;
+
+import proj10JiangQuanZhaoMarcello.bantam.ast.*;
+import java.util.*;
+
+/**
+ * The ClassTable class stores the declared types of the classes, fields and methods
+ * of a Bantam program together with the built-in classes Object, String, TextIO and Sys.
+ * It is shared by the execution backends, which need the declared types
+ * of the members that are referred to across classes.
+ *
+ * @author Liwei Jiang
+ * @author Tracy Quan
+ * @author Danqing Zhao
+ * @author Chris Marcello
+ */
+public class ClassTable {
+    /**
+     * the names of the built-in classes
+     */
+    public static final List<String> BUILTIN_CLASSES = List.of("Object", "String", "TextIO", "Sys");
+
+    /**
+     * a map from class names to class entries, in the order the classes were declared
+     */
+    private Map<String, ClassEntry> classMap;
+
+    /**
+     * Constructor of the ClassTable class.
+     * Builds the table of the built-in classes and the classes of the given program.
+     * Registers a semantic error for duplicate classes, unknown or cyclic parents and duplicate members.
+     * Records a PassEvent for the semantic analysis.
+     *
+     * @param program the root of the AST
+     * @param errorHandler the ErrorHandler object that stores a list of errors
+     */
+    public ClassTable(Program program, ErrorHandler errorHandler) {
+        PassEvent event = new PassEvent();
+        event.begin();
+        this.classMap = new LinkedHashMap<>();
+        this.addBuiltinClasses();
+
+        for (ASTNode node : program.getClassList()) {
+            Class_ aClass = (Class_) node;
+            if (this.classMap.containsKey(aClass.getName())) {
+                errorHandler.register(Error.Kind.SEMANT_ERROR, aClass.getFilename(), aClass.getLineNum(),
+                        "Class " + aClass.getName() + " is already defined.");
+                continue;
+            }
+            String parent = aClass.getParent() == null ? "Object" : aClass.getParent();
+            ClassEntry entry = new ClassEntry(aClass.getName(), parent, false, aClass);
+            for (ASTNode memberNode : aClass.getMemberList()) {
+                if (memberNode instanceof Field) {
+                    Field field = (Field) memberNode;
+                    if (entry.fields.put(field.getName(), field.getType()) != null) {
+                        errorHandler.register(Error.Kind.SEMANT_ERROR, aClass.getFilename(), field.getLineNum(),
+                                "Field " + field.getName() + " is already defined in class " + aClass.getName() + ".");
+                    }
+                }
+                else {
+                    Method method = (Method) memberNode;
+                    List<String> paramTypes = new ArrayList<>();
+                    for (ASTNode formal : method.getFormalList()) {
+                        paramTypes.add(((Formal) formal).getType());
+                    }
+                    MethodEntry methodEntry = new MethodEntry(method.getName(), method.getReturnType(), paramTypes, entry);
+                    if (entry.methods.put(method.getName(), methodEntry) != null) {
+                        errorHandler.register(Error.Kind.SEMANT_ERROR, aClass.getFilename(), method.getLineNum(),
+                                "Method " + method.getName() + " is already defined in class " + aClass.getName() + ".");
+                    }
+                }
+            }
+            this.classMap.put(aClass.getName(), entry);
+        }
+
+        // check that every parent exists and that there is no inheritance cycle
+        for (ClassEntry entry : this.classMap.values()) {
+            if (entry.builtin) continue;
+            Set<String> seen = new HashSet<>();
+            ClassEntry cur = entry;
+            while (cur != null && cur.parent != null) {
+                if (!seen.add(cur.name)) {
+                    errorHandler.register(Error.Kind.SEMANT_ERROR, entry.node.getFilename(), entry.node.getLineNum(),
+                            "Class " + entry.name + " is part of an inheritance cycle.");
+                    break;
+                }
+                ClassEntry parentEntry = this.classMap.get(cur.parent);
+                if (parentEntry == null) {
+                    errorHandler.register(Error.Kind.SEMANT_ERROR, entry.node.getFilename(), entry.node.getLineNum(),
+                            "Class " + cur.name + " extends the undefined class " + cur.parent + ".");
+                    break;
+                }
+                if (parentEntry.name.equals("String") || parentEntry.name.equals("Sys")) {
+                    errorHandler.register(Error.Kind.SEMANT_ERROR, entry.node.getFilename(), entry.node.getLineNum(),
+                            "Class " + cur.name + " cannot extend the built-in class " + cur.parent + ".");
+                    break;
+                }
+                cur = parentEntry;
+            }
+        }
+        event.complete("semantic", program, () -> NodeCounter.countNodes(program),
+                CompilerEvent.outcome(true, errorHandler));
+    }
+
+    /**
+     * Helper method to add the built-in classes and their methods to the table.
+     */
+    private void addBuiltinClasses() {
+        ClassEntry object = new ClassEntry("Object", null, true, null);
+        object.addMethod("equals", "boolean", "Object");
+        object.addMethod("toString", "String");
+        object.addMethod("hashCode", "int");
+        this.classMap.put(object.name, object);
+
+        ClassEntry string = new ClassEntry("String", "Object", true, null);
+        string.addMethod("length", "int");
+        string.addMethod("equals", "boolean", "Object");
+        string.addMethod("substring", "String", "int", "int");
+        string.addMethod("concat", "String", "String");
+        this.classMap.put(string.name, string);
+
+        ClassEntry textIO = new ClassEntry("TextIO", "Object", true, null);
+        textIO.addMethod("readStdin", "TextIO");
+        textIO.addMethod("readFile", "TextIO", "String");
+        textIO.addMethod("writeStdout", "TextIO");
+        textIO.addMethod("writeStderr", "TextIO");
+        textIO.addMethod("writeFile", "TextIO", "String");
+        textIO.addMethod("getString", "String");
+        textIO.addMethod("getInt", "int");
+        textIO.addMethod("putString", "TextIO", "String");
+        textIO.addMethod("putInt", "TextIO", "int");
+        this.classMap.put(textIO.name, textIO);
+
+        ClassEntry sys = new ClassEntry("Sys", "Object", true, null);
+        sys.addMethod("exit", "void", "int");
+        sys.addMethod("time", "int");
+        sys.addMethod("random", "int");
+        this.classMap.put(sys.name, sys);
+    }
+
+    /**
+     * Gets the entry of the specified class.
+     *
+     * @param className the name of the class
+     * @return the class entry; null if there is no such class
+     */
+    public ClassEntry getClass(String className) { return this.classMap.get(className); }
+
+    /**
+     * Gets all the class entries, built-in classes first, then in the order the classes were declared.
+     *
+     * @return the collection of class entries
+     */
+    public Collection<ClassEntry> getClasses() { return this.classMap.values(); }
+
+    /**
+     * Finds the class that declares the specified field, searching the specified class and its ancestors.
+     *
+     * @param className the name of the class to start the search from
+     * @param fieldName the name of the field
+     * @return the entry of the declaring class; null if the field is not found
+     */
+    public ClassEntry lookupFieldOwner(String className, String fieldName) {
+        for (ClassEntry cur = this.classMap.get(className); cur != null; cur = this.classMap.get(cur.parent)) {
+            if (cur.fields.containsKey(fieldName)) {
+                return cur;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Finds the specified method, searching the specified class and its ancestors.
+     *
+     * @param className the name of the class to start the search from
+     * @param methodName the name of the method
+     * @return the method entry; null if the method is not found
+     */
+    public MethodEntry lookupMethod(String className, String methodName) {
+        for (ClassEntry cur = this.classMap.get(className); cur != null; cur = this.classMap.get(cur.parent)) {
+            MethodEntry method = cur.methods.get(methodName);
+            if (method != null) {
+                return method;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Checks whether a class is the same as or a subclass of another class.
+     *
+     * @param className the name of the possible subclass
+     * @param ancestorName the name of the possible ancestor
+     * @return true if className is ancestorName or inherits from it; false otherwise
+     */
+    public boolean isSubclass(String className, String ancestorName) {
+        for (ClassEntry cur = this.classMap.get(className); cur != null; cur = this.classMap.get(cur.parent)) {
+            if (cur.name.equals(ancestorName)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Checks whether a type is int or boolean.
+     *
+     * @param type the Bantam type
+     * @return true if the type is primitive; false otherwise
+     */
+    public static boolean isPrimitive(String type) {
+        return type.equals("int") || type.equals("boolean");
+    }
+
+    /**
+     * Checks whether a type is an array type.
+     *
+     * @param type the Bantam type
+     * @return true if the type is an array type; false otherwise
+     */
+    public static boolean isArray(String type) { return type.endsWith("[]"); }
+
+    /**
+     * Gets the element type of an array type.
+     *
+     * @param type the Bantam array type
+     * @return the element type
+     */
+    public static String elementType(String type) { return type.substring(0, type.length() - 2); }
+
+    /**
+     * Checks whether a type is int, boolean, a class in the table or an array of those.
+     *
+     * @param type the Bantam type
+     * @return true if the type exists; false otherwise
+     */
+    public boolean isDefinedType(String type) {
+        String baseType = isArray(type) ? elementType(type) : type;
+        return isPrimitive(baseType) || this.classMap.containsKey(baseType);
+    }
+
+    /**
+     * Checks whether a value of a type can be assigned to a variable of another type.
+     * The type of null is null, which can be assigned to any class or array type.
+     *
+     * @param from the type of the value
+     * @param to the type of the variable
+     * @return true if the value can be assigned; false otherwise
+     */
+    public boolean isAssignable(String from, String to) {
+        if (from.equals(to)) {
+            return true;
+        }
+        if (isPrimitive(from) || isPrimitive(to) || from.equals("void")) {
+            return false;
+        }
+        if (from.equals("null") || to.equals("Object")) {
+            return true;
+        }
+        if (isArray(from) && isArray(to)) {
+            return !isPrimitive(elementType(from)) && this.isAssignable(elementType(from), elementType(to));
+        }
+        return !isArray(from) && !isArray(to) && this.isSubclass(from, to);
+    }
+
+    /**
+     * An entry of the class table, describing a single class.
+     */
+    public static class ClassEntry {
+        /**
+         * the name of the class
+         */
+        private final String name;
+        /**
+         * the name of the parent class; null for Object
+         */
+        private final String parent;
+        /**
+         * whether this is a built-in class
+         */
+        private final boolean builtin;
+        /**
+         * the class node in the AST; null for built-in classes
+         */
+        private final Class_ node;
+        /**
+         * a map from the names of the fields declared in this class to their types
+         */
+        private final Map<String, String> fields = new LinkedHashMap<>();
+        /**
+         * a map from the names of the methods declared in this class to their entries
+         */
+        private final Map<String, MethodEntry> methods = new LinkedHashMap<>();
+
+        /**
+         * Constructor of the ClassEntry class.
+         *
+         * @param name the name of the class
+         * @param parent the name of the parent class
+         * @param builtin whether this is a built-in class
+         * @param node the class node in the AST
+         */
+        private ClassEntry(String name, String parent, boolean builtin, Class_ node) {
+            this.name = name;
+            this.parent = parent;
+            this.builtin = builtin;
+            this.node = node;
+        }
+
+        /**
+         * Helper method to declare a method of a built-in class.
+         *
+         * @param methodName the name of the method
+         * @param returnType the return type of the method
+         * @param paramTypes the types of the parameters
+         */
+        private void addMethod(String methodName, String returnType, String... paramTypes) {
+            this.methods.put(methodName, new MethodEntry(methodName, returnType, List.of(paramTypes), this));
+        }
+
+        /**
+         * Gets the name of the class.
+         *
+         * @return the class name
+         */
+        public String getName() { return this.name; }
+
+        /**
+         * Gets the name of the parent class.
+         *
+         * @return the parent class name; null for Object
+         */
+        public String getParent() { return this.parent; }
+
+        /**
+         * Checks whether this is a built-in class.
+         *
+         * @return true if this is a built-in class; false otherwise
+         */
+        public boolean isBuiltin() { return this.builtin; }
+
+        /**
+         * Gets the class node in the AST.
+         *
+         * @return the class node; null for built-in classes
+         */
+        public Class_ getNode() { return this.node; }
+
+        /**
+         * Gets the fields declared in this class.
+         *
+         * @return an unmodifiable map from field names to field types
+         */
+        public Map<String, String> getFields() { return Collections.unmodifiableMap(this.fields); }
+
+        /**
+         * Gets the methods declared in this class.
+         *
+         * @return an unmodifiable map from method names to method entries
+         */
+        public Map<String, MethodEntry> getMethods() { return Collections.unmodifiableMap(this.methods); }
+    }
+
+    /**
+     * An entry of the class table, describing a single method.
+     */
+    public static class MethodEntry {
+        /**
+         * the name of the method
+         */
+        private final String name;
+        /**
+         * the return type of the method
+         */
+        private final String returnType;
+        /**
+         * the types of the parameters
+         */
+        private final List<String> paramTypes;
+        /**
+         * the class declaring the method
+         */
+        private final ClassEntry owner;
+
+        /**
+         * Constructor of the MethodEntry class.
+         *
+         * @param name the name of the method
+         * @param returnType the return type of the method
+         * @param paramTypes the types of the parameters
+         * @param owner the class declaring the method
+         */
+        private MethodEntry(String name, String returnType, List<String> paramTypes, ClassEntry owner) {
+            this.name = name;
+            this.returnType = returnType;
+            this.paramTypes = paramTypes;
+            this.owner = owner;
+        }
+
+        /**
+         * Gets the name of the method.
+         *
+         * @return the method name
+         */
+        public String getName() { return this.name; }
+
+        /**
+         * Gets the return type of the method.
+         *
+         * @return the return type
+         */
+        public String getReturnType() { return this.returnType; }
+
+        /**
+         * Gets the types of the parameters.
+         *
+         * @return an unmodifiable list of parameter types
+         */
+        public List<String> getParamTypes() { return Collections.unmodifiableList(this.paramTypes); }
+
+        /**
+         * Gets the class declaring the method.
+         *
+         * @return the entry of the declaring class
+         */
+        public ClassEntry getOwner() { return this.owner; }
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * File: CompilerEvent.java
+ * F18 CS361 Project 10
+ * Names: Liwei Jiang, Tracy Quan, Danqing Zhao, Chris Marcello
+ * Date: 12/07/2018
+ * This file contains the CompilerEvent class, the base of the Flight Recorder events of the compiler.
+ */
+
+package proj10JiangQuanZhaoMarcello.bantam.util;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+
+/**
+ * The CompilerEvent class is the base of the JDK Flight Recorder events recorded by the phases of the compiler,
+ * and by the background workers of the IDE, which share its outcomes and its file fields.
+ * An event is begun when its phase starts and completed when it ends; the fields are only filled in,
+ * and the counts only computed, if the recording is enabled for the event, so a disabled event costs
+ * next to nothing.
+ *
+ * @author Liwei Jiang
+ * @author Tracy Quan
+ * @author Danqing Zhao
+ * @author Chris Marcello
+ */
+@Category({"Bantam", "Compiler"})
+public abstract class CompilerEvent extends Event {
+    /**
+     * the outcome of a phase that produced its result without errors, or of a task that succeeded
+     */
+    public static final String SUCCESS = "success";
+    /**
+     * the outcome of a phase that produced its result but registered errors, or of a task that found errors
+     */
+    public static final String ERRORS = "errors";
+    /**
+     * the outcome of a phase or a task that threw an exception
+     */
+    public static final String FAILED = "failed";
+
+    /**
+     * the name of the file the phase ran on
+     */
+    @Label("File")
+    String file;
+    /**
+     * the length of the source the phase ran on, in characters, which may be the unsaved text of an editor;
+     * 0 if it is not known
+     */
+    @Label("Source Length")
+    long length;
+    /**
+     * the outcome of the phase: success, errors or failed
+     */
+    @Label("Outcome")
+    String outcome;
+
+    /**
+     * Gets the outcome of a phase.
+     *
+     * @param completed whether the phase produced its result
+     * @param errorHandler the ErrorHandler the phase registered its errors to
+     * @return SUCCESS, ERRORS or FAILED
+     */
+    public static String outcome(boolean completed, ErrorHandler errorHandler) {
+        if (!completed) return FAILED;
+        return errorHandler.errorsFound() ? ERRORS : SUCCESS;
+    }
+
+    /**
+     * Ends the event and fills in the common fields if the event is recorded.
+     *
+     * @param filename the name of the file the phase ran on; null if unknown
+     * @param length the length of the source the phase ran on, in characters; 0 if unknown
+     * @param outcome the outcome of the phase
+     * @return true if the event is recorded and should be committed; false otherwise
+     */
+    protected boolean finish(String filename, long length, String outcome) {
+        this.end();
+        if (!this.shouldCommit()) {
+            return false;
+        }
+        this.file = filename;
+        this.length = length;
+        this.outcome = outcome;
+        return true;
+    }
+}
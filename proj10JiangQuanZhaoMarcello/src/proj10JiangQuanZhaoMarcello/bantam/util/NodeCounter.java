@@ -0,0 +1,605 @@
+/*
+ * File: NodeCounter.java
+ * F18 CS361 Project 10
+ * Names: Liwei Jiang, Tracy Quan, Danqing Zhao, Chris Marcello
+ * Date: 12/07/2018
+ * This file contains the NodeCounter class, counting the nodes of an AST for the profiles of the compiler.
+ */
+
+package proj10JiangQuanZhaoMarcello.bantam.util;
+
+import proj10JiangQuanZhaoMarcello.bantam.ast.*;
+import proj10JiangQuanZhaoMarcello.bantam.visitor.Visitor;
+
+/**
+ * The NodeCounter class is a Visitor counting the nodes of an AST, including the list nodes,
+ * for the events and the profiles of the phases of the compiler.
+ * Each node is counted when it is visited, then its children are visited as the Visitor does.
+ *
+ * @author Liwei Jiang
+ * @author Tracy Quan
+ * @author Danqing Zhao
+ * @author Chris Marcello
+ */
+public class NodeCounter extends Visitor {
+    /**
+     * the number of nodes visited
+     */
+    private int nodeCount;
+
+    /**
+     * Counts the nodes of an AST.
+     *
+     * @param program the root of the AST
+     * @return the number of nodes, including the list nodes
+     */
+    public static int countNodes(Program program) {
+        NodeCounter counter = new NodeCounter();
+        program.accept(counter);
+        return counter.nodeCount;
+    }
+
+    /**
+     * Counts a Program node and visits its children.
+     *
+     * @param node the node
+     * @return null
+     */
+    @Override
+    public Object visit(Program node) {
+        this.nodeCount++;
+        return super.visit(node);
+    }
+
+    /**
+     * Counts a ClassList node and visits its children.
+     *
+     * @param node the node
+     * @return null
+     */
+    @Override
+    public Object visit(ClassList node) {
+        this.nodeCount++;
+        return super.visit(node);
+    }
+
+    /**
+     * Counts a Class_ node and visits its children.
+     *
+     * @param node the node
+     * @return null
+     */
+    @Override
+    public Object visit(Class_ node) {
+        this.nodeCount++;
+        return super.visit(node);
+    }
+
+    /**
+     * Counts a MemberList node and visits its children.
+     *
+     * @param node the node
+     * @return null
+     */
+    @Override
+    public Object visit(MemberList node) {
+        this.nodeCount++;
+        return super.visit(node);
+    }
+
+    /**
+     * Counts a Field node and visits its children.
+     *
+     * @param node the node
+     * @return null
+     */
+    @Override
+    public Object visit(Field node) {
+        this.nodeCount++;
+        return super.visit(node);
+    }
+
+    /**
+     * Counts a Method node and visits its children.
+     *
+     * @param node the node
+     * @return null
+     */
+    @Override
+    public Object visit(Method node) {
+        this.nodeCount++;
+        return super.visit(node);
+    }
+
+    /**
+     * Counts a FormalList node and visits its children.
+     *
+     * @param node the node
+     * @return null
+     */
+    @Override
+    public Object visit(FormalList node) {
+        this.nodeCount++;
+        return super.visit(node);
+    }
+
+    /**
+     * Counts a Formal node and visits its children.
+     *
+     * @param node the node
+     * @return null
+     */
+    @Override
+    public Object visit(Formal node) {
+        this.nodeCount++;
+        return super.visit(node);
+    }
+
+    /**
+     * Counts a StmtList node and visits its children.
+     *
+     * @param node the node
+     * @return null
+     */
+    @Override
+    public Object visit(StmtList node) {
+        this.nodeCount++;
+        return super.visit(node);
+    }
+
+    /**
+     * Counts a DeclStmt node and visits its children.
+     *
+     * @param node the node
+     * @return null
+     */
+    @Override
+    public Object visit(DeclStmt node) {
+        this.nodeCount++;
+        return super.visit(node);
+    }
+
+    /**
+     * Counts an ExprStmt node and visits its children.
+     *
+     * @param node the node
+     * @return null
+     */
+    @Override
+    public Object visit(ExprStmt node) {
+        this.nodeCount++;
+        return super.visit(node);
+    }
+
+    /**
+     * Counts an IfStmt node and visits its children.
+     *
+     * @param node the node
+     * @return null
+     */
+    @Override
+    public Object visit(IfStmt node) {
+        this.nodeCount++;
+        return super.visit(node);
+    }
+
+    /**
+     * Counts a WhileStmt node and visits its children.
+     *
+     * @param node the node
+     * @return null
+     */
+    @Override
+    public Object visit(WhileStmt node) {
+        this.nodeCount++;
+        return super.visit(node);
+    }
+
+    /**
+     * Counts a ForStmt node and visits its children.
+     *
+     * @param node the node
+     * @return null
+     */
+    @Override
+    public Object visit(ForStmt node) {
+        this.nodeCount++;
+        return super.visit(node);
+    }
+
+    /**
+     * Counts a BreakStmt node and visits its children.
+     *
+     * @param node the node
+     * @return null
+     */
+    @Override
+    public Object visit(BreakStmt node) {
+        this.nodeCount++;
+        return super.visit(node);
+    }
+
+    /**
+     * Counts a BlockStmt node and visits its children.
+     *
+     * @param node the node
+     * @return null
+     */
+    @Override
+    public Object visit(BlockStmt node) {
+        this.nodeCount++;
+        return super.visit(node);
+    }
+
+    /**
+     * Counts a ReturnStmt node and visits its children.
+     *
+     * @param node the node
+     * @return null
+     */
+    @Override
+    public Object visit(ReturnStmt node) {
+        this.nodeCount++;
+        return super.visit(node);
+    }
+
+    /**
+     * Counts an ExprList node and visits its children.
+     *
+     * @param node the node
+     * @return null
+     */
+    @Override
+    public Object visit(ExprList node) {
+        this.nodeCount++;
+        return super.visit(node);
+    }
+
+    /**
+     * Counts a DispatchExpr node and visits its children.
+     *
+     * @param node the node
+     * @return null
+     */
+    @Override
+    public Object visit(DispatchExpr node) {
+        this.nodeCount++;
+        return super.visit(node);
+    }
+
+    /**
+     * Counts a NewExpr node and visits its children.
+     *
+     * @param node the node
+     * @return null
+     */
+    @Override
+    public Object visit(NewExpr node) {
+        this.nodeCount++;
+        return super.visit(node);
+    }
+
+    /**
+     * Counts a NewArrayExpr node and visits its children.
+     *
+     * @param node the node
+     * @return null
+     */
+    @Override
+    public Object visit(NewArrayExpr node) {
+        this.nodeCount++;
+        return super.visit(node);
+    }
+
+    /**
+     * Counts an InstanceofExpr node and visits its children.
+     *
+     * @param node the node
+     * @return null
+     */
+    @Override
+    public Object visit(InstanceofExpr node) {
+        this.nodeCount++;
+        return super.visit(node);
+    }
+
+    /**
+     * Counts a CastExpr node and visits its children.
+     *
+     * @param node the node
+     * @return null
+     */
+    @Override
+    public Object visit(CastExpr node) {
+        this.nodeCount++;
+        return super.visit(node);
+    }
+
+    /**
+     * Counts an AssignExpr node and visits its children.
+     *
+     * @param node the node
+     * @return null
+     */
+    @Override
+    public Object visit(AssignExpr node) {
+        this.nodeCount++;
+        return super.visit(node);
+    }
+
+    /**
+     * Counts an ArrayAssignExpr node and visits its children.
+     *
+     * @param node the node
+     * @return null
+     */
+    @Override
+    public Object visit(ArrayAssignExpr node) {
+        this.nodeCount++;
+        return super.visit(node);
+    }
+
+    /**
+     * Counts a BinaryCompEqExpr node and visits its children.
+     *
+     * @param node the node
+     * @return null
+     */
+    @Override
+    public Object visit(BinaryCompEqExpr node) {
+        this.nodeCount++;
+        return super.visit(node);
+    }
+
+    /**
+     * Counts a BinaryCompNeExpr node and visits its children.
+     *
+     * @param node the node
+     * @return null
+     */
+    @Override
+    public Object visit(BinaryCompNeExpr node) {
+        this.nodeCount++;
+        return super.visit(node);
+    }
+
+    /**
+     * Counts a BinaryCompLtExpr node and visits its children.
+     *
+     * @param node the node
+     * @return null
+     */
+    @Override
+    public Object visit(BinaryCompLtExpr node) {
+        this.nodeCount++;
+        return super.visit(node);
+    }
+
+    /**
+     * Counts a BinaryCompLeqExpr node and visits its children.
+     *
+     * @param node the node
+     * @return null
+     */
+    @Override
+    public Object visit(BinaryCompLeqExpr node) {
+        this.nodeCount++;
+        return super.visit(node);
+    }
+
+    /**
+     * Counts a BinaryCompGtExpr node and visits its children.
+     *
+     * @param node the node
+     * @return null
+     */
+    @Override
+    public Object visit(BinaryCompGtExpr node) {
+        this.nodeCount++;
+        return super.visit(node);
+    }
+
+    /**
+     * Counts a BinaryCompGeqExpr node and visits its children.
+     *
+     * @param node the node
+     * @return null
+     */
+    @Override
+    public Object visit(BinaryCompGeqExpr node) {
+        this.nodeCount++;
+        return super.visit(node);
+    }
+
+    /**
+     * Counts a BinaryArithPlusExpr node and visits its children.
+     *
+     * @param node the node
+     * @return null
+     */
+    @Override
+    public Object visit(BinaryArithPlusExpr node) {
+        this.nodeCount++;
+        return super.visit(node);
+    }
+
+    /**
+     * Counts a BinaryArithMinusExpr node and visits its children.
+     *
+     * @param node the node
+     * @return null
+     */
+    @Override
+    public Object visit(BinaryArithMinusExpr node) {
+        this.nodeCount++;
+        return super.visit(node);
+    }
+
+    /**
+     * Counts a BinaryArithTimesExpr node and visits its children.
+     *
+     * @param node the node
+     * @return null
+     */
+    @Override
+    public Object visit(BinaryArithTimesExpr node) {
+        this.nodeCount++;
+        return super.visit(node);
+    }
+
+    /**
+     * Counts a BinaryArithDivideExpr node and visits its children.
+     *
+     * @param node the node
+     * @return null
+     */
+    @Override
+    public Object visit(BinaryArithDivideExpr node) {
+        this.nodeCount++;
+        return super.visit(node);
+    }
+
+    /**
+     * Counts a BinaryArithModulusExpr node and visits its children.
+     *
+     * @param node the node
+     * @return null
+     */
+    @Override
+    public Object visit(BinaryArithModulusExpr node) {
+        this.nodeCount++;
+        return super.visit(node);
+    }
+
+    /**
+     * Counts a BinaryLogicAndExpr node and visits its children.
+     *
+     * @param node the node
+     * @return null
+     */
+    @Override
+    public Object visit(BinaryLogicAndExpr node) {
+        this.nodeCount++;
+        return super.visit(node);
+    }
+
+    /**
+     * Counts a BinaryLogicOrExpr node and visits its children.
+     *
+     * @param node the node
+     * @return null
+     */
+    @Override
+    public Object visit(BinaryLogicOrExpr node) {
+        this.nodeCount++;
+        return super.visit(node);
+    }
+
+    /**
+     * Counts an UnaryNegExpr node and visits its children.
+     *
+     * @param node the node
+     * @return null
+     */
+    @Override
+    public Object visit(UnaryNegExpr node) {
+        this.nodeCount++;
+        return super.visit(node);
+    }
+
+    /**
+     * Counts an UnaryNotExpr node and visits its children.
+     *
+     * @param node the node
+     * @return null
+     */
+    @Override
+    public Object visit(UnaryNotExpr node) {
+        this.nodeCount++;
+        return super.visit(node);
+    }
+
+    /**
+     * Counts an UnaryIncrExpr node and visits its children.
+     *
+     * @param node the node
+     * @return null
+     */
+    @Override
+    public Object visit(UnaryIncrExpr node) {
+        this.nodeCount++;
+        return super.visit(node);
+    }
+
+    /**
+     * Counts an UnaryDecrExpr node and visits its children.
+     *
+     * @param node the node
+     * @return null
+     */
+    @Override
+    public Object visit(UnaryDecrExpr node) {
+        this.nodeCount++;
+        return super.visit(node);
+    }
+
+    /**
+     * Counts a VarExpr node and visits its children.
+     *
+     * @param node the node
+     * @return null
+     */
+    @Override
+    public Object visit(VarExpr node) {
+        this.nodeCount++;
+        return super.visit(node);
+    }
+
+    /**
+     * Counts an ArrayExpr node and visits its children.
+     *
+     * @param node the node
+     * @return null
+     */
+    @Override
+    public Object visit(ArrayExpr node) {
+        this.nodeCount++;
+        return super.visit(node);
+    }
+
+    /**
+     * Counts a ConstIntExpr node and visits its children.
+     *
+     * @param node the node
+     * @return null
+     */
+    @Override
+    public Object visit(ConstIntExpr node) {
+        this.nodeCount++;
+        return super.visit(node);
+    }
+
+    /**
+     * Counts a ConstBooleanExpr node and visits its children.
+     *
+     * @param node the node
+     * @return null
+     */
+    @Override
+    public Object visit(ConstBooleanExpr node) {
+        this.nodeCount++;
+        return super.visit(node);
+    }
+
+    /**
+     * Counts a ConstStringExpr node and visits its children.
+     *
+     * @param node the node
+     * @return null
+     */
+    @Override
+    public Object visit(ConstStringExpr node) {
+        this.nodeCount++;
+        return super.visit(node);
+    }
+}
@@ -0,0 +1,53 @@
+/*
+ * File: ParseEvent.java
+ * F18 CS361 Project 10
+ * Names: Liwei Jiang, Tracy Quan, Danqing Zhao, Chris Marcello
+ * Date: 12/07/2018
+ * This file contains the ParseEvent class, the Flight Recorder event of parsing a file.
+ */
+
+package proj10JiangQuanZhaoMarcello.bantam.util;
+
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import java.util.function.IntSupplier;
+
+/**
+ * A JDK Flight Recorder event recorded for each call of Parser.parse, which also scans the file.
+ *
+ * @author Liwei Jiang
+ * @author Tracy Quan
+ * @author Danqing Zhao
+ * @author Chris Marcello
+ */
+@Name("bantam.Parse")
+@Label("Bantam Parse")
+public class ParseEvent extends CompilerEvent {
+    /**
+     * the number of tokens scanned
+     */
+    @Label("Tokens")
+    int tokens;
+    /**
+     * the number of nodes of the AST built
+     */
+    @Label("Nodes")
+    int nodes;
+
+    /**
+     * Ends the event and commits it if it is recorded.
+     *
+     * @param filename the name of the file parsed
+     * @param length the number of characters scanned
+     * @param tokens the number of tokens scanned
+     * @param nodes counts the nodes of the AST built; only called if the event is recorded
+     * @param outcome the outcome of parsing
+     */
+    public void complete(String filename, int length, int tokens, IntSupplier nodes, String outcome) {
+        if (this.finish(filename, length, outcome)) {
+            this.tokens = tokens;
+            this.nodes = nodes.getAsInt();
+            this.commit();
+        }
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ * File: PassEvent.java
+ * F18 CS361 Project 10
+ * Names: Liwei Jiang, Tracy Quan, Danqing Zhao, Chris Marcello
+ * Date: 12/07/2018
+ * This file contains the PassEvent class, the Flight Recorder event of a pass over the AST.
+ */
+
+package proj10JiangQuanZhaoMarcello.bantam.util;
+
+import proj10JiangQuanZhaoMarcello.bantam.ast.Class_;
+import proj10JiangQuanZhaoMarcello.bantam.ast.Program;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import java.util.function.IntSupplier;
+
+/**
+ * A JDK Flight Recorder event recorded for a pass over the AST of a program:
+ * the semantic analysis of the class hierarchy, the optimizer, the code generators and the tree layout.
+ *
+ * @author Liwei Jiang
+ * @author Tracy Quan
+ * @author Danqing Zhao
+ * @author Chris Marcello
+ */
+@Name("bantam.Pass")
+@Label("Bantam Pass")
+public class PassEvent extends CompilerEvent {
+    /**
+     * the name of the pass
+     */
+    @Label("Pass")
+    String pass;
+    /**
+     * the number of nodes of the AST the pass ran over
+     */
+    @Label("Nodes")
+    int nodes;
+
+    /**
+     * Ends the event and commits it if it is recorded.
+     * The file of the event is the file the first class of the program is declared in;
+     * its length is not known from the AST, so it is recorded as 0.
+     *
+     * @param pass the name of the pass
+     * @param program the root of the AST the pass ran over
+     * @param nodes counts the nodes of the AST; only called if the event is recorded
+     * @param outcome the outcome of the pass
+     */
+    public void complete(String pass, Program program, IntSupplier nodes, String outcome) {
+        String filename = program.getClassList().getSize() == 0 ? null
+                : ((Class_) program.getClassList().get(0)).getFilename();
+        if (this.finish(filename, 0, outcome)) {
+            this.pass = pass;
+            this.nodes = nodes.getAsInt();
+            this.commit();
+        }
+    }
+}
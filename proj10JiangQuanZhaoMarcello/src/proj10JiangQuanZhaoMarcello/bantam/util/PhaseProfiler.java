@@ -0,0 +1,302 @@
+/*
+ * File: PhaseProfiler.java
+ * F18 CS361 Project 10
+ * Names: Liwei Jiang, Tracy Quan, Danqing Zhao, Chris Marcello
+ * Date: 12/07/2018
+ * This file contains the PhaseProfiler class, measuring the phases of the compiler on a file.
+ */
+
+package proj10JiangQuanZhaoMarcello.bantam.util;
+
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * The PhaseProfiler class measures the phases the compiler runs on a file:
+ * for each phase the wall time, the bytes allocated by the current thread,
+ * and the number of tokens and AST nodes produced.
+ * A phase is measured between begin and end, which must be called on the same thread;
+ * its counts are set afterwards so that counting is not measured.
+ *
+ * The batch drivers write the profiles of all their files to the file named by the
+ * bantam.profile system property, as CSV if its name ends with .csv and as JSON otherwise.
+ *
+ * @author Liwei Jiang
+ * @author Tracy Quan
+ * @author Danqing Zhao
+ * @author Chris Marcello
+ */
+public class PhaseProfiler {
+    /**
+     * the system property naming the file the batch drivers write their report to
+     */
+    public static final String REPORT_PROPERTY = "bantam.profile";
+    /**
+     * the bean measuring the bytes allocated by a thread; null if the JVM cannot measure them
+     */
+    private static final com.sun.management.ThreadMXBean THREAD_BEAN = createThreadBean();
+    /**
+     * the name of the file profiled
+     */
+    private final String filename;
+    /**
+     * the phases measured, in order
+     */
+    private final List<Phase> phases = new ArrayList<>();
+    /**
+     * the name of the phase being measured; null if there is none
+     */
+    private String currentPhase;
+    /**
+     * the time the phase being measured began at, in nanoseconds
+     */
+    private long startNanos;
+    /**
+     * the bytes allocated by the current thread when the phase being measured began
+     */
+    private long startBytes;
+
+    /**
+     * Constructor of the PhaseProfiler class.
+     *
+     * @param filename the name of the file profiled
+     */
+    public PhaseProfiler(String filename) { this.filename = filename; }
+
+    /**
+     * Helper method to get the bean measuring the bytes allocated by a thread.
+     *
+     * @return the bean; null if the JVM cannot measure allocations
+     */
+    private static com.sun.management.ThreadMXBean createThreadBean() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) bean;
+            if (threadBean.isThreadAllocatedMemorySupported()) {
+                threadBean.setThreadAllocatedMemoryEnabled(true);
+                return threadBean;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Helper method to get the bytes allocated by the current thread so far.
+     *
+     * @return the number of bytes; -1 if the JVM cannot measure allocations
+     */
+    private static long allocatedBytes() {
+        return THREAD_BEAN == null ? -1 : THREAD_BEAN.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    /**
+     * Begins measuring a phase.
+     *
+     * @param phase the name of the phase
+     */
+    public void begin(String phase) {
+        this.currentPhase = phase;
+        this.startBytes = allocatedBytes();
+        this.startNanos = System.nanoTime();
+    }
+
+    /**
+     * Ends measuring the current phase.
+     */
+    public void end() {
+        long nanos = System.nanoTime() - this.startNanos;
+        long bytes = this.startBytes < 0 ? -1 : allocatedBytes() - this.startBytes;
+        this.phases.add(new Phase(this.currentPhase, nanos, bytes));
+        this.currentPhase = null;
+    }
+
+    /**
+     * Sets the numbers of tokens and AST nodes produced by the last phase measured.
+     *
+     * @param tokens the number of tokens
+     * @param nodes the number of AST nodes
+     */
+    public void setCounts(int tokens, int nodes) {
+        Phase phase = this.phases.get(this.phases.size() - 1);
+        phase.tokens = tokens;
+        phase.nodes = nodes;
+    }
+
+    /**
+     * Gets the name of the file profiled.
+     *
+     * @return the name of the file
+     */
+    public String getFilename() { return this.filename; }
+
+    /**
+     * Gets the phases measured.
+     *
+     * @return an unmodifiable list of the phases, in order
+     */
+    public List<Phase> getPhases() { return Collections.unmodifiableList(this.phases); }
+
+    /**
+     * Summarizes the phases on a line, as shown in the console of the IDE.
+     *
+     * @return the summary
+     */
+    public String summary() {
+        StringBuilder summary = new StringBuilder();
+        for (Phase phase : this.phases) {
+            summary.append(summary.length() == 0 ? "" : ", ").append(phase.getName())
+                    .append(String.format(Locale.ROOT, " %.1f ms (", phase.getWallNanos() / 1e6));
+            if (phase.getTokens() > 0) {
+                summary.append(phase.getTokens()).append(" tokens, ");
+            }
+            if (phase.getNodes() > 0) {
+                summary.append(phase.getNodes()).append(" nodes, ");
+            }
+            summary.append(phase.getAllocatedBytes() < 0 ? "allocations unknown"
+                    : String.format(Locale.ROOT, "%.1f MB allocated", phase.getAllocatedBytes() / 1e6)).append(')');
+        }
+        return summary.toString();
+    }
+
+    /**
+     * Formats profiles as CSV, a line per phase after a header line.
+     *
+     * @param profilers the profiles
+     * @return the CSV text
+     */
+    public static String toCsv(List<PhaseProfiler> profilers) {
+        StringBuilder csv = new StringBuilder("file,phase,wall_ns,allocated_bytes,tokens,nodes\n");
+        for (PhaseProfiler profiler : profilers) {
+            for (Phase phase : profiler.phases) {
+                csv.append('"').append(profiler.filename.replace("\"", "\"\"")).append("\",")
+                        .append(phase.getName()).append(',').append(phase.getWallNanos()).append(',')
+                        .append(phase.getAllocatedBytes()).append(',').append(phase.getTokens()).append(',')
+                        .append(phase.getNodes()).append('\n');
+            }
+        }
+        return csv.toString();
+    }
+
+    /**
+     * Formats profiles as a JSON array with an object per file.
+     *
+     * @param profilers the profiles
+     * @return the JSON text
+     */
+    public static String toJson(List<PhaseProfiler> profilers) {
+        StringBuilder json = new StringBuilder("[");
+        for (int i = 0; i < profilers.size(); i++) {
+            PhaseProfiler profiler = profilers.get(i);
+            json.append(i == 0 ? "\n" : ",\n").append("  {\"file\": \"")
+                    .append(profiler.filename.replace("\\", "\\\\").replace("\"", "\\\""))
+                    .append("\", \"phases\": [");
+            for (int j = 0; j < profiler.phases.size(); j++) {
+                Phase phase = profiler.phases.get(j);
+                json.append(j == 0 ? "\n" : ",\n").append("    {\"phase\": \"").append(phase.getName())
+                        .append("\", \"wall_ns\": ").append(phase.getWallNanos())
+                        .append(", \"allocated_bytes\": ").append(phase.getAllocatedBytes())
+                        .append(", \"tokens\": ").append(phase.getTokens())
+                        .append(", \"nodes\": ").append(phase.getNodes()).append('}');
+            }
+            json.append("\n  ]}");
+        }
+        return json.append("\n]\n").toString();
+    }
+
+    /**
+     * Writes profiles to the file named by the bantam.profile system property, if it is set.
+     *
+     * @param profilers the profiles
+     */
+    public static void writeReport(List<PhaseProfiler> profilers) {
+        String reportFile = System.getProperty(REPORT_PROPERTY);
+        if (reportFile == null) {
+            return;
+        }
+        try (Writer writer = new FileWriter(reportFile)) {
+            writer.write(reportFile.endsWith(".csv") ? toCsv(profilers) : toJson(profilers));
+        } catch (IOException e) {
+            System.out.println("ERROR: Writing the profile to " + reportFile + " failed!");
+        }
+    }
+
+    /**
+     * A phase measured by a PhaseProfiler.
+     */
+    public static class Phase {
+        /**
+         * the name of the phase
+         */
+        private final String name;
+        /**
+         * the wall time of the phase in nanoseconds
+         */
+        private final long wallNanos;
+        /**
+         * the bytes allocated by the phase; -1 if unknown
+         */
+        private final long allocatedBytes;
+        /**
+         * the number of tokens the phase produced
+         */
+        private int tokens;
+        /**
+         * the number of AST nodes the phase produced
+         */
+        private int nodes;
+
+        /**
+         * Constructor of the Phase class.
+         *
+         * @param name the name of the phase
+         * @param wallNanos the wall time of the phase in nanoseconds
+         * @param allocatedBytes the bytes allocated by the phase; -1 if unknown
+         */
+        private Phase(String name, long wallNanos, long allocatedBytes) {
+            this.name = name;
+            this.wallNanos = wallNanos;
+            this.allocatedBytes = allocatedBytes;
+        }
+
+        /**
+         * Gets the name of the phase.
+         *
+         * @return the name of the phase
+         */
+        public String getName() { return this.name; }
+
+        /**
+         * Gets the wall time of the phase.
+         *
+         * @return the wall time in nanoseconds
+         */
+        public long getWallNanos() { return this.wallNanos; }
+
+        /**
+         * Gets the bytes allocated by the phase.
+         *
+         * @return the number of bytes; -1 if unknown
+         */
+        public long getAllocatedBytes() { return this.allocatedBytes; }
+
+        /**
+         * Gets the number of tokens the phase produced.
+         *
+         * @return the number of tokens
+         */
+        public int getTokens() { return this.tokens; }
+
+        /**
+         * Gets the number of AST nodes the phase produced.
+         *
+         * @return the number of nodes
+         */
+        public int getNodes() { return this.nodes; }
+    }
+}
@@ -0,0 +1,45 @@
+/*
+ * File: ScanEvent.java
+ * F18 CS361 Project 10
+ * Names: Liwei Jiang, Tracy Quan, Danqing Zhao, Chris Marcello
+ * Date: 12/07/2018
+ * This file contains the ScanEvent class, the Flight Recorder event of scanning a file.
+ */
+
+package proj10JiangQuanZhaoMarcello.bantam.util;
+
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A JDK Flight Recorder event recorded when the Scanner scans a whole file into tokens.
+ *
+ * @author Liwei Jiang
+ * @author Tracy Quan
+ * @author Danqing Zhao
+ * @author Chris Marcello
+ */
+@Name("bantam.Scan")
+@Label("Bantam Scan")
+public class ScanEvent extends CompilerEvent {
+    /**
+     * the number of tokens scanned
+     */
+    @Label("Tokens")
+    int tokens;
+
+    /**
+     * Ends the event and commits it if it is recorded.
+     *
+     * @param filename the name of the file scanned
+     * @param length the number of characters scanned
+     * @param tokens the number of tokens scanned
+     * @param outcome the outcome of scanning
+     */
+    public void complete(String filename, int length, int tokens, String outcome) {
+        if (this.finish(filename, length, outcome)) {
+            this.tokens = tokens;
+            this.commit();
+        }
+    }
+}
@@ -0,0 +1,418 @@
+/*
+ * File: Interpreter.java
+ * F18 CS361 Project 10
+ * Names: Liwei Jiang, Tracy Quan, Danqing Zhao, Chris Marcello
+ * Date: 12/07/2018
+ * This file contains the Interpreter class, running Bantam programs compiled for the register VM.
+ */
+
+package proj10JiangQuanZhaoMarcello.bantam.vm;
+
+import proj10JiangQuanZhaoMarcello.bantam.optimizer.Optimizer;
+import proj10JiangQuanZhaoMarcello.bantam.runtime.Sys;
+import proj10JiangQuanZhaoMarcello.bantam.util.BatchDriver;
+import java.util.Arrays;
+import static proj10JiangQuanZhaoMarcello.bantam.vm.VmOpcodes.*;
+
+/**
+ * The Interpreter class runs a Bantam program compiled for the register VM.
+ *
+ * All frames share two register files, one for int values and one for objects.
+ * The frame of a method is a window of the register files starting at its base pointer;
+ * a caller computes the receiver and the arguments into consecutive registers above its live registers,
+ * and these registers become the first registers of the frame of the callee, so calls copy nothing.
+ * The return addresses live in parallel arrays, so a call allocates nothing and does not recurse in Java.
+ * The instructions are dispatched by a single switch over the opcodes.
+ *
+ * @author Liwei Jiang
+ * @author Tracy Quan
+ * @author Danqing Zhao
+ * @author Chris Marcello
+ */
+public class Interpreter {
+    /**
+     * the maximum number of registers, beyond which the program is considered to overflow its stack
+     */
+    private static final int MAX_REGISTERS = 1 << 22;
+    /**
+     * the program being run
+     */
+    private final VmProgram program;
+    /**
+     * the int register file
+     */
+    private int[] ints = new int[1024];
+    /**
+     * the object register file
+     */
+    private Object[] refs = new Object[1024];
+    /**
+     * the methods of the suspended frames
+     */
+    private VmMethod[] frameMethods = new VmMethod[64];
+    /**
+     * the pcs the suspended frames resume at
+     */
+    private int[] framePcs = new int[64];
+    /**
+     * the base pointers of the suspended frames
+     */
+    private int[] frameBps = new int[64];
+
+    /**
+     * Constructor of the Interpreter class.
+     *
+     * @param program the program to run
+     */
+    public Interpreter(VmProgram program) { this.program = program; }
+
+    /**
+     * Creates an instance of the class Main and calls its main method.
+     *
+     * @return the exit status of the program
+     */
+    public int run() {
+        VmClass mainClass = this.program.getClasses().get("Main");
+        VmObject main = new VmObject(mainClass);
+        try {
+            this.refs[0] = main;
+            this.execute(mainClass.constructor);
+            this.refs[0] = main;
+            this.execute(mainClass.vtable[mainClass.methodSlots.get("main")]);
+        } catch (Sys.ExitException e) {
+            return e.getStatus();
+        }
+        return 0;
+    }
+
+    /**
+     * Helper method to grow the register files so that they hold at least the given number of registers.
+     *
+     * @param size the number of registers needed
+     */
+    private void ensureRegisters(int size) {
+        if (size > MAX_REGISTERS) {
+            throw new RuntimeException("Stack overflow");
+        }
+        int length = this.ints.length;
+        while (length < size) {
+            length *= 2;
+        }
+        this.ints = Arrays.copyOf(this.ints, length);
+        this.refs = Arrays.copyOf(this.refs, length);
+    }
+
+    /**
+     * Helper method to grow the arrays of the suspended frames.
+     */
+    private void growFrames() {
+        int length = 2 * this.frameMethods.length;
+        this.frameMethods = Arrays.copyOf(this.frameMethods, length);
+        this.framePcs = Arrays.copyOf(this.framePcs, length);
+        this.frameBps = Arrays.copyOf(this.frameBps, length);
+    }
+
+    /**
+     * Helper method to run a method whose receiver and arguments are in the first registers.
+     * Runtime errors of the program are reported with the methods and lines being executed.
+     *
+     * @param entry the method
+     */
+    private void execute(VmMethod entry) {
+        Object[] constants = this.program.constants;
+        VmMethod method = entry;
+        int[] code = method.code;
+        int pc = 0;
+        int bp = 0;
+        int depth = 0;
+        if (method.registerCount > this.ints.length) {
+            this.ensureRegisters(method.registerCount);
+        }
+        int[] ints = this.ints;
+        Object[] refs = this.refs;
+
+        try {
+            while (true) {
+                switch (code[pc]) {
+                    case CONST_INT:
+                        ints[bp + code[pc + 1]] = code[pc + 2];
+                        pc += 3;
+                        break;
+                    case CONST_REF:
+                        refs[bp + code[pc + 1]] = constants[code[pc + 2]];
+                        pc += 3;
+                        break;
+                    case CONST_NULL:
+                        refs[bp + code[pc + 1]] = null;
+                        pc += 2;
+                        break;
+                    case MOVE_INT:
+                        ints[bp + code[pc + 1]] = ints[bp + code[pc + 2]];
+                        pc += 3;
+                        break;
+                    case MOVE_REF:
+                        refs[bp + code[pc + 1]] = refs[bp + code[pc + 2]];
+                        pc += 3;
+                        break;
+
+                    case ADD:
+                        ints[bp + code[pc + 1]] = ints[bp + code[pc + 2]] + ints[bp + code[pc + 3]];
+                        pc += 4;
+                        break;
+                    case SUB:
+                        ints[bp + code[pc + 1]] = ints[bp + code[pc + 2]] - ints[bp + code[pc + 3]];
+                        pc += 4;
+                        break;
+                    case MUL:
+                        ints[bp + code[pc + 1]] = ints[bp + code[pc + 2]] * ints[bp + code[pc + 3]];
+                        pc += 4;
+                        break;
+                    case DIV:
+                        ints[bp + code[pc + 1]] = ints[bp + code[pc + 2]] / ints[bp + code[pc + 3]];
+                        pc += 4;
+                        break;
+                    case MOD:
+                        ints[bp + code[pc + 1]] = ints[bp + code[pc + 2]] % ints[bp + code[pc + 3]];
+                        pc += 4;
+                        break;
+                    case SHIFT_LEFT:
+                        ints[bp + code[pc + 1]] = ints[bp + code[pc + 2]] << code[pc + 3];
+                        pc += 4;
+                        break;
+                    case DIV_SHIFT: {
+                        // rounds toward zero as DIV does, by adding 2^exponent - 1 to a negative dividend
+                        int dividend = ints[bp + code[pc + 2]];
+                        int bias = code[pc + 3] == 0 ? 0 : (dividend >> 31) >>> (32 - code[pc + 3]);
+                        ints[bp + code[pc + 1]] = (dividend + bias) >> code[pc + 3];
+                        pc += 4;
+                        break;
+                    }
+                    case MOD_MASK: {
+                        int dividend = ints[bp + code[pc + 2]];
+                        int bias = code[pc + 3] == 0 ? 0 : (dividend >> 31) >>> (32 - code[pc + 3]);
+                        ints[bp + code[pc + 1]] = dividend - ((dividend + bias) & -(1 << code[pc + 3]));
+                        pc += 4;
+                        break;
+                    }
+                    case NEG:
+                        ints[bp + code[pc + 1]] = -ints[bp + code[pc + 2]];
+                        pc += 3;
+                        break;
+                    case INC:
+                        ints[bp + code[pc + 1]] += code[pc + 2];
+                        pc += 3;
+                        break;
+
+                    case JUMP:
+                        pc = code[pc + 1];
+                        break;
+                    case JUMP_TRUE:
+                        pc = ints[bp + code[pc + 1]] != 0 ? code[pc + 2] : pc + 3;
+                        break;
+                    case JUMP_FALSE:
+                        pc = ints[bp + code[pc + 1]] == 0 ? code[pc + 2] : pc + 3;
+                        break;
+                    case JUMP_EQ:
+                        pc = ints[bp + code[pc + 1]] == ints[bp + code[pc + 2]] ? code[pc + 3] : pc + 4;
+                        break;
+                    case JUMP_NE:
+                        pc = ints[bp + code[pc + 1]] != ints[bp + code[pc + 2]] ? code[pc + 3] : pc + 4;
+                        break;
+                    case JUMP_LT:
+                        pc = ints[bp + code[pc + 1]] < ints[bp + code[pc + 2]] ? code[pc + 3] : pc + 4;
+                        break;
+                    case JUMP_GE:
+                        pc = ints[bp + code[pc + 1]] >= ints[bp + code[pc + 2]] ? code[pc + 3] : pc + 4;
+                        break;
+                    case JUMP_GT:
+                        pc = ints[bp + code[pc + 1]] > ints[bp + code[pc + 2]] ? code[pc + 3] : pc + 4;
+                        break;
+                    case JUMP_LE:
+                        pc = ints[bp + code[pc + 1]] <= ints[bp + code[pc + 2]] ? code[pc + 3] : pc + 4;
+                        break;
+                    case JUMP_REF_EQ:
+                        pc = refs[bp + code[pc + 1]] == refs[bp + code[pc + 2]] ? code[pc + 3] : pc + 4;
+                        break;
+                    case JUMP_REF_NE:
+                        pc = refs[bp + code[pc + 1]] != refs[bp + code[pc + 2]] ? code[pc + 3] : pc + 4;
+                        break;
+
+                    case GET_INT:
+                        ints[bp + code[pc + 1]] = ((VmObject) refs[bp + code[pc + 2]]).ints[code[pc + 3]];
+                        pc += 4;
+                        break;
+                    case GET_REF:
+                        refs[bp + code[pc + 1]] = ((VmObject) refs[bp + code[pc + 2]]).refs[code[pc + 3]];
+                        pc += 4;
+                        break;
+                    case PUT_INT:
+                        ((VmObject) refs[bp + code[pc + 1]]).ints[code[pc + 2]] = ints[bp + code[pc + 3]];
+                        pc += 4;
+                        break;
+                    case PUT_REF:
+                        ((VmObject) refs[bp + code[pc + 1]]).refs[code[pc + 2]] = refs[bp + code[pc + 3]];
+                        pc += 4;
+                        break;
+
+                    case NEW:
+                        refs[bp + code[pc + 1]] = new VmObject((VmClass) constants[code[pc + 2]]);
+                        pc += 3;
+                        break;
+                    case NEW_BUILTIN:
+                        refs[bp + code[pc + 1]] = VmBuiltins.newInstance(code[pc + 2]);
+                        pc += 3;
+                        break;
+                    case NEW_INT_ARRAY:
+                        refs[bp + code[pc + 1]] = new int[ints[bp + code[pc + 2]]];
+                        pc += 3;
+                        break;
+                    case NEW_BOOLEAN_ARRAY:
+                        refs[bp + code[pc + 1]] = new boolean[ints[bp + code[pc + 2]]];
+                        pc += 3;
+                        break;
+                    case NEW_REF_ARRAY:
+                        refs[bp + code[pc + 1]] = new Object[ints[bp + code[pc + 2]]];
+                        pc += 3;
+                        break;
+                    case LOAD_INT:
+                        ints[bp + code[pc + 1]] = ((int[]) refs[bp + code[pc + 2]])[ints[bp + code[pc + 3]]];
+                        pc += 4;
+                        break;
+                    case LOAD_BOOLEAN:
+                        ints[bp + code[pc + 1]] = ((boolean[]) refs[bp + code[pc + 2]])[ints[bp + code[pc + 3]]] ? 1 : 0;
+                        pc += 4;
+                        break;
+                    case LOAD_REF:
+                        refs[bp + code[pc + 1]] = ((Object[]) refs[bp + code[pc + 2]])[ints[bp + code[pc + 3]]];
+                        pc += 4;
+                        break;
+                    case STORE_INT:
+                        ((int[]) refs[bp + code[pc + 1]])[ints[bp + code[pc + 2]]] = ints[bp + code[pc + 3]];
+                        pc += 4;
+                        break;
+                    case STORE_BOOLEAN:
+                        ((boolean[]) refs[bp + code[pc + 1]])[ints[bp + code[pc + 2]]] = ints[bp + code[pc + 3]] != 0;
+                        pc += 4;
+                        break;
+                    case STORE_REF:
+                        ((Object[]) refs[bp + code[pc + 1]])[ints[bp + code[pc + 2]]] = refs[bp + code[pc + 3]];
+                        pc += 4;
+                        break;
+                    case ARRAY_LENGTH: {
+                        Object array = refs[bp + code[pc + 2]];
+                        ints[bp + code[pc + 1]] = array instanceof int[] ? ((int[]) array).length
+                                : array instanceof boolean[] ? ((boolean[]) array).length : ((Object[]) array).length;
+                        pc += 3;
+                        break;
+                    }
+                    case INSTANCEOF:
+                        ints[bp + code[pc + 1]] = VmBuiltins.isInstance(refs[bp + code[pc + 2]],
+                                (String) constants[code[pc + 3]]) ? 1 : 0;
+                        pc += 4;
+                        break;
+                    case CHECKCAST: {
+                        Object value = refs[bp + code[pc + 1]];
+                        if (value != null && !VmBuiltins.isInstance(value, (String) constants[code[pc + 2]])) {
+                            throw new ClassCastException(value + " cannot be cast to " + constants[code[pc + 2]]);
+                        }
+                        pc += 3;
+                        break;
+                    }
+
+                    case INVOKE_VIRTUAL:
+                    case INVOKE_SPECIAL: {
+                        int base = bp + code[pc + 2];
+                        VmMethod callee;
+                        if (code[pc] == INVOKE_SPECIAL) {
+                            callee = code[pc + 1] < 0 ? null : (VmMethod) constants[code[pc + 1]];
+                        }
+                        else {
+                            Object receiver = refs[base];
+                            if (receiver == null) {
+                                throw new NullPointerException("Cannot call a method on null");
+                            }
+                            // a null slot is a method of Object not overridden
+                            callee = receiver instanceof VmObject
+                                    ? ((VmObject) receiver).vmClass.vtable[code[pc + 1]] : null;
+                        }
+                        if (callee == null) {
+                            VmBuiltins.invoke(code[pc + 3], base, ints, refs);
+                            pc += 4;
+                            break;
+                        }
+                        if (depth == this.frameMethods.length) {
+                            this.growFrames();
+                        }
+                        this.frameMethods[depth] = method;
+                        this.framePcs[depth] = pc + 4;
+                        this.frameBps[depth] = bp;
+                        depth++;
+                        method = callee;
+                        code = callee.code;
+                        pc = 0;
+                        bp = base;
+                        if (bp + callee.registerCount > ints.length) {
+                            this.ensureRegisters(bp + callee.registerCount);
+                            ints = this.ints;
+                            refs = this.refs;
+                        }
+                        break;
+                    }
+                    case INVOKE_BUILTIN:
+                        VmBuiltins.invoke(code[pc + 1], bp + code[pc + 2], ints, refs);
+                        pc += 3;
+                        break;
+                    case RETURN_INT:
+                    case RETURN_REF:
+                    case RETURN_VOID:
+                        if (code[pc] == RETURN_INT) {
+                            ints[bp] = ints[bp + code[pc + 1]];
+                        } else if (code[pc] == RETURN_REF) {
+                            refs[bp] = refs[bp + code[pc + 1]];
+                        }
+                        if (depth == 0) {
+                            return;
+                        }
+                        depth--;
+                        method = this.frameMethods[depth];
+                        code = method.code;
+                        pc = this.framePcs[depth];
+                        bp = this.frameBps[depth];
+                        break;
+                    default:
+                        throw new IllegalStateException("Illegal opcode " + code[pc]);
+                }
+            }
+        } catch (Sys.ExitException e) {
+            throw e;
+        } catch (RuntimeException e) {
+            StringBuilder trace = new StringBuilder(e.toString());
+            for (int i = depth; i >= 0; i--) {
+                VmMethod frameMethod = i == depth ? method : this.frameMethods[i];
+                int framePc = i == depth ? pc : this.framePcs[i] - 1;
+                trace.append("\n\tat ").append(frameMethod.getOwner().getName()).append('.')
+                        .append(frameMethod.getName()).append(" (line ").append(frameMethod.getLine(framePc)).append(')');
+            }
+            throw new RuntimeException(trace.toString(), e);
+        }
+    }
+
+    /**
+     * Optimizes, compiles and runs each Bantam program given on the command line,
+     * printing its exit status or its errors.
+     *
+     * @param args the names of the Bantam source files
+     */
+    public static void main(String[] args) {
+        BatchDriver.run(args, (program, handler, profiler) -> {
+            program = BatchDriver.optimize(new Optimizer(), program, profiler);
+            profiler.begin("compile");
+            VmProgram vmProgram = new VmCompiler(handler).compile(program);
+            profiler.end();
+            profiler.begin("run");
+            int status = new Interpreter(vmProgram).run();
+            profiler.end();
+            System.out.println("\nProgram exited with status " + status + ".");
+        });
+    }
+}
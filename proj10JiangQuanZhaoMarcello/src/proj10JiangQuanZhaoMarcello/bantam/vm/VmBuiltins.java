@@ -0,0 +1,170 @@
+/*
+ * File: VmBuiltins.java
+ * F18 CS361 Project 10
+ * Names: Liwei Jiang, Tracy Quan, Danqing Zhao, Chris Marcello
+ * Date: 12/07/2018
+ * This file contains the VmBuiltins class, implementing the built-in classes for the Bantam register VM.
+ */
+
+package proj10JiangQuanZhaoMarcello.bantam.vm;
+
+import proj10JiangQuanZhaoMarcello.bantam.runtime.Sys;
+import proj10JiangQuanZhaoMarcello.bantam.runtime.TextIO;
+import proj10JiangQuanZhaoMarcello.bantam.util.ClassTable;
+import java.util.List;
+
+/**
+ * The built-in classes Object, String, TextIO and Sys in the Bantam register VM.
+ * Their instances are plain Java objects: strings are Strings and TextIO and Sys objects
+ * are the classes of the bantam.runtime package, also used by the JVM backend.
+ * The built-in methods are identified by their index in METHODS.
+ *
+ * @author Liwei Jiang
+ * @author Tracy Quan
+ * @author Danqing Zhao
+ * @author Chris Marcello
+ */
+final class VmBuiltins {
+    /**
+     * the built-in methods as Class.method, the index being the id of the method
+     */
+    private static final List<String> METHODS = List.of(
+            "Object.equals", "Object.toString", "Object.hashCode",
+            "String.length", "String.equals", "String.substring", "String.concat",
+            "TextIO.readStdin", "TextIO.readFile", "TextIO.writeStdout", "TextIO.writeStderr",
+            "TextIO.writeFile", "TextIO.getString", "TextIO.getInt", "TextIO.putString", "TextIO.putInt",
+            "Sys.exit", "Sys.time", "Sys.random");
+
+    /**
+     * Private constructor, this class only holds static methods.
+     */
+    private VmBuiltins() { }
+
+    /**
+     * Gets the id of a built-in method.
+     *
+     * @param className the name of the built-in class declaring the method
+     * @param methodName the name of the method
+     * @return the id of the method; -1 if there is no such built-in method
+     */
+    static int methodId(String className, String methodName) {
+        return METHODS.indexOf(className + "." + methodName);
+    }
+
+    /**
+     * Gets the id of a built-in class, used by NEW_BUILTIN.
+     *
+     * @param className the name of the built-in class
+     * @return the id of the class; -1 if there is no such built-in class
+     */
+    static int classId(String className) { return ClassTable.BUILTIN_CLASSES.indexOf(className); }
+
+    /**
+     * Creates an instance of a built-in class.
+     *
+     * @param classId the id of the built-in class
+     * @return the new object
+     */
+    static Object newInstance(int classId) {
+        switch (classId) {
+            case 0: return new Object();
+            case 1: return "";
+            case 2: return new TextIO();
+            default: return new Sys();
+        }
+    }
+
+    /**
+     * Calls a built-in method.
+     * The receiver and the arguments are in consecutive registers starting at base;
+     * the result is left in base.
+     *
+     * @param methodId the id of the built-in method
+     * @param base the absolute index of the register holding the receiver
+     * @param ints the int register file
+     * @param refs the object register file
+     */
+    static void invoke(int methodId, int base, int[] ints, Object[] refs) {
+        Object receiver = refs[base];
+        switch (methodId) {
+            case 0:
+            case 4:
+                ints[base] = receiver.equals(refs[base + 1]) ? 1 : 0;
+                break;
+            case 1:
+                refs[base] = receiver.toString();
+                break;
+            case 2:
+                ints[base] = receiver.hashCode();
+                break;
+            case 3:
+                ints[base] = ((String) receiver).length();
+                break;
+            case 5:
+                refs[base] = ((String) receiver).substring(ints[base + 1], ints[base + 2]);
+                break;
+            case 6:
+                refs[base] = ((String) receiver).concat((String) refs[base + 1]);
+                break;
+            case 7:
+                refs[base] = ((TextIO) receiver).readStdin();
+                break;
+            case 8:
+                refs[base] = ((TextIO) receiver).readFile((String) refs[base + 1]);
+                break;
+            case 9:
+                refs[base] = ((TextIO) receiver).writeStdout();
+                break;
+            case 10:
+                refs[base] = ((TextIO) receiver).writeStderr();
+                break;
+            case 11:
+                refs[base] = ((TextIO) receiver).writeFile((String) refs[base + 1]);
+                break;
+            case 12:
+                refs[base] = ((TextIO) receiver).getString();
+                break;
+            case 13:
+                ints[base] = ((TextIO) receiver).getInt();
+                break;
+            case 14:
+                refs[base] = ((TextIO) receiver).putString((String) refs[base + 1]);
+                break;
+            case 15:
+                refs[base] = ((TextIO) receiver).putInt(ints[base + 1]);
+                break;
+            case 16:
+                ((Sys) receiver).exit(ints[base + 1]);
+                break;
+            case 17:
+                ints[base] = ((Sys) receiver).time();
+                break;
+            default:
+                ints[base] = ((Sys) receiver).random();
+                break;
+        }
+    }
+
+    /**
+     * Checks whether a value is an instance of a Bantam type.
+     * Arrays of objects are Object[] whatever their element type, so any of them matches any array of objects.
+     *
+     * @param value the value; null is not an instance of any type
+     * @param type the Bantam class or array type
+     * @return true if the value is an instance of the type; false otherwise
+     */
+    static boolean isInstance(Object value, String type) {
+        if (value instanceof VmObject) {
+            return ((VmObject) value).vmClass.isSubclassOf(type);
+        }
+        switch (type) {
+            case "Object": return value != null;
+            case "String": return value instanceof String;
+            case "TextIO": return value instanceof TextIO;
+            case "Sys": return value instanceof Sys;
+            case "int[]": return value instanceof int[];
+            case "boolean[]": return value instanceof boolean[];
+            default: return ClassTable.isArray(type) && value instanceof Object[];
+        }
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * File: VmClass.java
+ * F18 CS361 Project 10
+ * Names: Liwei Jiang, Tracy Quan, Danqing Zhao, Chris Marcello
+ * Date: 12/07/2018
+ * This file contains the VmClass class, the layout and virtual method table of a Bantam class.
+ */
+
+package proj10JiangQuanZhaoMarcello.bantam.vm;
+
+import java.util.*;
+
+/**
+ * A Bantam class in the register VM.
+ * The fields inherited from the parent class come first in the layout of an object,
+ * and the virtual method table starts with the slots of the methods inherited from the parent,
+ * the first three being equals, toString and hashCode of Object.
+ *
+ * @author Liwei Jiang
+ * @author Tracy Quan
+ * @author Danqing Zhao
+ * @author Chris Marcello
+ */
+public class VmClass {
+    /**
+     * the methods of Object, in the order of their virtual method table slots
+     */
+    static final List<String> OBJECT_METHODS = List.of("equals", "toString", "hashCode");
+
+    /**
+     * the name of the class
+     */
+    private final String name;
+    /**
+     * the names of the class and all its ancestors, including Object
+     */
+    final Set<String> ancestors;
+    /**
+     * the number of int and boolean fields, including the inherited ones
+     */
+    int intFieldCount;
+    /**
+     * the number of object fields, including the inherited ones
+     */
+    int refFieldCount;
+    /**
+     * a map from the names of the fields declared in this class to their indices
+     */
+    final Map<String, Integer> fieldIndices;
+    /**
+     * a map from method names to virtual method table slots, including the inherited methods
+     */
+    final Map<String, Integer> methodSlots;
+    /**
+     * the virtual method table; a null slot stands for the built-in method of Object
+     */
+    VmMethod[] vtable;
+    /**
+     * the constructor, calling the constructor of the parent class and initializing the fields declared here
+     */
+    final VmMethod constructor;
+
+    /**
+     * Constructor of the VmClass class.
+     * Copies the field counts and the virtual method table of the parent class.
+     *
+     * @param name the name of the class
+     * @param parent the parent class; null if the parent is Object
+     */
+    VmClass(String name, VmClass parent) {
+        this.name = name;
+        this.ancestors = new HashSet<>();
+        this.ancestors.add(name);
+        this.ancestors.add("Object");
+        this.fieldIndices = new HashMap<>();
+        this.methodSlots = new HashMap<>();
+        this.constructor = new VmMethod("<init>", this);
+        if (parent == null) {
+            for (String method : OBJECT_METHODS) {
+                this.methodSlots.put(method, this.methodSlots.size());
+            }
+            this.vtable = new VmMethod[OBJECT_METHODS.size()];
+        }
+        else {
+            this.ancestors.addAll(parent.ancestors);
+            this.intFieldCount = parent.intFieldCount;
+            this.refFieldCount = parent.refFieldCount;
+            this.methodSlots.putAll(parent.methodSlots);
+            this.vtable = parent.vtable.clone();
+        }
+    }
+
+    /**
+     * Gets the name of the class.
+     *
+     * @return the class name
+     */
+    public String getName() { return this.name; }
+
+    /**
+     * Checks whether this class is the given class or inherits from it.
+     *
+     * @param className the name of the possible ancestor
+     * @return true if this class is className or a subclass of it; false otherwise
+     */
+    public boolean isSubclassOf(String className) { return this.ancestors.contains(className); }
+
+    /**
+     * Adds a field declared in this class to the layout.
+     *
+     * @param fieldName the name of the field
+     * @param isInt whether the field holds an int or boolean
+     */
+    void addField(String fieldName, boolean isInt) {
+        this.fieldIndices.put(fieldName, isInt ? this.intFieldCount++ : this.refFieldCount++);
+    }
+
+    /**
+     * Adds a method declared in this class, overriding the inherited method with the same name.
+     *
+     * @param method the method
+     */
+    void addMethod(VmMethod method) {
+        Integer slot = this.methodSlots.get(method.getName());
+        if (slot == null) {
+            slot = this.vtable.length;
+            this.methodSlots.put(method.getName(), slot);
+            this.vtable = Arrays.copyOf(this.vtable, slot + 1);
+        }
+        this.vtable[slot] = method;
+    }
+}
@@ -0,0 +1,1651 @@
+/*
+ * File: VmCompiler.java
+ * F18 CS361 Project 10
+ * Names: Liwei Jiang, Tracy Quan, Danqing Zhao, Chris Marcello
+ * Date: 12/07/2018
+ * This file contains the VmCompiler class, lowering the AST of a Bantam program to register VM code.
+ */
+
+package proj10JiangQuanZhaoMarcello.bantam.vm;
+
+import proj10JiangQuanZhaoMarcello.bantam.ast.*;
+import proj10JiangQuanZhaoMarcello.bantam.optimizer.StrengthReducer;
+import proj10JiangQuanZhaoMarcello.bantam.util.*;
+import proj10JiangQuanZhaoMarcello.bantam.util.Error;
+import proj10JiangQuanZhaoMarcello.bantam.visitor.Visitor;
+import java.util.*;
+import static proj10JiangQuanZhaoMarcello.bantam.util.ClassTable.*;
+import static proj10JiangQuanZhaoMarcello.bantam.vm.VmOpcodes.*;
+
+/**
+ * The VmCompiler class lowers the AST of a Bantam program to the register-based code of the Bantam VM.
+ * Every local variable lives in a register of its own for its whole scope, and every expression
+ * is computed into a register: a register requested by the enclosing expression if there is one,
+ * the register of a local variable if the expression is that variable, or a fresh temporary register.
+ * Temporary registers are allocated like a stack above the local variables and released after each statement.
+ *
+ * Visiting an expression emits its code and returns the register holding its value;
+ * the type of the expression is left in exprType.
+ *
+ * @author Liwei Jiang
+ * @author Tracy Quan
+ * @author Danqing Zhao
+ * @author Chris Marcello
+ */
+public class VmCompiler extends Visitor {
+    /**
+     * an error handler storing the Errors in a list
+     */
+    private ErrorHandler errorHandler;
+    /**
+     * the class table of the program being compiled
+     */
+    private ClassTable classTable;
+    /**
+     * a map from class names to the compiled classes
+     */
+    private Map<String, VmClass> classes;
+    /**
+     * the constant pool
+     */
+    private List<Object> constants;
+    /**
+     * a map from the constants to their indices in the constant pool
+     */
+    private Map<Object, Integer> constantIndices;
+    /**
+     * the name of the file the current class is declared in
+     */
+    private String filename;
+    /**
+     * the entry of the class being compiled
+     */
+    private ClassTable.ClassEntry currentClass;
+    /**
+     * the VM class being compiled
+     */
+    private VmClass currentVmClass;
+    /**
+     * the return type of the method being compiled
+     */
+    private String returnType;
+    /**
+     * the code of the method being compiled
+     */
+    private int[] code;
+    /**
+     * the source line of each word of the code
+     */
+    private int[] lines;
+    /**
+     * the number of words of code emitted so far
+     */
+    private int codeLength;
+    /**
+     * the source line of the statement being compiled
+     */
+    private int line;
+    /**
+     * the scopes of the local variables, innermost first
+     */
+    private Deque<Scope> scopes;
+    /**
+     * the first register above the local variables in scope
+     */
+    private int localTop;
+    /**
+     * the next free temporary register
+     */
+    private int nextRegister;
+    /**
+     * the number of registers used by the method being compiled
+     */
+    private int registerCount;
+    /**
+     * the labels the break statements of the enclosing loops jump to, innermost first
+     */
+    private Deque<Label> breakLabels;
+    /**
+     * the register the expression being visited should be computed into; -1 for any register
+     */
+    private int target = -1;
+    /**
+     * the type of the expression visited last
+     */
+    private String exprType;
+
+    /**
+     * Constructor of the VmCompiler class.
+     *
+     * @param errorHandler the ErrorHandler object that stores a list of errors
+     */
+    public VmCompiler(ErrorHandler errorHandler) { this.errorHandler = errorHandler; }
+
+    /**
+     * Compiles the given program.
+     * Records a PassEvent for the compilation.
+     *
+     * @param program the root of the AST
+     * @return the compiled program
+     */
+    public VmProgram compile(Program program) {
+        VmProgram vmProgram = null;
+        PassEvent event = new PassEvent();
+        event.begin();
+        try {
+            this.classTable = new ClassTable(program, this.errorHandler);
+            if (this.errorHandler.errorsFound()) {
+                throw new CompilationException("The class hierarchy of the program is illegal.");
+            }
+            ClassTable.MethodEntry main = this.classTable.getClass("Main") == null ? null
+                    : this.classTable.getClass("Main").getMethods().get("main");
+            if (main == null || !main.getParamTypes().isEmpty()) {
+                String message = "The program has no class Main with a main method without parameters.";
+                this.errorHandler.register(Error.Kind.CODEGEN_ERROR, message);
+                throw new CompilationException(message);
+            }
+
+            this.classes = new LinkedHashMap<>();
+            this.constants = new ArrayList<>();
+            this.constantIndices = new HashMap<>();
+            for (ClassTable.ClassEntry entry : this.classTable.getClasses()) {
+                if (!entry.isBuiltin()) {
+                    this.layout(entry);
+                }
+            }
+            program.accept(this);
+            vmProgram = new VmProgram(this.constants.toArray(), this.classes);
+            return vmProgram;
+        } finally {
+            event.complete("vm compile", program, () -> NodeCounter.countNodes(program),
+                    CompilerEvent.outcome(vmProgram != null, this.errorHandler));
+        }
+    }
+
+    /**
+     * Helper method to register a code generation error and throw a CompilationException.
+     *
+     * @param lineNum the line number of the error
+     * @param message the error message
+     */
+    private void registerError(int lineNum, String message) {
+        this.errorHandler.register(Error.Kind.CODEGEN_ERROR, this.filename, lineNum, message);
+        throw new CompilationException(message);
+    }
+
+    /**
+     * Helper method to build the layout and the virtual method table of a class, its ancestors first.
+     *
+     * @param entry the class entry
+     * @return the VM class
+     */
+    private VmClass layout(ClassTable.ClassEntry entry) {
+        VmClass vmClass = this.classes.get(entry.getName());
+        if (vmClass != null) {
+            return vmClass;
+        }
+        this.filename = entry.getNode().getFilename();
+        ClassTable.ClassEntry parentEntry = this.classTable.getClass(entry.getParent());
+        if (parentEntry.isBuiltin() && !parentEntry.getName().equals("Object")) {
+            this.registerError(entry.getNode().getLineNum(), "Class " + entry.getName()
+                    + " cannot extend the built-in class " + parentEntry.getName() + " in the VM.");
+        }
+        VmClass parent = parentEntry.isBuiltin() ? null : this.layout(parentEntry);
+
+        vmClass = new VmClass(entry.getName(), parent);
+        for (Map.Entry<String, String> field : entry.getFields().entrySet()) {
+            vmClass.addField(field.getKey(), isPrimitive(field.getValue()));
+        }
+        for (String methodName : entry.getMethods().keySet()) {
+            vmClass.addMethod(new VmMethod(methodName, vmClass));
+        }
+        this.classes.put(entry.getName(), vmClass);
+        return vmClass;
+    }
+
+    /**
+     * Helper method to get the index of a constant, adding it to the constant pool if needed.
+     *
+     * @param constant a String, VmClass or VmMethod
+     * @return the index of the constant
+     */
+    private int constant(Object constant) {
+        Integer index = this.constantIndices.get(constant);
+        if (index == null) {
+            index = this.constants.size();
+            this.constants.add(constant);
+            this.constantIndices.put(constant, index);
+        }
+        return index;
+    }
+
+    // ---------------------------------------- Code ----------------------------------------
+
+    /**
+     * Helper method to append words to the code, recording the current source line for each of them.
+     *
+     * @param words the opcode and the operands of an instruction
+     */
+    private void emit(int... words) {
+        if (this.codeLength + words.length > this.code.length) {
+            this.code = Arrays.copyOf(this.code, 2 * this.code.length + words.length);
+            this.lines = Arrays.copyOf(this.lines, this.code.length);
+        }
+        for (int word : words) {
+            this.lines[this.codeLength] = this.line;
+            this.code[this.codeLength++] = word;
+        }
+    }
+
+    /**
+     * Helper method to emit a jump, its target being the last operand.
+     * Jumps to labels not placed yet are patched once the label is placed.
+     *
+     * @param target the label to jump to
+     * @param words the opcode and the operands of the jump except the target
+     */
+    private void emitJump(Label target, int... words) {
+        this.emit(words);
+        if (target.position < 0) {
+            target.fixups.add(this.codeLength);
+        }
+        this.emit(target.position);
+    }
+
+    /**
+     * Helper method to place a label at the current position, patching the jumps to it.
+     *
+     * @param label the label
+     */
+    private void placeLabel(Label label) {
+        label.position = this.codeLength;
+        for (int fixup : label.fixups) {
+            this.code[fixup] = label.position;
+        }
+        label.fixups.clear();
+    }
+
+    /**
+     * Helper method to emit a move between registers holding a value of the given type.
+     *
+     * @param dst the destination register; -1 for no move
+     * @param src the source register
+     * @param type the type of the value
+     */
+    private void move(int dst, int src, String type) {
+        if (dst >= 0 && dst != src) {
+            this.emit(isPrimitive(type) ? MOVE_INT : MOVE_REF, dst, src);
+        }
+    }
+
+    /**
+     * Helper method to allocate a temporary register.
+     *
+     * @return the register
+     */
+    private int newRegister() {
+        int register = this.nextRegister++;
+        this.registerCount = Math.max(this.registerCount, this.nextRegister);
+        return register;
+    }
+
+    /**
+     * Helper method to reset the state kept per method.
+     *
+     * @param returnType the return type of the method
+     */
+    private void beginMethod(String returnType) {
+        this.returnType = returnType;
+        this.code = new int[64];
+        this.lines = new int[64];
+        this.codeLength = 0;
+        this.scopes = new ArrayDeque<>();
+        this.breakLabels = new ArrayDeque<>();
+        this.localTop = 1;
+        this.nextRegister = 1;
+        this.registerCount = 1;
+    }
+
+    /**
+     * Helper method to store the code of the method compiled.
+     *
+     * @param method the method
+     */
+    private void endMethod(VmMethod method) {
+        method.code = Arrays.copyOf(this.code, this.codeLength);
+        method.lines = Arrays.copyOf(this.lines, this.codeLength);
+        method.registerCount = this.registerCount;
+    }
+
+    // ---------------------------------------- Classes and members ----------------------------------------
+
+    /**
+     * Visits a class node, compiling its constructor and methods.
+     *
+     * @param node the class node
+     * @return null
+     */
+    @Override
+    public Object visit(Class_ node) {
+        this.filename = node.getFilename();
+        this.currentClass = this.classTable.getClass(node.getName());
+        this.currentVmClass = this.classes.get(node.getName());
+        for (Map.Entry<String, String> field : this.currentClass.getFields().entrySet()) {
+            this.checkType(field.getValue(), node.getLineNum());
+        }
+
+        // the constructor calls the constructor of the parent and evaluates the field initializers
+        this.beginMethod("void");
+        this.line = node.getLineNum();
+        VmClass parent = this.classes.get(this.currentClass.getParent());
+        if (parent != null) {
+            this.emit(MOVE_REF, 1, 0, INVOKE_SPECIAL, this.constant(parent.constructor), 1, -1);
+            this.registerCount = 2;
+        }
+        for (ASTNode member : node.getMemberList()) {
+            if (member instanceof Field && ((Field) member).getInit() != null) {
+                Field field = (Field) member;
+                this.line = field.getLineNum();
+                this.nextRegister = this.localTop;
+                int value = this.compile(field.getInit(), -1);
+                this.checkAssignable(this.exprType, field.getType(), field.getLineNum());
+                this.emit(isPrimitive(field.getType()) ? PUT_INT : PUT_REF, 0,
+                        this.currentVmClass.fieldIndices.get(field.getName()), value);
+            }
+        }
+        this.emit(RETURN_VOID);
+        this.endMethod(this.currentVmClass.constructor);
+
+        node.getMemberList().accept(this);
+        return null;
+    }
+
+    /**
+     * Visits a field node; fields are initialized by the constructor.
+     *
+     * @param node the field node
+     * @return null
+     */
+    @Override
+    public Object visit(Field node) { return null; }
+
+    /**
+     * Visits a method node, compiling the method.
+     * A method whose end is reachable returns the default value of its return type.
+     *
+     * @param node the method node
+     * @return null
+     */
+    @Override
+    public Object visit(Method node) {
+        this.beginMethod(node.getReturnType());
+        this.line = node.getLineNum();
+        if (!node.getReturnType().equals("void")) {
+            this.checkType(node.getReturnType(), node.getLineNum());
+        }
+        this.scopes.push(new Scope(this.localTop));
+        for (ASTNode formalNode : node.getFormalList()) {
+            Formal formal = (Formal) formalNode;
+            this.checkType(formal.getType(), formal.getLineNum());
+            this.nextRegister = this.localTop;
+            this.declareLocal(formal.getName(), formal.getType(), this.newRegister(), formal.getLineNum());
+        }
+        node.getStmtList().accept(this);
+        this.scopes.pop();
+
+        this.nextRegister = this.localTop;
+        if (this.returnType.equals("void")) {
+            this.emit(RETURN_VOID);
+        }
+        else {
+            int register = this.newRegister();
+            if (isPrimitive(this.returnType)) {
+                this.emit(CONST_INT, register, 0, RETURN_INT, register);
+            } else {
+                this.emit(CONST_NULL, register, RETURN_REF, register);
+            }
+        }
+        this.endMethod(this.currentVmClass.vtable[this.currentVmClass.methodSlots.get(node.getName())]);
+        return null;
+    }
+
+    // ---------------------------------------- Types and variables ----------------------------------------
+
+    /**
+     * Helper method to make sure a type exists.
+     *
+     * @param type the Bantam type
+     * @param lineNum the line number the type is used at
+     */
+    private void checkType(String type, int lineNum) {
+        if (!this.classTable.isDefinedType(type)) {
+            this.registerError(lineNum, "Type " + type + " is undefined.");
+        }
+    }
+
+    /**
+     * Helper method to register an error if a value of a type cannot be assigned to a variable of another type.
+     *
+     * @param from the type of the value
+     * @param to the type of the variable
+     * @param lineNum the line number of the assignment
+     */
+    private void checkAssignable(String from, String to, int lineNum) {
+        if (!this.classTable.isAssignable(from, to)) {
+            this.registerError(lineNum, "A value of type " + from + " cannot be assigned to type " + to + ".");
+        }
+    }
+
+    /**
+     * Helper method to declare a local variable in the innermost scope.
+     *
+     * @param name the name of the variable
+     * @param type the type of the variable
+     * @param register the register of the variable, the first register above the local variables
+     * @param lineNum the line number of the declaration
+     */
+    private void declareLocal(String name, String type, int register, int lineNum) {
+        if (this.lookupLocal(name) != null) {
+            this.registerError(lineNum, "Variable " + name + " is already defined.");
+        }
+        this.scopes.peek().locals.put(name, new LocalVariable(register, type));
+        this.localTop = register + 1;
+    }
+
+    /**
+     * Helper method to find a local variable, searching the innermost scope first.
+     *
+     * @param name the name of the variable
+     * @return the local variable; null if there is no such local variable
+     */
+    private LocalVariable lookupLocal(String name) {
+        for (Scope scope : this.scopes) {
+            LocalVariable local = scope.locals.get(name);
+            if (local != null) {
+                return local;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Helper method to visit a statement in a new scope; the registers of its local variables are reused after it.
+     *
+     * @param stmt the statement
+     */
+    private void compileScoped(Stmt stmt) {
+        this.scopes.push(new Scope(this.localTop));
+        stmt.accept(this);
+        this.localTop = this.scopes.pop().start;
+    }
+
+    /**
+     * Helper method to resolve the variable referred to by a name.
+     * Without a reference object the name is looked up among the local variables first, then the fields;
+     * with this or super as the reference object the name is looked up among the fields.
+     *
+     * @param refName the name of the reference object; null if there is none
+     * @param name the name of the variable
+     * @param lineNum the line number of the reference
+     * @return the variable
+     */
+    private Variable resolveVariable(String refName, String name, int lineNum) {
+        String className;
+        if (refName == null) {
+            LocalVariable local = this.lookupLocal(name);
+            if (local != null) {
+                return new Variable(local.register, -1, local.type);
+            }
+            className = this.currentClass.getName();
+        }
+        else if (refName.equals("this")) {
+            className = this.currentClass.getName();
+        }
+        else if (refName.equals("super")) {
+            className = this.currentClass.getParent();
+        }
+        else {
+            this.registerError(lineNum, "Illegal reference to variable " + name + ".");
+            return null;
+        }
+        ClassTable.ClassEntry owner = this.classTable.lookupFieldOwner(className, name);
+        if (owner == null) {
+            this.registerError(lineNum, "Variable " + name + " is undefined.");
+        }
+        return new Variable(-1, this.classes.get(owner.getName()).fieldIndices.get(name),
+                owner.getFields().get(name));
+    }
+
+    /**
+     * Helper method to get the name of the reference object of a variable expression.
+     *
+     * @param ref the reference expression
+     * @return this or super; null if there is no reference expression or it is not this or super
+     */
+    private static String getRefName(Expr ref) {
+        if (ref instanceof VarExpr && ((VarExpr) ref).getRef() == null) {
+            String name = ((VarExpr) ref).getName();
+            if (name.equals("this") || name.equals("super")) {
+                return name;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Helper method to get a register holding the value of a variable.
+     *
+     * @param variable the variable
+     * @param requested the register requested for the value; -1 for any register
+     * @return the register holding the value
+     */
+    private int load(Variable variable, int requested) {
+        if (variable.register >= 0) {
+            this.move(requested, variable.register, variable.type);
+            return requested >= 0 ? requested : variable.register;
+        }
+        int dst = requested >= 0 ? requested : this.newRegister();
+        this.emit(isPrimitive(variable.type) ? GET_INT : GET_REF, dst, 0, variable.fieldIndex);
+        return dst;
+    }
+
+    // ---------------------------------------- Expressions ----------------------------------------
+
+    /**
+     * Helper method to visit an expression.
+     *
+     * @param expr the expression
+     * @param requested the register the value should be computed into; -1 for any register
+     * @return the register holding the value
+     */
+    private int compile(Expr expr, int requested) {
+        this.target = requested;
+        return (Integer) expr.accept(this);
+    }
+
+    /**
+     * Helper method to visit an expression, making sure it has the expected type.
+     *
+     * @param expr the expression
+     * @param requested the register the value should be computed into; -1 for any register
+     * @param expected the expected type
+     * @return the register holding the value
+     */
+    private int compile(Expr expr, int requested, String expected) {
+        int register = this.compile(expr, requested);
+        if (!this.exprType.equals(expected)) {
+            this.registerError(expr.getLineNum(), "Expected an expression of type " + expected
+                    + " but found type " + this.exprType + ".");
+        }
+        return register;
+    }
+
+    /**
+     * Helper method to visit the operand of an operation whose other operands are evaluated after it.
+     * A local variable is copied to a temporary register if a later operand may assign to it.
+     *
+     * @param expr the operand
+     * @param later the operands evaluated after it
+     * @return the register holding the value of the operand
+     */
+    private int compileOperand(Expr expr, Expr... later) {
+        int register = this.compile(expr, -1);
+        if (register < this.localTop && AssignmentFinder.assigns(later)) {
+            int copy = this.newRegister();
+            this.move(copy, register, this.exprType);
+            register = copy;
+        }
+        return register;
+    }
+
+    /**
+     * Helper method to take the register requested by the enclosing expression.
+     *
+     * @return the requested register; -1 for any register
+     */
+    private int takeTarget() {
+        int requested = this.target;
+        this.target = -1;
+        return requested;
+    }
+
+    /**
+     * Helper method to record the type of the expression visited and return its register.
+     *
+     * @param register the register holding the value of the expression
+     * @param type the type of the expression
+     * @return the register
+     */
+    private Integer result(int register, String type) {
+        this.exprType = type;
+        return register;
+    }
+
+    /**
+     * Visits a dispatch expression node.
+     * The receiver and the arguments are computed into consecutive registers above all live registers,
+     * which become the first registers of the frame of the callee.
+     * A dispatch on super calls the method of the parent class directly.
+     *
+     * @param node the dispatch expression node
+     * @return the register holding the result
+     */
+    @Override
+    public Object visit(DispatchExpr node) {
+        int requested = this.takeTarget();
+        int mark = this.nextRegister;
+        int base = this.newRegister();
+        String refType;
+        if (node.getRefExpr() == null) {
+            this.emit(MOVE_REF, base, 0);
+            refType = this.currentClass.getName();
+        }
+        else {
+            this.compile(node.getRefExpr(), base);
+            refType = this.exprType;
+        }
+        if (isPrimitive(refType) || isArray(refType) || refType.equals("null") || refType.equals("void")) {
+            this.registerError(node.getLineNum(), "Cannot call method " + node.getMethodName()
+                    + " on a value of type " + refType + ".");
+        }
+        ClassTable.MethodEntry method = this.classTable.lookupMethod(refType, node.getMethodName());
+        if (method == null) {
+            this.registerError(node.getLineNum(), "Method " + node.getMethodName()
+                    + " is undefined in class " + refType + ".");
+        }
+        List<String> paramTypes = method.getParamTypes();
+        if (paramTypes.size() != node.getActualList().getSize()) {
+            this.registerError(node.getLineNum(), "Method " + node.getMethodName() + " expects "
+                    + paramTypes.size() + " arguments but is given " + node.getActualList().getSize() + ".");
+        }
+        for (int i = 0; i < paramTypes.size(); i++) {
+            this.newRegister();
+        }
+        for (int i = 0; i < paramTypes.size(); i++) {
+            Expr actual = (Expr) node.getActualList().get(i);
+            this.compile(actual, base + 1 + i);
+            this.checkAssignable(this.exprType, paramTypes.get(i), actual.getLineNum());
+        }
+
+        ClassTable.ClassEntry owner = method.getOwner();
+        int builtinId = owner.isBuiltin() ? VmBuiltins.methodId(owner.getName(), method.getName()) : -1;
+        if ("super".equals(getRefName(node.getRefExpr()))) {
+            VmClass ownerClass = this.classes.get(owner.getName());
+            int methodConstant = owner.isBuiltin() ? -1
+                    : this.constant(ownerClass.vtable[ownerClass.methodSlots.get(method.getName())]);
+            this.emit(INVOKE_SPECIAL, methodConstant, base, builtinId);
+        }
+        else if (refType.equals("Object") || !this.classTable.getClass(refType).isBuiltin()) {
+            int slot = refType.equals("Object") ? VmClass.OBJECT_METHODS.indexOf(method.getName())
+                    : this.classes.get(refType).methodSlots.get(method.getName());
+            this.emit(INVOKE_VIRTUAL, slot, base, builtinId);
+        }
+        else {
+            this.emit(INVOKE_BUILTIN, builtinId, base);
+        }
+
+        String type = method.getReturnType();
+        if (requested >= 0 && !type.equals("void")) {
+            this.move(requested, base, type);
+            this.nextRegister = mark;
+            return this.result(requested, type);
+        }
+        this.nextRegister = base + 1;
+        return this.result(base, type);
+    }
+
+    /**
+     * Visits a new expression node.
+     *
+     * @param node the new expression node
+     * @return the register holding the new object
+     */
+    @Override
+    public Object visit(NewExpr node) {
+        int requested = this.takeTarget();
+        this.checkType(node.getType(), node.getLineNum());
+        if (isPrimitive(node.getType()) || isArray(node.getType())) {
+            this.registerError(node.getLineNum(), "Cannot create an object of type " + node.getType() + ".");
+        }
+        VmClass vmClass = this.classes.get(node.getType());
+        if (vmClass == null) {
+            int dst = requested >= 0 ? requested : this.newRegister();
+            this.emit(NEW_BUILTIN, dst, VmBuiltins.classId(node.getType()));
+            return this.result(dst, node.getType());
+        }
+        int mark = this.nextRegister;
+        int base = this.newRegister();
+        this.emit(NEW, base, this.constant(vmClass), INVOKE_SPECIAL, this.constant(vmClass.constructor), base, -1);
+        if (requested >= 0) {
+            this.move(requested, base, node.getType());
+            this.nextRegister = mark;
+            return this.result(requested, node.getType());
+        }
+        return this.result(base, node.getType());
+    }
+
+    /**
+     * Visits a new array expression node.
+     *
+     * @param node the new array expression node
+     * @return the register holding the new array
+     */
+    @Override
+    public Object visit(NewArrayExpr node) {
+        int requested = this.takeTarget();
+        String type = node.getType();
+        this.checkType(type, node.getLineNum());
+        if (isArray(type)) {
+            this.registerError(node.getLineNum(), "Arrays of arrays are not supported.");
+        }
+        int size = this.compile(node.getSize(), -1, "int");
+        int dst = requested >= 0 ? requested : this.newRegister();
+        int opcode = type.equals("int") ? NEW_INT_ARRAY : type.equals("boolean") ? NEW_BOOLEAN_ARRAY : NEW_REF_ARRAY;
+        this.emit(opcode, dst, size);
+        return this.result(dst, type + "[]");
+    }
+
+    /**
+     * Visits an instanceof expression node.
+     *
+     * @param node the instanceof expression node
+     * @return the register holding the result
+     */
+    @Override
+    public Object visit(InstanceofExpr node) {
+        int requested = this.takeTarget();
+        int src = this.compile(node.getExpr(), -1);
+        this.checkType(node.getType(), node.getLineNum());
+        if (isPrimitive(this.exprType) || isPrimitive(node.getType())) {
+            this.registerError(node.getLineNum(), "The operands of instanceof must be objects.");
+        }
+        int dst = requested >= 0 ? requested : this.newRegister();
+        this.emit(INSTANCEOF, dst, src, this.constant(node.getType()));
+        return this.result(dst, "boolean");
+    }
+
+    /**
+     * Visits a cast expression node. Only downcasts are checked at run time.
+     *
+     * @param node the cast expression node
+     * @return the register holding the value
+     */
+    @Override
+    public Object visit(CastExpr node) {
+        int register = this.compile(node.getExpr(), this.takeTarget());
+        String type = this.exprType;
+        this.checkType(node.getType(), node.getLineNum());
+        if (!this.classTable.isAssignable(type, node.getType())) {
+            if (isPrimitive(type) || !this.classTable.isAssignable(node.getType(), type)) {
+                this.registerError(node.getLineNum(), "Cannot cast type " + type + " to type "
+                        + node.getType() + ".");
+            }
+            this.emit(CHECKCAST, register, this.constant(node.getType()));
+        }
+        return this.result(register, node.getType());
+    }
+
+    /**
+     * Visits an assignment expression node.
+     * The value assigned to a local variable is computed directly into its register.
+     *
+     * @param node the assignment expression node
+     * @return the register holding the value
+     */
+    @Override
+    public Object visit(AssignExpr node) {
+        int requested = this.takeTarget();
+        Variable variable = this.resolveVariable(node.getRefName(), node.getName(), node.getLineNum());
+        if (variable.register >= 0) {
+            int value = this.compile(node.getExpr(), variable.register);
+            this.checkAssignable(this.exprType, variable.type, node.getLineNum());
+            this.move(variable.register, value, variable.type);
+            this.move(requested, variable.register, variable.type);
+            return this.result(requested >= 0 ? requested : variable.register, variable.type);
+        }
+        int value = this.compile(node.getExpr(), requested);
+        this.checkAssignable(this.exprType, variable.type, node.getLineNum());
+        this.emit(isPrimitive(variable.type) ? PUT_INT : PUT_REF, 0, variable.fieldIndex, value);
+        return this.result(value, variable.type);
+    }
+
+    /**
+     * Visits an array assignment expression node.
+     *
+     * @param node the array assignment expression node
+     * @return the register holding the value
+     */
+    @Override
+    public Object visit(ArrayAssignExpr node) {
+        int requested = this.takeTarget();
+        Variable variable = this.resolveVariable(node.getRefName(), node.getName(), node.getLineNum());
+        int array = this.loadArray(variable, node.getName(), node.getLineNum(), node.getIndex(), node.getExpr());
+        int index = this.compileOperand(node.getIndex(), node.getExpr());
+        this.checkIndex(node.getIndex());
+        String elementType = elementType(variable.type);
+        int value = this.compile(node.getExpr(), requested);
+        this.checkAssignable(this.exprType, elementType, node.getLineNum());
+        this.emit(arrayOpcode(elementType, STORE_INT, STORE_BOOLEAN, STORE_REF), array, index, value);
+        return this.result(value, elementType);
+    }
+
+    /**
+     * Helper method to get a register holding an array variable.
+     *
+     * @param variable the array variable
+     * @param name the name of the variable
+     * @param lineNum the line number of the array access
+     * @param later the operands of the array access evaluated after the array
+     * @return the register holding the array
+     */
+    private int loadArray(Variable variable, String name, int lineNum, Expr... later) {
+        if (!isArray(variable.type)) {
+            this.registerError(lineNum, "Variable " + name + " is not an array.");
+        }
+        int array = this.load(variable, -1);
+        if (array < this.localTop && AssignmentFinder.assigns(later)) {
+            array = this.load(variable, this.newRegister());
+        }
+        return array;
+    }
+
+    /**
+     * Helper method to make sure the index expression just visited is an int.
+     *
+     * @param index the index expression
+     */
+    private void checkIndex(Expr index) {
+        if (!this.exprType.equals("int")) {
+            this.registerError(index.getLineNum(), "An array index must be an int.");
+        }
+    }
+
+    /**
+     * Helper method to choose the array load or store opcode for an element type.
+     *
+     * @param elementType the element type of the array
+     * @param intOpcode the opcode for int arrays
+     * @param booleanOpcode the opcode for boolean arrays
+     * @param referenceOpcode the opcode for arrays of objects
+     * @return the opcode
+     */
+    private static int arrayOpcode(String elementType, int intOpcode, int booleanOpcode, int referenceOpcode) {
+        if (elementType.equals("int")) return intOpcode;
+        if (elementType.equals("boolean")) return booleanOpcode;
+        return referenceOpcode;
+    }
+
+    /**
+     * Helper method to visit a binary arithmetic expression node.
+     *
+     * @param node the binary arithmetic expression node
+     * @param opcode the opcode of the operation
+     * A multiplication, division or modulus by a constant power of two is compiled to a single
+     * shift or mask instruction taking the exponent as an operand.
+     *
+     * @param node the binary arithmetic expression node
+     * @param opcode the opcode of the operation
+     * @return the register holding the result
+     */
+    private Integer compileArithmetic(BinaryArithExpr node, int opcode) {
+        int requested = this.takeTarget();
+        int dst = requested >= 0 ? requested : this.newRegister();
+        int mark = this.nextRegister;
+        if (opcode == MUL || opcode == DIV || opcode == MOD) {
+            int exponent = StrengthReducer.getPowerOfTwoExponent(node.getRightExpr());
+            Expr operand = node.getLeftExpr();
+            if (exponent < 0 && opcode == MUL) {
+                exponent = StrengthReducer.getPowerOfTwoExponent(node.getLeftExpr());
+                operand = node.getRightExpr();
+            }
+            if (exponent >= 0) {
+                int src = this.compile(operand, -1, "int");
+                this.emit(opcode == MUL ? SHIFT_LEFT : opcode == DIV ? DIV_SHIFT : MOD_MASK, dst, src, exponent);
+                this.nextRegister = mark;
+                return this.result(dst, "int");
+            }
+        }
+        int left = this.compileOperand(node.getLeftExpr(), node.getRightExpr());
+        this.checkArithmeticOperand(node.getLeftExpr());
+        int right = this.compile(node.getRightExpr(), -1, "int");
+        this.emit(opcode, dst, left, right);
+        this.nextRegister = mark;
+        return this.result(dst, "int");
+    }
+
+    /**
+     * Helper method to make sure the operand just visited is an int.
+     *
+     * @param operand the operand
+     */
+    private void checkArithmeticOperand(Expr operand) {
+        if (!this.exprType.equals("int")) {
+            this.registerError(operand.getLineNum(), "Expected an expression of type int but found type "
+                    + this.exprType + ".");
+        }
+    }
+
+    @Override
+    public Object visit(BinaryArithPlusExpr node) { return this.compileArithmetic(node, ADD); }
+
+    @Override
+    public Object visit(BinaryArithMinusExpr node) { return this.compileArithmetic(node, SUB); }
+
+    @Override
+    public Object visit(BinaryArithTimesExpr node) { return this.compileArithmetic(node, MUL); }
+
+    @Override
+    public Object visit(BinaryArithDivideExpr node) { return this.compileArithmetic(node, DIV); }
+
+    @Override
+    public Object visit(BinaryArithModulusExpr node) { return this.compileArithmetic(node, MOD); }
+
+    @Override
+    public Object visit(BinaryCompEqExpr node) { return this.compileCondition(node); }
+
+    @Override
+    public Object visit(BinaryCompNeExpr node) { return this.compileCondition(node); }
+
+    @Override
+    public Object visit(BinaryCompLtExpr node) { return this.compileCondition(node); }
+
+    @Override
+    public Object visit(BinaryCompLeqExpr node) { return this.compileCondition(node); }
+
+    @Override
+    public Object visit(BinaryCompGtExpr node) { return this.compileCondition(node); }
+
+    @Override
+    public Object visit(BinaryCompGeqExpr node) { return this.compileCondition(node); }
+
+    @Override
+    public Object visit(BinaryLogicAndExpr node) { return this.compileCondition(node); }
+
+    @Override
+    public Object visit(BinaryLogicOrExpr node) { return this.compileCondition(node); }
+
+    @Override
+    public Object visit(UnaryNotExpr node) { return this.compileCondition(node); }
+
+    /**
+     * Visits a unary negation expression node.
+     *
+     * @param node the unary negation expression node
+     * @return the register holding the result
+     */
+    @Override
+    public Object visit(UnaryNegExpr node) {
+        int requested = this.takeTarget();
+        int dst = requested >= 0 ? requested : this.newRegister();
+        int mark = this.nextRegister;
+        int src = this.compile(node.getExpr(), -1, "int");
+        this.emit(NEG, dst, src);
+        this.nextRegister = mark;
+        return this.result(dst, "int");
+    }
+
+    @Override
+    public Object visit(UnaryIncrExpr node) { return this.compileIncrement(node, 1); }
+
+    @Override
+    public Object visit(UnaryDecrExpr node) { return this.compileIncrement(node, -1); }
+
+    /**
+     * Helper method to visit an increment or decrement expression node.
+     * The operand is an int variable or an element of an int array.
+     * A local variable is incremented in place; a field or an array element is
+     * loaded into a temporary register, incremented and stored back.
+     *
+     * @param node the increment or decrement expression node
+     * @param delta 1 for an increment, -1 for a decrement
+     * @return the register holding the value of the expression
+     */
+    private Integer compileIncrement(UnaryExpr node, int delta) {
+        int requested = this.takeTarget();
+        Expr operand = node.getExpr();
+        int value = this.newRegister();
+        if (operand instanceof VarExpr && (((VarExpr) operand).getRef() == null
+                || getRefName(((VarExpr) operand).getRef()) != null)) {
+            VarExpr varExpr = (VarExpr) operand;
+            Variable variable = this.resolveVariable(getRefName(varExpr.getRef()), varExpr.getName(),
+                    node.getLineNum());
+            this.checkIncrementOperand(node, variable.type);
+            if (variable.register >= 0) {
+                if (!node.isPostfix()) {
+                    this.emit(INC, variable.register, delta);
+                    this.move(requested, variable.register, "int");
+                    return this.result(requested >= 0 ? requested : variable.register, "int");
+                }
+                this.emit(MOVE_INT, value, variable.register, INC, variable.register, delta);
+            }
+            else {
+                this.emit(GET_INT, value, 0, variable.fieldIndex);
+                int updated = this.incremented(value, delta, node.isPostfix());
+                this.emit(PUT_INT, 0, variable.fieldIndex, updated);
+            }
+        }
+        else if (operand instanceof ArrayExpr && (((ArrayExpr) operand).getRef() == null
+                || getRefName(((ArrayExpr) operand).getRef()) != null)) {
+            ArrayExpr arrayExpr = (ArrayExpr) operand;
+            Variable variable = this.resolveVariable(getRefName(arrayExpr.getRef()), arrayExpr.getName(),
+                    node.getLineNum());
+            int array = this.loadArray(variable, arrayExpr.getName(), node.getLineNum(), arrayExpr.getIndex());
+            int index = this.compile(arrayExpr.getIndex(), -1);
+            this.checkIndex(arrayExpr.getIndex());
+            this.checkIncrementOperand(node, elementType(variable.type));
+            this.emit(LOAD_INT, value, array, index);
+            int updated = this.incremented(value, delta, node.isPostfix());
+            this.emit(STORE_INT, array, index, updated);
+        }
+        else {
+            this.registerError(node.getLineNum(), "The operand of " + node.getOpName() + " must be a variable.");
+        }
+        this.move(requested, value, "int");
+        return this.result(requested >= 0 ? requested : value, "int");
+    }
+
+    /**
+     * Helper method to compute the new value of an incremented field or array element.
+     *
+     * @param value the register holding the old value; it holds the value of the expression afterwards
+     * @param delta 1 for an increment, -1 for a decrement
+     * @param isPostfix whether the old value is the value of the expression
+     * @return the register holding the new value
+     */
+    private int incremented(int value, int delta, boolean isPostfix) {
+        if (!isPostfix) {
+            this.emit(INC, value, delta);
+            return value;
+        }
+        int updated = this.newRegister();
+        this.emit(MOVE_INT, updated, value, INC, updated, delta);
+        return updated;
+    }
+
+    /**
+     * Helper method to make sure the operand of an increment or decrement is an int.
+     *
+     * @param node the increment or decrement expression node
+     * @param type the type of the operand
+     */
+    private void checkIncrementOperand(UnaryExpr node, String type) {
+        if (!type.equals("int")) {
+            this.registerError(node.getLineNum(), "The operand of " + node.getOpName() + " must be an int.");
+        }
+    }
+
+    /**
+     * Visits a variable expression node.
+     * this, super and null are variable expressions without a reference object,
+     * length is the length of an array.
+     *
+     * @param node the variable expression node
+     * @return the register holding the value
+     */
+    @Override
+    public Object visit(VarExpr node) {
+        int requested = this.takeTarget();
+        Expr ref = node.getRef();
+        if (ref == null) {
+            switch (node.getName()) {
+                case "this":
+                    this.move(requested, 0, "Object");
+                    return this.result(requested >= 0 ? requested : 0, this.currentClass.getName());
+                case "super":
+                    this.move(requested, 0, "Object");
+                    return this.result(requested >= 0 ? requested : 0, this.currentClass.getParent());
+                case "null":
+                    int dst = requested >= 0 ? requested : this.newRegister();
+                    this.emit(CONST_NULL, dst);
+                    return this.result(dst, "null");
+                default:
+                    break;
+            }
+        }
+        else if (getRefName(ref) == null) {
+            int array = this.compile(ref, -1);
+            if (!node.getName().equals("length") || !isArray(this.exprType)) {
+                this.registerError(node.getLineNum(), "Illegal reference to variable " + node.getName() + ".");
+            }
+            int dst = requested >= 0 ? requested : this.newRegister();
+            this.emit(ARRAY_LENGTH, dst, array);
+            return this.result(dst, "int");
+        }
+        Variable variable = this.resolveVariable(getRefName(ref), node.getName(), node.getLineNum());
+        return this.result(this.load(variable, requested), variable.type);
+    }
+
+    /**
+     * Visits an array expression node.
+     *
+     * @param node the array expression node
+     * @return the register holding the element
+     */
+    @Override
+    public Object visit(ArrayExpr node) {
+        int requested = this.takeTarget();
+        if (node.getRef() != null && getRefName(node.getRef()) == null) {
+            this.registerError(node.getLineNum(), "Illegal reference to array " + node.getName() + ".");
+        }
+        Variable variable = this.resolveVariable(getRefName(node.getRef()), node.getName(), node.getLineNum());
+        int array = this.loadArray(variable, node.getName(), node.getLineNum(), node.getIndex());
+        int index = this.compile(node.getIndex(), -1);
+        this.checkIndex(node.getIndex());
+        String elementType = elementType(variable.type);
+        int dst = requested >= 0 ? requested : this.newRegister();
+        this.emit(arrayOpcode(elementType, LOAD_INT, LOAD_BOOLEAN, LOAD_REF), dst, array, index);
+        return this.result(dst, elementType);
+    }
+
+    /**
+     * Visits an int constant node.
+     *
+     * @param node the int constant node
+     * @return the register holding the constant
+     */
+    @Override
+    public Object visit(ConstIntExpr node) {
+        int requested = this.takeTarget();
+        int dst = requested >= 0 ? requested : this.newRegister();
+        this.emit(CONST_INT, dst, node.getIntConstant());
+        return this.result(dst, "int");
+    }
+
+    /**
+     * Visits a boolean constant node.
+     *
+     * @param node the boolean constant node
+     * @return the register holding the constant
+     */
+    @Override
+    public Object visit(ConstBooleanExpr node) {
+        int requested = this.takeTarget();
+        int dst = requested >= 0 ? requested : this.newRegister();
+        this.emit(CONST_INT, dst, Boolean.parseBoolean(node.getConstant()) ? 1 : 0);
+        return this.result(dst, "boolean");
+    }
+
+    /**
+     * Visits a String constant node.
+     *
+     * @param node the String constant node
+     * @return the register holding the constant
+     */
+    @Override
+    public Object visit(ConstStringExpr node) {
+        int requested = this.takeTarget();
+        int dst = requested >= 0 ? requested : this.newRegister();
+        this.emit(CONST_REF, dst, this.constant(unescape(node.getConstant())));
+        return this.result(dst, "String");
+    }
+
+    /**
+     * Helper method to get the value of a String constant as spelled in the source,
+     * removing the double quotes and replacing the escape sequences.
+     *
+     * @param spelling the spelling of the String constant
+     * @return the value of the String constant
+     */
+    private static String unescape(String spelling) {
+        String constant = spelling;
+        if (constant.length() >= 2 && constant.startsWith("\"") && constant.endsWith("\"")) {
+            constant = constant.substring(1, constant.length() - 1);
+        }
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < constant.length(); i++) {
+            char c = constant.charAt(i);
+            if (c == '\\' && i + 1 < constant.length()) {
+                c = constant.charAt(++i);
+                switch (c) {
+                    case 'n': c = '\n'; break;
+                    case 't': c = '\t'; break;
+                    case 'f': c = '\f'; break;
+                    default: break;
+                }
+            }
+            builder.append(c);
+        }
+        return builder.toString();
+    }
+
+    // ---------------------------------------- Conditions ----------------------------------------
+
+    /**
+     * Helper method to emit the code jumping to a label if a boolean expression has the given value.
+     * Comparisons are compiled to compare-and-jump instructions and
+     * the operators &&, || and ! to jumps, so that they short-circuit.
+     *
+     * @param expr the boolean expression
+     * @param target the label to jump to
+     * @param jumpIf the value of the expression for which the jump is taken
+     */
+    private void compileJump(Expr expr, Label target, boolean jumpIf) {
+        int mark = this.nextRegister;
+        if (expr instanceof BinaryLogicAndExpr || expr instanceof BinaryLogicOrExpr) {
+            BinaryExpr binaryExpr = (BinaryExpr) expr;
+            // && jumps as soon as the left operand is false, || as soon as it is true
+            boolean shortCircuit = expr instanceof BinaryLogicOrExpr;
+            if (jumpIf == shortCircuit) {
+                this.compileJump(binaryExpr.getLeftExpr(), target, jumpIf);
+                this.compileJump(binaryExpr.getRightExpr(), target, jumpIf);
+            }
+            else {
+                Label skipLabel = new Label();
+                this.compileJump(binaryExpr.getLeftExpr(), skipLabel, shortCircuit);
+                this.compileJump(binaryExpr.getRightExpr(), target, jumpIf);
+                this.placeLabel(skipLabel);
+            }
+        }
+        else if (expr instanceof UnaryNotExpr) {
+            this.compileJump(((UnaryNotExpr) expr).getExpr(), target, !jumpIf);
+        }
+        else if (expr instanceof ConstBooleanExpr) {
+            if (Boolean.parseBoolean(((ConstBooleanExpr) expr).getConstant()) == jumpIf) {
+                this.emitJump(target, JUMP);
+            }
+        }
+        else if (expr instanceof BinaryCompExpr) {
+            BinaryCompExpr node = (BinaryCompExpr) expr;
+            int left = this.compileOperand(node.getLeftExpr(), node.getRightExpr());
+            String leftType = this.exprType;
+            int right = this.compile(node.getRightExpr(), -1);
+            int opcode = this.comparisonOpcode(node, leftType, this.exprType);
+            this.emitJump(target, jumpIf ? opcode : negate(opcode), left, right);
+        }
+        else {
+            int register = this.compile(expr, -1, "boolean");
+            this.emitJump(target, jumpIf ? JUMP_TRUE : JUMP_FALSE, register);
+        }
+        this.nextRegister = mark;
+    }
+
+    /**
+     * Helper method to check the operand types of a comparison and choose its jump opcode.
+     *
+     * @param node the comparison node
+     * @param leftType the type of the left operand
+     * @param rightType the type of the right operand
+     * @return the opcode of the jump taken if the comparison is true
+     */
+    private int comparisonOpcode(BinaryCompExpr node, String leftType, String rightType) {
+        boolean equality = node instanceof BinaryCompEqExpr || node instanceof BinaryCompNeExpr;
+        if (equality && !isPrimitive(leftType) && !isPrimitive(rightType)) {
+            if (!this.classTable.isAssignable(leftType, rightType)
+                    && !this.classTable.isAssignable(rightType, leftType)) {
+                this.registerError(node.getLineNum(), "Types " + leftType + " and " + rightType
+                        + " cannot be compared.");
+            }
+            return node instanceof BinaryCompEqExpr ? JUMP_REF_EQ : JUMP_REF_NE;
+        }
+        if (!leftType.equals(rightType) || !(equality ? isPrimitive(leftType) : leftType.equals("int"))) {
+            this.registerError(node.getLineNum(), "Types " + leftType + " and " + rightType
+                    + " cannot be compared with " + node.getOpName() + ".");
+        }
+        if (node instanceof BinaryCompEqExpr) return JUMP_EQ;
+        if (node instanceof BinaryCompNeExpr) return JUMP_NE;
+        if (node instanceof BinaryCompLtExpr) return JUMP_LT;
+        if (node instanceof BinaryCompLeqExpr) return JUMP_LE;
+        if (node instanceof BinaryCompGtExpr) return JUMP_GT;
+        return JUMP_GE;
+    }
+
+    /**
+     * Helper method to get the jump opcode with the opposite condition.
+     *
+     * @param opcode the jump opcode
+     * @return the opcode of the jump taken exactly when the given jump is not
+     */
+    private static int negate(int opcode) {
+        switch (opcode) {
+            case JUMP_EQ: return JUMP_NE;
+            case JUMP_NE: return JUMP_EQ;
+            case JUMP_LT: return JUMP_GE;
+            case JUMP_GE: return JUMP_LT;
+            case JUMP_GT: return JUMP_LE;
+            case JUMP_LE: return JUMP_GT;
+            case JUMP_REF_EQ: return JUMP_REF_NE;
+            default: return JUMP_REF_EQ;
+        }
+    }
+
+    /**
+     * Helper method to compute the value of a boolean expression made of jumps into a register.
+     *
+     * @param expr the boolean expression
+     * @return the register holding the value
+     */
+    private Integer compileCondition(Expr expr) {
+        int requested = this.takeTarget();
+        int dst = requested >= 0 ? requested : this.newRegister();
+        Label falseLabel = new Label();
+        Label endLabel = new Label();
+        this.compileJump(expr, falseLabel, false);
+        this.emit(CONST_INT, dst, 1);
+        this.emitJump(endLabel, JUMP);
+        this.placeLabel(falseLabel);
+        this.emit(CONST_INT, dst, 0);
+        this.placeLabel(endLabel);
+        return this.result(dst, "boolean");
+    }
+
+    // ---------------------------------------- Statements ----------------------------------------
+
+    /**
+     * Helper method to start compiling a statement, releasing the temporary registers.
+     *
+     * @param stmt the statement
+     */
+    private void beginStatement(Stmt stmt) {
+        this.line = stmt.getLineNum();
+        this.nextRegister = this.localTop;
+    }
+
+    /**
+     * Visits a declaration statement node. The value is computed directly into the register of the variable.
+     * The type of the variable is the type of its initial value; Object if the initial value is null.
+     *
+     * @param node the declaration statement node
+     * @return null
+     */
+    @Override
+    public Object visit(DeclStmt node) {
+        this.beginStatement(node);
+        int register = this.newRegister();
+        this.move(register, this.compile(node.getInit(), register), this.exprType);
+        if (this.exprType.equals("void")) {
+            this.registerError(node.getLineNum(), "Variable " + node.getName() + " cannot be void.");
+        }
+        String type = this.exprType.equals("null") ? "Object" : this.exprType;
+        this.declareLocal(node.getName(), type, register, node.getLineNum());
+        return null;
+    }
+
+    /**
+     * Visits an expression statement node.
+     *
+     * @param node the expression statement node
+     * @return null
+     */
+    @Override
+    public Object visit(ExprStmt node) {
+        this.beginStatement(node);
+        this.compile(node.getExpr(), -1);
+        return null;
+    }
+
+    /**
+     * Visits an if statement node.
+     *
+     * @param node the if statement node
+     * @return null
+     */
+    @Override
+    public Object visit(IfStmt node) {
+        this.beginStatement(node);
+        Label elseLabel = new Label();
+        this.compileJump(node.getPredExpr(), elseLabel, false);
+        this.compileScoped(node.getThenStmt());
+        if (node.getElseStmt() != null) {
+            Label endLabel = new Label();
+            this.emitJump(endLabel, JUMP);
+            this.placeLabel(elseLabel);
+            this.compileScoped(node.getElseStmt());
+            this.placeLabel(endLabel);
+        }
+        else {
+            this.placeLabel(elseLabel);
+        }
+        return null;
+    }
+
+    /**
+     * Visits a while statement node.
+     * The condition is tested at the bottom of the loop, so an iteration runs a single jump.
+     *
+     * @param node the while statement node
+     * @return null
+     */
+    @Override
+    public Object visit(WhileStmt node) {
+        this.beginStatement(node);
+        Label testLabel = new Label();
+        Label bodyLabel = new Label();
+        Label endLabel = new Label();
+        this.emitJump(testLabel, JUMP);
+        this.placeLabel(bodyLabel);
+        this.breakLabels.push(endLabel);
+        this.compileScoped(node.getBodyStmt());
+        this.breakLabels.pop();
+        this.placeLabel(testLabel);
+        this.beginStatement(node);
+        this.compileJump(node.getPredExpr(), bodyLabel, true);
+        this.placeLabel(endLabel);
+        return null;
+    }
+
+    /**
+     * Visits a for statement node. Like a while loop, the condition is tested at the bottom of the loop.
+     *
+     * @param node the for statement node
+     * @return null
+     */
+    @Override
+    public Object visit(ForStmt node) {
+        this.beginStatement(node);
+        if (node.getInitExpr() != null) {
+            this.compile(node.getInitExpr(), -1);
+        }
+        Label testLabel = new Label();
+        Label bodyLabel = new Label();
+        Label endLabel = new Label();
+        this.emitJump(testLabel, JUMP);
+        this.placeLabel(bodyLabel);
+        this.breakLabels.push(endLabel);
+        this.compileScoped(node.getBodyStmt());
+        this.breakLabels.pop();
+        this.beginStatement(node);
+        if (node.getUpdateExpr() != null) {
+            this.compile(node.getUpdateExpr(), -1);
+        }
+        this.placeLabel(testLabel);
+        this.nextRegister = this.localTop;
+        if (node.getPredExpr() != null) {
+            this.compileJump(node.getPredExpr(), bodyLabel, true);
+        } else {
+            this.emitJump(bodyLabel, JUMP);
+        }
+        this.placeLabel(endLabel);
+        return null;
+    }
+
+    /**
+     * Visits a break statement node.
+     *
+     * @param node the break statement node
+     * @return null
+     */
+    @Override
+    public Object visit(BreakStmt node) {
+        this.beginStatement(node);
+        if (this.breakLabels.isEmpty()) {
+            this.registerError(node.getLineNum(), "Break statement is not in a loop.");
+        }
+        this.emitJump(this.breakLabels.peek(), JUMP);
+        return null;
+    }
+
+    /**
+     * Visits a block statement node.
+     *
+     * @param node the block statement node
+     * @return null
+     */
+    @Override
+    public Object visit(BlockStmt node) {
+        this.scopes.push(new Scope(this.localTop));
+        node.getStmtList().accept(this);
+        this.localTop = this.scopes.pop().start;
+        return null;
+    }
+
+    /**
+     * Visits a return statement node.
+     *
+     * @param node the return statement node
+     * @return null
+     */
+    @Override
+    public Object visit(ReturnStmt node) {
+        this.beginStatement(node);
+        if (node.getExpr() == null) {
+            if (!this.returnType.equals("void")) {
+                this.registerError(node.getLineNum(), "Missing return value of type " + this.returnType + ".");
+            }
+            this.emit(RETURN_VOID);
+        }
+        else {
+            if (this.returnType.equals("void")) {
+                this.registerError(node.getLineNum(), "A void method cannot return a value.");
+            }
+            int register = this.compile(node.getExpr(), -1);
+            this.checkAssignable(this.exprType, this.returnType, node.getLineNum());
+            this.emit(isPrimitive(this.returnType) ? RETURN_INT : RETURN_REF, register);
+        }
+        return null;
+    }
+
+    /**
+     * A position in the code that jumps go to.
+     */
+    private static class Label {
+        /**
+         * the pc of the label; -1 if not placed yet
+         */
+        private int position = -1;
+        /**
+         * the indices of the jump target operands to be patched once the label is placed
+         */
+        private List<Integer> fixups = new ArrayList<>();
+    }
+
+    /**
+     * A scope of local variables.
+     */
+    private static class Scope {
+        /**
+         * the first register of the scope
+         */
+        private final int start;
+        /**
+         * a map from the names of the local variables declared in the scope to the variables
+         */
+        private final Map<String, LocalVariable> locals = new HashMap<>();
+
+        /**
+         * Constructor of the Scope class.
+         *
+         * @param start the first register of the scope
+         */
+        private Scope(int start) { this.start = start; }
+    }
+
+    /**
+     * A local variable of the method being compiled.
+     */
+    private static class LocalVariable {
+        /**
+         * the register of the local variable
+         */
+        private final int register;
+        /**
+         * the type of the local variable
+         */
+        private final String type;
+
+        /**
+         * Constructor of the LocalVariable class.
+         *
+         * @param register the register of the local variable
+         * @param type the type of the local variable
+         */
+        private LocalVariable(int register, String type) {
+            this.register = register;
+            this.type = type;
+        }
+    }
+
+    /**
+     * A variable an expression refers to, either a local variable or a field of this.
+     */
+    private static class Variable {
+        /**
+         * the register of the local variable; -1 for a field
+         */
+        private final int register;
+        /**
+         * the index of the field; -1 for a local variable
+         */
+        private final int fieldIndex;
+        /**
+         * the type of the variable
+         */
+        private final String type;
+
+        /**
+         * Constructor of the Variable class.
+         *
+         * @param register the register of the local variable; -1 for a field
+         * @param fieldIndex the index of the field; -1 for a local variable
+         * @param type the type of the variable
+         */
+        private Variable(int register, int fieldIndex, String type) {
+            this.register = register;
+            this.fieldIndex = fieldIndex;
+            this.type = type;
+        }
+    }
+
+    /**
+     * A visitor finding the expressions that may assign to a local variable.
+     */
+    private static class AssignmentFinder extends Visitor {
+        /**
+         * whether an assignment, increment or decrement was found
+         */
+        private boolean found;
+
+        /**
+         * Checks whether any of the given expressions contains an assignment, an increment or a decrement.
+         *
+         * @param exprs the expressions; null elements are skipped
+         * @return true if an expression may assign to a local variable; false otherwise
+         */
+        private static boolean assigns(Expr... exprs) {
+            AssignmentFinder finder = new AssignmentFinder();
+            for (Expr expr : exprs) {
+                if (expr != null) {
+                    expr.accept(finder);
+                }
+            }
+            return finder.found;
+        }
+
+        @Override
+        public Object visit(AssignExpr node) {
+            this.found = true;
+            return null;
+        }
+
+        @Override
+        public Object visit(UnaryIncrExpr node) {
+            this.found = true;
+            return null;
+        }
+
+        @Override
+        public Object visit(UnaryDecrExpr node) {
+            this.found = true;
+            return null;
+        }
+    }
+}
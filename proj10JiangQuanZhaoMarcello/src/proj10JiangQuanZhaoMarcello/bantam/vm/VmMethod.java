@@ -0,0 +1,81 @@
+/*
+ * File: VmMethod.java
+ * F18 CS361 Project 10
+ * Names: Liwei Jiang, Tracy Quan, Danqing Zhao, Chris Marcello
+ * Date: 12/07/2018
+ * This file contains the VmMethod class, a method compiled for the Bantam register VM.
+ */
+
+package proj10JiangQuanZhaoMarcello.bantam.vm;
+
+/**
+ * A method compiled for the Bantam register VM.
+ * Register 0 of its frame holds this and the following registers hold the parameters.
+ *
+ * @author Liwei Jiang
+ * @author Tracy Quan
+ * @author Danqing Zhao
+ * @author Chris Marcello
+ */
+public class VmMethod {
+    /**
+     * the name of the method
+     */
+    private final String name;
+    /**
+     * the class declaring the method
+     */
+    private final VmClass owner;
+    /**
+     * the instructions of the method
+     */
+    int[] code;
+    /**
+     * the source line of each word of the code
+     */
+    int[] lines;
+    /**
+     * the number of registers of a frame of the method
+     */
+    int registerCount;
+
+    /**
+     * Constructor of the VmMethod class. The code is set once the method is compiled.
+     *
+     * @param name the name of the method
+     * @param owner the class declaring the method
+     */
+    VmMethod(String name, VmClass owner) {
+        this.name = name;
+        this.owner = owner;
+    }
+
+    /**
+     * Gets the name of the method.
+     *
+     * @return the method name
+     */
+    public String getName() { return this.name; }
+
+    /**
+     * Gets the class declaring the method.
+     *
+     * @return the declaring class
+     */
+    public VmClass getOwner() { return this.owner; }
+
+    /**
+     * Gets the length of the code of the method.
+     *
+     * @return the number of words of the code
+     */
+    public int getCodeLength() { return this.code.length; }
+
+    /**
+     * Gets the source line the instruction at the given pc was compiled from.
+     *
+     * @param pc the pc of the instruction
+     * @return the source line number
+     */
+    public int getLine(int pc) { return pc >= 0 && pc < this.lines.length ? this.lines[pc] : -1; }
+}
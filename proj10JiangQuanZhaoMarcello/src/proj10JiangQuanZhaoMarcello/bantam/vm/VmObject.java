@@ -0,0 +1,59 @@
+/*
+ * File: VmObject.java
+ * F18 CS361 Project 10
+ * Names: Liwei Jiang, Tracy Quan, Danqing Zhao, Chris Marcello
+ * Date: 12/07/2018
+ * This file contains the VmObject class, an instance of a Bantam class in the register VM.
+ */
+
+package proj10JiangQuanZhaoMarcello.bantam.vm;
+
+/**
+ * An instance of a Bantam class in the register VM.
+ * The int and boolean fields are kept unboxed in an int[], the other fields in an Object[].
+ *
+ * @author Liwei Jiang
+ * @author Tracy Quan
+ * @author Danqing Zhao
+ * @author Chris Marcello
+ */
+public class VmObject {
+    /**
+     * the class of the object
+     */
+    final VmClass vmClass;
+    /**
+     * the int and boolean fields
+     */
+    final int[] ints;
+    /**
+     * the object fields
+     */
+    final Object[] refs;
+
+    /**
+     * Constructor of the VmObject class. The fields are initialized by the constructor method of the class.
+     *
+     * @param vmClass the class of the object
+     */
+    VmObject(VmClass vmClass) {
+        this.vmClass = vmClass;
+        this.ints = new int[vmClass.intFieldCount];
+        this.refs = new Object[vmClass.refFieldCount];
+    }
+
+    /**
+     * Gets the class of the object.
+     *
+     * @return the class
+     */
+    public VmClass getVmClass() { return this.vmClass; }
+
+    /**
+     * Returns the default string representation of a Bantam object, the class name and the hash code.
+     *
+     * @return the string representation
+     */
+    @Override
+    public String toString() { return this.vmClass.getName() + "@" + Integer.toHexString(this.hashCode()); }
+}
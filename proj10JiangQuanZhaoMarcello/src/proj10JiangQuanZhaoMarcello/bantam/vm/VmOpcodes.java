@@ -0,0 +1,93 @@
+/*
+ * File: VmOpcodes.java
+ * F18 CS361 Project 10
+ * Names: Liwei Jiang, Tracy Quan, Danqing Zhao, Chris Marcello
+ * Date: 12/07/2018
+ * This file contains the VmOpcodes class, listing the instructions of the Bantam register VM.
+ */
+
+package proj10JiangQuanZhaoMarcello.bantam.vm;
+
+/**
+ * The instructions of the Bantam register VM.
+ * An instruction is an opcode followed by its operands in the int[] code array of a method.
+ * Register operands are relative to the base of the frame; int values live in the int register file
+ * and objects in the Object register file at the same index. Jump targets are absolute pcs
+ * and constant operands are indices into the constant pool of the program.
+ *
+ * @author Liwei Jiang
+ * @author Tracy Quan
+ * @author Danqing Zhao
+ * @author Chris Marcello
+ */
+public final class VmOpcodes {
+    // constants and moves
+    public static final int CONST_INT = 0;       // dst, value
+    public static final int CONST_REF = 1;       // dst, constant
+    public static final int CONST_NULL = 2;      // dst
+    public static final int MOVE_INT = 3;        // dst, src
+    public static final int MOVE_REF = 4;        // dst, src
+
+    // arithmetic
+    public static final int ADD = 5;             // dst, left, right
+    public static final int SUB = 6;             // dst, left, right
+    public static final int MUL = 7;             // dst, left, right
+    public static final int DIV = 8;             // dst, left, right
+    public static final int MOD = 9;             // dst, left, right
+    public static final int NEG = 10;            // dst, src
+    public static final int INC = 11;            // reg, delta
+
+    // jumps
+    public static final int JUMP = 12;           // target
+    public static final int JUMP_TRUE = 13;      // src, target
+    public static final int JUMP_FALSE = 14;     // src, target
+    public static final int JUMP_EQ = 15;        // left, right, target
+    public static final int JUMP_NE = 16;        // left, right, target
+    public static final int JUMP_LT = 17;        // left, right, target
+    public static final int JUMP_GE = 18;        // left, right, target
+    public static final int JUMP_GT = 19;        // left, right, target
+    public static final int JUMP_LE = 20;        // left, right, target
+    public static final int JUMP_REF_EQ = 21;    // left, right, target
+    public static final int JUMP_REF_NE = 22;    // left, right, target
+
+    // fields
+    public static final int GET_INT = 23;        // dst, object, field index
+    public static final int GET_REF = 24;        // dst, object, field index
+    public static final int PUT_INT = 25;        // object, field index, src
+    public static final int PUT_REF = 26;        // object, field index, src
+
+    // objects and arrays
+    public static final int NEW = 27;            // dst, class constant
+    public static final int NEW_BUILTIN = 28;    // dst, built-in class id
+    public static final int NEW_INT_ARRAY = 29;  // dst, size
+    public static final int NEW_BOOLEAN_ARRAY = 30; // dst, size
+    public static final int NEW_REF_ARRAY = 31;  // dst, size
+    public static final int LOAD_INT = 32;       // dst, array, index
+    public static final int LOAD_BOOLEAN = 33;   // dst, array, index
+    public static final int LOAD_REF = 34;       // dst, array, index
+    public static final int STORE_INT = 35;      // array, index, src
+    public static final int STORE_BOOLEAN = 36;  // array, index, src
+    public static final int STORE_REF = 37;      // array, index, src
+    public static final int ARRAY_LENGTH = 38;   // dst, array
+    public static final int INSTANCEOF = 39;     // dst, src, type constant
+    public static final int CHECKCAST = 40;      // src, type constant
+
+    // calls; the receiver and the arguments are in consecutive registers starting at base,
+    // which become the first registers of the frame of the callee, and the result is left in base
+    public static final int INVOKE_VIRTUAL = 41; // vtable index, base, built-in method id or -1
+    public static final int INVOKE_SPECIAL = 42; // method constant or -1, base, built-in method id or -1
+    public static final int INVOKE_BUILTIN = 43; // built-in method id, base
+    public static final int RETURN_INT = 44;     // src
+    public static final int RETURN_REF = 45;     // src
+    public static final int RETURN_VOID = 46;
+
+    // arithmetic by a power of two, whose exponent is the last operand
+    public static final int SHIFT_LEFT = 47;     // dst, src, exponent
+    public static final int DIV_SHIFT = 48;      // dst, src, exponent
+    public static final int MOD_MASK = 49;       // dst, src, exponent
+
+    /**
+     * Private constructor, this class only holds constants.
+     */
+    private VmOpcodes() { }
+}
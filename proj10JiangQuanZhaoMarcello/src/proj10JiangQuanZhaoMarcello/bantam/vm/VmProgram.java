@@ -0,0 +1,57 @@
+/*
+ * File: VmProgram.java
+ * F18 CS361 Project 10
+ * Names: Liwei Jiang, Tracy Quan, Danqing Zhao, Chris Marcello
+ * Date: 12/07/2018
+ * This file contains the VmProgram class, a Bantam program compiled for the register VM.
+ */
+
+package proj10JiangQuanZhaoMarcello.bantam.vm;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * A Bantam program compiled for the register VM:
+ * its classes and the constant pool shared by the code of all its methods.
+ *
+ * @author Liwei Jiang
+ * @author Tracy Quan
+ * @author Danqing Zhao
+ * @author Chris Marcello
+ */
+public class VmProgram {
+    /**
+     * the constant pool: strings, type names, classes and methods
+     */
+    final Object[] constants;
+    /**
+     * a map from class names to the compiled classes
+     */
+    private final Map<String, VmClass> classes;
+
+    /**
+     * Constructor of the VmProgram class.
+     *
+     * @param constants the constant pool
+     * @param classes a map from class names to the compiled classes
+     */
+    VmProgram(Object[] constants, Map<String, VmClass> classes) {
+        this.constants = constants;
+        this.classes = classes;
+    }
+
+    /**
+     * Gets the compiled classes.
+     *
+     * @return an unmodifiable map from class names to the compiled classes
+     */
+    public Map<String, VmClass> getClasses() { return Collections.unmodifiableMap(this.classes); }
+
+    /**
+     * Gets the number of constants in the constant pool.
+     *
+     * @return the size of the constant pool
+     */
+    public int getConstantCount() { return this.constants.length; }
+}
@@ -0,0 +1,114 @@
+/*
+ * File: BantamOutlineProvider.java
+ * F18 CS361 Project 10
+ * Names: Liwei Jiang, Tracy Quan, Danqing Zhao, Chris Marcello
+ * Date: 12/07/2018
+ * This file contains the BantamOutlineProvider class, building the structure view of Bantam files.
+ */
+
+package proj10JiangQuanZhaoMarcello.controllers;
+
+import java.io.File;
+import java.util.Map;
+import javafx.scene.control.TreeItem;
+import javafx.scene.image.Image;
+import javafx.scene.image.ImageView;
+import proj10JiangQuanZhaoMarcello.bantam.ast.ASTNode;
+import proj10JiangQuanZhaoMarcello.bantam.ast.Class_;
+import proj10JiangQuanZhaoMarcello.bantam.ast.Field;
+import proj10JiangQuanZhaoMarcello.bantam.ast.Method;
+import proj10JiangQuanZhaoMarcello.bantam.ast.Program;
+import proj10JiangQuanZhaoMarcello.bantam.parser.Parser;
+import proj10JiangQuanZhaoMarcello.bantam.util.CompilationException;
+import proj10JiangQuanZhaoMarcello.bantam.util.ErrorHandler;
+
+/**
+ * BantamOutlineProvider builds the outline of Bantam files from the AST built by the Bantam Parser:
+ * the classes of the program, each with its fields and methods.
+ * The Bantam Parser stops at the first syntax error, so a file with a syntax error has an empty outline.
+ *
+ * @author Liwei Jiang
+ * @author Tracy Quan
+ * @author Danqing Zhao
+ * @author Chris Marcello
+ */
+public class BantamOutlineProvider implements OutlineProvider {
+    /**
+     * whether the last file was parsed without errors
+     */
+    private boolean parsed = true;
+
+    /**
+     * Checks whether the provider builds the outline of a file.
+     *
+     * @param file the file
+     * @return true if the file is a Bantam file; false otherwise
+     */
+    @Override public boolean accepts(File file) { return file.getName().endsWith(".btm"); }
+
+    /**
+     * Parses a Bantam file and builds its outline from the AST.
+     *
+     * @param fileContents the text of the file
+     * @param lineNums the map the line number of the declaration of each item is put in
+     * @return the root of the outline; without children if the file has a syntax error
+     */
+    @Override public synchronized TreeItem<String> buildOutline(String fileContents,
+                                                                Map<TreeItem<String>, Integer> lineNums) {
+        // the root is not shown, and keeps no reference to the text of the file
+        TreeItem<String> newRoot = new TreeItem<>();
+        Program program;
+        try {
+            program = new Parser(new ErrorHandler()).parse(null, fileContents);
+        } catch (CompilationException e) {
+            this.parsed = false;
+            return newRoot;
+        }
+        this.parsed = true;
+
+        for (ASTNode classNode : program.getClassList()) {
+            Class_ aClass = (Class_) classNode;
+            TreeItem<String> classItem = this.addItem(newRoot, aClass.getName(), StructureIcons.CLASS,
+                    aClass.getLineNum(), lineNums);
+            classItem.setExpanded(true);
+            for (ASTNode memberNode : aClass.getMemberList()) {
+                if (memberNode instanceof Field) {
+                    this.addItem(classItem, ((Field) memberNode).getName(), StructureIcons.FIELD,
+                            memberNode.getLineNum(), lineNums);
+                } else {
+                    this.addItem(classItem, ((Method) memberNode).getName(), StructureIcons.METHOD,
+                            memberNode.getLineNum(), lineNums);
+                }
+            }
+        }
+        return newRoot;
+    }
+
+    /**
+     * Gets how the last outline was built.
+     *
+     * @return the parser used, and whether the last file had a syntax error
+     */
+    @Override public String getLastBuildDescription() {
+        return this.parsed ? "Bantam" : "Bantam, syntax error";
+    }
+
+    /**
+     * Helper method to add an item to the outline.
+     *
+     * @param parent the parent of the item
+     * @param name the name of the class, field or method
+     * @param icon the icon of the item
+     * @param lineNum the line number of the declaration
+     * @param lineNums the map the line number of the declaration of the item is put in
+     * @return the item added
+     */
+    private TreeItem<String> addItem(TreeItem<String> parent, String name, Image icon, int lineNum,
+                                     Map<TreeItem<String>, Integer> lineNums) {
+        TreeItem<String> newNode = new TreeItem<>(name);
+        newNode.setGraphic(new ImageView(icon));
+        parent.getChildren().add(newNode);
+        lineNums.put(newNode, lineNum);
+        return newNode;
+    }
+}
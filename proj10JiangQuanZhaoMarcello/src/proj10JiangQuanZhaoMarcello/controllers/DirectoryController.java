@@ -10,17 +10,35 @@
 package proj10JiangQuanZhaoMarcello.controllers;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.file.DirectoryIteratorException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import javafx.application.Platform;
-import javafx.concurrent.Service;
-import javafx.concurrent.Task;
 import javafx.scene.control.*;
 import javafx.scene.input.MouseEvent;
 
 /**
  * This controller handles directory related actions.
  *
+ * The directory tree shows the directory of the current file, with its subdirectories and source files.
+ * A directory is listed only when its item is first expanded, on a background thread,
+ * and the tree is not rebuilt when another file of the same directory becomes current.
+ * The directories listed are watched, and the files created or deleted in them are added to
+ * or removed from the tree in place.
+ *
  * @author Douglas Abrams
  * @author Martin Deutsch
  * @author Robert Durst
@@ -31,6 +49,18 @@ import javafx.scene.input.MouseEvent;
  * @author Chris Marcello
  */ 
 public class DirectoryController {
+    /**
+     * the value of the item shown in a directory that is not listed yet
+     */
+    private static final String LOADING = "Loading...";
+    /**
+     * the single thread listing the directories and handling their changes in the background, in order
+     */
+    private static final ExecutorService LISTER = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "DirectoryController lister");
+        thread.setDaemon(true);
+        return thread;
+    });
     /**
      * the tree view representing the directory
      */
@@ -52,14 +82,31 @@ public class DirectoryController {
      */
     private FileMenuController fileMenuController;
     /**
-     * A DirectoryTreeWorker object constructing a directory tree in a separate thread.
+     * the directory shown at the root of the tree; null if there is none.
+     * Set on the JavaFX Application Thread and read by the lister.
      */
-    private DirectoryTreeWorker directoryTreeWorker;
+    private volatile Path rootDirectory;
+    /**
+     * a map from the directories listed or being listed to their items
+     */
+    private final Map<Path, TreeItem<String>> directoryItems = new HashMap<>();
+    /**
+     * the watcher notified of the changes in the directories listed
+     */
+    private final DirectoryWatcher watcher = new DirectoryWatcher();
 
     /**
      * Constructor of the DirectoryController class.
+     * Starts watching the changes in the directories listed, if the file system supports it.
      */
-    public DirectoryController() { this.directoryTreeWorker = new DirectoryTreeWorker(); }
+    public DirectoryController() {
+        if (!this.watcher.isAvailable()) {
+            return;
+        }
+        Thread watcher = new Thread(this::watchDirectories, "DirectoryController watcher");
+        watcher.setDaemon(true);
+        watcher.start();
+    }
 
     /**
      * Sets the directory tree from Main.fxml.
@@ -100,78 +147,250 @@ public class DirectoryController {
     }
 
     /**
-     * Returns the directory tree for the given file.
+     * Gets the directory shown at the root of the directory tree.
      *
-     * @param file the file
-     * @return the root TreeItem of the tree
-     */
-    private TreeItem<String> getNode(File file) {
-        // create root, which is returned at the end
-        TreeItem<String> root = new TreeItem<>(file.getName());
-        treeItemFileMap.put(root, file);
-
-        for (File f : file.listFiles()) {
-            if (f.isDirectory()) {
-                // recursively traverse file directory
-                root.getChildren().add(getNode(f));
-            } else {
-                if (f.getName().endsWith(".java")) {
-                    TreeItem<String> leaf = new TreeItem<>(f.getName());
-                    root.getChildren().add(leaf);
-                    treeItemFileMap.put(leaf, f);
+     * @return the directory shown at the root of the tree; null if there is none
+     */
+    public Path getRootDirectory() { return this.rootDirectory; }
+
+    /**
+     * Adds the directory tree for the current file to the IDE.
+     * The tree is kept if the directory of the current file is already shown.
+     */
+    public void createDirectoryTree() {
+        File curFile = this.tabFileMap.get(this.tabPane.getSelectionModel().getSelectedItem());
+        if (curFile == null) {
+            return;
+        }
+        Path directory = curFile.getAbsoluteFile().getParentFile().toPath();
+        if (directory.equals(this.rootDirectory)) {
+            return;
+        }
+        // forget the previous tree and stop watching its directories, once the lister can see
+        // that they are no longer under the root
+        this.rootDirectory = directory;
+        this.watcher.unwatchAll();
+        this.directoryItems.clear();
+        this.treeItemFileMap.clear();
+
+        TreeItem<String> root = this.createItem(directory, true);
+        this.directoryTree.setRoot(root);
+        root.setExpanded(true);
+    }
+
+    /**
+     * Helper method to create the item of a directory or source file.
+     * The item of a directory shows a loading item until it is first expanded and listed.
+     *
+     * @param path the path of the directory or source file
+     * @param directory true if the path is a directory; false otherwise
+     * @return the item
+     */
+    private TreeItem<String> createItem(Path path, boolean directory) {
+        Path name = path.getFileName();
+        TreeItem<String> item = new TreeItem<>(name == null ? path.toString() : name.toString());
+        this.treeItemFileMap.put(item, path.toFile());
+        if (directory) {
+            item.getChildren().add(new TreeItem<>(LOADING));
+            item.expandedProperty().addListener((observable, wasExpanded, expanded) -> {
+                if (expanded && !this.directoryItems.containsKey(path)) {
+                    this.listChildren(item, path);
                 }
+            });
+        }
+        return item;
+    }
+
+    /**
+     * Helper method to list a directory in the background and show its children in its item.
+     *
+     * @param item the item of the directory
+     * @param directory the directory
+     */
+    private void listChildren(TreeItem<String> item, Path directory) {
+        this.directoryItems.put(directory, item);
+        LISTER.submit(() -> {
+            Map<Path, Boolean> children = this.listDirectory(directory);
+            Platform.runLater(() -> this.showChildren(item, directory, children));
+        });
+    }
+
+    /**
+     * Helper method to list the subdirectories and source files of a directory, sorted by name,
+     * and to start watching the directory if it is still under the root of the tree. Runs in the background.
+     *
+     * @param directory the directory
+     * @return a map from the paths of the children to whether they are directories, in order
+     */
+    private Map<Path, Boolean> listDirectory(Path directory) {
+        String outcome = WorkerEvent.FAILED;
+        WorkerEvent event = new WorkerEvent("DirectoryLister");
+        event.begin();
+        // watch the directory before listing it, so that no change after the listing is missed
+        this.watcher.watch(directory);
+        // the root may have changed meanwhile, after its directories were unwatched
+        Path root = this.rootDirectory;
+        if (root == null || !directory.startsWith(root)) {
+            this.watcher.unwatch(directory);
+        }
+        List<Path> children = new ArrayList<>();
+        Map<Path, Boolean> sortedChildren = new LinkedHashMap<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+            for (Path child : stream) {
+                children.add(child);
+            }
+            outcome = WorkerEvent.SUCCESS;
+        } catch (IOException | DirectoryIteratorException e) {
+            // show the children listed before the error
+        } finally {
+            event.complete(directory.toFile(), null, outcome);
+        }
+        children.sort(Comparator.comparing(child -> child.getFileName().toString()));
+        for (Path child : children) {
+            boolean isDirectory = Files.isDirectory(child);
+            if (isDirectory || SourceWalker.isSourceFile(child)) {
+                sortedChildren.put(child, isDirectory);
+            }
+        }
+        return sortedChildren;
+    }
+
+    /**
+     * Helper method to show the children listed of a directory in its item,
+     * unless the item is no longer in the tree.
+     *
+     * @param item the item of the directory
+     * @param directory the directory
+     * @param children a map from the paths of the children to whether they are directories, in order
+     */
+    private void showChildren(TreeItem<String> item, Path directory, Map<Path, Boolean> children) {
+        if (item == null || this.directoryItems.get(directory) != item) {
+            return;
+        }
+        for (TreeItem<String> child : item.getChildren()) {
+            this.forgetItem(child);
+        }
+        List<TreeItem<String>> childItems = new ArrayList<>();
+        for (Map.Entry<Path, Boolean> child : children.entrySet()) {
+            childItems.add(this.createItem(child.getKey(), child.getValue()));
+        }
+        item.getChildren().setAll(childItems);
+    }
+
+    /**
+     * Helper method to forget an item removed from the tree and its descendants.
+     *
+     * @param item the item
+     */
+    private void forgetItem(TreeItem<String> item) {
+        File file = this.treeItemFileMap.remove(item);
+        if (file != null && this.directoryItems.remove(file.toPath(), item)) {
+            this.watcher.unwatch(file.toPath());
+        }
+        for (TreeItem<String> child : item.getChildren()) {
+            this.forgetItem(child);
+        }
+    }
+
+    /**
+     * Helper method to wait for the changes in the directories watched, and to hand them to the lister thread,
+     * so that they are handled after the listings started before them. Runs on its own thread.
+     */
+    private void watchDirectories() {
+        while (true) {
+            WatchKey watchKey;
+            try {
+                watchKey = this.watcher.take();
+            } catch (InterruptedException e) {
+                return;
+            }
+            if (watchKey == null) {
+                return;
             }
+            Path directory = (Path) watchKey.watchable();
+            List<WatchEvent<?>> events = watchKey.pollEvents();
+            watchKey.reset();
+            LISTER.submit(() -> this.handleDirectoryEvents(directory, events));
         }
-        return root;
-    }
-
-    /**
-     * A DirectoryTreeWorker subclass handling constructing a directory tree in a separate thread in the background.
-     * DirectoryTreeWorker extends the javafx Service class.
-     */
-    public class DirectoryTreeWorker extends Service<Boolean> {
-        /**
-         * Overrides the createTask method in Service class.
-         * Constructs a directory tree.
-         *
-         * @return true
-         */
-        @Override protected Task<Boolean> createTask() {
-            return new Task<Boolean>() {
-                /**
-                 * Called when we execute the start() method of a CompileRunWorker object
-                 * Scans the file.
-                 *
-                 * @return true if the program compiles successfully;
-                 *         false otherwise.
-                 */
-                @Override protected Boolean call() {
-                    createDirectoryTreeInThread();
-                    return true;
+    }
+
+    /**
+     * Helper method to update the tree with the changes in a directory. Runs in the background.
+     * If some changes were lost, the directory is listed again.
+     *
+     * @param directory the directory
+     * @param events the events of the changes
+     */
+    private void handleDirectoryEvents(Path directory, List<WatchEvent<?>> events) {
+        for (WatchEvent<?> event : events) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                Map<Path, Boolean> children = this.listDirectory(directory);
+                Platform.runLater(() -> this.showChildren(this.directoryItems.get(directory), directory, children));
+                return;
+            }
+            Path child = directory.resolve((Path) event.context());
+            if (event.kind() == StandardWatchEventKinds.ENTRY_DELETE) {
+                Platform.runLater(() -> this.removeChild(directory, child));
+            } else {
+                boolean isDirectory = Files.isDirectory(child);
+                if (isDirectory || SourceWalker.isSourceFile(child)) {
+                    Platform.runLater(() -> this.addChild(directory, child, isDirectory));
                 }
-            };
+            }
         }
     }
 
     /**
-     * Helper method to create a directory tree in a separate thread.
+     * Helper method to add the item of a directory or source file created in a directory listed,
+     * at its place by name.
+     *
+     * @param directory the directory
+     * @param child the path of the directory or source file created
+     * @param isDirectory true if a directory was created; false otherwise
      */
-    private void createDirectoryTreeInThread() {
-        File curFile = this.tabFileMap.get(this.tabPane.getSelectionModel().getSelectedItem());
-        // create the directory tree
-        if (curFile != null) {
-            Platform.runLater(() -> {
-                this.directoryTree.setRoot(this.getNode(curFile.getParentFile()));
-                this.directoryTree.getRoot().setExpanded(true);
-            });
+    private void addChild(Path directory, Path child, boolean isDirectory) {
+        TreeItem<String> item = this.directoryItems.get(directory);
+        if (item == null || this.findChild(item, child) != null) {
+            return;
         }
+        String name = child.getFileName().toString();
+        int index = 0;
+        while (index < item.getChildren().size() && item.getChildren().get(index).getValue().compareTo(name) < 0) {
+            index++;
+        }
+        item.getChildren().add(index, this.createItem(child, isDirectory));
     }
 
     /**
-     * Adds the directory tree for the current file to the IDE.
+     * Helper method to remove the item of a directory or source file deleted from a directory listed.
+     *
+     * @param directory the directory
+     * @param child the path of the directory or source file deleted
      */
-    public void createDirectoryTree() {
-        this.directoryTreeWorker.restart();
+    private void removeChild(Path directory, Path child) {
+        TreeItem<String> item = this.directoryItems.get(directory);
+        TreeItem<String> childItem = item == null ? null : this.findChild(item, child);
+        if (childItem != null) {
+            item.getChildren().remove(childItem);
+            this.forgetItem(childItem);
+        }
+    }
+
+    /**
+     * Helper method to find the item of a child of a directory.
+     *
+     * @param item the item of the directory
+     * @param child the path of the child
+     * @return the item of the child; null if it is not shown
+     */
+    private TreeItem<String> findChild(TreeItem<String> item, Path child) {
+        for (TreeItem<String> childItem : item.getChildren()) {
+            File file = this.treeItemFileMap.get(childItem);
+            if (file != null && file.toPath().equals(child)) {
+                return childItem;
+            }
+        }
+        return null;
     }
 
     /**
@@ -181,14 +400,13 @@ public class DirectoryController {
      */
     private void handleDirectoryItemClicked(MouseEvent event) {
         TreeItem selectedItem = (TreeItem) this.directoryTree.getSelectionModel().getSelectedItem();
+        File file = selectedItem == null ? null : this.treeItemFileMap.get(selectedItem);
         // only open java file if double clicked
-        // ignore double click on the root nodes
-        if (event.getClickCount() == 2 && !event.isConsumed() && selectedItem.getChildren().size() == 0) {
+        // ignore double click on the directories and the loading items
+        if (event.getClickCount() == 2 && !event.isConsumed() && file != null
+                && SourceWalker.isSourceFile(file.toPath()) && !this.directoryItems.containsKey(file.toPath()) && selectedItem.getChildren().isEmpty()) {
             event.consume();
-            String fileName = (String) selectedItem.getValue();
-            if (fileName.endsWith(".java") || fileName.endsWith(".btm")) {
-                this.fileMenuController.handleOpenFile(this.treeItemFileMap.get(selectedItem));
-            }
+            this.fileMenuController.handleOpenFile(file);
         }
     }
 }
\ No newline at end of file
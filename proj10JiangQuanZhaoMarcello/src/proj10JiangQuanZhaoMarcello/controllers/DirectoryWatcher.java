@@ -0,0 +1,147 @@
+/*
+ * File: DirectoryWatcher.java
+ * F18 CS361 Project 10
+ * Names: Liwei Jiang, Tracy Quan, Danqing Zhao, Chris Marcello
+ * Date: 12/07/2018
+ * This file contains the DirectoryWatcher class, watching directories for the files created and deleted in them.
+ */
+
+package proj10JiangQuanZhaoMarcello.controllers;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * DirectoryWatcher watches directories for the files created and deleted in them, with one watch key
+ * per directory, shared by the DirectoryController and the ProjectIndex.
+ * If the file system cannot be watched, the directories are simply not watched.
+ * The directories can be watched and unwatched from any thread.
+ *
+ * @author Liwei Jiang
+ * @author Tracy Quan
+ * @author Danqing Zhao
+ * @author Chris Marcello
+ */
+public class DirectoryWatcher {
+    /**
+     * a map from the directories watched to their watch keys
+     */
+    private final Map<Path, WatchKey> watchKeys = new ConcurrentHashMap<>();
+    /**
+     * the watch service notified of the changes in the directories watched; null if there is none
+     */
+    private final WatchService watchService;
+
+    /**
+     * Constructor of the DirectoryWatcher class.
+     */
+    public DirectoryWatcher() {
+        WatchService watchService;
+        try {
+            watchService = FileSystems.getDefault().newWatchService();
+        } catch (IOException | UnsupportedOperationException e) {
+            watchService = null;
+        }
+        this.watchService = watchService;
+    }
+
+    /**
+     * Checks whether the directories can be watched.
+     *
+     * @return true if the file system can be watched; false otherwise
+     */
+    public boolean isAvailable() { return this.watchService != null; }
+
+    /**
+     * Starts watching a directory, unless it is watched already.
+     *
+     * @param directory the directory
+     */
+    public void watch(Path directory) {
+        if (this.watchService == null) {
+            return;
+        }
+        this.watchKeys.computeIfAbsent(directory, key -> {
+            try {
+                return directory.register(this.watchService,
+                        StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_DELETE);
+            } catch (IOException | UnsupportedOperationException | ClosedWatchServiceException e) {
+                // the directory is not watched
+                return null;
+            }
+        });
+    }
+
+    /**
+     * Stops watching a directory.
+     *
+     * @param directory the directory
+     */
+    public void unwatch(Path directory) {
+        WatchKey watchKey = this.watchKeys.remove(directory);
+        if (watchKey != null) {
+            watchKey.cancel();
+        }
+    }
+
+    /**
+     * Stops watching a directory and its subdirectories.
+     *
+     * @param directory the directory
+     */
+    public void unwatchTree(Path directory) {
+        for (Path watched : this.watchKeys.keySet()) {
+            if (watched.startsWith(directory)) {
+                this.unwatch(watched);
+            }
+        }
+    }
+
+    /**
+     * Stops watching all the directories.
+     */
+    public void unwatchAll() {
+        for (Path watched : this.watchKeys.keySet()) {
+            this.unwatch(watched);
+        }
+    }
+
+    /**
+     * Waits for the changes in a directory watched. The key must be reset once its events are polled;
+     * if it is no longer valid, the directory is no longer watched.
+     *
+     * @return the watch key of the directory changed; null if the watcher is closed or cannot watch
+     * @throws InterruptedException if the thread is interrupted while waiting
+     */
+    public WatchKey take() throws InterruptedException {
+        if (this.watchService == null) {
+            return null;
+        }
+        try {
+            return this.watchService.take();
+        } catch (ClosedWatchServiceException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Stops watching the directories for good, so that take returns null.
+     */
+    public void close() {
+        this.watchKeys.clear();
+        if (this.watchService != null) {
+            try {
+                this.watchService.close();
+            } catch (IOException e) {
+                // the directories are no longer watched anyway
+            }
+        }
+    }
+}
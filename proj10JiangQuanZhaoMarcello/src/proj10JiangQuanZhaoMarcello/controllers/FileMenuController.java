@@ -10,20 +10,37 @@ package proj10JiangQuanZhaoMarcello.controllers;
 
 import proj10JiangQuanZhaoMarcello.java.JavaCodeArea;
 import proj10JiangQuanZhaoMarcello.java.JavaTabPane;
+import javafx.application.Platform;
+import javafx.concurrent.Task;
 import javafx.event.Event;
 import javafx.scene.control.*;
 import javafx.stage.FileChooser;
 import javafx.stage.Window;
 import org.fxmisc.flowless.VirtualizedScrollPane;
+import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileWriter;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileAlreadyExistsException;
 import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.util.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
 import javafx.scene.control.Tab;
 import javafx.scene.control.TabPane;
 import javafx.scene.input.KeyEvent;
+import javafx.scene.layout.VBox;
 
 /**
  * FileMenuController handles File menu related actions.
@@ -34,6 +51,19 @@ import javafx.scene.input.KeyEvent;
  * @author Chris Marcello
  */
 public class FileMenuController {
+    /**
+     * the system property setting the size in bytes above which a file is large:
+     * loaded in the background, without highlighting nor structure view
+     */
+    public static final String LARGE_FILE_PROPERTY = "ide.largeFileThreshold";
+    /**
+     * the size in bytes above which a file is large, 2 MB unless set by the ide.largeFileThreshold property
+     */
+    private static final long LARGE_FILE_THRESHOLD = Long.getLong(LARGE_FILE_PROPERTY, 2_000_000L);
+    /**
+     * the number of characters read from a large file before they are added to its code area
+     */
+    private static final int LOAD_CHUNK_SIZE = 1 << 20;
     /**
      * TabPane defined in Main.fxml
      */
@@ -58,6 +88,27 @@ public class FileMenuController {
      * StructureViewController handling the current file's treeStructure View
      */
     private StructureViewController structureViewController;
+    /**
+     * the index of the source files of the project tree, to open them by name;
+     * null until a file is first opened by name
+     */
+    private ProjectIndex projectIndex;
+    /**
+     * the index of the identifiers of the Bantam files of the workspace, updated when a file is saved
+     */
+    private SymbolIndex symbolIndex;
+    /**
+     * a map from the tabs whose files are being loaded in the background to their loaders
+     */
+    private Map<Tab, FileLoader> fileLoaders = new HashMap<>();
+    /**
+     * the thread writing the saved files in the background, one at a time in the order they are saved
+     */
+    private final ExecutorService saveExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "FileSaver");
+        thread.setDaemon(true);
+        return thread;
+    });
 
     /**
      * Sets the tabPane.
@@ -107,6 +158,23 @@ public class FileMenuController {
         this.structureViewController = structureViewController;
     }
 
+    /**
+     * Sets the index of the identifiers of the Bantam files of the workspace.
+     *
+     * @param symbolIndex the index of the identifiers of the Bantam files of the workspace
+     */
+    public void setSymbolIndex(SymbolIndex symbolIndex) { this.symbolIndex = symbolIndex; }
+
+    /**
+     * Checks whether a file is large, so that it is loaded in the background,
+     * without highlighting nor structure view.
+     *
+     * @param file the file
+     * @return true if the size of the file is above the threshold set by the ide.largeFileThreshold property;
+     *         false otherwise
+     */
+    public static boolean isLargeFile(File file) { return file != null && file.length() > LARGE_FILE_THRESHOLD; }
+
     /**
      * Helper method to get the text content of a specified file.
      *
@@ -123,47 +191,138 @@ public class FileMenuController {
     }
 
     /**
-     * Helper method to save the input string to a specified file.
+     * Helper method to save the text of the code area of a tab to a specified file in the background.
+     * The text is taken and marked saved at once; if writing it fails, the text is marked not saved again
+     * and an error dialog is shown.
      *
-     * @param content String that is saved to the specified file
-     * @param file File that the input string is saved to
-     * @return true is the specified file is successfully saved; false if an error occurs when saving the specified file.
+     * @param tab Tab whose text is saved to the specified file
+     * @param file File that the text is saved to
+     * @param onSaved run on the application thread once the file is written; null if nothing to run
+     * @return the Future of the saving, giving true if the file is saved; false if an error occurs when saving it
      */
-    public boolean saveFileContent(String content, File file){
-        try {
-            FileWriter fileWriter = new FileWriter(file);
-            fileWriter.write(content);
-            fileWriter.close();
+    private Future<Boolean> saveFileContent(Tab tab, File file, Runnable onSaved) {
+        JavaCodeArea codeArea = JavaTabPane.getCodeArea(tab);
+        String content = codeArea.getText();
+        long version = codeArea.getTextVersion();
+        codeArea.markSaved();
+        tab.setStyle("-fx-text-base-color: black");
+        return this.saveExecutor.submit(() -> {
+            try {
+                writeFileAtomically(content, file.toPath());
+                if (this.symbolIndex != null) {
+                    this.symbolIndex.fileSaved(file, content);
+                }
+            } catch (IOException ex) {
+                Platform.runLater(() -> {
+                    codeArea.markSaveFailed(version);
+                    tab.setStyle("-fx-text-base-color: green");
+                    this.createErrorDialog("Saving File", "Cannot save to " + file.getName() + ".");
+                });
+                return false;
+            }
+            if (onSaved != null) {
+                Platform.runLater(onSaved);
+            }
             return true;
-        } catch (IOException ex) {
-            this.createErrorDialog("Saving File", "Cannot save to " + file.getName() + ".");
-            return false;
+        });
+    }
+
+    /**
+     * Writes a string to a file so that the file is either left unchanged or fully replaced.
+     * The string is written to a temporary file in the same directory and forced to the disk,
+     * then the temporary file is moved into place, atomically if the file system supports it.
+     * A symbolic link is followed, so that the file it points to is replaced rather than the link.
+     * The file keeps its permissions; a new file gets the default permissions of the user.
+     *
+     * @param content String that is written to the file
+     * @param target the path of the file
+     * @throws IOException if the file cannot be written
+     */
+    public static void writeFileAtomically(String content, Path target) throws IOException {
+        writeFileAtomically(Charset.defaultCharset().encode(content), target);
+    }
+
+    /**
+     * Writes bytes to a file so that the file is either left unchanged or fully replaced.
+     *
+     * @param bytes the bytes written to the file, from their position to their limit
+     * @param target the path of the file
+     * @throws IOException if the file cannot be written
+     */
+    public static void writeFileAtomically(ByteBuffer bytes, Path target) throws IOException {
+        Path realTarget;
+        try {
+            realTarget = target.toRealPath();
+        } catch (NoSuchFileException ex) {
+            realTarget = target.toAbsolutePath();
+        }
+        Path temp = createTempSibling(realTarget);
+        try {
+            if (Files.exists(realTarget)) {
+                try {
+                    Files.setPosixFilePermissions(temp, Files.getPosixFilePermissions(realTarget));
+                } catch (UnsupportedOperationException ex) {
+                    // the file system has no POSIX permissions
+                }
+            }
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                while (bytes.hasRemaining()) {
+                    channel.write(bytes);
+                }
+                channel.force(true);
+            }
+            try {
+                Files.move(temp, realTarget, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException ex) {
+                Files.move(temp, realTarget, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
         }
     }
 
     /**
-     * Helper method to check if the content of the specified StyledCodeArea
-     * matches the content of the specified File.
+     * Helper method to create an empty temporary file next to a file. Unlike Files.createTempFile,
+     * which makes the file only readable by its owner, the file gets the default permissions of the user.
      *
-     * @param javaCodeArea StyledJavaCodeArea to compare with the the specified File
-     * @param file File to compare with the the specified StyledCodeArea
-     * @return true if the content of the StyledCodeArea matches the content of the File; false if not
-     */
-    public boolean fileContainsMatch(JavaCodeArea javaCodeArea, File file) {
-        String styledCodeAreaContent = javaCodeArea.getText();
-        String fileContent = this.getFileContent(file);
-        return styledCodeAreaContent.equals(fileContent);
+     * @param target the path of the file
+     * @return the path of the temporary file
+     * @throws IOException if the temporary file cannot be created
+     */
+    private static Path createTempSibling(Path target) throws IOException {
+        while (true) {
+            Path temp = target.resolveSibling("." + target.getFileName() + "."
+                                              + Long.toUnsignedString(ThreadLocalRandom.current().nextLong()) + ".tmp");
+            try {
+                return Files.createFile(temp);
+            } catch (FileAlreadyExistsException ex) {
+                // try another name
+            }
+        }
     }
 
+    /**
+     * Checks whether the file of a tab is still being loaded in the background.
+     *
+     * @param tab the tab
+     * @return true if the file of the tab is being loaded; false otherwise
+     */
+    public boolean isLoading(Tab tab) { return this.fileLoaders.containsKey(tab); }
+
     /**
      * Helper method to handle closing tag action.
      * Checks if the text content within the specified tab window should be saved.
+     * The text of a file needs saving if it changed since it was loaded or saved.
      *
      * @param tab Tab to be closed
      * @param ifSaveEmptyFile boolean false if not to save the empty file; true if to save the empty file
      * @return true if the tab needs saving; false if the tab does not need saving.
      */
     public boolean tabNeedsSaving(Tab tab, boolean ifSaveEmptyFile) {
+        // a file being loaded has not been changed
+        if (this.fileLoaders.containsKey(tab)) {
+            return false;
+        }
         JavaCodeArea activeStyledCodeArea = JavaTabPane.getCodeArea(tab);
         // check whether the embedded text has been saved or not
         if (this.tabFileMap.get(tab) == null) {
@@ -175,19 +334,26 @@ public class FileMenuController {
             }
             return true;
         }
-        // check whether the saved file match the tab content or not
+        // check whether the tab content changed since it was loaded or saved
         else {
-            return !this.fileContainsMatch(activeStyledCodeArea, this.tabFileMap.get(tab));
+            return activeStyledCodeArea.isModified();
         }
     }
 
     /**
      * Helper method to handle closing tag action.
      * Removed the tab from the tab file mapping and from the TabPane.
+     * Keeps the highlighting of its file so that it is restored if the file is opened again.
      *
      * @param tab Tab to be closed
      */
     private void removeTab(Tab tab) {
+        FileLoader loader = this.fileLoaders.remove(tab);
+        if (loader != null) {
+            loader.cancel();
+        }
+        JavaTabPane.getCodeArea(tab).storeHighlighting(this.tabFileMap.get(tab));
+        this.structureViewController.forgetStructureTree(JavaTabPane.getCodeArea(tab));
         this.tabFileMap.remove(tab);
         this.tabPane.getTabs().remove(tab);
     }
@@ -248,7 +414,9 @@ public class FileMenuController {
     private void createTab(String contentString, String filename, File file) {
         JavaCodeArea newStyledJavaCodeArea = new JavaCodeArea();
         newStyledJavaCodeArea.setWrapText(true);
-        newStyledJavaCodeArea.appendText(contentString);
+        newStyledJavaCodeArea.setBantamSyntax(JavaCodeArea.isBantamFile(file));
+        newStyledJavaCodeArea.loadText(contentString, file);
+        newStyledJavaCodeArea.setDiagnosed(JavaCodeArea.isDiagnosedFile(file));
         this.contextMenuController.setupStyledJavaCodeAreaContextMenuHandler(newStyledJavaCodeArea);
         this.setupCodeAreaStyleMode(newStyledJavaCodeArea);
 
@@ -267,12 +435,22 @@ public class FileMenuController {
      * Helper method to handle closing tag action.
      * If the text embedded in the tab window has not been saved yet,
      * or if a saved file has been changed, asks the user if to save
-     * the file via a dialog window.
+     * the file via a dialog window. A tab saved before closing is closed once its file is written,
+     * without waiting for the writing on the application thread.
      *
      * @param tab Tab to be closed
-     * @return true if the tab is closed successfully; false if the user clicks cancel.
+     * @param onClosed run on the application thread once the tab is closed; null if nothing to run
+     * @return true if the tab is closed or will be closed once saved; false if the user clicks cancel
+     *         or the saving is cancelled.
      */
-    private boolean closeTab(Tab tab) {
+    private boolean closeTab(Tab tab, Runnable onClosed) {
+        Runnable close = () -> {
+            this.removeTab(tab);
+            this.structureViewController.resetStructureView();
+            if (onClosed != null) {
+                onClosed.run();
+            }
+        };
         // if the file has not been saved or has been changed
         // pop up a dialog window asking whether to save the file
         if (this.tabNeedsSaving(tab, false)) {
@@ -282,18 +460,13 @@ public class FileMenuController {
 
             // if user presses No button, close the tab without saving
             if (buttonClicked == 0) {
-                this.removeTab(tab);
-                this.structureViewController.resetStructureView();
+                close.run();
                 return true;
             }
-            // if user presses Yes button, close the tab and save the tab content
+            // if user presses Yes button, save the tab content and close the tab once it is written;
+            // if writing fails, the tab stays open
             else if (buttonClicked == 1) {
-                if (this.handleSaveAction()) {
-                    this.removeTab(tab);
-                    this.structureViewController.resetStructureView();
-                    return true;
-                }
-                return false;
+                return this.save(close) != null;
             }
             // if user presses cancel button
             else {
@@ -302,8 +475,7 @@ public class FileMenuController {
         }
         // if the file has not been changed, close the tab
         else {
-            this.structureViewController.resetStructureView();
-            this.removeTab(tab);
+            close.run();
             return true;
         }
     }
@@ -322,31 +494,6 @@ public class FileMenuController {
         alert.showAndWait();
     }
 
-    /**
-     * Checks whether a file embedded in the specified tab should be saved before Scanning or Parsing.
-     * Pops up a dialog asking whether the user wants to save the file.
-     * Saves the file if the user agrees so.
-     *
-     * @param action a String of the name of the action that evokes the checkSaved method
-     * @return 0 if user clicked NO button; 1 if user clicked OK button;
-     *         2 is user clicked Cancel button; -1 is no saving is needed
-     */
-    public int checkSaved(String action) {
-        Tab currentTab = this.tabPane.getSelectionModel().getSelectedItem();
-        // if the file has not been saved or has been changed
-        if (this.tabNeedsSaving(currentTab, true)) {
-            int buttonClicked = this.createConfirmationDialog("Save Changes?",
-                    "Do you want to save the changes?",
-                    "Your recent file changes would not be " + action + " if not saved.");
-            // if user presses Yes button
-            if (buttonClicked == 1) {
-                this.handleSaveAction();
-            }
-            return buttonClicked;
-        }
-        return -1;
-    }
-
     /**
      * Handles the New button action.
      * Opens a styled code area embedded in a new tab.
@@ -367,6 +514,93 @@ public class FileMenuController {
         this.directoryController.createDirectoryTree();
     }
 
+    /**
+     * Handles the Open File by Name menu item action.
+     * Opens a dialog in which the user types a part of the path of a source file of the project tree,
+     * and lists the source files best matching it as the user types.
+     * The file selected is opened when the user presses Enter, clicks OK or double clicks it.
+     */
+    public void handleOpenByNameAction() {
+        ProjectIndex projectIndex = this.getProjectIndex();
+        Dialog<Path> dialog = new Dialog<>();
+        dialog.setTitle("Open File by Name");
+        dialog.setHeaderText(projectIndex.isIndexing() ? "Indexing " + projectIndex.getRoot() + "..."
+                                                       : "Files in " + projectIndex.getRoot());
+        dialog.getDialogPane().getButtonTypes().addAll(ButtonType.OK, ButtonType.CANCEL);
+
+        TextField queryField = new TextField();
+        queryField.setPromptText("File name");
+        ListView<Path> fileList = new ListView<>();
+        fileList.setPrefSize(500, 300);
+        fileList.setCellFactory(listView -> new ListCell<Path>() {
+            @Override
+            protected void updateItem(Path path, boolean empty) {
+                super.updateItem(path, empty);
+                this.setText(empty || path == null ? null : projectIndex.getRoot().relativize(path).toString());
+            }
+        });
+        queryField.textProperty().addListener((observable, oldQuery, newQuery) -> {
+            fileList.getItems().setAll(projectIndex.query(newQuery, 50));
+            fileList.getSelectionModel().selectFirst();
+        });
+        // move through the files found without leaving the query field
+        queryField.addEventFilter(KeyEvent.KEY_PRESSED, event -> {
+            switch (event.getCode()) {
+                case DOWN:
+                    fileList.getSelectionModel().selectNext();
+                    event.consume();
+                    break;
+                case UP:
+                    fileList.getSelectionModel().selectPrevious();
+                    event.consume();
+                    break;
+                default:
+                    break;
+            }
+        });
+        fileList.setOnMouseClicked(event -> {
+            if (event.getClickCount() == 2 && fileList.getSelectionModel().getSelectedItem() != null) {
+                ((Button) dialog.getDialogPane().lookupButton(ButtonType.OK)).fire();
+            }
+        });
+        dialog.getDialogPane().lookupButton(ButtonType.OK).disableProperty()
+                .bind(fileList.getSelectionModel().selectedItemProperty().isNull());
+
+        VBox content = new VBox(10, queryField, fileList);
+        dialog.getDialogPane().setContent(content);
+        dialog.setResultConverter(buttonType ->
+                buttonType == ButtonType.OK ? fileList.getSelectionModel().getSelectedItem() : null);
+        Platform.runLater(queryField::requestFocus);
+
+        Optional<Path> result = dialog.showAndWait();
+        if (result.isPresent()) {
+            this.handleOpenFile(result.get().toFile());
+            this.directoryController.createDirectoryTree();
+        }
+    }
+
+    /**
+     * Helper method to get the index of the source files of the project tree, the directory shown
+     * in the directory tree, or the workspace if there is none. The index is created when first used,
+     * and created again when the project tree changes, the previous index being closed.
+     *
+     * @return the index of the source files of the project tree
+     */
+    private ProjectIndex getProjectIndex() {
+        Path root = this.directoryController.getRootDirectory();
+        if (root == null) {
+            root = ProjectIndex.getWorkspace();
+        }
+        root = root.toAbsolutePath().normalize();
+        if (this.projectIndex == null || !this.projectIndex.getRoot().equals(root)) {
+            if (this.projectIndex != null) {
+                this.projectIndex.close();
+            }
+            this.projectIndex = new ProjectIndex(root);
+        }
+        return this.projectIndex;
+    }
+
     /**
      * Handles opening the given file object
      * @param file the File to open in a new tab
@@ -383,6 +617,10 @@ public class FileMenuController {
                     }
                 }
             }
+            if (isLargeFile(file)) {
+                this.createLargeFileTab(file);
+                return;
+            }
             String contentString = this.getFileContent(file);
             if (contentString == null) return;
             this.createTab(contentString, file.getName(), file);
@@ -390,70 +628,137 @@ public class FileMenuController {
         }
     }
 
+    /**
+     * Helper method to create a tab for a large file and load the file into it in the background,
+     * showing the progress of the loading in the tab.
+     * The text is not highlighted nor parsed, and it cannot be edited nor saved until it is loaded.
+     *
+     * @param file the large file
+     */
+    private void createLargeFileTab(File file) {
+        this.createTab("", file.getName(), file);
+        Tab tab = this.tabPane.getSelectionModel().getSelectedItem();
+        JavaCodeArea codeArea = JavaTabPane.getCodeArea(tab);
+        codeArea.setHighlighted(false);
+        codeArea.setDiagnosed(false);
+        codeArea.setEditable(false);
+
+        FileLoader loader = new FileLoader(file, codeArea);
+        ProgressBar progressBar = new ProgressBar();
+        progressBar.setPrefWidth(60);
+        progressBar.progressProperty().bind(loader.progressProperty());
+        tab.setGraphic(progressBar);
+        this.fileLoaders.put(tab, loader);
+
+        loader.setOnSucceeded(event -> {
+            this.fileLoaders.remove(tab);
+            tab.setGraphic(null);
+            codeArea.markSaved();
+            codeArea.setEditable(true);
+            codeArea.moveTo(0);
+            codeArea.requestFollowCaret();
+        });
+        loader.setOnFailed(event -> {
+            this.removeTab(tab);
+            this.createErrorDialog("Reading File", "Cannot read " + file.getName() + ".");
+        });
+
+        Thread thread = new Thread(loader, "FileLoader " + file.getName());
+        thread.setDaemon(true);
+        thread.start();
+    }
+
     /**
      * Handles the save button action.
      * If a styled code area was not loaded from a file nor ever saved to a file,
      * behaves the same as the save as button.
      * If the current styled code area was loaded from a file or previously saved
      * to a file, then the styled code area is saved to that file.
+     * The file is written in the background, so that saving never blocks the editing.
+     *
+     * @return true if the saving started; false if cancels.
+     */
+    public boolean handleSaveAction() { return this.save(null) != null; }
+
+    /**
+     * Handles the Save As button action.
+     * Shows a dialog in which the user is asked for the name of the file into
+     * which the contents of the current styled code area are to be saved.
+     * If the user enters any legal name for a file and presses the OK button in the dialog,
+     * then creates a new text file by that name and write to that file all the current
+     * contents of the styled code area so that those contents can later be reloaded.
+     * If the user presses the Cancel button in the dialog, then the dialog closes and no saving occurs.
+     * The file is written in the background, so that saving never blocks the editing.
+     *
+     * @return true if the saving started; false if cancels.
+     */
+    public boolean handleSaveAsAction() { return this.saveAs(null) != null; }
+
+    /**
+     * Helper method to save the styled code area of the selected tab,
+     * to its file or to the file chosen if it has none.
      *
-     * @return true if save as successfully; false if cancels or an error occurs when saving the file.
+     * @param onSaved run on the application thread once the file is written; null if nothing to run
+     * @return the Future of the saving, giving true if the file is saved; null if cancels.
      */
-    public boolean handleSaveAction(){
+    private Future<Boolean> save(Runnable onSaved) {
         // get the selected tab from the tab pane
         Tab selectedTab = this.tabPane.getSelectionModel().getSelectedItem();
 
+        // a file being loaded cannot be saved
+        if (this.fileLoaders.containsKey(selectedTab)) {
+            return null;
+        }
+
         // if the tab content was not loaded from a file nor ever saved to a file
         // save the content of the active styled code area to the selected file path
         if (this.tabFileMap.get(selectedTab) == null) {
-             return this.handleSaveAsAction();
+             return this.saveAs(onSaved);
         }
         // if the current styled code area was loaded from a file or previously saved to a file,
         // then the styled code area is saved to that file
         else {
-            JavaCodeArea activeStyledJavaCodeArea = JavaTabPane.getCodeArea(selectedTab);
-            if(!this.saveFileContent(activeStyledJavaCodeArea.getText(), this.tabFileMap.get(selectedTab))) {
-                return false;
-            }
-            selectedTab.setStyle("-fx-text-base-color: black");
+            Future<Boolean> saving = this.saveFileContent(selectedTab, this.tabFileMap.get(selectedTab), onSaved);
             this.structureViewController.updateStructureView();
-            return true;
+            return saving;
         }
     }
 
     /**
-     * Handles the Save As button action.
-     * Shows a dialog in which the user is asked for the name of the file into
-     * which the contents of the current styled code area are to be saved.
-     * If the user enters any legal name for a file and presses the OK button in the dialog,
-     * then creates a new text file by that name and write to that file all the current
-     * contents of the styled code area so that those contents can later be reloaded.
-     * If the user presses the Cancel button in the dialog, then the dialog closes and no saving occurs.
+     * Helper method to save the styled code area of the selected tab to the file chosen in a dialog.
      *
-     * @return true if save as successfully; false if cancels or an error occurs when saving the file.
+     * @param onSaved run on the application thread once the file is written; null if nothing to run
+     * @return the Future of the saving, giving true if the file is saved; null if cancels.
      */
-    public boolean handleSaveAsAction() {
+    private Future<Boolean> saveAs(Runnable onSaved) {
         FileChooser fileChooser = new FileChooser();
         File saveFile = fileChooser.showSaveDialog(this.tabPane.getScene().getWindow());
 
         if (saveFile != null) {
             // get the selected tab from the tab pane
             Tab selectedTab = this.tabPane.getSelectionModel().getSelectedItem();
-            JavaCodeArea activeStyledJavaCodeArea = JavaTabPane.getCurrentCodeArea(this.tabPane);
-            if(!this.saveFileContent(activeStyledJavaCodeArea.getText(), saveFile)) {
-                return false;
+            // a file being loaded cannot be saved
+            if (this.fileLoaders.containsKey(selectedTab)) {
+                return null;
             }
+            // the directory tree shows the new file once it is written
+            Future<Boolean> saving = this.saveFileContent(selectedTab, saveFile, () -> {
+                this.directoryController.createDirectoryTree();
+                if (onSaved != null) {
+                    onSaved.run();
+                }
+            });
             // set the title of the tab to the name of the saved file
             selectedTab.setText(saveFile.getName());
-            selectedTab.setStyle("-fx-text-base-color: black");
 
             // map the tab and the associated file
             this.tabFileMap.put(selectedTab, saveFile);
-            this.directoryController.createDirectoryTree();
+            JavaTabPane.getCodeArea(selectedTab).setBantamSyntax(JavaCodeArea.isBantamFile(saveFile));
+            JavaTabPane.getCodeArea(selectedTab).setDiagnosed(JavaCodeArea.isDiagnosedFile(saveFile));
             this.structureViewController.updateStructureView();
-            return true;
+            return saving;
         }
-        return false;
+        return null;
     }
 
     /**
@@ -461,6 +766,7 @@ public class FileMenuController {
      * If the current styled code area has already been saved to a file, then the current tab is closed.
      * If the current styled code area has been changed since it was last saved to a file, a dialog
      * appears asking whether you want to save the text before closing it.
+     * The event is always consumed: the tab is removed here, possibly once its file is written.
      *
      * @param event Event object
      */
@@ -472,29 +778,44 @@ public class FileMenuController {
         if (selectedTab == null) {
             selectedTab = (Tab)event.getSource();
         }
-        // if the user select to not close the tab, then we consume the event (not performing the closing action)
-        if (!this.closeTab(selectedTab)) {
-            event.consume();
-        }
+        event.consume();
+        this.closeTab(selectedTab, null);
         this.structureViewController.updateStructureView();
     }
 
     /**
      * Handles the Exit button action.
-     * Exits the program when the Exit button is clicked.
+     * Closes the tabs one after the other, each once the previous one is closed,
+     * and exits the program once the files saved are written.
+     * The event is always consumed; the program exits from the thread writing the files.
      *
      * @param event Event object
      */
     public void handleExitAction(Event event) {
-        ArrayList<Tab> tabList = new ArrayList<Tab>(this.tabFileMap.keySet());
-        for (Tab currentTab: tabList) {
-            this.tabPane.getSelectionModel().select(currentTab);
-            if (!this.closeTab(currentTab)){
-                event.consume();
-                return;
-            }
+        event.consume();
+        // the program is already exiting once the last files are written
+        if (this.saveExecutor.isShutdown()) {
+            return;
         }
-        System.exit(0);
+        this.closeTabsAndExit(new ArrayList<>(this.tabFileMap.keySet()).iterator());
+    }
+
+    /**
+     * Helper method to close the tabs left, one after the other, then exit the program
+     * once the files saved are written. Stops if the user cancels the closing of a tab.
+     *
+     * @param tabsLeft the tabs left to close
+     */
+    private void closeTabsAndExit(Iterator<Tab> tabsLeft) {
+        if (!tabsLeft.hasNext()) {
+            // the writer runs this after the files saved before
+            this.saveExecutor.execute(() -> System.exit(0));
+            this.saveExecutor.shutdown();
+            return;
+        }
+        Tab currentTab = tabsLeft.next();
+        this.tabPane.getSelectionModel().select(currentTab);
+        this.closeTab(currentTab, () -> this.closeTabsAndExit(tabsLeft));
     }
 
     /**
@@ -524,4 +845,82 @@ public class FileMenuController {
         dialog.setResizable(true);
         dialog.showAndWait();
     }
-}
\ No newline at end of file
+
+    /**
+     * A FileLoader loads a large file into a code area in the background, in chunks of whole paragraphs.
+     * The next chunk is read once the previous one is added to the code area,
+     * so that the application thread stays responsive and the memory used by the pending chunks is bounded.
+     */
+    private class FileLoader extends Task<Boolean> {
+        /**
+         * the file loaded
+         */
+        private File file;
+        /**
+         * the code area the file is loaded into
+         */
+        private JavaCodeArea codeArea;
+
+        /**
+         * Constructor of the FileLoader class.
+         *
+         * @param file the file loaded
+         * @param codeArea the code area the file is loaded into
+         */
+        private FileLoader(File file, JavaCodeArea codeArea) {
+            this.file = file;
+            this.codeArea = codeArea;
+        }
+
+        /**
+         * Reads the file a chunk at a time and adds the complete paragraphs read to the code area,
+         * updating the progress by the number of characters loaded.
+         *
+         * @return true when the file is loaded; false if the loading is cancelled
+         * @throws IOException if the file cannot be read
+         * @throws InterruptedException if the loading is interrupted
+         */
+        @Override protected Boolean call() throws IOException, InterruptedException {
+            long size = Math.max(this.file.length(), 1);
+            long loaded = 0;
+            char[] buffer = new char[LOAD_CHUNK_SIZE];
+            StringBuilder pending = new StringBuilder();
+            try (BufferedReader reader = Files.newBufferedReader(this.file.toPath(), Charset.defaultCharset())) {
+                int read;
+                while ((read = reader.read(buffer)) != -1) {
+                    if (this.isCancelled()) {
+                        return false;
+                    }
+                    pending.append(buffer, 0, read);
+                    loaded += read;
+                    // add the complete paragraphs, keeping the last partial one for the next chunk
+                    int lastLineEnd = pending.lastIndexOf("\n");
+                    if (lastLineEnd >= 0) {
+                        this.appendChunk(pending.substring(0, lastLineEnd + 1));
+                        pending.delete(0, lastLineEnd + 1);
+                    }
+                    this.updateProgress(Math.min(loaded, size), size);
+                }
+            }
+            this.appendChunk(pending.toString());
+            this.updateProgress(size, size);
+            return true;
+        }
+
+        /**
+         * Helper method to add a chunk of text to the code area on the application thread,
+         * waiting for it to be added.
+         *
+         * @param chunk the chunk of text
+         * @throws InterruptedException if the loading is interrupted while waiting
+         */
+        private void appendChunk(String chunk) throws InterruptedException {
+            CountDownLatch appended = new CountDownLatch(1);
+            Platform.runLater(() -> {
+                this.codeArea.appendText(chunk);
+                appended.countDown();
+            });
+            appended.await();
+        }
+    }
+}
@@ -0,0 +1,440 @@
+/*
+ * File: FileSearcher.java
+ * F18 CS361 Project 10
+ * Names: Liwei Jiang, Tracy Quan, Danqing Zhao, Chris Marcello
+ * Date: 12/07/2018
+ * This file contains the FileSearcher class, finding a text in the source files of a directory
+ * and its subdirectories.
+ */
+
+package proj10JiangQuanZhaoMarcello.controllers;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * FileSearcher finds a text in the Java and Bantam files of a directory and its subdirectories.
+ * The files are mapped in memory and searched in parallel, one file per thread,
+ * by the Boyer-Moore-Horspool algorithm over the bytes of the file and of the text encoded
+ * in the default charset, the charset the files are saved in.
+ * The occurrences are handed over file by file as they are found, and a search can be cancelled.
+ * The hidden directories, such as .git, are not searched.
+ *
+ * @author Liwei Jiang
+ * @author Tracy Quan
+ * @author Danqing Zhao
+ * @author Chris Marcello
+ */
+public class FileSearcher {
+    /**
+     * the maximum number of occurrences found by a search, after which the search stops
+     */
+    public static final int MAX_OCCURRENCES = 10_000;
+    /**
+     * the threads searching the files, one per processor
+     */
+    private static final ExecutorService SEARCHERS = Executors.newFixedThreadPool(
+            Runtime.getRuntime().availableProcessors(), runnable -> {
+                Thread thread = new Thread(runnable, "FileSearcher");
+                thread.setDaemon(true);
+                return thread;
+            });
+
+    /**
+     * Starts searching the Java and Bantam files of a directory and its subdirectories for a text.
+     *
+     * @param directory the directory
+     * @param text the text, not empty
+     * @param onFound the consumer of the occurrences found in each file, in the order they are in the file;
+     *                called on the searching threads
+     * @param onDone the consumer of the number of files searched, called once on a searching thread
+     *               when all the files are searched or the search is cancelled
+     * @return the search, to cancel it
+     */
+    public static Search search(Path directory, String text, Consumer<List<Occurrence>> onFound,
+                                Consumer<Integer> onDone) {
+        Search search = new Search(Charset.defaultCharset().encode(text), onFound, onDone);
+        SEARCHERS.submit(() -> search.start(directory));
+        return search;
+    }
+
+    /**
+     * Helper method to find the occurrences of a pattern in a buffer by the Boyer-Moore-Horspool algorithm.
+     * The pattern is compared from its last byte, and on a mismatch the pattern is shifted by
+     * the distance from the last occurrence in the pattern, before its last byte, of the byte of the buffer
+     * under the last byte of the pattern, to the end of the pattern.
+     *
+     * @param buffer the buffer
+     * @param pattern the pattern, not empty
+     * @param shifts the shift of the pattern for each byte value
+     * @param consumer the consumer of the index of each occurrence, in order; false to stop the search
+     */
+    static void findAll(ByteBuffer buffer, byte[] pattern, int[] shifts, IndexConsumer consumer) {
+        int last = pattern.length - 1;
+        int end = buffer.limit() - pattern.length;
+        int index = 0;
+        while (index <= end) {
+            byte b = buffer.get(index + last);
+            if (b == pattern[last]) {
+                int i = last - 1;
+                while (i >= 0 && buffer.get(index + i) == pattern[i]) {
+                    i--;
+                }
+                if (i < 0) {
+                    if (!consumer.accept(index)) {
+                        return;
+                    }
+                    // the occurrences do not overlap
+                    index += pattern.length;
+                    continue;
+                }
+            }
+            index += shifts[b & 0xFF];
+        }
+    }
+
+    /**
+     * Helper method to compute the shift of a pattern for each byte value, for the Boyer-Moore-Horspool algorithm.
+     *
+     * @param pattern the pattern, not empty
+     * @return the shifts of the pattern, indexed by unsigned byte value
+     */
+    static int[] computeShifts(byte[] pattern) {
+        int[] shifts = new int[256];
+        Arrays.fill(shifts, pattern.length);
+        for (int i = 0; i < pattern.length - 1; i++) {
+            shifts[pattern[i] & 0xFF] = pattern.length - 1 - i;
+        }
+        return shifts;
+    }
+
+    /**
+     * An IndexConsumer receives the indices of the occurrences found in a buffer.
+     */
+    interface IndexConsumer {
+        /**
+         * Receives the index of an occurrence.
+         *
+         * @param index the index of the occurrence in the buffer
+         * @return true to go on searching; false to stop
+         */
+        boolean accept(int index);
+    }
+
+    /**
+     * A Search is a search of a text in the files of a directory, which can be cancelled.
+     */
+    public static class Search {
+        /**
+         * the bytes of the text searched
+         */
+        private final byte[] pattern;
+        /**
+         * the shift of the pattern for each byte value
+         */
+        private final int[] shifts;
+        /**
+         * the consumer of the occurrences found in each file
+         */
+        private final Consumer<List<Occurrence>> onFound;
+        /**
+         * the consumer of the number of files searched
+         */
+        private final Consumer<Integer> onDone;
+        /**
+         * the number of files left to search, counting the walk of the directory as one
+         */
+        private final AtomicInteger filesLeft = new AtomicInteger(1);
+        /**
+         * the number of files searched
+         */
+        private final AtomicInteger filesSearched = new AtomicInteger();
+        /**
+         * the number of occurrences found
+         */
+        private final AtomicInteger occurrencesFound = new AtomicInteger();
+        /**
+         * whether the search is cancelled
+         */
+        private volatile boolean cancelled;
+        /**
+         * whether the search is cancelled by the user, whose occurrences are then no longer handed over
+         */
+        private volatile boolean cancelledByUser;
+
+        /**
+         * Constructor of the Search class.
+         *
+         * @param text the bytes of the text searched
+         * @param onFound the consumer of the occurrences found in each file
+         * @param onDone the consumer of the number of files searched
+         */
+        private Search(ByteBuffer text, Consumer<List<Occurrence>> onFound, Consumer<Integer> onDone) {
+            this.pattern = new byte[text.remaining()];
+            text.get(this.pattern);
+            this.shifts = computeShifts(this.pattern);
+            this.onFound = onFound;
+            this.onDone = onDone;
+        }
+
+        /**
+         * Cancels the search. The files being searched are searched no further, the others are not searched,
+         * and the occurrences not yet handed over are dropped.
+         */
+        public void cancel() {
+            this.cancelledByUser = true;
+            this.cancelled = true;
+        }
+
+        /**
+         * Checks whether the search is cancelled, by the user or because too many occurrences were found.
+         *
+         * @return true if the search is cancelled; false otherwise
+         */
+        public boolean isCancelled() { return this.cancelled; }
+
+        /**
+         * Helper method to walk a directory, submitting the search of each source file as it is walked.
+         *
+         * @param directory the directory
+         */
+        private void start(Path directory) {
+            try {
+                // the files walked before an error are searched
+                SourceWalker.walk(directory, new SourceWalker.Visitor() {
+                    @Override
+                    public boolean visitDirectory(Path subdirectory) { return !cancelled; }
+
+                    @Override
+                    public boolean visitFile(Path file, BasicFileAttributes attributes) {
+                        if (attributes.size() <= Integer.MAX_VALUE && SourceWalker.isSourceFile(file)) {
+                            filesLeft.incrementAndGet();
+                            SEARCHERS.submit(() -> searchFile(file));
+                        }
+                        return !cancelled;
+                    }
+                });
+            } finally {
+                this.fileDone();
+            }
+        }
+
+        /**
+         * Helper method to search a file, mapped in memory, and hand over the occurrences found.
+         *
+         * @param file the file
+         */
+        private void searchFile(Path file) {
+            try {
+                if (this.cancelled) {
+                    return;
+                }
+                List<Occurrence> occurrences = new ArrayList<>();
+                try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                    MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                    LineLocator locator = new LineLocator(file.toFile(), buffer, this.pattern.length);
+                    findAll(buffer, this.pattern, this.shifts, index -> {
+                        occurrences.add(locator.locate(index));
+                        if (this.occurrencesFound.incrementAndGet() >= MAX_OCCURRENCES) {
+                            this.cancelled = true;
+                        }
+                        return !this.cancelled;
+                    });
+                } catch (IOException e) {
+                    // the file was deleted or cannot be read
+                }
+                this.filesSearched.incrementAndGet();
+                if (!occurrences.isEmpty() && !this.cancelledByUser) {
+                    this.onFound.accept(occurrences);
+                }
+            } finally {
+                this.fileDone();
+            }
+        }
+
+        /**
+         * Helper method to count a file searched, and to end the search after the last file.
+         */
+        private void fileDone() {
+            if (this.filesLeft.decrementAndGet() == 0) {
+                this.onDone.accept(this.filesSearched.get());
+            }
+        }
+    }
+
+    /**
+     * A LineLocator finds the lines of the occurrences found in a file, in order,
+     * counting the line breaks from the previous occurrence only.
+     */
+    private static class LineLocator {
+        /**
+         * the file
+         */
+        private final File file;
+        /**
+         * the buffer the file is mapped in
+         */
+        private final ByteBuffer buffer;
+        /**
+         * the number of bytes of the occurrences
+         */
+        private final int length;
+        /**
+         * the number of the line of the previous occurrence, starting from 1
+         */
+        private int lineNum = 1;
+        /**
+         * the index of the start of the line of the previous occurrence
+         */
+        private int lineStart = 0;
+        /**
+         * the index the line breaks are counted up to
+         */
+        private int counted = 0;
+
+        /**
+         * Constructor of the LineLocator class.
+         *
+         * @param file the file
+         * @param buffer the buffer the file is mapped in
+         * @param length the number of bytes of the occurrences
+         */
+        private LineLocator(File file, ByteBuffer buffer, int length) {
+            this.file = file;
+            this.buffer = buffer;
+            this.length = length;
+        }
+
+        /**
+         * Finds the line of an occurrence, after the previous one.
+         *
+         * @param index the index of the occurrence in the buffer
+         * @return the occurrence
+         */
+        private Occurrence locate(int index) {
+            for (; this.counted < index; this.counted++) {
+                if (this.buffer.get(this.counted) == '\n') {
+                    this.lineNum++;
+                    this.lineStart = this.counted + 1;
+                }
+            }
+            int lineEnd = index + this.length;
+            while (lineEnd < this.buffer.limit() && this.buffer.get(lineEnd) != '\n') {
+                lineEnd++;
+            }
+            String before = this.decode(this.lineStart, index);
+            String line = this.decode(this.lineStart, lineEnd);
+            if (line.endsWith("\r")) {
+                line = line.substring(0, line.length() - 1);
+            }
+            int column = before.length();
+            int textLength = Math.min(this.decode(index, index + this.length).length(), line.length() - column);
+            return new Occurrence(this.file, this.lineNum, column, textLength, line);
+        }
+
+        /**
+         * Helper method to decode bytes of the buffer in the default charset.
+         *
+         * @param start the index of the first byte
+         * @param end the index after the last byte
+         * @return the characters decoded
+         */
+        private String decode(int start, int end) {
+            ByteBuffer slice = this.buffer.duplicate();
+            slice.limit(end).position(start);
+            return Charset.defaultCharset().decode(slice).toString();
+        }
+    }
+
+    /**
+     * An Occurrence is an occurrence of the text searched in a file.
+     */
+    public static class Occurrence {
+        /**
+         * the file
+         */
+        private final File file;
+        /**
+         * the number of the line of the occurrence, starting from 1
+         */
+        private final int lineNum;
+        /**
+         * the index of the first character of the occurrence in its line
+         */
+        private final int column;
+        /**
+         * the number of characters of the occurrence
+         */
+        private final int length;
+        /**
+         * the line of the occurrence
+         */
+        private final String line;
+
+        /**
+         * Constructor of the Occurrence class.
+         *
+         * @param file the file
+         * @param lineNum the number of the line of the occurrence, starting from 1
+         * @param column the index of the first character of the occurrence in its line
+         * @param length the number of characters of the occurrence
+         * @param line the line of the occurrence
+         */
+        private Occurrence(File file, int lineNum, int column, int length, String line) {
+            this.file = file;
+            this.lineNum = lineNum;
+            this.column = column;
+            this.length = length;
+            this.line = line;
+        }
+
+        /**
+         * Gets the file of the occurrence.
+         *
+         * @return the file
+         */
+        public File getFile() { return this.file; }
+
+        /**
+         * Gets the number of the line of the occurrence, starting from 1.
+         *
+         * @return the number of the line
+         */
+        public int getLineNum() { return this.lineNum; }
+
+        /**
+         * Gets the index of the first character of the occurrence in its line.
+         *
+         * @return the index of the first character
+         */
+        public int getColumn() { return this.column; }
+
+        /**
+         * Gets the number of characters of the occurrence.
+         *
+         * @return the number of characters
+         */
+        public int getLength() { return this.length; }
+
+        /**
+         * Gets the line of the occurrence, without its line break.
+         *
+         * @return the line
+         */
+        public String getLine() { return this.line; }
+    }
+}
@@ -8,14 +8,37 @@
 
 package proj10JiangQuanZhaoMarcello.controllers;
 
+import javafx.application.Platform;
 import javafx.event.ActionEvent;
 import javafx.geometry.Insets;
 import javafx.scene.control.*;
 import javafx.scene.layout.GridPane;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.Priority;
+import javafx.scene.layout.VBox;
+import javafx.stage.Modality;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
 import javafx.scene.control.Button;
 import javafx.scene.control.TextField;
 import org.fxmisc.richtext.CodeArea;
+import org.fxmisc.richtext.MultiChangeBuilder;
+import org.fxmisc.richtext.model.StyleSpansBuilder;
 import proj10JiangQuanZhaoMarcello.java.*;
 
 /**
@@ -27,6 +50,14 @@ import proj10JiangQuanZhaoMarcello.java.*;
  * @author Chris Marcello
  */
 public class FindMenuController {
+    /**
+     * the single thread reading the lines of the occurrences listed in the background
+     */
+    private static final ExecutorService LINE_READER = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "FindMenuController line reader");
+        thread.setDaemon(true);
+        return thread;
+    });
     /**
      * TabPane defined in Main.fxml
      */
@@ -43,6 +74,22 @@ public class FindMenuController {
      * The index of the occurrence currently looked at.
      */
     private int curOccurrenceIndex;
+    /**
+     * FileMenuController opening the files of the occurrences found in files
+     */
+    private FileMenuController fileMenuController;
+    /**
+     * DirectoryController whose directory is searched by Find in Files
+     */
+    private DirectoryController directoryController;
+    /**
+     * the search of Find in Files running; null if there is none
+     */
+    private FileSearcher.Search fileSearch;
+    /**
+     * the index of the identifiers of the Bantam files of the workspace
+     */
+    private SymbolIndex symbolIndex;
 
     /**
      * Constructor for the class. Initializes the occurrenceIndices array list.
@@ -59,6 +106,338 @@ public class FindMenuController {
      */
     public void setTabPane(TabPane tabPane) { this.tabPane = tabPane; }
 
+    /**
+     * Sets the FileMenuController.
+     *
+     * @param fileMenuController FileMenuController created in main Controller
+     */
+    public void setFileMenuController(FileMenuController fileMenuController) {
+        this.fileMenuController = fileMenuController;
+    }
+
+    /**
+     * Sets the DirectoryController.
+     *
+     * @param directoryController DirectoryController created in main Controller
+     */
+    public void setDirectoryController(DirectoryController directoryController) {
+        this.directoryController = directoryController;
+    }
+
+    /**
+     * Sets the index of the identifiers of the Bantam files of the workspace.
+     *
+     * @param symbolIndex the index of the identifiers of the Bantam files of the workspace
+     */
+    public void setSymbolIndex(SymbolIndex symbolIndex) { this.symbolIndex = symbolIndex; }
+
+    /**
+     * Handler for the "Find Usages" menu item in the "Find" menu.
+     * Lists the occurrences of the identifier at the caret in the Bantam files of the workspace.
+     */
+    public void handleFindUsages() {
+        String name = this.getIdentifierAtCaret();
+        if (name == null) {
+            this.createWarningDialog("Place the caret on an identifier to find its usages.");
+            return;
+        }
+        List<SymbolIndex.Usage> usages = this.symbolIndex.findUsages(name);
+        if (usages.isEmpty()) {
+            this.createWarningDialog("No usages of '" + name + "' were found in the saved Bantam files.");
+            return;
+        }
+        this.createUsagesDialog("Usages of " + name, usages);
+    }
+
+    /**
+     * Handler for the "Go to Definition" menu item in the "Find" menu.
+     * Shows the declaration of the identifier at the caret in the Bantam files of the workspace,
+     * or lists the declarations if there are several.
+     */
+    public void handleGoToDefinition() {
+        String name = this.getIdentifierAtCaret();
+        if (name == null) {
+            this.createWarningDialog("Place the caret on an identifier to go to its definition.");
+            return;
+        }
+        List<SymbolIndex.Usage> definitions = this.symbolIndex.findDefinitions(name);
+        if (definitions.isEmpty()) {
+            this.createWarningDialog("No definition of '" + name + "' was found in the saved Bantam files.");
+        } else if (definitions.size() == 1) {
+            this.showUsage(definitions.get(0));
+        } else {
+            this.createUsagesDialog("Definitions of " + name, definitions);
+        }
+    }
+
+    /**
+     * Helper method to get the identifier the caret of the active code area is in or right after.
+     *
+     * @return the identifier; null if the caret is not on an identifier
+     */
+    private String getIdentifierAtCaret() {
+        CodeArea codeArea = this.getActiveCodeArea();
+        String line = codeArea.getParagraph(codeArea.getCurrentParagraph()).getText();
+        int start = Math.min(codeArea.getCaretColumn(), line.length());
+        int end = start;
+        while (start > 0 && Character.isJavaIdentifierPart(line.charAt(start - 1))) {
+            start--;
+        }
+        while (end < line.length() && Character.isJavaIdentifierPart(line.charAt(end))) {
+            end++;
+        }
+        if (start == end || !Character.isJavaIdentifierStart(line.charAt(start))) {
+            return null;
+        }
+        return line.substring(start, end);
+    }
+
+    /**
+     * Helper method to create a window listing occurrences of an identifier, which does not block the other windows.
+     * The occurrences are listed at once, and their lines are shown once they are read in the background.
+     * Double clicking an occurrence opens its file and selects it.
+     *
+     * @param title the title of the window
+     * @param usages the occurrences
+     */
+    private void createUsagesDialog(String title, List<SymbolIndex.Usage> usages) {
+        Dialog<Void> usagesDialog = new Dialog<>();
+        usagesDialog.setTitle(title);
+        usagesDialog.setHeaderText(usages.size() + " occurrences in the saved Bantam files");
+        usagesDialog.initModality(Modality.NONE);
+        usagesDialog.setResizable(true);
+        usagesDialog.getDialogPane().getButtonTypes().add(ButtonType.CLOSE);
+
+        ListView<String> usageList = new ListView<>();
+        usageList.setPrefSize(700, 300);
+        for (SymbolIndex.Usage usage : usages) {
+            usageList.getItems().add(describeUsage(usage, ""));
+        }
+        LINE_READER.submit(() -> {
+            // the lines of the occurrences, each file read once
+            Map<File, List<String>> fileLines = new HashMap<>();
+            List<String> items = new ArrayList<>();
+            for (SymbolIndex.Usage usage : usages) {
+                List<String> lines = fileLines.computeIfAbsent(usage.getFile(), file -> {
+                    try {
+                        return Files.readAllLines(file.toPath(), Charset.defaultCharset());
+                    } catch (IOException | UncheckedIOException e) {
+                        return new ArrayList<>();
+                    }
+                });
+                String line = usage.getLineNum() <= lines.size() ? lines.get(usage.getLineNum() - 1).trim() : "";
+                items.add(describeUsage(usage, line));
+            }
+            Platform.runLater(() -> usageList.getItems().setAll(items));
+        });
+        usageList.setOnMouseClicked(event -> {
+            int index = usageList.getSelectionModel().getSelectedIndex();
+            if (event.getClickCount() == 2 && index >= 0) {
+                this.showUsage(usages.get(index));
+            }
+        });
+        usagesDialog.getDialogPane().setContent(usageList);
+        usagesDialog.show();
+    }
+
+    /**
+     * Helper method to describe an occurrence of an identifier in the list of occurrences.
+     *
+     * @param usage the occurrence
+     * @param line the text of the line of the occurrence; empty if it is not read yet
+     * @return the description of the occurrence
+     */
+    private static String describeUsage(SymbolIndex.Usage usage, String line) {
+        return usage.getFile().getName() + ":" + usage.getLineNum() + " [" + usage.getKindName() + "]:  " + line;
+    }
+
+    /**
+     * Helper method to open the file of an occurrence of an identifier, and select the occurrence,
+     * if the file has not changed since it was indexed.
+     *
+     * @param usage the occurrence
+     */
+    private void showUsage(SymbolIndex.Usage usage) {
+        this.fileMenuController.handleOpenFile(usage.getFile());
+        Tab tab = this.tabPane.getSelectionModel().getSelectedItem();
+        if (tab == null || this.fileMenuController.isLoading(tab)) {
+            return;
+        }
+        CodeArea codeArea = JavaTabPane.getCodeArea(tab);
+        int end = usage.getOffset() + usage.getName().length();
+        if (end <= codeArea.getLength() && codeArea.getText(usage.getOffset(), end).equals(usage.getName())) {
+            codeArea.selectRange(usage.getOffset(), end);
+            codeArea.requestFollowCaret();
+        }
+    }
+
+    /**
+     * Handler for the "Find in Files" menu item in the "Find" menu.
+     * Opens a window searching the Java and Bantam files of the directory tree,
+     * unless no directory is shown in the directory tree.
+     */
+    public void handleFindInFiles() {
+        Path directory = this.directoryController.getRootDirectory();
+        if (directory == null) {
+            this.createWarningDialog("Save the current file to search the files of its directory.");
+            return;
+        }
+        this.createFindInFilesDialog(directory);
+    }
+
+    /**
+     * Creates the Find in Files window, which does not block the other windows.
+     * Includes a textfield, a list of the occurrences found, and 2 main buttons: find and stop.
+     * The occurrences are listed as they are found, and double clicking one opens its file and selects it.
+     *
+     * @param directory the directory searched
+     */
+    private void createFindInFilesDialog(Path directory) {
+        Dialog<Void> findInFilesDialog = new Dialog<>();
+        findInFilesDialog.setTitle("Find in Files");
+        findInFilesDialog.setHeaderText("Find in the Java and Bantam files of " + directory);
+        findInFilesDialog.initModality(Modality.NONE);
+        findInFilesDialog.setResizable(true);
+
+        ButtonType find = new ButtonType("Find", ButtonBar.ButtonData.OK_DONE);
+        ButtonType stop = new ButtonType("Stop");
+        findInFilesDialog.getDialogPane().getButtonTypes().addAll(find, stop, ButtonType.CLOSE);
+
+        TextField findField = new TextField();
+        Label statusLabel = new Label();
+        ListView<FileSearcher.Occurrence> occurrenceList = new ListView<>();
+        occurrenceList.setPrefSize(700, 400);
+        occurrenceList.setCellFactory(listView -> new ListCell<FileSearcher.Occurrence>() {
+            @Override
+            protected void updateItem(FileSearcher.Occurrence occurrence, boolean empty) {
+                super.updateItem(occurrence, empty);
+                this.setText(empty || occurrence == null ? null
+                        : directory.relativize(occurrence.getFile().toPath()) + ":" + occurrence.getLineNum()
+                          + ":  " + occurrence.getLine().trim());
+            }
+        });
+        occurrenceList.setOnMouseClicked(event -> {
+            FileSearcher.Occurrence occurrence = occurrenceList.getSelectionModel().getSelectedItem();
+            if (event.getClickCount() == 2 && occurrence != null) {
+                this.showOccurrence(occurrence);
+            }
+        });
+
+        HBox findBox = new HBox(10, new Label("Find:"), findField);
+        HBox.setHgrow(findField, Priority.ALWAYS);
+        VBox content = new VBox(10, findBox, occurrenceList, statusLabel);
+        VBox.setVgrow(occurrenceList, Priority.ALWAYS);
+        content.setPadding(new Insets(10));
+        findInFilesDialog.getDialogPane().setContent(content);
+
+        Button findButton = (Button) findInFilesDialog.getDialogPane().lookupButton(find);
+        findButton.disableProperty().bind(findField.textProperty().isEmpty());
+        Button stopButton = (Button) findInFilesDialog.getDialogPane().lookupButton(stop);
+        stopButton.setDisable(true);
+
+        // set event handlers
+        findButton.addEventFilter(ActionEvent.ACTION, event -> {
+            this.startFileSearch(directory, findField.getText(), occurrenceList, statusLabel, stopButton);
+            event.consume();
+        });
+        stopButton.addEventFilter(ActionEvent.ACTION, event -> {
+            this.stopFileSearch();
+            event.consume();
+        });
+        findInFilesDialog.setOnHidden(event -> this.stopFileSearch());
+
+        Platform.runLater(findField::requestFocus);
+        findInFilesDialog.show();
+    }
+
+    /**
+     * Helper method to start searching the files of a directory, after stopping the previous search,
+     * and to list the occurrences as they are found.
+     * The occurrences found are queued and added to the list in batches, at most once per pulse.
+     *
+     * @param directory the directory
+     * @param findText the text to find
+     * @param occurrenceList the list of the occurrences found
+     * @param statusLabel the label showing the progress of the search
+     * @param stopButton the button stopping the search
+     */
+    private void startFileSearch(Path directory, String findText, ListView<FileSearcher.Occurrence> occurrenceList,
+                                 Label statusLabel, Button stopButton) {
+        this.stopFileSearch();
+        occurrenceList.getItems().clear();
+        statusLabel.setText("Searching...");
+        stopButton.setDisable(false);
+
+        Queue<FileSearcher.Occurrence> found = new ConcurrentLinkedQueue<>();
+        AtomicBoolean flushScheduled = new AtomicBoolean();
+        FileSearcher.Search[] search = new FileSearcher.Search[1];
+        Runnable flush = () -> {
+            flushScheduled.set(false);
+            if (this.fileSearch != search[0]) {
+                // a newer search has cleared the list
+                found.clear();
+                return;
+            }
+            List<FileSearcher.Occurrence> batch = new ArrayList<>();
+            for (FileSearcher.Occurrence occurrence; (occurrence = found.poll()) != null; ) {
+                batch.add(occurrence);
+            }
+            occurrenceList.getItems().addAll(batch);
+        };
+        long start = System.nanoTime();
+        search[0] = FileSearcher.search(directory, findText, occurrences -> {
+            found.addAll(occurrences);
+            if (flushScheduled.compareAndSet(false, true)) {
+                Platform.runLater(flush);
+            }
+        }, files -> Platform.runLater(() -> {
+            if (this.fileSearch != search[0]) {
+                return;
+            }
+            flush.run();
+            long time = (System.nanoTime() - start) / 1_000_000;
+            int occurrences = occurrenceList.getItems().size();
+            String stopped = occurrences >= FileSearcher.MAX_OCCURRENCES ? " (stopped at the limit)"
+                           : search[0].isCancelled() ? " (stopped)" : "";
+            statusLabel.setText(occurrences + " occurrences in " + files + " files searched in " + time + " ms"
+                                + stopped);
+            this.fileSearch = null;
+            stopButton.setDisable(true);
+        }));
+        this.fileSearch = search[0];
+    }
+
+    /**
+     * Helper method to stop the search of Find in Files running, if there is one.
+     * The search stays the current one until it reports that it has stopped, or a new search replaces it.
+     */
+    private void stopFileSearch() {
+        if (this.fileSearch != null) {
+            this.fileSearch.cancel();
+        }
+    }
+
+    /**
+     * Helper method to open the file of an occurrence found in files, and select the occurrence,
+     * if the file has not changed since it was searched.
+     *
+     * @param occurrence the occurrence
+     */
+    private void showOccurrence(FileSearcher.Occurrence occurrence) {
+        this.fileMenuController.handleOpenFile(occurrence.getFile());
+        Tab tab = this.tabPane.getSelectionModel().getSelectedItem();
+        if (tab == null || this.fileMenuController.isLoading(tab)) {
+            return;
+        }
+        CodeArea codeArea = JavaTabPane.getCodeArea(tab);
+        int paragraph = occurrence.getLineNum() - 1;
+        int end = occurrence.getColumn() + occurrence.getLength();
+        if (paragraph < codeArea.getParagraphs().size() && end <= codeArea.getParagraphLength(paragraph)) {
+            codeArea.selectRange(paragraph, occurrence.getColumn(), paragraph, end);
+            codeArea.requestFollowCaret();
+        }
+    }
+
     /**
      * Handler for the "Find & Replace" menu item in the "Edit" menu.
      */
@@ -162,7 +541,7 @@ public class FindMenuController {
         if(!findText.equals(this.targetText)){
             this.resetFindReplace();
             this.targetText = findText;
-            if (!this.findTargetText(codeArea, findText)) return;
+            if (!this.findTargetText(codeArea.getText(), findText)) return;
             codeArea.selectRange(this.occurrenceIndices.get(0), this.occurrenceIndices.get(0) + findText.length());
         }
 
@@ -184,17 +563,18 @@ public class FindMenuController {
     }
 
     /**
-     * Finds the target text in the code area and update the occurrenceIndices field.
+     * Finds the target text in a snapshot of the text of the code area and update the occurrenceIndices field.
+     * The occurrences do not overlap, so that they can all be highlighted or replaced.
      *
-     * @param codeArea code area to be searched
+     * @param text the text of the code area to be searched
      * @param targetText target text to be found
      * @return true if the target text is found; false is the target text is not found.
      */
-    private boolean findTargetText(CodeArea codeArea, String targetText) {
-        int index = codeArea.getText().indexOf(targetText);
+    private boolean findTargetText(String text, String targetText) {
+        int index = text.indexOf(targetText);
         while (index != -1) {
             this.occurrenceIndices.add(index);
-            index = codeArea.getText().indexOf(targetText, index + 1);
+            index = text.indexOf(targetText, index + targetText.length());
         }
 
         // if the search word is not found
@@ -208,14 +588,27 @@ public class FindMenuController {
 
     /**
      * Handles FindAll - finds all occurrances of a given search term
+     * The styles of the occurrences are set at once, keeping the styles of the text between them.
      */
     private void handleFindAll(String findText) {
         CodeArea activeCodeArea = this.getActiveCodeArea();
-        this.findTargetText(activeCodeArea, findText);
+        this.resetFindReplace();
+        if (!this.findTargetText(activeCodeArea.getText(), findText)) return;
+
         // changes the text to be italicized and colored
-        for (Integer i: this.occurrenceIndices) {
-            activeCodeArea.setStyleClass(i, i + findText.length(), "find");
+        int start = this.occurrenceIndices.get(0);
+        int end = this.occurrenceIndices.get(this.occurrenceIndices.size() - 1) + findText.length();
+        StyleSpansBuilder<Collection<String>> findSpans = new StyleSpansBuilder<>();
+        int previousEnd = start;
+        for (int index : this.occurrenceIndices) {
+            if (index > previousEnd) {
+                findSpans.add(Collections.emptyList(), index - previousEnd);
+            }
+            findSpans.add(Collections.singleton("find"), findText.length());
+            previousEnd = index + findText.length();
         }
+        activeCodeArea.setStyleSpans(start, activeCodeArea.getStyleSpans(start, end).overlay(findSpans.create(),
+                (styles, findStyles) -> findStyles.isEmpty() ? styles : findStyles));
         this.resetFindReplace();
     }
 
@@ -232,7 +625,7 @@ public class FindMenuController {
         if(!findText.equals(this.targetText)){
             this.resetFindReplace();
             this.targetText = findText;
-            if (!this.findTargetText(codeArea, findText)) return;
+            if (!this.findTargetText(codeArea.getText(), findText)) return;
         }
 
         //Check if there are any occurrence of the text to be found
@@ -241,36 +634,18 @@ public class FindMenuController {
             return;
         }
 
-        String codeAreaText = codeArea.getText();
-
-        String newContent;
-        String beforeFind;
-        String afterFind;
-
         //Find the text indices of the text to replace
         int startReplace = this.occurrenceIndices.get(this.curOccurrenceIndex);
         int endReplace = startReplace + this.targetText.length();
 
-        //Find the substring before and after the text to be replaced
-        if (startReplace != 0) {
-            beforeFind = codeAreaText.substring(0, startReplace);
-            afterFind = codeAreaText.substring(endReplace);
-        }
-        else{
-            beforeFind = "";
-            afterFind = codeAreaText.substring(endReplace);
-        }
-
-        //Combine the substrings and the replacetext to get the new content in the codearea
-        newContent = beforeFind + replaceText + afterFind;
-
         //Update the index of the occurrences
         int lengthDiff = replaceText.length() - this.targetText.length();
         for(int i = this.curOccurrenceIndex + 1; i < this.occurrenceIndices.size(); i++){
             this.occurrenceIndices.set(i, this.occurrenceIndices.get(i) + lengthDiff);
         }
 
-        codeArea.replaceText(newContent);
+        //Replace the occurrence in place, as a single change to undo
+        codeArea.replaceText(startReplace, endReplace, replaceText);
 
         //High light the next found text if there are any
         if(!this.occurrenceIndices.isEmpty()) {
@@ -298,15 +673,27 @@ public class FindMenuController {
 
     /**
      * Replaces all the text that is findText with replaceText
+     * The findText is matched literally, and the occurrences are replaced in place, from the first to the last,
+     * as a single change that is undone at once.
      *
      * @param findText text to be replaced
      * @param replaceText text to replace this.textToFind
      */
     private void handleReplaceAll(String findText, String replaceText){
         CodeArea codeArea = this.getActiveCodeArea();
-        this.findTargetText(codeArea, findText);
-        String newContent = codeArea.getText().replaceAll(findText, replaceText);
-        codeArea.replaceText(newContent);
+        this.resetFindReplace();
+        if (!this.findTargetText(codeArea.getText(), findText)) return;
+
+        MultiChangeBuilder<Collection<String>, String, Collection<String>> replacements =
+                codeArea.createMultiChange(this.occurrenceIndices.size());
+        // the occurrences are shifted by the replacements before them
+        int lengthDiff = replaceText.length() - findText.length();
+        int shift = 0;
+        for (int index : this.occurrenceIndices) {
+            replacements.replaceTextAbsolutely(index + shift, index + shift + findText.length(), replaceText);
+            shift += lengthDiff;
+        }
+        replacements.commit();
         this.resetFindReplace();
     }
 
@@ -0,0 +1,221 @@
+/*
+ * File: JavaOutlineProvider.java
+ * F18 CS361 Project 10
+ * Names: Liwei Jiang, Tracy Quan, Danqing Zhao, Chris Marcello
+ * Date: 12/07/2018
+ * This file contains the JavaOutlineProvider class, building the structure view of Java files.
+ */
+
+package proj10JiangQuanZhaoMarcello.controllers;
+
+import java.io.File;
+import java.util.Map;
+import javafx.scene.control.TreeItem;
+import javafx.scene.image.ImageView;
+import proj10JiangQuanZhaoMarcello.resource.Java8Lexer;
+import proj10JiangQuanZhaoMarcello.resource.Java8BaseListener;
+import proj10JiangQuanZhaoMarcello.resource.Java8Parser;
+import org.antlr.v4.runtime.BailErrorStrategy;
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.CommonTokenStream;
+import org.antlr.v4.runtime.ConsoleErrorListener;
+import org.antlr.v4.runtime.DefaultErrorStrategy;
+import org.antlr.v4.runtime.atn.PredictionMode;
+import org.antlr.v4.runtime.misc.ParseCancellationException;
+import org.antlr.v4.runtime.tree.ParseTree;
+import org.antlr.v4.runtime.tree.ParseTreeWalker;
+import org.antlr.v4.runtime.tree.TerminalNode;
+
+/**
+ * JavaOutlineProvider builds the outline of Java files with the ANTLR Java8 grammar.
+ * A file is first parsed in SLL prediction mode, bailing out at the first syntax error,
+ * and parsed again in LL prediction mode only if that fails.
+ * The lexer and parser are created once and reused for each file.
+ *
+ * @author Liwei Jiang
+ * @author Tracy Quan
+ * @author Danqing Zhao
+ * @author Chris Marcello
+ */
+public class JavaOutlineProvider implements OutlineProvider {
+    /**
+     * ParseTreeWalker
+     */
+    private final ParseTreeWalker walker;
+    /**
+     * the lexer of the Java files, reused for each file
+     */
+    private final Java8Lexer lexer;
+    /**
+     * the stream of the tokens of the lexer, reused for each file
+     */
+    private final CommonTokenStream tokens;
+    /**
+     * the parser of the Java files, reused for each file
+     */
+    private final Java8Parser parser;
+    /**
+     * the prediction mode the last outline was parsed with
+     */
+    private String predictionMode = "SLL";
+
+    /**
+     * Constructor of the JavaOutlineProvider class.
+     */
+    public JavaOutlineProvider() {
+        this.walker = new ParseTreeWalker();
+        this.lexer = new Java8Lexer(CharStreams.fromString(""));
+        this.tokens = new CommonTokenStream(this.lexer);
+        this.parser = new Java8Parser(this.tokens);
+    }
+
+    /**
+     * Checks whether the provider builds the outline of a file.
+     *
+     * @param file the file
+     * @return true if the file is a Java file; false otherwise
+     */
+    @Override public boolean accepts(File file) { return file.getName().endsWith(".java"); }
+
+    /**
+     * Parses a Java file and builds its outline from the parse tree.
+     *
+     * @param fileContents the text of the file
+     * @param lineNums the map the line number of the declaration of each item is put in
+     * @return the root of the outline
+     */
+    @Override public synchronized TreeItem<String> buildOutline(String fileContents,
+                                                                Map<TreeItem<String>, Integer> lineNums) {
+        // the root is not shown, and keeps no reference to the text of the file
+        TreeItem<String> newRoot = new TreeItem<>();
+
+        // parse the given file with the reused lexer and parser
+        ParseTree tree;
+        try {
+            this.predictionMode = "SLL";
+            tree = this.parseCompilationUnit(fileContents, PredictionMode.SLL);
+        } catch (ParseCancellationException e) {
+            // the SLL parse failed on a syntax error or a construct that needs full context: parse again with LL
+            this.predictionMode = "LL";
+            tree = this.parseCompilationUnit(fileContents, PredictionMode.LL);
+        }
+
+        // walk through parse tree with listening for code structure elements
+        CodeStructureListener codeStructureListener = new CodeStructureListener(newRoot, lineNums);
+        this.walker.walk(codeStructureListener, tree);
+        return newRoot;
+    }
+
+    /**
+     * Gets how the last outline was built.
+     *
+     * @return the grammar and the prediction mode the last file was parsed with
+     */
+    @Override public String getLastBuildDescription() { return "Java8, " + this.predictionMode; }
+
+    /**
+     * Helper method to parse a Java file into a compilation unit with the given prediction mode.
+     * With SLL, the parse bails out at the first syntax error, without reporting it;
+     * with LL, the parse recovers from the syntax errors, reporting them.
+     *
+     * @param fileContents the file to be parsed
+     * @param predictionMode PredictionMode.SLL for the fast first stage; PredictionMode.LL for the fallback
+     * @return the parse tree of the compilation unit
+     * @throws ParseCancellationException if the SLL parse fails
+     */
+    private ParseTree parseCompilationUnit(String fileContents, PredictionMode predictionMode) {
+        this.lexer.setInputStream(CharStreams.fromString(fileContents));
+        this.tokens.setTokenSource(this.lexer);
+        this.parser.setInputStream(this.tokens);
+        this.parser.getInterpreter().setPredictionMode(predictionMode);
+        this.parser.removeErrorListeners();
+        if (predictionMode == PredictionMode.SLL) {
+            this.parser.setErrorHandler(new BailErrorStrategy());
+        } else {
+            this.parser.setErrorHandler(new DefaultErrorStrategy());
+            this.parser.addErrorListener(ConsoleErrorListener.INSTANCE);
+        }
+        return this.parser.compilationUnit();
+    }
+
+    /**
+     * Private helper class that listens for code structure declarations
+     * (classes, fields, methods) during a parse tree walk and builds a
+     * TreeView subtree representing the code structure.
+     */
+    private class CodeStructureListener extends Java8BaseListener {
+        private TreeItem<String> currentNode;
+        private Map<TreeItem<String>, Integer> treeItemIntegerMap;
+
+        /**
+         * Creates a new CodeStructureListener that builds a subtree from the given root TreeItem
+         *
+         * @param root root TreeItem to build subtree from
+         */
+        public CodeStructureListener(TreeItem<String> root, Map<TreeItem<String>, Integer> treeItemIntegerMap) {
+            this.currentNode = root;
+            this.treeItemIntegerMap = treeItemIntegerMap;
+        }
+
+        /**
+         * Starts a new subtree for the class declaration entered
+         */
+        @Override public void enterNormalClassDeclaration(Java8Parser.NormalClassDeclarationContext ctx) {
+            // get class name
+            TerminalNode node = ctx.Identifier();
+            String className = node.getText();
+
+            // add class to TreeView under the current class tree
+            // set up the icon
+            // store the line number of its declaration
+            TreeItem<String> newNode = new TreeItem<>(className);
+            newNode.setGraphic(new ImageView(StructureIcons.CLASS));
+            newNode.setExpanded(true);
+            this.currentNode.getChildren().add(newNode);
+            //move current node into new subtree
+            this.currentNode = newNode;
+            this.treeItemIntegerMap.put(newNode, ctx.getStart().getLine());
+        }
+
+        /**
+         * Ands the new subtree for the class declaration exited, returns traversal to parent node
+         */
+        @Override public void exitNormalClassDeclaration(Java8Parser.NormalClassDeclarationContext ctx) {
+            this.currentNode = this.currentNode.getParent(); //move current node back to parent
+        }
+
+        /**
+         * Adds a child node for the field entered under the TreeItem for the current class
+         */
+        @Override public void enterFieldDeclaration(Java8Parser.FieldDeclarationContext ctx) {
+            // get field name
+            TerminalNode node = ctx.variableDeclaratorList().variableDeclarator(0).variableDeclaratorId().Identifier();
+            String fieldName = node.getText();
+
+            // add field to TreeView under the current class tree
+            // set up the icon
+            // store the line number of its declaration
+            TreeItem<String> newNode = new TreeItem<>(fieldName);
+            newNode.setGraphic(new ImageView(StructureIcons.FIELD));
+            this.currentNode.getChildren().add(newNode);
+            this.treeItemIntegerMap.put(newNode, ctx.getStart().getLine());
+        }
+
+        /**
+         * Adds a child node for the method entered under the TreeItem for the current class
+         */
+        @Override public void enterMethodHeader(Java8Parser.MethodHeaderContext ctx) {
+            // get method name
+            TerminalNode nameNode = ctx.methodDeclarator().Identifier();
+            String methodName = nameNode.getText();
+
+            // add method to TreeView under the current class tree
+            // set up the icon
+            // store the line number of its declaration
+            TreeItem<String> newNode = new TreeItem<>(methodName);
+            newNode.setGraphic(new ImageView(StructureIcons.METHOD));
+            this.currentNode.getChildren().add(newNode);
+            this.treeItemIntegerMap.put(newNode, ctx.getStart().getLine());
+        }
+    }
+}
@@ -0,0 +1,51 @@
+/*
+ * File: OutlineProvider.java
+ * F18 CS361 Project 10
+ * Names: Liwei Jiang, Tracy Quan, Danqing Zhao, Chris Marcello
+ * Date: 12/07/2018
+ * This file contains the OutlineProvider interface, building the structure view of a kind of source file.
+ */
+
+package proj10JiangQuanZhaoMarcello.controllers;
+
+import javafx.scene.control.TreeItem;
+import java.io.File;
+import java.util.Map;
+
+/**
+ * An OutlineProvider builds the outline shown in the structure view for a kind of source file:
+ * a tree of the classes declared in the file, with their fields and methods,
+ * along with the line number each item is declared at.
+ * The StructureViewController picks the first provider that accepts the file shown.
+ *
+ * @author Liwei Jiang
+ * @author Tracy Quan
+ * @author Danqing Zhao
+ * @author Chris Marcello
+ */
+public interface OutlineProvider {
+    /**
+     * Checks whether the provider builds the outline of a file.
+     *
+     * @param file the file
+     * @return true if the provider builds the outline of the file; false otherwise
+     */
+    boolean accepts(File file);
+
+    /**
+     * Parses the text of a file and builds its outline.
+     * Called off the JavaFX application thread, one outline at a time.
+     *
+     * @param fileContents the text of the file
+     * @param lineNums the map the line number of the declaration of each item is put in
+     * @return the root of the outline, whose children are the classes declared in the file
+     */
+    TreeItem<String> buildOutline(String fileContents, Map<TreeItem<String>, Integer> lineNums);
+
+    /**
+     * Gets how the last outline was built, shown in the console with the time taken to build it.
+     *
+     * @return a short description, such as the parser used
+     */
+    String getLastBuildDescription();
+}
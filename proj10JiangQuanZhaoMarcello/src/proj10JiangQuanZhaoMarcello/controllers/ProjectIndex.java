@@ -0,0 +1,440 @@
+/*
+ * File: ProjectIndex.java
+ * F18 CS361 Project 10
+ * Names: Liwei Jiang, Tracy Quan, Danqing Zhao, Chris Marcello
+ * Date: 12/07/2018
+ * This file contains the ProjectIndex class, indexing the files of the workspace
+ * to open them by a part of their names.
+ */
+
+package proj10JiangQuanZhaoMarcello.controllers;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * ProjectIndex keeps the paths of the source files of a project tree in memory, to find them by a fuzzy query:
+ * the characters of the query, in order but not necessarily contiguous, in the path relative to the root,
+ * ignoring case. Only the files the editor opens, the Java and Bantam files, are indexed.
+ * The tree is walked once in the background, and kept current by watching its directories until it is closed.
+ *
+ * The paths are kept in flat arrays, each with a signature of the characters it contains,
+ * so that a query is only matched against the paths whose signatures contain the signature of the query,
+ * and a query over a hundred thousand files takes a few milliseconds.
+ * The hidden directories, such as .git, are not indexed.
+ *
+ * @author Liwei Jiang
+ * @author Tracy Quan
+ * @author Danqing Zhao
+ * @author Chris Marcello
+ */
+public class ProjectIndex {
+    /**
+     * the system property setting the directory of the workspace, the working directory unless set
+     */
+    public static final String WORKSPACE_PROPERTY = "ide.workspace";
+    /**
+     * the initial capacity of the arrays of the index
+     */
+    private static final int INITIAL_CAPACITY = 1024;
+    /**
+     * the directory of the workspace
+     */
+    private final Path root;
+    /**
+     * the paths of the files indexed, relative to the workspace, with / as separator
+     */
+    private String[] paths = new String[INITIAL_CAPACITY];
+    /**
+     * the signatures of the paths of the files indexed
+     */
+    private long[] signatures = new long[INITIAL_CAPACITY];
+    /**
+     * the signatures of the names of the files indexed
+     */
+    private long[] nameSignatures = new long[INITIAL_CAPACITY];
+    /**
+     * the number of files indexed
+     */
+    private int size;
+    /**
+     * a map from the paths of the files indexed, relative to the workspace, to their positions in the arrays
+     */
+    private final Map<String, Integer> positions = new HashMap<>();
+    /**
+     * the watcher notified of the changes in the workspace
+     */
+    private final DirectoryWatcher watcher = new DirectoryWatcher();
+    /**
+     * whether the index is closed, no longer kept current
+     */
+    private volatile boolean closed;
+    /**
+     * whether the workspace is being walked for the first time
+     */
+    private volatile boolean indexing = true;
+
+    /**
+     * Constructor of the ProjectIndex class.
+     * Starts indexing the workspace in the background.
+     *
+     * @param root the directory of the workspace
+     */
+    public ProjectIndex(Path root) {
+        this.root = root.toAbsolutePath().normalize();
+        Thread indexer = new Thread(this::indexWorkspace, "ProjectIndex indexer");
+        indexer.setDaemon(true);
+        indexer.start();
+    }
+
+    /**
+     * Gets the directory of the workspace set by the ide.workspace property, or the working directory.
+     *
+     * @return the directory of the workspace
+     */
+    public static Path getWorkspace() {
+        return Paths.get(System.getProperty(WORKSPACE_PROPERTY, System.getProperty("user.dir")));
+    }
+
+    /**
+     * Stops keeping the index current, closing the watch service, whose thread then ends.
+     * An index being walked for the first time stops walking.
+     */
+    public void close() {
+        this.closed = true;
+        this.watcher.close();
+    }
+
+    /**
+     * Gets the directory of the workspace indexed.
+     *
+     * @return the directory of the workspace
+     */
+    public Path getRoot() { return this.root; }
+
+    /**
+     * Checks whether the workspace is being walked for the first time,
+     * so that the files not walked yet are not found.
+     *
+     * @return true if the workspace is being walked for the first time; false otherwise
+     */
+    public boolean isIndexing() { return this.indexing; }
+
+    /**
+     * Gets the number of files indexed.
+     *
+     * @return the number of files indexed
+     */
+    public synchronized int size() { return this.size; }
+
+    /**
+     * Finds the files best matching a query, the files whose relative paths contain the characters of the query
+     * in order, ignoring case. The files matching the query in their names, in contiguous characters,
+     * and at the start of words come first, then the shorter paths.
+     *
+     * @param query the query
+     * @param limit the maximum number of files found
+     * @return the paths of the files found, best first
+     */
+    public List<Path> query(String query, int limit) {
+        String lowerQuery = query.replace('\\', '/').replace(" ", "").toLowerCase();
+        if (lowerQuery.isEmpty() || limit <= 0) {
+            return Collections.emptyList();
+        }
+        long querySignature = signature(lowerQuery);
+        // the worst match found so far is on top, to be replaced by a better one
+        PriorityQueue<Match> best = new PriorityQueue<>(limit + 1);
+        synchronized (this) {
+            for (int i = 0; i < this.size; i++) {
+                if ((this.signatures[i] & querySignature) != querySignature) {
+                    continue;
+                }
+                boolean inName = (this.nameSignatures[i] & querySignature) == querySignature;
+                int score = score(this.paths[i], lowerQuery, inName);
+                if (score == Integer.MIN_VALUE) {
+                    continue;
+                }
+                if (best.size() < limit) {
+                    best.add(new Match(this.paths[i], score));
+                } else if (score > best.peek().score) {
+                    best.poll();
+                    best.add(new Match(this.paths[i], score));
+                }
+            }
+        }
+        Match[] matches = best.toArray(new Match[0]);
+        Arrays.sort(matches, Collections.reverseOrder());
+        List<Path> found = new ArrayList<>(matches.length);
+        for (Match match : matches) {
+            found.add(this.root.resolve(match.path));
+        }
+        return found;
+    }
+
+    /**
+     * Helper method to walk the workspace and keep the index current with its changes. Runs on its own thread.
+     */
+    private void indexWorkspace() {
+        this.walk(this.root);
+        this.indexing = false;
+        while (true) {
+            WatchKey watchKey;
+            try {
+                watchKey = this.watcher.take();
+            } catch (InterruptedException e) {
+                return;
+            }
+            if (watchKey == null) {
+                return;
+            }
+            Path directory = (Path) watchKey.watchable();
+            for (WatchEvent<?> event : watchKey.pollEvents()) {
+                if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                    // some changes were lost, so the directory is indexed again
+                    this.remove(directory);
+                    this.walk(directory);
+                    continue;
+                }
+                Path path = directory.resolve((Path) event.context());
+                if (event.kind() == StandardWatchEventKinds.ENTRY_DELETE) {
+                    this.remove(path);
+                } else if (!SourceWalker.isHidden(path)) {
+                    this.walk(path);
+                }
+            }
+            if (!watchKey.reset()) {
+                this.watcher.unwatch(directory);
+            }
+        }
+    }
+
+    /**
+     * Helper method to index a file, or the source files in a directory and its subdirectories,
+     * watching the directories.
+     *
+     * @param start the file or directory
+     */
+    private void walk(Path start) {
+        SourceWalker.walk(start, new SourceWalker.Visitor() {
+            @Override
+            public boolean visitDirectory(Path directory) {
+                watcher.watch(directory);
+                return !closed;
+            }
+
+            @Override
+            public boolean visitFile(Path file, BasicFileAttributes attributes) {
+                if (SourceWalker.isSourceFile(file)) {
+                    add(file);
+                }
+                return !closed;
+            }
+        });
+    }
+
+    /**
+     * Helper method to add a file to the index, unless it is indexed already.
+     *
+     * @param file the file
+     */
+    private synchronized void add(Path file) {
+        String path = this.relativize(file);
+        if (this.positions.containsKey(path)) {
+            return;
+        }
+        if (this.size == this.paths.length) {
+            this.paths = Arrays.copyOf(this.paths, this.size * 2);
+            this.signatures = Arrays.copyOf(this.signatures, this.size * 2);
+            this.nameSignatures = Arrays.copyOf(this.nameSignatures, this.size * 2);
+        }
+        String lowerPath = path.toLowerCase();
+        this.paths[this.size] = path;
+        this.signatures[this.size] = signature(lowerPath);
+        this.nameSignatures[this.size] = signature(lowerPath.substring(lowerPath.lastIndexOf('/') + 1));
+        this.positions.put(path, this.size);
+        this.size++;
+    }
+
+    /**
+     * Helper method to remove a file, or a directory with the files in it and its subdirectories, from the index.
+     *
+     * @param path the file or directory
+     */
+    private synchronized void remove(Path path) {
+        String relative = this.relativize(path);
+        Integer position = this.positions.get(relative);
+        if (position != null) {
+            this.removeAt(position);
+            return;
+        }
+        // a directory, whose files are found by their paths
+        String prefix = relative.isEmpty() ? "" : relative + "/";
+        for (int i = this.size - 1; i >= 0; i--) {
+            if (this.paths[i].startsWith(prefix)) {
+                this.removeAt(i);
+            }
+        }
+        this.watcher.unwatchTree(path);
+    }
+
+    /**
+     * Helper method to remove a file from the index, moving the last file indexed to its position.
+     *
+     * @param position the position of the file in the arrays
+     */
+    private void removeAt(int position) {
+        this.positions.remove(this.paths[position]);
+        int last = this.size - 1;
+        if (position != last) {
+            this.paths[position] = this.paths[last];
+            this.signatures[position] = this.signatures[last];
+            this.nameSignatures[position] = this.nameSignatures[last];
+            this.positions.put(this.paths[position], position);
+        }
+        this.paths[last] = null;
+        this.size = last;
+    }
+
+    /**
+     * Helper method to get the path of a file relative to the workspace, with / as separator.
+     *
+     * @param file the file
+     * @return the path of the file relative to the workspace
+     */
+    private String relativize(Path file) {
+        return this.root.relativize(file).toString().replace(File.separatorChar, '/');
+    }
+
+    /**
+     * Helper method to compute the signature of a text: one bit for each letter and digit it contains,
+     * and one bit shared by a few other characters.
+     *
+     * @param text the text, in lower case
+     * @return the signature of the text
+     */
+    private static long signature(String text) {
+        long signature = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c >= 'a' && c <= 'z') {
+                signature |= 1L << (c - 'a');
+            } else if (c >= '0' && c <= '9') {
+                signature |= 1L << (26 + c - '0');
+            } else {
+                signature |= 1L << (36 + c % 28);
+            }
+        }
+        return signature;
+    }
+
+    /**
+     * Helper method to score how well a path matches a query.
+     * The query is matched in the file name if it can be, otherwise in the whole path.
+     * The contiguous characters and the characters at the start of words, or in upper case, score higher,
+     * and the longer paths score lower.
+     *
+     * @param path the path relative to the workspace
+     * @param query the query, in lower case
+     * @param inName false if the name of the file does not contain all the characters of the query; true otherwise
+     * @return the score of the path; Integer.MIN_VALUE if the path does not match the query
+     */
+    private static int score(String path, String query, boolean inName) {
+        int score = inName ? scoreFrom(path, query, path.lastIndexOf('/') + 1) : Integer.MIN_VALUE;
+        if (score != Integer.MIN_VALUE) {
+            score += 1000;
+        } else {
+            score = scoreFrom(path, query, 0);
+            if (score == Integer.MIN_VALUE) {
+                return score;
+            }
+        }
+        return score - path.length();
+    }
+
+    /**
+     * Helper method to match the characters of a query in order in a path, from an index,
+     * each at the first place it is found.
+     *
+     * @param path the path
+     * @param query the query, in lower case
+     * @param start the index of the path the query is matched from
+     * @return the score of the match; Integer.MIN_VALUE if the path does not contain the characters in order
+     */
+    private static int scoreFrom(String path, String query, int start) {
+        int score = 0;
+        int previous = -2;
+        int index = start;
+        for (int i = 0; i < query.length(); i++) {
+            char c = query.charAt(i);
+            while (index < path.length() && Character.toLowerCase(path.charAt(index)) != c) {
+                index++;
+            }
+            if (index == path.length()) {
+                return Integer.MIN_VALUE;
+            }
+            if (index == previous + 1) {
+                score += 10;
+            }
+            if (index == start || Character.isUpperCase(path.charAt(index))
+                    || !Character.isLetterOrDigit(path.charAt(index - 1))) {
+                score += 20;
+            }
+            previous = index;
+            index++;
+        }
+        return score;
+    }
+
+    /**
+     * A Match is a path matching a query, with its score. The matches are ordered by score, then by path.
+     */
+    private static class Match implements Comparable<Match> {
+        /**
+         * the path relative to the workspace
+         */
+        private final String path;
+        /**
+         * the score of the path
+         */
+        private final int score;
+
+        /**
+         * Constructor of the Match class.
+         *
+         * @param path the path relative to the workspace
+         * @param score the score of the path
+         */
+        private Match(String path, int score) {
+            this.path = path;
+            this.score = score;
+        }
+
+        /**
+         * Compares the match to another, the match with the lower score first,
+         * then the match with the path last in alphabetical order.
+         *
+         * @param other the other match
+         * @return a negative number, zero, or a positive number
+         *         if the match is less than, equal to, or greater than the other
+         */
+        @Override
+        public int compareTo(Match other) {
+            if (this.score != other.score) {
+                return Integer.compare(this.score, other.score);
+            }
+            return other.path.compareTo(this.path);
+        }
+    }
+}
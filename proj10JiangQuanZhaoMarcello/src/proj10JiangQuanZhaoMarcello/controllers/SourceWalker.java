@@ -0,0 +1,117 @@
+/*
+ * File: SourceWalker.java
+ * F18 CS361 Project 10
+ * Names: Liwei Jiang, Tracy Quan, Danqing Zhao, Chris Marcello
+ * Date: 12/07/2018
+ * This file contains the SourceWalker class, walking the files of a directory tree
+ * for the indexes and the searches of the workspace.
+ */
+
+package proj10JiangQuanZhaoMarcello.controllers;
+
+import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+
+/**
+ * SourceWalker walks the regular files of a directory and its subdirectories, skipping the hidden directories,
+ * such as .git, and the files that cannot be read. It is shared by the ProjectIndex, the SymbolIndex
+ * and the FileSearcher, which choose the files they read.
+ *
+ * @author Liwei Jiang
+ * @author Tracy Quan
+ * @author Danqing Zhao
+ * @author Chris Marcello
+ */
+public final class SourceWalker {
+
+    /**
+     * A Visitor is called back for the directories and regular files walked, and can stop the walk.
+     */
+    public interface Visitor {
+        /**
+         * Visits a directory, before the files in it.
+         *
+         * @param directory the directory
+         * @return true to go on walking; false to stop
+         */
+        default boolean visitDirectory(Path directory) { return true; }
+
+        /**
+         * Visits a regular file.
+         *
+         * @param file the file
+         * @param attributes the attributes of the file
+         * @return true to go on walking; false to stop
+         */
+        boolean visitFile(Path file, BasicFileAttributes attributes);
+    }
+
+    /**
+     * Private constructor, this class only holds static methods.
+     */
+    private SourceWalker() { }
+
+    /**
+     * Checks whether a file is a source file, which the editor opens and the directory tree shows.
+     *
+     * @param path the path of the file
+     * @return true if the file is a Java or Bantam file; false otherwise
+     */
+    public static boolean isSourceFile(Path path) {
+        String fileName = path.getFileName().toString();
+        return fileName.endsWith(".java") || fileName.endsWith(".btm");
+    }
+
+    /**
+     * Checks whether a file or directory is hidden, its name starting with a dot.
+     *
+     * @param path the path of the file or directory
+     * @return true if the file or directory is hidden; false otherwise
+     */
+    public static boolean isHidden(Path path) {
+        Path name = path.getFileName();
+        return name != null && name.toString().startsWith(".");
+    }
+
+    /**
+     * Walks a file, or the regular files in a directory and its subdirectories that are not hidden.
+     * The start of the walk is walked even if it is hidden. The walk ends early if the file system fails,
+     * and the files walked before are kept by the visitor.
+     *
+     * @param start the file or directory
+     * @param visitor the visitor of the directories and regular files
+     */
+    public static void walk(Path start, Visitor visitor) {
+        try {
+            Files.walkFileTree(start, new SimpleFileVisitor<Path>() {
+                @Override
+                public FileVisitResult preVisitDirectory(Path directory, BasicFileAttributes attributes) {
+                    if (!directory.equals(start) && isHidden(directory)) {
+                        return FileVisitResult.SKIP_SUBTREE;
+                    }
+                    return visitor.visitDirectory(directory) ? FileVisitResult.CONTINUE : FileVisitResult.TERMINATE;
+                }
+
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) {
+                    if (!attributes.isRegularFile()) {
+                        return FileVisitResult.CONTINUE;
+                    }
+                    return visitor.visitFile(file, attributes) ? FileVisitResult.CONTINUE : FileVisitResult.TERMINATE;
+                }
+
+                @Override
+                public FileVisitResult visitFileFailed(Path file, IOException e) {
+                    // the files that cannot be read are not walked
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        } catch (IOException e) {
+            // the file was deleted before it was walked
+        }
+    }
+}
@@ -0,0 +1,51 @@
+/*
+ * File: StructureIcons.java
+ * F18 CS361 Project 10
+ * Names: Liwei Jiang, Tracy Quan, Danqing Zhao, Chris Marcello
+ * Date: 12/07/2018
+ * This file contains the StructureIcons class, holding the icons of the structure view items.
+ */
+
+package proj10JiangQuanZhaoMarcello.controllers;
+
+import javafx.scene.image.Image;
+import java.net.URL;
+
+/**
+ * This class holds the icons of the structure tree items, loaded and decoded once from the classpath
+ * when the first structure tree is built, and shared by all the items.
+ *
+ * @author Liwei Jiang
+ * @author Tracy Quan
+ * @author Danqing Zhao
+ * @author Chris Marcello
+ */
+class StructureIcons {
+    /**
+     * the icon of the classes
+     */
+    static final Image CLASS = load("c.png");
+    /**
+     * the icon of the methods
+     */
+    static final Image METHOD = load("m.png");
+    /**
+     * the icon of the fields
+     */
+    static final Image FIELD = load("f.png");
+
+    /**
+     * Helper method to load an icon from the images directory.
+     *
+     * @param name the name of the image file
+     * @return the icon; null if the image file cannot be found
+     */
+    private static Image load(String name) {
+        URL url = StructureIcons.class.getResource("../images/" + name);
+        if (url == null) {
+            System.out.println("Error Loading Images");
+            return null;
+        }
+        return new Image(url.toExternalForm());
+    }
+}
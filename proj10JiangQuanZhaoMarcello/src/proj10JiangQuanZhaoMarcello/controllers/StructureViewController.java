@@ -10,30 +10,25 @@
 package proj10JiangQuanZhaoMarcello.controllers;
 
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import javafx.concurrent.Service;
 import javafx.concurrent.Task;
 import javafx.application.Platform;
 import javafx.scene.control.*;
-import javafx.scene.image.Image;
-import javafx.scene.image.ImageView;
-import proj10JiangQuanZhaoMarcello.resource.Java8Lexer;
-import proj10JiangQuanZhaoMarcello.resource.Java8BaseListener;
-import proj10JiangQuanZhaoMarcello.resource.Java8Parser;
 import proj10JiangQuanZhaoMarcello.java.JavaCodeArea;
-import org.antlr.v4.runtime.CharStreams;
-import org.antlr.v4.runtime.CommonTokenStream;
-import org.antlr.v4.runtime.tree.ParseTree;
-import org.antlr.v4.runtime.tree.ParseTreeWalker;
-import org.antlr.v4.runtime.tree.TerminalNode;
 import org.fxmisc.flowless.VirtualizedScrollPane;
+import org.fxmisc.richtext.StyleClassedTextArea;
 
 /**
  * Controller that manages the generation and display of the structure of the
  * java code in the file currently being viewed.
+ * The structure of Java files is built with the Java8 grammar, and the structure of Bantam files
+ * with the Bantam Parser, by the OutlineProvider accepting the file.
  *
  * @author Evan Savillo
  * @author Yi Feng
@@ -46,13 +41,28 @@ import org.fxmisc.flowless.VirtualizedScrollPane;
  */
 public class StructureViewController {
     /**
-     * treeItemLineNumMap that maps tree item and line number to navigate to
+     * the number of code areas whose structure tree is kept
      */
-    private Map<TreeItem, Integer> treeItemLineNumMap;
+    private static final int STRUCTURE_CACHE_SIZE = 8;
     /**
-     * ParseTreeWalker
+     * the structure tree shown, whose line numbers are navigated to;
+     * only accessed on the JavaFX application thread, where it is replaced together with the root of the view
      */
-    private final ParseTreeWalker walker;
+    private StructureTree shownStructureTree = StructureTree.EMPTY;
+    /**
+     * a map from the code areas recently shown to their structure trees, from the least to the most recently used
+     */
+    private final Map<JavaCodeArea, StructureTree> structureCache =
+            new LinkedHashMap<JavaCodeArea, StructureTree>(STRUCTURE_CACHE_SIZE, 0.75f, true) {
+                @Override protected boolean removeEldestEntry(Map.Entry<JavaCodeArea, StructureTree> eldest) {
+                    return this.size() > STRUCTURE_CACHE_SIZE;
+                }
+            };
+    /**
+     * the builders of the structure trees, of which the first one accepting a file builds its structure tree
+     */
+    private final List<OutlineProvider> outlineProviders =
+            Arrays.asList(new JavaOutlineProvider(), new BantamOutlineProvider());
     /**
      * a HashMap mapping the tabs and the associated files
      */
@@ -73,14 +83,15 @@ public class StructureViewController {
      * A StructureViewWorker object constructing a structure view of a file in a separate thread.
      */
     private StructureViewWorker structureViewWorker;
+    /**
+     * Console defined in Main.fxml, showing the time taken to parse each file
+     */
+    private StyleClassedTextArea console;
 
     /**
      * Constructor for StructureViewController class
      */
-    public StructureViewController() {
-        this.walker = new ParseTreeWalker();
-        this.treeItemLineNumMap = new HashMap<>();
-    }
+    public StructureViewController() { }
 
     /**
      * Sets the tabFileMap.
@@ -105,6 +116,13 @@ public class StructureViewController {
      */
     public void setTabPane(TabPane tabPane) { this.tabPane = tabPane; }
 
+    /**
+     * Sets the console.
+     *
+     * @param console StyleClassedTextArea defined in Main.fxml
+     */
+    public void setConsole(StyleClassedTextArea console) { this.console = console; }
+
     /**
      * Takes in the fxml item treeView from main Controller.
      *
@@ -176,6 +194,14 @@ public class StructureViewController {
          * @return true
          */
         @Override protected Task<Boolean> createTask() {
+            // the current tab and its text are read here, on the JavaFX Application Thread, and not by the task;
+            // the text and its version are read together so that the tree is kept for the version of its text
+            JavaCodeArea codeArea = getCurrentCodeArea();
+            File file = getCurrentFile();
+            OutlineProvider outlineProvider = codeArea == null || file == null || FileMenuController.isLargeFile(file)
+                    ? null : getOutlineProvider(file);
+            long textVersion = codeArea == null ? 0 : codeArea.getTextVersion();
+            String text = outlineProvider == null ? null : codeArea.getText();
             return new Task<Boolean>() {
                 /**
                  * Called when we execute the start() method of a CompileRunWorker object
@@ -185,29 +211,40 @@ public class StructureViewController {
                  *         false otherwise.
                  */
                 @Override protected Boolean call() {
-                    updateStructureViewInThread();
-                    return true;
+                    String outcome = WorkerEvent.FAILED;
+                    WorkerEvent event = new WorkerEvent("StructureViewWorker");
+                    event.begin();
+                    try {
+                        updateStructureViewInThread(this, codeArea, outlineProvider, text, textVersion);
+                        outcome = WorkerEvent.SUCCESS;
+                        return true;
+                    } finally {
+                        event.complete(file, text, outcome);
+                    }
                 }
             };
         }
     }
 
     /**
-     * Helper method to update the structure view in a separated thread.
+     * Helper method to update the structure view in a separated thread, from a snapshot of the text
+     * taken when the task was created. A large file, or a file no outline provider accepts, is not analyzed.
+     *
+     * @param task the task updating the structure view, whose result is dropped if it is cancelled
+     * @param currentCodeArea the code area of the tab selected when the task was created; null if there is none
+     * @param outlineProvider the outline provider building the structure tree of the file of the code area;
+     *                        null if the file is not analyzed
+     * @param text the snapshot of the text of the code area; null if the file is not analyzed
+     * @param textVersion the version of the text of the snapshot
      */
-    private void updateStructureViewInThread() {
-        JavaCodeArea currentCodeArea = this.getCurrentCodeArea();
-        File currentFile = this.getCurrentFile();
-
+    private void updateStructureViewInThread(Task<?> task, JavaCodeArea currentCodeArea,
+                                             OutlineProvider outlineProvider, String text, long textVersion) {
         if (currentCodeArea != null) {
-            if (currentFile != null) {
-                String fileName = currentFile.getName();
-                if (fileName.endsWith(".java" )) {
-                    this.generateStructureTree(currentCodeArea.getText());
-                }
-            } else {
-                this.resetStructureView();
+            StructureTree structureTree = StructureTree.EMPTY;
+            if (outlineProvider != null) {
+                structureTree = this.getStructureTree(currentCodeArea, outlineProvider, text, textVersion);
             }
+            this.showStructureTree(structureTree, task, currentCodeArea);
         }
     }
 
@@ -217,156 +254,185 @@ public class StructureViewController {
     public void updateStructureView() { this.structureViewWorker.restart(); }
 
     /**
-     * Parses a file thereby storing contents as TreeItems in our special tree.
-     * @param fileContents the file to be parsed
+     * Helper method to get the outline provider building the structure tree of a file.
+     *
+     * @param file the file
+     * @return the first outline provider accepting the file; null if none does
      */
-    public void generateStructureTree(String fileContents) {
-        TreeItem<String> newRoot = new TreeItem<>(fileContents);
+    private OutlineProvider getOutlineProvider(File file) {
+        for (OutlineProvider outlineProvider : this.outlineProviders) {
+            if (outlineProvider.accepts(file)) {
+                return outlineProvider;
+            }
+        }
+        return null;
+    }
 
-        // build lexer, parser, and parse tree for the given file
-        Java8Lexer lexer = new Java8Lexer(CharStreams.fromString(fileContents));
-        CommonTokenStream tokens = new CommonTokenStream(lexer);
-        Java8Parser parser = new Java8Parser(tokens);
-        ParseTree tree = parser.compilationUnit();
+    /**
+     * Helper method to get the structure tree of a snapshot of the text of a code area,
+     * kept from a previous parse if the text has not changed since.
+     *
+     * @param codeArea the code area
+     * @param outlineProvider the outline provider building the structure tree of the file of the code area
+     * @param text the snapshot of the text of the code area
+     * @param textVersion the version of the text of the snapshot
+     * @return the structure tree of the text
+     */
+    private StructureTree getStructureTree(JavaCodeArea codeArea, OutlineProvider outlineProvider,
+                                           String text, long textVersion) {
+        synchronized (this.structureCache) {
+            StructureTree cached = this.structureCache.get(codeArea);
+            if (cached != null && cached.textVersion == textVersion && cached.outlineProvider == outlineProvider) {
+                return cached;
+            }
+        }
+        StructureTree structureTree = this.buildStructureTree(outlineProvider, text, textVersion);
+        synchronized (this.structureCache) {
+            this.structureCache.put(codeArea, structureTree);
+        }
+        return structureTree;
+    }
 
-        // walk through parse tree with listening for code structure elements
-        CodeStructureListener codeStructureListener = new CodeStructureListener(newRoot, this.treeItemLineNumMap);
-        this.walker.walk(codeStructureListener, tree);
+    /**
+     * Forgets the structure tree kept for a code area, when its tab is closed.
+     *
+     * @param codeArea the code area
+     */
+    public void forgetStructureTree(JavaCodeArea codeArea) {
+        synchronized (this.structureCache) {
+            this.structureCache.remove(codeArea);
+        }
+    }
 
-        this.setRootNode(newRoot);
+    /**
+     * Helper method to parse a file into a structure tree.
+     * Shows the time taken to parse the file in the console.
+     * The structure trees are built one at a time.
+     *
+     * @param outlineProvider the outline provider building the structure tree of the file
+     * @param fileContents the file to be parsed
+     * @param textVersion the version of the text of the file
+     * @return the structure tree of the file
+     */
+    private synchronized StructureTree buildStructureTree(OutlineProvider outlineProvider, String fileContents,
+                                                          long textVersion) {
+        Map<TreeItem<String>, Integer> lineNums = new HashMap<>();
+        long start = System.nanoTime();
+        TreeItem<String> newRoot = outlineProvider.buildOutline(fileContents, lineNums);
+        this.reportParseTime(System.nanoTime() - start, outlineProvider.getLastBuildDescription());
+        return new StructureTree(newRoot, lineNums, outlineProvider, textVersion);
     }
 
     /**
-     * Handles the file structure item click actions.
-     * Jumps to the line where the selected class/method/field is declared.
+     * Helper method to show a structure tree, navigating with its line numbers.
+     * The root of the view and the line numbers are replaced at once on the JavaFX application thread,
+     * and the tree replaced is no longer referenced unless it is kept in the cache.
+     * The tree built by a task is dropped if the task was cancelled by a newer update,
+     * or if its code area is no longer the one selected.
+     *
+     * @param structureTree the structure tree
+     * @param task the task that built the tree; null if the tree is shown whatever is selected
+     * @param codeArea the code area the tree was built for; null if the tree is shown whatever is selected
      */
-    public void handleFileStructTreeItemClicked() {
-        TreeItem selectedTreeItem = this.fileStructTree.getSelectionModel().getSelectedItem();
-        JavaCodeArea currentCodeArea = this.getCurrentCodeArea();
-        if (selectedTreeItem != null) {
-            int lineNum = this.getTreeItemLineNum(selectedTreeItem);
-            if (currentCodeArea != null) {
-                currentCodeArea.showParagraphAtTop(lineNum - 1);
+    private void showStructureTree(StructureTree structureTree, Task<?> task, JavaCodeArea codeArea) {
+        Platform.runLater(() -> {
+            if (task != null && (task.isCancelled() || this.getCurrentCodeArea() != codeArea)) {
+                return;
             }
-        }
+            this.shownStructureTree = structureTree;
+            this.fileStructTree.setRoot(structureTree.root);
+            this.fileStructTree.setShowRoot(false);
+        });
     }
 
     /**
-     * Sets the currently displaying File TreeItem<String> View.
+     * Helper method to show the time taken to parse a file in the console.
      *
-     * @param root root node corresponding to currently displaying file
+     * @param nanos the time taken to parse the file, in nanoseconds
+     * @param description how the file was parsed
      */
-    private void setRootNode(TreeItem<String> root) {
+    private void reportParseTime(long nanos, String description) {
+        if (this.console == null) {
+            return;
+        }
+        String line = String.format("Structure view parsed in %.1f ms (%s)%n", nanos / 1e6, description);
         Platform.runLater(() -> {
-            this.fileStructTree.setRoot(root);
-            this.fileStructTree.setShowRoot(false);
+            int start = this.console.getLength();
+            this.console.appendText(line);
+            this.console.setStyleClass(start, this.console.getLength(), "cons");
         });
     }
 
+    /**
+     * Handles the file structure item click actions.
+     * Jumps to the line where the selected class/method/field is declared.
+     */
+    public void handleFileStructTreeItemClicked() {
+        TreeItem<String> selectedTreeItem = this.fileStructTree.getSelectionModel().getSelectedItem();
+        JavaCodeArea currentCodeArea = this.getCurrentCodeArea();
+        if (selectedTreeItem != null) {
+            Integer lineNum = this.getTreeItemLineNum(selectedTreeItem);
+            if (currentCodeArea != null && lineNum != null) {
+                currentCodeArea.showParagraphAtTop(lineNum - 1);
+            }
+        }
+    }
+
     /**
      * Clears the currently open structure view of all nodes
      * Sets the currently displaying file to nothing.
      */
-    public void resetStructureView() { this.setRootNode(null); }
+    public void resetStructureView() { this.showStructureTree(StructureTree.EMPTY, null, null); }
 
     /**
      * Returns the line number currently associated with the specified tree item
+     * Must be called on the JavaFX application thread.
      *
      * @param treeItem Which TreeItem to get the line number of
-     * @return the line number corresponding with that tree item
+     * @return the line number corresponding with that tree item; null if the item is not in the tree shown
      */
-    public Integer getTreeItemLineNum(TreeItem treeItem) { return this.treeItemLineNumMap.get(treeItem); }
+    public Integer getTreeItemLineNum(TreeItem<String> treeItem) { return this.shownStructureTree.lineNums.get(treeItem); }
 
     /**
-     * Private helper class that listens for code structure declarations
-     * (classes, fields, methods) during a parse tree walk and builds a
-     * TreeView subtree representing the code structure.
+     * The structure tree of a version of the text of a code area, with the line numbers of its items.
+     * A structure tree is immutable once built, so that it can be shared between threads.
      */
-    private class CodeStructureListener extends Java8BaseListener {
-        Image classPic;
-        Image methodPic;
-        Image fieldPic;
-        private TreeItem<String> currentNode;
-        private Map<TreeItem, Integer> treeItemIntegerMap;
-
+    private static class StructureTree {
         /**
-         * Creates a new CodeStructureListener that builds a subtree from the given root TreeItem
-         *
-         * @param root root TreeItem to build subtree from
+         * the empty structure tree, shown when there is no Java file to show the structure of
          */
-        public CodeStructureListener(TreeItem<String> root, Map<TreeItem, Integer> treeItemIntegerMap) {
-            this.currentNode = root;
-            this.treeItemIntegerMap = treeItemIntegerMap;
-
-            try {
-                this.classPic = new Image(new FileInputStream(System.getProperty("user.dir") + "/include/c.png"));
-                this.methodPic = new Image(new FileInputStream(System.getProperty("user.dir") + "/include/m.png"));
-                this.fieldPic = new Image(new FileInputStream(System.getProperty("user.dir") + "/include/f.png"));
-            }
-            catch (IOException e) {
-                System.out.println("Error Loading Images");
-            }
-        }
-
+        private static final StructureTree EMPTY = new StructureTree(null, Collections.emptyMap(), null, -1);
         /**
-         * Starts a new subtree for the class declaration entered
+         * the root of the tree; null for the empty tree
          */
-        @Override public void enterNormalClassDeclaration(Java8Parser.NormalClassDeclarationContext ctx) {
-            // get class name
-            TerminalNode node = ctx.Identifier();
-            String className = node.getText();
-
-            // add class to TreeView under the current class tree
-            // set up the icon
-            // store the line number of its declaration
-            TreeItem<String> newNode = new TreeItem<>(className);
-            newNode.setGraphic(new ImageView(this.classPic));
-            newNode.setExpanded(true);
-            this.currentNode.getChildren().add(newNode);
-            //move current node into new subtree
-            this.currentNode = newNode;
-            this.treeItemIntegerMap.put(newNode, ctx.getStart().getLine());
-        }
-
+        private final TreeItem<String> root;
         /**
-         * Ands the new subtree for the class declaration exited, returns traversal to parent node
+         * an unmodifiable map from the items of the tree to the line numbers of their declarations
          */
-        @Override public void exitNormalClassDeclaration(Java8Parser.NormalClassDeclarationContext ctx) {
-            this.currentNode = this.currentNode.getParent(); //move current node back to parent
-        }
-
+        private final Map<TreeItem<String>, Integer> lineNums;
         /**
-         * Adds a child node for the field entered under the TreeItem for the current class
+         * the outline provider that built the tree; null for the empty tree
          */
-        @Override public void enterFieldDeclaration(Java8Parser.FieldDeclarationContext ctx) {
-            // get field name
-            TerminalNode node = ctx.variableDeclaratorList().variableDeclarator(0).variableDeclaratorId().Identifier();
-            String fieldName = node.getText();
-
-            // add field to TreeView under the current class tree
-            // set up the icon
-            // store the line number of its declaration
-            TreeItem<String> newNode = new TreeItem<>(fieldName);
-            newNode.setGraphic(new ImageView(this.fieldPic));
-            this.currentNode.getChildren().add(newNode);
-            this.treeItemIntegerMap.put(newNode, ctx.getStart().getLine());
-        }
-
+        private final OutlineProvider outlineProvider;
         /**
-         * Adds a child node for the method entered under the TreeItem for the current class
+         * the version of the text the tree was built from; -1 if it is not known
          */
-        @Override public void enterMethodHeader(Java8Parser.MethodHeaderContext ctx) {
-            // get method name
-            TerminalNode nameNode = ctx.methodDeclarator().Identifier();
-            String methodName = nameNode.getText();
+        private final long textVersion;
 
-            // add method to TreeView under the current class tree
-            // set up the icon
-            // store the line number of its declaration
-            TreeItem<String> newNode = new TreeItem<>(methodName);
-            newNode.setGraphic(new ImageView(this.methodPic));
-            this.currentNode.getChildren().add(newNode);
-            this.treeItemIntegerMap.put(newNode, ctx.getStart().getLine());
+        /**
+         * Constructor of the StructureTree class.
+         *
+         * @param root the root of the tree; null for the empty tree
+         * @param lineNums a map from the items of the tree to the line numbers of their declarations
+         * @param outlineProvider the outline provider that built the tree; null for the empty tree
+         * @param textVersion the version of the text the tree was built from; -1 if it is not known
+         */
+        private StructureTree(TreeItem<String> root, Map<TreeItem<String>, Integer> lineNums,
+                              OutlineProvider outlineProvider, long textVersion) {
+            this.root = root;
+            this.lineNums = Collections.unmodifiableMap(lineNums);
+            this.outlineProvider = outlineProvider;
+            this.textVersion = textVersion;
         }
     }
-}
\ No newline at end of file
+}
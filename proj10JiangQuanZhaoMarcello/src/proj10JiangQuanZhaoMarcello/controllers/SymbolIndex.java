@@ -0,0 +1,593 @@
+/*
+ * File: SymbolIndex.java
+ * F18 CS361 Project 10
+ * Names: Liwei Jiang, Tracy Quan, Danqing Zhao, Chris Marcello
+ * Date: 12/07/2018
+ * This file contains the SymbolIndex class, indexing the identifiers of the Bantam files of the workspace
+ * to find their usages and definitions.
+ */
+
+package proj10JiangQuanZhaoMarcello.controllers;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import proj10JiangQuanZhaoMarcello.bantam.ast.Class_;
+import proj10JiangQuanZhaoMarcello.bantam.ast.DeclStmt;
+import proj10JiangQuanZhaoMarcello.bantam.ast.Field;
+import proj10JiangQuanZhaoMarcello.bantam.ast.Formal;
+import proj10JiangQuanZhaoMarcello.bantam.ast.Method;
+import proj10JiangQuanZhaoMarcello.bantam.ast.Program;
+import proj10JiangQuanZhaoMarcello.bantam.lexer.Scanner;
+import proj10JiangQuanZhaoMarcello.bantam.lexer.Token;
+import proj10JiangQuanZhaoMarcello.bantam.parser.Parser;
+import proj10JiangQuanZhaoMarcello.bantam.util.CompilationException;
+import proj10JiangQuanZhaoMarcello.bantam.util.ErrorHandler;
+import proj10JiangQuanZhaoMarcello.bantam.visitor.Visitor;
+
+/**
+ * SymbolIndex maps the identifiers of the Bantam files of the workspace to their occurrences,
+ * so that the usages and the definitions of a class, field, method or variable are found
+ * without scanning the files again.
+ * The occurrences are the identifier tokens of the Bantam Scanner, and the occurrences declaring a class,
+ * field, method, parameter or local variable are found from the AST of the Bantam Parser.
+ * The identifiers of a file that does not parse are indexed without their declarations.
+ *
+ * The index is kept in the hidden .ide directory of the workspace, and mapped in memory when the IDE starts,
+ * so that only the files changed since the index was written are indexed again.
+ * The files saved in the IDE are indexed again from the text saved.
+ *
+ * @author Liwei Jiang
+ * @author Tracy Quan
+ * @author Danqing Zhao
+ * @author Chris Marcello
+ */
+public class SymbolIndex {
+    /**
+     * the kind of the occurrences using an identifier
+     */
+    public static final byte USAGE = 0;
+    /**
+     * the kind of the occurrences declaring a class
+     */
+    public static final byte CLASS = 1;
+    /**
+     * the kind of the occurrences declaring a field
+     */
+    public static final byte FIELD = 2;
+    /**
+     * the kind of the occurrences declaring a method
+     */
+    public static final byte METHOD = 3;
+    /**
+     * the kind of the occurrences declaring a parameter or a local variable
+     */
+    public static final byte VARIABLE = 4;
+    /**
+     * the first int of an index file, "BSYM"
+     */
+    private static final int MAGIC = 0x4253594D;
+    /**
+     * the version of the format of the index files, changed when the format or the kinds indexed change
+     */
+    private static final int FORMAT_VERSION = 2;
+    /**
+     * the thread indexing the files and writing the index, one at a time in the order they are submitted
+     */
+    private static final ExecutorService INDEXER = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "SymbolIndex indexer");
+        thread.setDaemon(true);
+        return thread;
+    });
+    /**
+     * the directory of the workspace
+     */
+    private final Path root;
+    /**
+     * the file the index is written to
+     */
+    private final Path indexFile;
+    /**
+     * a map from the paths of the files indexed to their last modified times when they were indexed
+     */
+    private final Map<String, Long> lastModified = new HashMap<>();
+    /**
+     * a map from the paths of the files indexed to the identifiers they contain
+     */
+    private final Map<String, Set<String>> fileSymbols = new HashMap<>();
+    /**
+     * a map from the identifiers to their occurrences
+     */
+    private final Map<String, List<Usage>> usages = new HashMap<>();
+    /**
+     * whether the index changed since it was written
+     */
+    private boolean changed;
+    /**
+     * whether the index is waiting to be written
+     */
+    private boolean writeScheduled;
+
+    /**
+     * Constructor of the SymbolIndex class.
+     * Starts loading the index of the workspace, and indexing the files changed since, in the background.
+     *
+     * @param root the directory of the workspace
+     */
+    public SymbolIndex(Path root) {
+        this.root = root.toAbsolutePath().normalize();
+        this.indexFile = this.root.resolve(".ide").resolve("symbols.idx");
+        INDEXER.submit(this::loadWorkspace);
+    }
+
+    /**
+     * Finds the occurrences of an identifier.
+     *
+     * @param name the identifier
+     * @return the occurrences of the identifier, by file and offset
+     */
+    public synchronized List<Usage> findUsages(String name) {
+        List<Usage> found = new ArrayList<>(this.usages.getOrDefault(name, Collections.emptyList()));
+        found.sort((first, second) -> first.file.equals(second.file) ? Integer.compare(first.offset, second.offset)
+                                                                      : first.file.compareTo(second.file));
+        return found;
+    }
+
+    /**
+     * Finds the occurrences declaring an identifier.
+     *
+     * @param name the identifier
+     * @return the occurrences declaring the identifier, by file and offset
+     */
+    public List<Usage> findDefinitions(String name) {
+        List<Usage> found = this.findUsages(name);
+        found.removeIf(usage -> usage.kind == USAGE);
+        return found;
+    }
+
+    /**
+     * Indexes a Bantam file again from its text, once it is saved, and writes the index.
+     * The files that are not Bantam files or not in the workspace are ignored.
+     *
+     * @param file the file
+     * @param text the text saved to the file
+     */
+    public void fileSaved(File file, String text) {
+        Path path = file.toPath().toAbsolutePath().normalize();
+        if (!path.startsWith(this.root) || !file.getName().endsWith(".btm")) {
+            return;
+        }
+        INDEXER.submit(() -> {
+            this.indexSource(path, text, file.lastModified());
+            this.scheduleWrite();
+        });
+    }
+
+    /**
+     * Helper method to load the index written, drop the files deleted since,
+     * index the files changed or created since, and write the index if it changed.
+     * Runs on the indexer thread.
+     */
+    private void loadWorkspace() {
+        this.read();
+        Set<String> found = new HashSet<>();
+        SourceWalker.walk(this.root, (file, attributes) -> {
+            if (file.getFileName().toString().endsWith(".btm")) {
+                found.add(file.toString());
+                long modified = attributes.lastModifiedTime().toMillis();
+                if (!Long.valueOf(modified).equals(this.getLastModified(file.toString()))) {
+                    try {
+                        this.indexSource(file, new String(Files.readAllBytes(file)), modified);
+                    } catch (IOException e) {
+                        // the file is indexed as it was
+                    }
+                }
+            }
+            return true;
+        });
+        synchronized (this) {
+            for (String file : new ArrayList<>(this.lastModified.keySet())) {
+                if (!found.contains(file)) {
+                    this.removeFile(file);
+                }
+            }
+        }
+        this.write();
+    }
+
+    /**
+     * Helper method to get the last modified time of a file when it was indexed.
+     *
+     * @param file the path of the file
+     * @return the last modified time of the file when it was indexed; null if it is not indexed
+     */
+    private synchronized Long getLastModified(String file) { return this.lastModified.get(file); }
+
+    /**
+     * Helper method to index a Bantam file, replacing its previous occurrences.
+     * The identifier tokens are found by the Bantam Scanner, and the declarations by the Bantam Parser.
+     * The name of a declaration is the only identifier following a type, class or var; such names are matched,
+     * in order, with the declarations of the same name, whatever the lines the declarations start on.
+     *
+     * @param path the path of the file
+     * @param text the text of the file
+     * @param modified the last modified time of the file
+     */
+    private void indexSource(Path path, String text, long modified) {
+        Map<String, Queue<Byte>> declarations = new HashMap<>();
+        try {
+            Program program = new Parser(new ErrorHandler()).parse(null, text);
+            program.accept(new DeclarationFinder(declarations));
+        } catch (CompilationException e) {
+            // the file is indexed without its declarations
+        }
+
+        String file = path.toString();
+        List<Usage> fileUsages = new ArrayList<>();
+        Scanner scanner = new Scanner(null, text, new ErrorHandler());
+        Token.Kind previous = null;
+        for (Token token = scanner.scan(); token.getKind() != Token.Kind.EOF; token = scanner.scan()) {
+            if (token.getKind() == Token.Kind.IDENTIFIER) {
+                Byte kind = null;
+                // the type of a declaration is an identifier, or an identifier followed by brackets
+                if (previous == Token.Kind.IDENTIFIER || previous == Token.Kind.RBRACKET
+                        || previous == Token.Kind.CLASS || previous == Token.Kind.VAR) {
+                    Queue<Byte> kinds = declarations.get(token.getSpelling());
+                    kind = kinds == null ? null : kinds.poll();
+                }
+                fileUsages.add(new Usage(file, token.getSpelling(), token.position, token.getStartOffset(),
+                        kind == null ? USAGE : kind));
+            }
+            if (token.getKind() != Token.Kind.COMMENT) {
+                previous = token.getKind();
+            }
+        }
+
+        synchronized (this) {
+            this.removeFile(file);
+            this.addFile(file, modified, fileUsages);
+            this.changed = true;
+        }
+    }
+
+    /**
+     * Helper method to add the occurrences of a file to the index.
+     *
+     * @param file the path of the file
+     * @param modified the last modified time of the file
+     * @param fileUsages the occurrences of the file
+     */
+    private void addFile(String file, long modified, List<Usage> fileUsages) {
+        Set<String> symbols = new HashSet<>();
+        for (Usage usage : fileUsages) {
+            this.usages.computeIfAbsent(usage.name, name -> new ArrayList<>()).add(usage);
+            symbols.add(usage.name);
+        }
+        this.lastModified.put(file, modified);
+        this.fileSymbols.put(file, symbols);
+    }
+
+    /**
+     * Helper method to remove the occurrences of a file from the index.
+     *
+     * @param file the path of the file
+     */
+    private void removeFile(String file) {
+        Set<String> symbols = this.fileSymbols.remove(file);
+        this.lastModified.remove(file);
+        if (symbols == null) {
+            return;
+        }
+        for (String symbol : symbols) {
+            List<Usage> symbolUsages = this.usages.get(symbol);
+            symbolUsages.removeIf(usage -> usage.file.equals(file));
+            if (symbolUsages.isEmpty()) {
+                this.usages.remove(symbol);
+            }
+        }
+        this.changed = true;
+    }
+
+    /**
+     * Helper method to write the index once the files submitted before are indexed,
+     * unless it is waiting to be written already.
+     */
+    private void scheduleWrite() {
+        synchronized (this) {
+            if (this.writeScheduled) {
+                return;
+            }
+            this.writeScheduled = true;
+        }
+        INDEXER.submit(this::write);
+    }
+
+    /**
+     * Helper method to read the index file, mapped in memory, if it exists and is of the current format.
+     * The format is the magic number and the format version, then the files with their last modified times,
+     * then the identifiers with their occurrences, each occurrence referring to its file by index.
+     */
+    private void read() {
+        if (!Files.isRegularFile(this.indexFile)) {
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(this.indexFile, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.getInt() != MAGIC || buffer.getInt() != FORMAT_VERSION) {
+                return;
+            }
+            String[] files = new String[buffer.getInt()];
+            long[] modified = new long[files.length];
+            Map<String, List<Usage>> fileUsages = new HashMap<>();
+            for (int i = 0; i < files.length; i++) {
+                files[i] = this.root.resolve(getString(buffer)).toString();
+                modified[i] = buffer.getLong();
+                fileUsages.put(files[i], new ArrayList<>());
+            }
+            int symbolCount = buffer.getInt();
+            for (int i = 0; i < symbolCount; i++) {
+                String name = getString(buffer);
+                int usageCount = buffer.getInt();
+                for (int j = 0; j < usageCount; j++) {
+                    String file = files[buffer.getInt()];
+                    int lineNum = buffer.getInt();
+                    int offset = buffer.getInt();
+                    fileUsages.get(file).add(new Usage(file, name, lineNum, offset, buffer.get()));
+                }
+            }
+            synchronized (this) {
+                for (int i = 0; i < files.length; i++) {
+                    this.addFile(files[i], modified[i], fileUsages.get(files[i]));
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            // a broken index is rebuilt from the files
+            synchronized (this) {
+                this.lastModified.clear();
+                this.fileSymbols.clear();
+                this.usages.clear();
+            }
+        }
+    }
+
+    /**
+     * Helper method to write the index file, if the index changed since it was written.
+     * The paths of the files are written relative to the workspace.
+     */
+    private void write() {
+        ByteBuffer buffer;
+        synchronized (this) {
+            this.writeScheduled = false;
+            if (!this.changed) {
+                return;
+            }
+            this.changed = false;
+
+            List<String> files = new ArrayList<>(this.lastModified.keySet());
+            Map<String, Integer> fileIds = new HashMap<>();
+            List<byte[]> paths = new ArrayList<>();
+            int size = 16;
+            for (String file : files) {
+                fileIds.put(file, paths.size());
+                byte[] path = this.root.relativize(Paths.get(file)).toString().getBytes(StandardCharsets.UTF_8);
+                paths.add(path);
+                size += 2 + path.length + 8;
+            }
+            List<Map.Entry<String, List<Usage>>> symbols = new ArrayList<>(this.usages.entrySet());
+            List<byte[]> names = new ArrayList<>();
+            for (Map.Entry<String, List<Usage>> symbol : symbols) {
+                byte[] name = symbol.getKey().getBytes(StandardCharsets.UTF_8);
+                names.add(name);
+                size += 2 + name.length + 4 + symbol.getValue().size() * 13;
+            }
+
+            buffer = ByteBuffer.allocate(size);
+            buffer.putInt(MAGIC).putInt(FORMAT_VERSION).putInt(files.size());
+            for (int i = 0; i < files.size(); i++) {
+                byte[] path = paths.get(i);
+                buffer.putShort((short) path.length).put(path).putLong(this.lastModified.get(files.get(i)));
+            }
+            buffer.putInt(symbols.size());
+            for (int i = 0; i < symbols.size(); i++) {
+                byte[] name = names.get(i);
+                List<Usage> symbolUsages = symbols.get(i).getValue();
+                buffer.putShort((short) name.length).put(name).putInt(symbolUsages.size());
+                for (Usage usage : symbolUsages) {
+                    buffer.putInt(fileIds.get(usage.file)).putInt(usage.lineNum).putInt(usage.offset)
+                            .put(usage.kind);
+                }
+            }
+        }
+        buffer.flip();
+        try {
+            Files.createDirectories(this.indexFile.getParent());
+            FileMenuController.writeFileAtomically(buffer, this.indexFile);
+        } catch (IOException e) {
+            // the index is written again after the next change
+            synchronized (this) {
+                this.changed = true;
+            }
+        }
+    }
+
+    /**
+     * Helper method to read a string written as its length in UTF-8 bytes, on two bytes, then the bytes.
+     *
+     * @param buffer the buffer the string is read from
+     * @return the string
+     */
+    private static String getString(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getShort() & 0xFFFF];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * A DeclarationFinder visits the AST of a Bantam program and gathers the declarations of its classes,
+     * fields, methods, parameters and local variables, by name, in the order they are declared.
+     */
+    private static class DeclarationFinder extends Visitor {
+        /**
+         * a map from the names of the declarations to their kinds, in the order they are declared
+         */
+        private final Map<String, Queue<Byte>> declarations;
+
+        /**
+         * Constructor of the DeclarationFinder class.
+         *
+         * @param declarations the map the declarations are put in
+         */
+        private DeclarationFinder(Map<String, Queue<Byte>> declarations) { this.declarations = declarations; }
+
+        /**
+         * Helper method to add a declaration after the declarations found before.
+         *
+         * @param name the name declared
+         * @param kind the kind of the declaration
+         */
+        private void declare(String name, byte kind) {
+            this.declarations.computeIfAbsent(name, key -> new ArrayDeque<>()).add(kind);
+        }
+
+        @Override
+        public Object visit(Class_ node) {
+            this.declare(node.getName(), CLASS);
+            return super.visit(node);
+        }
+
+        @Override
+        public Object visit(Field node) {
+            this.declare(node.getName(), FIELD);
+            return super.visit(node);
+        }
+
+        @Override
+        public Object visit(Method node) {
+            this.declare(node.getName(), METHOD);
+            return super.visit(node);
+        }
+
+        @Override
+        public Object visit(Formal node) {
+            this.declare(node.getName(), VARIABLE);
+            return super.visit(node);
+        }
+
+        @Override
+        public Object visit(DeclStmt node) {
+            this.declare(node.getName(), VARIABLE);
+            return super.visit(node);
+        }
+    }
+
+    /**
+     * A Usage is an occurrence of an identifier in a Bantam file.
+     */
+    public static class Usage {
+        /**
+         * the path of the file
+         */
+        private final String file;
+        /**
+         * the identifier
+         */
+        private final String name;
+        /**
+         * the number of the line of the occurrence, starting from 1
+         */
+        private final int lineNum;
+        /**
+         * the offset of the occurrence in the file, in characters
+         */
+        private final int offset;
+        /**
+         * the kind of the occurrence: USAGE, or the kind of the declaration
+         */
+        private final byte kind;
+
+        /**
+         * Constructor of the Usage class.
+         *
+         * @param file the path of the file
+         * @param name the identifier
+         * @param lineNum the number of the line of the occurrence, starting from 1
+         * @param offset the offset of the occurrence in the file, in characters
+         * @param kind the kind of the occurrence
+         */
+        private Usage(String file, String name, int lineNum, int offset, byte kind) {
+            this.file = file;
+            this.name = name;
+            this.lineNum = lineNum;
+            this.offset = offset;
+            this.kind = kind;
+        }
+
+        /**
+         * Gets the file of the occurrence.
+         *
+         * @return the file
+         */
+        public File getFile() { return new File(this.file); }
+
+        /**
+         * Gets the identifier.
+         *
+         * @return the identifier
+         */
+        public String getName() { return this.name; }
+
+        /**
+         * Gets the number of the line of the occurrence, starting from 1.
+         *
+         * @return the number of the line
+         */
+        public int getLineNum() { return this.lineNum; }
+
+        /**
+         * Gets the offset of the occurrence in the file.
+         *
+         * @return the offset in characters
+         */
+        public int getOffset() { return this.offset; }
+
+        /**
+         * Gets the kind of the occurrence.
+         *
+         * @return USAGE, CLASS, FIELD, METHOD or VARIABLE
+         */
+        public byte getKind() { return this.kind; }
+
+        /**
+         * Gets the kind of the occurrence as a word.
+         *
+         * @return the kind of the occurrence, such as "usage" or "method"
+         */
+        public String getKindName() {
+            switch (this.kind) {
+                case CLASS: return "class";
+                case FIELD: return "field";
+                case METHOD: return "method";
+                case VARIABLE: return "variable";
+                default: return "usage";
+            }
+        }
+    }
+}
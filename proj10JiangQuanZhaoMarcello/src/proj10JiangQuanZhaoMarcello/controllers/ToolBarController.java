@@ -185,6 +185,9 @@ public class ToolBarController {
         Platform.runLater(() ->{
             this.fileMenuController.handleNewAction();
             JavaCodeArea newCodeArea = JavaTabPane.getCurrentCodeArea(this.tabPane);
+            // the tokens are not code, so they are not highlighted nor parsed
+            newCodeArea.setHighlighted(false);
+            newCodeArea.setDiagnosed(false);
             newCodeArea.appendText(tokenStr);
         });
         Thread.sleep(1);
@@ -192,30 +195,34 @@ public class ToolBarController {
     }
 
     /**
-     * Helper method for displaying scanner the errors in the console.
+     * Helper method for displaying scanner the errors in the console,
+     * followed by the time taken by each phase.
      *
      * @param errorList a list of errors
      * @param runType the String describing the type of the running program (scanning or parsing)
+     * @param profiler the PhaseProfiler that measured the phases run
      * @throws java.lang.InterruptedException
      */
-    private void errorToConsole(List<Error> errorList, String runType) throws java.lang.InterruptedException {
+    private void errorToConsole(List<Error> errorList, String runType, PhaseProfiler profiler)
+            throws java.lang.InterruptedException {
+        String timing = profiler.getPhases().isEmpty() ? "" : "\nTiming: " + profiler.summary();
         this.mutex.tryAcquire();
         Platform.runLater(() ->{
             for (Error err: errorList){
                 this.console.appendText(err.toString()+"\n");
             }
             if (errorList.size()==0){
-                this.console.appendText(runType + " was successful!");
+                this.console.appendText(runType + " was successful!" + timing);
                 this.console.setStyleClass(0, this.console.getText().length(), "cons");
             }
             else if (errorList.size()==1){
                 this.console.appendText(runType + " failed -- ");
-                this.console.appendText("1 error was found.");
+                this.console.appendText("1 error was found." + timing);
                 this.console.setStyleClass(0, this.console.getText().length(), "err");
             }
             else{
                 this.console.appendText(runType + " failed -- ");
-                this.console.appendText(errorList.size()+" errors were found.");
+                this.console.appendText(errorList.size()+" errors were found." + timing);
                 this.console.setStyleClass(0, this.console.getText().length(), "err");
             }
         });
@@ -234,16 +241,30 @@ public class ToolBarController {
      */
     public class ScanWorker extends Service<Boolean> {
         /**
-         * the file embedded in the selected tab.
+         * the file embedded in the selected tab; null if the tab has none.
          */
         private File file;
+        /**
+         * the name of the source scanned, used in the error messages.
+         */
+        private String name;
+        /**
+         * the snapshot of the text of the selected tab; null to read the file.
+         */
+        private CharSequence source;
 
         /**
-         * Sets the selected tab and the associating file.
+         * Sets the source to be scanned: the text of the selected tab and its associating file.
          *
-         * @param file the file to be scanned embedded in the selected tab.
+         * @param file the file embedded in the selected tab; null if the tab has none.
+         * @param name the name of the source, used in the error messages.
+         * @param source the snapshot of the text of the selected tab; null to read the file.
          */
-        private void setFile(File file) { this.file = file; }
+        private void setSource(File file, String name, CharSequence source) {
+            this.file = file;
+            this.name = name;
+            this.source = source;
+        }
 
         /**
          * Overrides the createTask method in Service class.
@@ -262,8 +283,15 @@ public class ToolBarController {
                  *         false otherwise.
                  */
                 @Override protected Boolean call() {
-                    Boolean scanResult = scanParseJavaFile(file, false);
-                    return scanResult;
+                    String outcome = WorkerEvent.FAILED;
+                    WorkerEvent event = new WorkerEvent("ScanWorker");
+                    event.begin();
+                    try {
+                        outcome = scanParseJavaFile(name, source, false);
+                        return !WorkerEvent.FAILED.equals(outcome);
+                    } finally {
+                        event.complete(file, source, outcome);
+                    }
                 }
             };
         }
@@ -275,16 +303,30 @@ public class ToolBarController {
      */
     public class ParseWorker extends Service<Boolean> {
         /**
-         * the file embedded in the selected tab.
+         * the file embedded in the selected tab; null if the tab has none.
          */
         private File file;
+        /**
+         * the name of the source parsed, used in the error messages.
+         */
+        private String name;
+        /**
+         * the snapshot of the text of the selected tab; null to read the file.
+         */
+        private CharSequence source;
 
         /**
-         * Sets the selected tab and the associating file.
+         * Sets the source to be parsed: the text of the selected tab and its associating file.
          *
-         * @param file the file to be parsed embedded in the selected tab.
+         * @param file the file embedded in the selected tab; null if the tab has none.
+         * @param name the name of the source, used in the error messages.
+         * @param source the snapshot of the text of the selected tab; null to read the file.
          */
-        private void setFile(File file) { this.file = file; }
+        private void setSource(File file, String name, CharSequence source) {
+            this.file = file;
+            this.name = name;
+            this.source = source;
+        }
 
         /**
          * Overrides the createTask method in Service class.
@@ -303,8 +345,15 @@ public class ToolBarController {
                  *         false otherwise.
                  */
                 @Override protected Boolean call() {
-                    Boolean parseResult = scanParseJavaFile(file, true);
-                    return parseResult;
+                    String outcome = WorkerEvent.FAILED;
+                    WorkerEvent event = new WorkerEvent("ParseWorker");
+                    event.begin();
+                    try {
+                        outcome = scanParseJavaFile(name, source, true);
+                        return !WorkerEvent.FAILED.equals(outcome);
+                    } finally {
+                        event.complete(file, source, outcome);
+                    }
                 }
             };
         }
@@ -312,37 +361,51 @@ public class ToolBarController {
 
     /**
      * Helper method for running Java scanning in a separate thread.
+     * The source is scanned from the snapshot of the text of its tab, so that it does not need to be saved.
      *
-     * @param file the file being scanned or scanned & parsed
+     * @param filename the name of the source being scanned or scanned & parsed
+     * @param source the snapshot of the text of the source; null to read the file with the given name
      * @param scanAndParse a boolean value indicating whether parse after scanning
      *                     false if only scan; true if scan & parse
-     * @return true if scanning or scanning & parsing succeeds;
-     *         false if scanning or scanning & parsing fails
+     * @return SUCCESS if scanning or scanning & parsing succeeds without errors;
+     *         ERRORS if it succeeds but finds errors in the source;
+     *         FAILED if scanning or scanning & parsing fails
      */
-    private boolean scanParseJavaFile(File file, boolean scanAndParse) {
+    private String scanParseJavaFile(String filename, CharSequence source, boolean scanAndParse) {
         ErrorHandler errorHandler = new ErrorHandler();
+        PhaseProfiler profiler = new PhaseProfiler(filename);
         try {
             Platform.runLater(() -> {
                 this.console.clear();
             });
-            String filename = file.getPath(); // get the filename(path) of the file
             if (scanAndParse) {
                 this.parser = new Parser(errorHandler);
-                this.program = this.parser.parse(filename);
+                profiler.begin("parse");
+                this.program = this.parser.parse(filename, source);
+                profiler.end();
+                profiler.setCounts(this.parser.getTokenCount(), NodeCounter.countNodes(this.program));
+                profiler.begin("draw");
                 this.drawer.draw(filename, this.program);
-                this.errorToConsole(errorHandler.getErrorList(), "Parsing");
+                profiler.end();
+                // drawing produces no tokens nor AST nodes
+                profiler.setCounts(0, 0);
+                this.errorToConsole(errorHandler.getErrorList(), "Parsing", profiler);
             } else {
-                this.scanner = new Scanner(filename, errorHandler);
+                this.scanner = source == null ? new Scanner(filename, errorHandler)
+                        : new Scanner(filename, source, errorHandler);
+                profiler.begin("scan");
                 this.tokenStr = this.scanner.scanFile();
+                profiler.end();
+                profiler.setCounts(this.scanner.getTokenCount(), 0);
                 this.outputToNewTab(this.tokenStr);
-                this.errorToConsole(errorHandler.getErrorList(), "Scanning");
+                this.errorToConsole(errorHandler.getErrorList(), "Scanning", profiler);
             }
-            return true;
+            return CompilerEvent.outcome(true, errorHandler);
         } catch (Throwable e) {
             Platform.runLater(() -> {
                 if (scanAndParse) {
                     try {
-                        this.errorToConsole(errorHandler.getErrorList(), "Parsing");
+                        this.errorToConsole(errorHandler.getErrorList(), "Parsing", profiler);
                     } catch (Exception err) {
                         this.fileMenuController.createErrorDialog("File Parsing", "Error parsing.\nPlease try again with another valid Java File.");
                     }
@@ -350,44 +413,33 @@ public class ToolBarController {
                     this.fileMenuController.createErrorDialog("File Scanning", "Error scanning.\nPlease try again with another valid Java File.");
                 }
             });
-            return false;
+            return CompilerEvent.FAILED;
         }
     }
 
     /**
      * Helper method to handle scanning or scanning & parsing a file.
+     * Scans or parses the current text of the selected tab, saved or not, without asking to save it.
+     * A file still being loaded is read from its file instead.
      *
-     * @param event Event object
      * @param scanAndParse a boolean value indicating whether parse after scanning
      *                     false if only scan; true if scan & parse
      */
-    private void handleScanParseFile(Event event, boolean scanAndParse) {
+    private void handleScanParseFile(boolean scanAndParse) {
         // get the file associated with the selected tab
-        File file = this.tabFileMap.get(this.tabPane.getSelectionModel().getSelectedItem());
+        Tab selectedTab = this.tabPane.getSelectionModel().getSelectedItem();
+        File file = this.tabFileMap.get(selectedTab);
+        String name = file == null ? selectedTab.getText() : file.getPath();
+        // take a snapshot of the text, as the user keeps editing while it is scanned or parsed
+        String source = this.fileMenuController.isLoading(selectedTab) ? null
+                : JavaTabPane.getCodeArea(selectedTab).getText();
 
-        int checkIfSaved;
         if (scanAndParse) {
-            checkIfSaved = this.fileMenuController.checkSaved("parsed");
+            this.parseWorker.setSource(file, name, source);
+            this.parseWorker.restart();
         } else {
-            checkIfSaved = this.fileMenuController.checkSaved("scanned");
-        }
-
-        // if the user chooses cancel
-        if (checkIfSaved==2){
-            event.consume();
-        }
-        else{
-            if(checkIfSaved==1) {
-                // re-get the file associated with the selected tab because the file is saved and updated
-                file = this.tabFileMap.get(this.tabPane.getSelectionModel().getSelectedItem());
-            }
-            if (scanAndParse) {
-                this.parseWorker.setFile(file);
-                this.parseWorker.restart();
-            } else {
-                this.scanWorker.setFile(file);
-                this.scanWorker.restart();
-            }
+            this.scanWorker.setSource(file, name, source);
+            this.scanWorker.restart();
         }
     }
 
@@ -396,12 +448,12 @@ public class ToolBarController {
      *
      * @param event Event object
      */
-    public void handleScanButtonAction(Event event) { this.handleScanParseFile(event, false); }
+    public void handleScanButtonAction(Event event) { this.handleScanParseFile(false); }
 
     /**
      * Handles the Parse button action.
      *
      * @param event Event object
      */
-    public void handleParseButtonAction(Event event) { this.handleScanParseFile(event, true); }
+    public void handleParseButtonAction(Event event) { this.handleScanParseFile(true); }
 }
\ No newline at end of file
@@ -0,0 +1,58 @@
+/*
+ * File: WorkerEvent.java
+ * F18 CS361 Project 10
+ * Names: Liwei Jiang, Tracy Quan, Danqing Zhao, Chris Marcello
+ * Date: 12/07/2018
+ * This file contains the WorkerEvent class, the Flight Recorder event of a background worker of the IDE.
+ */
+
+package proj10JiangQuanZhaoMarcello.controllers;
+
+import jdk.jfr.Category;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import proj10JiangQuanZhaoMarcello.bantam.util.CompilerEvent;
+import java.io.File;
+
+/**
+ * A JDK Flight Recorder event recorded for each task run by a background worker of the IDE:
+ * the ScanWorker, the ParseWorker, the StructureViewWorker and the lister of the directory tree.
+ * The compiler events of the task, if any, are recorded within it on the same thread.
+ * It shares the outcomes and the file fields of the CompilerEvent.
+ *
+ * @author Liwei Jiang
+ * @author Tracy Quan
+ * @author Danqing Zhao
+ * @author Chris Marcello
+ */
+@Name("bantam.ide.Worker")
+@Label("IDE Worker")
+@Category({"Bantam", "IDE"})
+public class WorkerEvent extends CompilerEvent {
+    /**
+     * the name of the worker
+     */
+    @Label("Worker")
+    String worker;
+
+    /**
+     * Constructor of the WorkerEvent class.
+     *
+     * @param worker the name of the worker
+     */
+    public WorkerEvent(String worker) { this.worker = worker; }
+
+    /**
+     * Ends the event and commits it if it is recorded.
+     *
+     * @param file the file the task ran on; null if there is none
+     * @param source the text the task ran on, which may be unsaved; null if the task read the file itself
+     * @param outcome the outcome of the task
+     */
+    public void complete(File file, CharSequence source, String outcome) {
+        long length = source != null ? source.length() : file == null ? 0 : file.length();
+        if (this.finish(file == null ? null : file.getPath(), length, outcome)) {
+            this.commit();
+        }
+    }
+}
@@ -0,0 +1,159 @@
+/*
+ * File: HighlightBenchmark.java
+ * F18 CS361 Project 10
+ * Names: Liwei Jiang, Tracy Quan, Danqing Zhao, Chris Marcello
+ * Date: 12/07/2018
+ * This file contains the HighlightBenchmark class, measuring the highlighting work of a JavaCodeArea per edit.
+ */
+
+package proj10JiangQuanZhaoMarcello.java;
+
+import javafx.application.Application;
+import javafx.application.Platform;
+import javafx.scene.Scene;
+import javafx.stage.Stage;
+import org.fxmisc.flowless.VirtualizedScrollPane;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Locale;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The HighlightBenchmark class types a long session of keystrokes into a JavaCodeArea showing a large program
+ * and reports, for each batch of keystrokes, the paragraphs restyled and the CPU time of the highlighter thread.
+ * The work is measured from outside the code area: the paragraphs restyled are counted from its style changes,
+ * and the CPU time is read from the thread, so that the highlighting itself is not instrumented.
+ *
+ * Usage: HighlightBenchmark [lines [keystrokes]], by default 5000 lines and 10000 keystrokes.
+ *
+ * @author Liwei Jiang
+ * @author Tracy Quan
+ * @author Danqing Zhao
+ * @author Chris Marcello
+ */
+public class HighlightBenchmark extends Application {
+    /**
+     * the number of keystrokes reported on a line
+     */
+    private static final int BATCH_SIZE = 1000;
+    /**
+     * the text typed, a character per keystroke
+     */
+    private static final String TYPED_TEXT = "        var count = count * 2 + 1; // typed\n";
+    /**
+     * the number of paragraphs restyled so far, counted on the JavaFX application thread and read by the typist
+     */
+    private final AtomicLong restyledParagraphs = new AtomicLong();
+
+    /**
+     * Shows a code area with a generated program and types the keystrokes into it on a background thread.
+     *
+     * @param stage the stage showing the code area
+     */
+    @Override public void start(Stage stage) {
+        int lines = this.getParameters().getRaw().size() > 0 ? Integer.parseInt(this.getParameters().getRaw().get(0)) : 5000;
+        int keystrokes = this.getParameters().getRaw().size() > 1 ? Integer.parseInt(this.getParameters().getRaw().get(1)) : 10000;
+
+        JavaCodeArea codeArea = new JavaCodeArea();
+        codeArea.replaceText(generateProgram(lines));
+        // a change that leaves the text as it is only restyles the paragraphs it spans
+        codeArea.richChanges().filter(change -> change.toPlainTextChange().isIdentity()).subscribe(change ->
+                this.restyledParagraphs.addAndGet(change.getInserted().getParagraphs().size()));
+        Scene scene = new Scene(new VirtualizedScrollPane<>(codeArea), 800, 600);
+        scene.getStylesheets().add(getClass().getResource("../css/Main.css").toExternalForm());
+        stage.setTitle("Highlight Benchmark");
+        stage.setScene(scene);
+        stage.show();
+
+        Thread typist = new Thread(() -> this.type(codeArea, keystrokes), "HighlightBenchmark typist");
+        typist.setDaemon(true);
+        typist.start();
+    }
+
+    /**
+     * Helper method to type keystrokes into a code area, a keystroke per pulse of the application thread,
+     * printing the highlighting work of each batch of keystrokes.
+     *
+     * @param codeArea the code area
+     * @param keystrokes the number of keystrokes
+     */
+    private void type(JavaCodeArea codeArea, int keystrokes) {
+        try {
+            // type near the top of the viewport, where every edit has visible paragraphs to restyle
+            int position = codeArea.getAbsolutePosition(10, 0);
+            long paragraphs = this.restyledParagraphs.get();
+            long nanos = getHighlighterCpuNanos();
+            System.out.println("keystrokes  paragraphs restyled  per keystroke  highlighter cpu ms");
+            for (int i = 1; i <= keystrokes; i++) {
+                String typed = Character.toString(TYPED_TEXT.charAt(i % TYPED_TEXT.length()));
+                int offset = position++;
+                CountDownLatch keystroke = new CountDownLatch(1);
+                Platform.runLater(() -> {
+                    codeArea.insertText(offset, typed);
+                    keystroke.countDown();
+                });
+                keystroke.await();
+                Thread.sleep(1);
+                if (i % BATCH_SIZE == 0) {
+                    long batchParagraphs = this.restyledParagraphs.get() - paragraphs;
+                    long batchNanos = getHighlighterCpuNanos() - nanos;
+                    System.out.println(String.format(Locale.ROOT, "%10d  %19d  %13.2f  %18.1f", i, batchParagraphs,
+                            (double) batchParagraphs / BATCH_SIZE, batchNanos / 1e6));
+                    paragraphs += batchParagraphs;
+                    nanos += batchNanos;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        Platform.exit();
+    }
+
+    /**
+     * Helper method to get the CPU time used by the highlighter thread so far.
+     *
+     * @return the CPU time in nanoseconds; 0 if the thread has not started or the time cannot be measured
+     */
+    private static long getHighlighterCpuNanos() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (!threads.isThreadCpuTimeSupported()) {
+            return 0;
+        }
+        for (Thread thread : Thread.getAllStackTraces().keySet()) {
+            if (thread.getName().equals(JavaCodeArea.HIGHLIGHTER_THREAD_NAME)) {
+                return Math.max(0, threads.getThreadCpuTime(thread.getId()));
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Helper method to generate a Bantam program of the given number of lines,
+     * with a block comment every 50 lines.
+     *
+     * @param lines the number of lines
+     * @return the text of the program
+     */
+    private static String generateProgram(int lines) {
+        StringBuilder program = new StringBuilder("class Main {\n    void main() {\n");
+        for (int i = 2; i < lines - 2; i++) {
+            if (i % 50 == 0) {
+                program.append("        /* block comment\n         * line ").append(i).append("\n         */\n");
+                i += 2;
+            }
+            else {
+                program.append("        var value").append(i).append(" = ").append(i).append(" * 2; // line ")
+                        .append(i).append('\n');
+            }
+        }
+        return program.append("    }\n}\n").toString();
+    }
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param args the number of lines of the program and the number of keystrokes, optional
+     */
+    public static void main(String[] args) { launch(args); }
+}
@@ -0,0 +1,142 @@
+/*
+ * File: HighlightCache.java
+ * F18 CS361 Project 10
+ * Names: Liwei Jiang, Tracy Quan, Danqing Zhao, Chris Marcello
+ * Date: 12/07/2018
+ * This file contains the HighlightCache class, which keeps the highlighting of the files recently shown.
+ */
+
+package proj10JiangQuanZhaoMarcello.java;
+
+import org.fxmisc.richtext.model.StyleSpans;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This class keeps the highlighting of the files recently shown in a code area, shared by all code areas,
+ * so that a file opened again with the same content is shown highlighted at once.
+ * An entry is keyed by the path of the file and the SHA-256 digest of its content, so that a file edited
+ * outside of the editor is never shown with stale styles, and holds the lexer states
+ * and the styles of its paragraphs. The least recently used entries are dropped first.
+ * All the methods must be called on the JavaFX application thread.
+ *
+ * @author Liwei Jiang
+ * @author Tracy Quan
+ * @author Danqing Zhao
+ * @author Chris Marcello
+ */
+class HighlightCache {
+    /**
+     * the number of files whose highlighting is kept
+     */
+    private static final int CAPACITY = 16;
+    /**
+     * a map from the keys of the files to their highlighting, from the least to the most recently used
+     */
+    private static final Map<String, Entry> ENTRIES = new LinkedHashMap<String, Entry>(CAPACITY, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) { return this.size() > CAPACITY; }
+    };
+
+    /**
+     * Gets the key of a file with the given content.
+     *
+     * @param file the file
+     * @param text the content of the file
+     * @return the key
+     */
+    static String getKey(File file, String text) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            // every Java platform supports SHA-256
+            throw new IllegalStateException(e);
+        }
+        StringBuilder key = new StringBuilder(file.getAbsolutePath()).append('#');
+        for (byte b : digest.digest(text.getBytes(StandardCharsets.UTF_8))) {
+            key.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+        }
+        return key.toString();
+    }
+
+    /**
+     * Gets the highlighting kept for a file.
+     *
+     * @param key the key of the file
+     * @return the highlighting; null if none is kept
+     */
+    static Entry get(String key) { return ENTRIES.get(key); }
+
+    /**
+     * Keeps the highlighting of a file.
+     *
+     * @param key the key of the file
+     * @param entry the highlighting
+     */
+    static void put(String key, Entry entry) { ENTRIES.put(key, entry); }
+
+    /**
+     * Drops the highlighting kept, as needed when the style classes change.
+     */
+    static void clear() { ENTRIES.clear(); }
+
+    /**
+     * The highlighting of a file.
+     */
+    static class Entry {
+        /**
+         * the lexer states of the paragraphs
+         */
+        private final List<JavaCodeArea.ParagraphState> states;
+        /**
+         * the number of leading paragraphs whose lexer state is current
+         */
+        private final int lexedParagraphs;
+        /**
+         * the styles of the whole text
+         */
+        private final StyleSpans<Collection<String>> styleSpans;
+
+        /**
+         * Constructor of the Entry class.
+         *
+         * @param states the lexer states of the paragraphs
+         * @param lexedParagraphs the number of leading paragraphs whose lexer state is current
+         * @param styleSpans the styles of the whole text
+         */
+        Entry(List<JavaCodeArea.ParagraphState> states, int lexedParagraphs,
+              StyleSpans<Collection<String>> styleSpans) {
+            this.states = states;
+            this.lexedParagraphs = lexedParagraphs;
+            this.styleSpans = styleSpans;
+        }
+
+        /**
+         * Gets the lexer states of the paragraphs.
+         *
+         * @return the states, in order
+         */
+        List<JavaCodeArea.ParagraphState> getStates() { return this.states; }
+
+        /**
+         * Gets the number of leading paragraphs whose lexer state is current.
+         *
+         * @return the number of paragraphs
+         */
+        int getLexedParagraphs() { return this.lexedParagraphs; }
+
+        /**
+         * Gets the styles of the whole text.
+         *
+         * @return the styles
+         */
+        StyleSpans<Collection<String>> getStyleSpans() { return this.styleSpans; }
+    }
+}
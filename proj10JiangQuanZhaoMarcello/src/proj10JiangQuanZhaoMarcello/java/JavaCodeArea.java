@@ -4,21 +4,41 @@
  * Names: Liwei Jiang, Tracy Quan, Danqing Zhao, Chris Marcello
  * Date: 10/30/2018
  * This file contains the JavaCodeArea class, which extends the CodeArea class
- * to handle syntax highlighting.
+ * to handle incremental syntax highlighting and to show the errors of its text.
  */
 
 package proj10JiangQuanZhaoMarcello.java;
 
-import javafx.beans.value.ChangeListener;
-import javafx.beans.value.ObservableValue;
+import proj10JiangQuanZhaoMarcello.bantam.lexer.Token;
 import org.fxmisc.richtext.CodeArea;
+import org.fxmisc.richtext.model.PlainTextChange;
 import org.fxmisc.richtext.model.StyleSpans;
 import org.fxmisc.richtext.model.StyleSpansBuilder;
+import org.fxmisc.richtext.model.TwoDimensional.Bias;
 import org.fxmisc.richtext.LineNumberFactory;
-import org.reactfx.Subscription;
+import org.fxmisc.richtext.model.Paragraph;
+import org.reactfx.value.Val;
+import javafx.application.Platform;
+import javafx.beans.property.ObjectProperty;
+import javafx.beans.property.SimpleObjectProperty;
+import javafx.geometry.Pos;
+import javafx.scene.Node;
+import javafx.scene.control.Label;
+import javafx.scene.control.Tooltip;
+import javafx.scene.layout.HBox;
+import java.io.File;
 import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.IntFunction;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -26,6 +46,21 @@ import java.util.regex.Pattern;
  * This class extends the CodeArea class from RichTextFx to handle
  * syntax highlighting.
  *
+ * The paragraphs of a Bantam file or an untitled text are highlighted with the tokens of the Bantam Scanner,
+ * and the paragraphs of a Java file with regular expressions of the Java syntax.
+ * The highlighting is incremental: each paragraph is styled on its own, starting in the lexer state
+ * the previous paragraph ended in, that is, inside or outside a multi-line comment.
+ * A text change only marks the paragraphs it touches as changed, and only the visible paragraphs
+ * whose text or start state changed are restyled; the others are restyled when they are scrolled into view.
+ *
+ * The paragraphs are lexed on a background thread shared by all code areas, over a snapshot of the document.
+ * The styles computed are applied on the JavaFX application thread only if the document has not changed
+ * since the snapshot; a computation made stale by a later change is cancelled.
+ *
+ * On each pause in typing, the text is parsed with the Bantam Parser on another background thread,
+ * again over a snapshot, and the paragraphs with errors are underlined and marked in the gutter,
+ * with the messages of the errors in the tooltip of the marker. Only the newest parse runs.
+ *
  * @author Liwei Jiang
  * @author Tracy Quan
  * @author Danqing Zhao
@@ -33,7 +68,7 @@ import java.util.regex.Pattern;
  */
 public class JavaCodeArea extends CodeArea {
     /**
-     * a list of key words to be highlighted
+     * a list of key words to be highlighted in Java files
      */
     private static final String[] KEYWORDS = new String[] {
             "abstract", "assert", "boolean", "break", "byte",
@@ -49,7 +84,8 @@ public class JavaCodeArea extends CodeArea {
     };
 
     /**
-     * Regular expressions of characters to be highlighted
+     * Regular expressions of characters to be highlighted in Java files, within a paragraph.
+     * A block comment not closed in its paragraph extends to the end of the paragraph.
      */
     private static final String KEYWORD_PATTERN = "\\b(" + String.join("|", KEYWORDS) + ")\\b";
     private static final String PAREN_PATTERN = "\\(|\\)";
@@ -57,11 +93,11 @@ public class JavaCodeArea extends CodeArea {
     private static final String BRACKET_PATTERN = "\\[|\\]";
     private static final String SEMICOLON_PATTERN = "\\;";
     private static final String STRING_PATTERN = "\"([^\"\\\\]|\\\\.)*\"";
-    private static final String COMMENT_PATTERN = "//[^\n]*" + "|" + "/\\*(.|\\R)*?\\*/";
+    private static final String COMMENT_PATTERN = "//.*" + "|" + "/\\*.*?(\\*/|$)";
     private static final String INTEGER_PATTERN = "(?<![\\w])(?<![\\d.])[0-9]+(?![\\d.])(?![\\w])";
 
     /**
-     * Patterns to be highlighted
+     * Patterns to be highlighted in Java files
      */
     private static final Pattern PATTERN = Pattern.compile(
             "(?<KEYWORD>" + KEYWORD_PATTERN + ")"
@@ -74,63 +110,143 @@ public class JavaCodeArea extends CodeArea {
                     + "|(?<INTEGER>" + INTEGER_PATTERN + ")"
     );
 
+    /**
+     * the number of paragraphs below the viewport that are styled with the visible ones,
+     * so that the paragraphs shown by the layout following a text change are already styled
+     */
+    private static final int VIEWPORT_MARGIN = 20;
+
+    /**
+     * the name of the thread lexing the paragraphs, by which the HighlightBenchmark finds it
+     */
+    static final String HIGHLIGHTER_THREAD_NAME = "JavaCodeArea highlighter";
+    /**
+     * the single thread lexing the paragraphs of all code areas in the background
+     */
+    private static final ExecutorService HIGHLIGHTER = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, HIGHLIGHTER_THREAD_NAME);
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * the system property setting whether the text of the code areas is parsed on each pause in typing,
+     * true unless set to false
+     */
+    public static final String PARSE_ON_IDLE_PROPERTY = "ide.parseOnIdle";
+
+    /**
+     * the pause in typing after which the text is parsed again
+     */
+    private static final Duration PARSE_DELAY = Duration.ofMillis(500);
+
+    /**
+     * the single thread parsing the text of all code areas in the background
+     */
+    private static final ExecutorService PARSER = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "JavaCodeArea parser");
+        thread.setDaemon(true);
+        return thread;
+    });
+
     /**
      * Private field to store the style class for KEYWORD pattern.
      */
-    private static String keywordColorClass = "keyword";
+    private static volatile String keywordColorClass = "keyword";
 
     /**
      * Private field to store the style class for PAREN, BRACE, BRACKET pattern.
      */
-    private static String parenColorClass = "paren";
+    private static volatile String parenColorClass = "paren";
 
     /**
      * Private field to store the style class for STRING pattern.
      */
-    private static String stringColorClass = "string";
+    private static volatile String stringColorClass = "string";
 
     /**
      * Private field to store the style class for INTEGER pattern.
      */
-    private static String intColorClass = "integer";
+    private static volatile String intColorClass = "integer";
+
+    /**
+     * the lexer state of each paragraph, in order
+     */
+    private final List<ParagraphState> paragraphStates = new ArrayList<>();
+
+    /**
+     * the number of leading paragraphs whose lexer state is known to be current
+     */
+    private int lexedParagraphs;
+
+    /**
+     * whether a restyling of the visible paragraphs is scheduled on the JavaFX application thread
+     */
+    private boolean restyleScheduled;
+
+    /**
+     * the version of the document, incremented on each text change and each change of the style classes
+     */
+    private long documentVersion;
+
+    /**
+     * the highlighting being computed in the background; null if there is none
+     */
+    private Future<?> pendingHighlighting;
+
+    /**
+     * the version of the text, incremented on each text change;
+     * read with the text on the JavaFX application thread when a snapshot of the text is taken
+     */
+    private long textVersion;
+
+    /**
+     * the version of the text when it was last loaded from or saved to its file
+     */
+    private long savedTextVersion;
+
+    /**
+     * whether the text is highlighted; false for a text that is not code, such as the output of the scanner
+     */
+    private boolean highlighted = true;
+
+    /**
+     * whether the text is highlighted as Bantam code, with the tokens of the Bantam Scanner;
+     * false for a Java file, highlighted as Java code
+     */
+    private boolean bantamSyntax = true;
+
+    /**
+     * whether the text is parsed on each pause in typing to show its errors;
+     * false until set for a Bantam file or an untitled text
+     */
+    private boolean diagnosed = false;
+
+    /**
+     * the errors found by the last parse of the text: their messages by the index of their paragraph
+     */
+    private final ObjectProperty<Map<Integer, String>> diagnostics = new SimpleObjectProperty<>(Collections.emptyMap());
+
+    /**
+     * the parse of the text running in the background; null if there is none
+     */
+    private Future<?> pendingParse;
 
     /**
      * Constructor of JavaCodeArea class
      */
     public JavaCodeArea() {
-        this.setOnKeyPressed(event -> {
-            this.highlightText();
-            this.handleTextChange();
-        });
-        this.setOnMouseClicked(event -> {
-            this.highlightText();
-            this.handleTextChange();
-        });
-        this.setAutoParenCompletion();
-    }
-
-    /**
-     * Sets and adds listeners to the auto-completion of the parenthesis.
-     */
-    private void setAutoParenCompletion() {
-        this.setParagraphGraphicFactory(LineNumberFactory.get(this));
-        JavaCodeArea thisCodeArea = this;
-        this.textProperty().addListener(new ChangeListener<String>() {
-            @Override
-            public void changed(ObservableValue<? extends String> observable, String oldValue, String newValue) {
-                if ( newValue.length() > oldValue.length() ) {
-                    int caretPosition = thisCodeArea.getCaretPosition();
-                    String inputChar = Character.toString(newValue.charAt(caretPosition - 1));
-                    if (inputChar.equalsIgnoreCase("(")) {
-                        thisCodeArea.insertText(caretPosition, ")");
-                    } else if (inputChar.equalsIgnoreCase("{")) {
-                        thisCodeArea.insertText(caretPosition, "\n}");
-                    } else if (inputChar.equalsIgnoreCase("[")) {
-                        thisCodeArea.insertText(caretPosition, "]");
-                    }
-                }
-            }
+        IntFunction<Node> lineNumberFactory = LineNumberFactory.get(this);
+        this.setParagraphGraphicFactory(paragraph -> {
+            HBox graphic = new HBox(lineNumberFactory.apply(paragraph), this.createDiagnosticMarker(paragraph));
+            graphic.setAlignment(Pos.CENTER_LEFT);
+            return graphic;
         });
+        this.paragraphStates.add(new ParagraphState());
+        this.plainTextChanges().subscribe(this::handleTextChange);
+        this.plainTextChanges().successionEnds(PARSE_DELAY).subscribe(ignore -> this.parseText());
+        this.viewportDirtyEvents().subscribe(ignore -> this.scheduleRestyle());
+        this.getVisibleParagraphs().changes().subscribe(ignore -> this.scheduleRestyle());
     }
 
     /**
@@ -140,6 +256,7 @@ public class JavaCodeArea extends CodeArea {
      */
     public static void setKeywordColorClass(String keywordColorClass) {
         JavaCodeArea.keywordColorClass = keywordColorClass;
+        HighlightCache.clear();
     }
 
     /**
@@ -147,7 +264,10 @@ public class JavaCodeArea extends CodeArea {
      *
      * @param parenColorClass
      */
-    public static void setParenColorClass(String parenColorClass) { JavaCodeArea.parenColorClass = parenColorClass; }
+    public static void setParenColorClass(String parenColorClass) {
+        JavaCodeArea.parenColorClass = parenColorClass;
+        HighlightCache.clear();
+    }
 
     /**
      * Setter method for stringColorClass field.
@@ -156,6 +276,7 @@ public class JavaCodeArea extends CodeArea {
      */
     public static void setStringColorClass(String stringColorClass) {
         JavaCodeArea.stringColorClass = stringColorClass;
+        HighlightCache.clear();
     }
 
     /**
@@ -163,55 +284,472 @@ public class JavaCodeArea extends CodeArea {
      *
      * @param intColorClass
      */
-    public static void setIntColorClass(String intColorClass) { JavaCodeArea.intColorClass = intColorClass; }
+    public static void setIntColorClass(String intColorClass) {
+        JavaCodeArea.intColorClass = intColorClass;
+        HighlightCache.clear();
+    }
+
+    /**
+     * Replaces the text with the content of a file and marks it as saved, restoring its highlighting
+     * if the file was shown before with the same content.
+     *
+     * @param text the content of the file
+     * @param file the file; null if the text is not from a file
+     */
+    public void loadText(String text, File file) {
+        this.replaceText(text);
+        this.markSaved();
+        HighlightCache.Entry entry = file == null || !this.highlighted ? null
+                : HighlightCache.get(HighlightCache.getKey(file, text));
+        if (entry == null || entry.getStates().size() != this.paragraphStates.size()) {
+            return;
+        }
+        for (int i = 0; i < entry.getStates().size(); i++) {
+            this.paragraphStates.set(i, new ParagraphState(entry.getStates().get(i)));
+        }
+        this.lexedParagraphs = entry.getLexedParagraphs();
+        this.documentVersion++;
+        if (this.pendingHighlighting != null) {
+            this.pendingHighlighting.cancel(true);
+        }
+        this.setStyleSpans(0, entry.getStyleSpans());
+    }
+
+    /**
+     * Marks the text as saved, as when it is loaded from or saved to its file.
+     */
+    public void markSaved() { this.savedTextVersion = this.textVersion; }
+
+    /**
+     * Gets the version of the text, incremented on each text change.
+     *
+     * @return the version of the text
+     */
+    public long getTextVersion() { return this.textVersion; }
+
+    /**
+     * Marks the text as not saved, as when saving a version of it failed,
+     * unless a later version was saved since.
+     *
+     * @param version the version of the text whose saving failed
+     */
+    public void markSaveFailed(long version) {
+        if (this.savedTextVersion == version) {
+            this.savedTextVersion = -1;
+        }
+    }
+
+    /**
+     * Checks whether the text changed since it was last loaded from or saved to its file.
+     *
+     * @return true if the text changed; false otherwise
+     */
+    public boolean isModified() { return this.textVersion != this.savedTextVersion; }
+
+    /**
+     * Keeps the highlighting of the text in the cache shared by the code areas,
+     * so that it is restored if the file is shown again with the same content.
+     *
+     * @param file the file the text is from; null if the text is not from a file
+     */
+    public void storeHighlighting(File file) {
+        if (file == null || !this.highlighted) {
+            return;
+        }
+        List<ParagraphState> states = new ArrayList<>();
+        for (ParagraphState state : this.paragraphStates) {
+            states.add(new ParagraphState(state));
+        }
+        HighlightCache.put(HighlightCache.getKey(file, this.getText()),
+                new HighlightCache.Entry(states, this.lexedParagraphs, this.getStyleSpans(0, this.getLength())
+                        .mapStyles(styles -> ParseDiagnostics.withStyle(styles, false))));
+    }
+
+    /**
+     * Sets whether the text is highlighted.
+     *
+     * @param highlighted true if the text is code to be highlighted; false otherwise
+     */
+    public void setHighlighted(boolean highlighted) {
+        this.highlighted = highlighted;
+        if (highlighted) {
+            this.highlightText();
+        } else {
+            this.documentVersion++;
+            if (this.pendingHighlighting != null) {
+                this.pendingHighlighting.cancel(true);
+            }
+            this.setStyle(0, this.getLength(), Collections.emptyList());
+        }
+    }
+
+    /**
+     * Checks whether the text of a file is Bantam code: the Bantam files and the untitled texts are.
+     *
+     * @param file the file of the text; null for an untitled text
+     * @return true if the text of the file is Bantam code; false otherwise
+     */
+    public static boolean isBantamFile(File file) { return file == null || file.getName().endsWith(".btm"); }
+
+    /**
+     * Checks whether the text of a file is parsed on each pause in typing to show its errors:
+     * the Bantam files and the untitled texts are, unless the ide.parseOnIdle property is false.
+     *
+     * @param file the file of the text; null for an untitled text
+     * @return true if the text of the file is parsed on each pause in typing; false otherwise
+     */
+    public static boolean isDiagnosedFile(File file) {
+        return !"false".equals(System.getProperty(PARSE_ON_IDLE_PROPERTY)) && isBantamFile(file);
+    }
 
     /**
-     * Appends a text to the JavaCodeArea and highlights the text
+     * Sets whether the text is highlighted as Bantam code or as Java code,
+     * lexing every paragraph again if it changes.
      *
-     * @param s String to append to the JavaCodeArea
+     * @param bantamSyntax true to highlight the text with the tokens of the Bantam Scanner;
+     *                     false to highlight it as Java code
      */
-    public void appendText(String s) {
-        super.appendText(s);
+    public void setBantamSyntax(boolean bantamSyntax) {
+        if (this.bantamSyntax == bantamSyntax) {
+            return;
+        }
+        this.bantamSyntax = bantamSyntax;
+        for (ParagraphState state : this.paragraphStates) {
+            state.textChanged = true;
+        }
+        this.lexedParagraphs = 0;
         this.highlightText();
     }
 
     /**
-     * Helper function to highlight the text within the JavaCodeArea.
+     * Sets whether the text is parsed on each pause in typing to show its errors.
+     *
+     * @param diagnosed true if the text is Bantam code to be parsed; false otherwise
+     */
+    public void setDiagnosed(boolean diagnosed) {
+        this.diagnosed = diagnosed;
+        if (diagnosed) {
+            this.parseText();
+        } else {
+            if (this.pendingParse != null) {
+                this.pendingParse.cancel(true);
+            }
+            this.applyDiagnostics(this.textVersion, Collections.emptyMap());
+        }
+    }
+
+    /**
+     * Marks every paragraph to be restyled and restyles the visible ones,
+     * as needed when the style classes change.
+     */
+    public void highlightText() {
+        for (ParagraphState state : this.paragraphStates) {
+            state.styled = false;
+        }
+        this.documentVersion++;
+        this.scheduleRestyle();
+    }
+
+    /**
+     * Handles a text change: updates the states of the paragraphs it touches,
+     * schedules the restyling of the visible paragraphs and completes an opening parenthesis,
+     * brace or bracket typed.
+     *
+     * @param change the text change
+     */
+    private void handleTextChange(PlainTextChange change) {
+        int firstParagraph = this.offsetToPosition(change.getPosition(), Bias.Forward).getMajor();
+        int removedLines = countLines(change.getRemoved());
+        int insertedLines = countLines(change.getInserted());
+        // the paragraphs the change spans replace the paragraphs the removed text spanned
+        this.paragraphStates.subList(firstParagraph + 1, firstParagraph + 1 + removedLines).clear();
+        List<ParagraphState> insertedStates = new ArrayList<>(insertedLines);
+        for (int i = 0; i < insertedLines; i++) {
+            insertedStates.add(new ParagraphState());
+        }
+        this.paragraphStates.addAll(firstParagraph + 1, insertedStates);
+        for (int i = firstParagraph; i <= firstParagraph + insertedLines; i++) {
+            this.paragraphStates.get(i).textChanged = true;
+        }
+        this.lexedParagraphs = Math.min(this.lexedParagraphs, firstParagraph);
+        this.textVersion++;
+        this.documentVersion++;
+        if (this.pendingHighlighting != null) {
+            this.pendingHighlighting.cancel(true);
+        }
+        this.scheduleRestyle();
+
+        // only the text typed at the caret is completed, not the text replaced elsewhere
+        if (change.getInserted().length() > change.getRemoved().length()
+                && change.getInsertionEnd() == this.getCaretPosition()) {
+            this.completeParen();
+        }
+    }
+
+    /**
+     * Helper method to complete an opening parenthesis, brace or bracket just typed before the caret.
+     */
+    private void completeParen() {
+        int caretPosition = this.getCaretPosition();
+        if (caretPosition == 0) {
+            return;
+        }
+        String inputChar = this.getText(caretPosition - 1, caretPosition);
+        if (inputChar.equals("(")) {
+            this.insertText(caretPosition, ")");
+        } else if (inputChar.equals("{")) {
+            this.insertText(caretPosition, "\n}");
+        } else if (inputChar.equals("[")) {
+            this.insertText(caretPosition, "]");
+        }
+    }
+
+    /**
+     * Helper method to count the line breaks of a text.
+     *
+     * @param text the text
+     * @return the number of line breaks
+     */
+    private static int countLines(String text) {
+        int lines = 0;
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) == '\n') {
+                lines++;
+            }
+        }
+        return lines;
+    }
+
+    /**
+     * Helper method to restyle the visible paragraphs once the pending events have been handled.
+     */
+    private void scheduleRestyle() {
+        if (this.highlighted && !this.restyleScheduled) {
+            this.restyleScheduled = true;
+            Platform.runLater(() -> {
+                this.restyleScheduled = false;
+                this.restyleVisibleParagraphs();
+            });
+        }
+    }
+
+    /**
+     * Helper method to restyle the visible paragraphs whose text or start state changed since they were styled.
+     * Lexes the paragraphs from the first one whose state may be stale to the last visible one in the background.
+     */
+    private void restyleVisibleParagraphs() {
+        int paragraphs = this.getParagraphs().size();
+        if (this.paragraphStates.size() != paragraphs) {
+            // never expected: start over rather than style the wrong paragraphs
+            this.paragraphStates.clear();
+            for (int i = 0; i < paragraphs; i++) {
+                this.paragraphStates.add(new ParagraphState());
+            }
+            this.lexedParagraphs = 0;
+        }
+        int visible = this.getVisibleParagraphs().size();
+        if (visible == 0) {
+            return;
+        }
+        int first = Math.min(this.visibleParToAllParIndex(0), paragraphs - 1);
+        int last = Math.min(this.visibleParToAllParIndex(visible - 1) + VIEWPORT_MARGIN, paragraphs - 1);
+        if (this.lexedParagraphs > last && this.isStyled(first, last)) {
+            return;
+        }
+
+        // snapshot the paragraphs, which are immutable, and copies of their states
+        int from = Math.min(this.lexedParagraphs, first);
+        List<Paragraph<Collection<String>, String, Collection<String>>> snapshot =
+                new ArrayList<>(this.getParagraphs().subList(from, last + 1));
+        List<ParagraphState> states = new ArrayList<>();
+        for (int i = from; i <= last; i++) {
+            states.add(new ParagraphState(this.paragraphStates.get(i)));
+        }
+        boolean startsInComment = from > 0 && this.paragraphStates.get(from - 1).endsInComment;
+        boolean bantamSyntax = this.bantamSyntax;
+        long version = this.documentVersion;
+
+        if (this.pendingHighlighting != null) {
+            this.pendingHighlighting.cancel(true);
+        }
+        this.pendingHighlighting = HIGHLIGHTER.submit(() -> {
+            List<StyleSpans<Collection<String>>> spans =
+                    computeHighlighting(snapshot, states, startsInComment, first - from, bantamSyntax);
+            if (spans != null) {
+                Platform.runLater(() -> this.applyHighlighting(version, from, states, spans));
+            }
+        });
+    }
+
+    /**
+     * Helper method to check whether the given paragraphs are styled.
+     *
+     * @param first the index of the first paragraph
+     * @param last the index of the last paragraph
+     * @return true if every paragraph in the range is styled; false otherwise
      */
-    public void highlightText() { this.setStyleSpans(0, this.computeHighlighting(this.getText())); }
+    private boolean isStyled(int first, int last) {
+        for (int i = first; i <= last; i++) {
+            if (!this.paragraphStates.get(i).styled) {
+                return false;
+            }
+        }
+        return true;
+    }
 
     /**
-     * Handles the text change action.
-     * Changes the tab title to green when the selected JavaCodeArea has been changed and not been saved.
-     * Listens to the text changes and highlights the keywords real-time.
+     * Helper method to apply the states and styles computed in the background,
+     * unless the document changed since they were computed.
+     *
+     * @param version the version of the document the highlighting was computed for
+     * @param from the index of the first paragraph the highlighting was computed for
+     * @param states the new states of the paragraphs
+     * @param spans the new styles of the paragraphs; null for the paragraphs not restyled
      */
-    private void handleTextChange() {
-        Subscription cleanupWhenNoLongerNeedIt = this
+    private void applyHighlighting(long version, int from, List<ParagraphState> states,
+                                   List<StyleSpans<Collection<String>>> spans) {
+        if (version != this.documentVersion) {
+            return;
+        }
+        for (int i = 0; i < states.size(); i++) {
+            this.paragraphStates.set(from + i, states.get(i));
+            if (spans.get(i) != null) {
+                this.setStyleSpans(from + i, 0, this.diagnostics.get().containsKey(from + i)
+                        ? spans.get(i).mapStyles(styles -> ParseDiagnostics.withStyle(styles, true)) : spans.get(i));
+            }
+        }
+        this.lexedParagraphs = Math.max(this.lexedParagraphs, from + states.size());
+    }
 
-                // plain changes = ignore style changes that are emitted when syntax highlighting is reapplied
-                // multi plain changes = save computation by not rerunning the code multiple times
-                // when making multiple changes (e.g. renaming a method at multiple parts in file)
-                .multiPlainChanges()
+    /**
+     * Helper method to parse a snapshot of the text in the background to find its errors,
+     * cancelling the parse of an older snapshot.
+     */
+    private void parseText() {
+        if (!this.diagnosed) {
+            return;
+        }
+        String text = this.getText();
+        int paragraphs = this.getParagraphs().size();
+        long version = this.textVersion;
+        if (this.pendingParse != null) {
+            this.pendingParse.cancel(true);
+        }
+        this.pendingParse = PARSER.submit(() -> {
+            Map<Integer, String> found = ParseDiagnostics.compute(text, paragraphs);
+            if (!Thread.currentThread().isInterrupted()) {
+                Platform.runLater(() -> this.applyDiagnostics(version, found));
+            }
+        });
+    }
 
-                // do not emit an event until 500 ms have passed since the last emission of previous stream
-                .successionEnds(Duration.ofMillis(500))
+    /**
+     * Helper method to show the errors found by a parse, unless the text changed since it was parsed:
+     * underlines the paragraphs with errors and shows their markers in the gutter,
+     * removing those of the previous errors.
+     *
+     * @param version the version of the text parsed
+     * @param found the messages of the errors found by the index of their paragraph
+     */
+    private void applyDiagnostics(long version, Map<Integer, String> found) {
+        if (version != this.textVersion) {
+            return;
+        }
+        Set<Integer> changed = new HashSet<>(this.diagnostics.get().keySet());
+        changed.addAll(found.keySet());
+        this.diagnostics.set(found);
+        for (int paragraph : changed) {
+            if (paragraph < this.getParagraphs().size() && this.getParagraphLength(paragraph) > 0) {
+                boolean diagnosed = found.containsKey(paragraph);
+                this.setStyleSpans(paragraph, 0, this.getStyleSpans(paragraph)
+                        .mapStyles(styles -> ParseDiagnostics.withStyle(styles, diagnosed)));
+            }
+        }
+    }
 
-                // run the following code block when previous stream emits an event
-                .subscribe(ignore -> this.highlightText());
+    /**
+     * Helper method to create the gutter marker of a paragraph, shown when the paragraph has errors,
+     * with their messages in its tooltip.
+     *
+     * @param paragraph the index of the paragraph
+     * @return the marker
+     */
+    private Node createDiagnosticMarker(int paragraph) {
+        Label marker = new Label("\u25CF");
+        marker.getStyleClass().add("diagnostic-marker");
+        Val<String> message = Val.map(this.diagnostics, diagnostics -> diagnostics.get(paragraph));
+        Tooltip tooltip = new Tooltip();
+        tooltip.textProperty().bind(message.orElseConst("").conditionOnShowing(marker));
+        marker.setTooltip(tooltip);
+        marker.visibleProperty().bind(message.map(text -> true).orElseConst(false).conditionOnShowing(marker));
+        return marker;
+    }
+
+    /**
+     * Lexes a snapshot of consecutive paragraphs, updating their states and computing the styles
+     * of the paragraphs to be restyled. Only the paragraphs whose text or start state changed are lexed again.
+     * Runs in the background and stops if interrupted.
+     *
+     * @param paragraphs the paragraphs
+     * @param states copies of the states of the paragraphs, updated in place
+     * @param startsInComment whether the first paragraph starts inside a multi-line comment
+     * @param firstStyled the index in the snapshot of the first paragraph to be restyled
+     * @param bantamSyntax true to lex the paragraphs with the Bantam Scanner; false to lex them as Java code
+     * @return the styles of the paragraphs, null for the paragraphs not restyled; null if interrupted
+     */
+    private static List<StyleSpans<Collection<String>>> computeHighlighting(
+            List<Paragraph<Collection<String>, String, Collection<String>>> paragraphs,
+            List<ParagraphState> states, boolean startsInComment, int firstStyled, boolean bantamSyntax) {
+        List<StyleSpans<Collection<String>>> spans = new ArrayList<>();
+        for (int i = 0; i < paragraphs.size(); i++) {
+            if (Thread.currentThread().isInterrupted()) {
+                return null;
+            }
+            ParagraphState state = states.get(i);
+            boolean relex = state.textChanged || state.startsInComment != startsInComment;
+            boolean restyle = i >= firstStyled && (relex || !state.styled);
+            StyleSpansBuilder<Collection<String>> spansBuilder = restyle ? new StyleSpansBuilder<>() : null;
+            if (relex || restyle) {
+                String text = paragraphs.get(i).getText();
+                state.endsInComment = bantamSyntax
+                        ? TokenHighlighter.computeHighlighting(text, startsInComment, spansBuilder,
+                                JavaCodeArea::getStyleClass)
+                        : computeJavaHighlighting(text, startsInComment, spansBuilder);
+                state.startsInComment = startsInComment;
+                state.textChanged = false;
+                state.styled = restyle;
+            }
+            spans.add(restyle ? spansBuilder.create() : null);
+            startsInComment = state.endsInComment;
+        }
+        return spans;
     }
 
     /**
-     * Computes the highlighting of substrings of text to return the style of each substring.
+     * Helper method to compute the highlighting of the substrings of a paragraph of Java code
+     * to build the style of each substring.
      *
-     * @param text string to compute highlighting of
-     * @return StyleSpans Collection Object
+     * @param text the text of the paragraph
+     * @param startsInComment whether the paragraph starts inside a multi-line comment
+     * @param spansBuilder the builder the styles are added to; null if only the lexer state is needed
+     * @return true if the paragraph ends inside a multi-line comment; false otherwise
      */
-    private static StyleSpans<Collection<String>> computeHighlighting(String text) {
-        Matcher matcher = PATTERN.matcher(text);
+    private static boolean computeJavaHighlighting(String text, boolean startsInComment,
+                                                   StyleSpansBuilder<Collection<String>> spansBuilder) {
         int lastKwEnd = 0;
-        StyleSpansBuilder<Collection<String>> spansBuilder
-                = new StyleSpansBuilder<>();
-        while(matcher.find()) {
+        if (startsInComment) {
+            int commentEnd = text.indexOf("*/");
+            lastKwEnd = commentEnd < 0 ? text.length() : commentEnd + 2;
+            if (spansBuilder != null) {
+                spansBuilder.add(Collections.singleton("comment"), lastKwEnd);
+            }
+            if (commentEnd < 0) {
+                return true;
+            }
+        }
+        Matcher matcher = PATTERN.matcher(text).region(lastKwEnd, text.length()).useTransparentBounds(true);
+        boolean endsInComment = false;
+        while (matcher.find()) {
             String styleClass =
                     matcher.group("KEYWORD") != null ? keywordColorClass :
                             matcher.group("PAREN") != null ? parenColorClass :
@@ -220,13 +758,84 @@ public class JavaCodeArea extends CodeArea {
                                                     matcher.group("SEMICOLON") != null ? "semicolon" :
                                                             matcher.group("STRING") != null ? stringColorClass :
                                                                     matcher.group("COMMENT") != null ? "comment" :
-                                                                            matcher.group("INTEGER") != null ? intColorClass :
-                                                                                    null; /* never happens */ assert styleClass != null;
-            spansBuilder.add(Collections.emptyList(), matcher.start() - lastKwEnd);
-            spansBuilder.add(Collections.singleton(styleClass), matcher.end() - matcher.start());
+                                                                            intColorClass;
+            String comment = matcher.group("COMMENT");
+            endsInComment = comment != null && comment.startsWith("/*")
+                    && (comment.length() < 4 || !comment.endsWith("*/"));
+            if (spansBuilder != null) {
+                spansBuilder.add(Collections.emptyList(), matcher.start() - lastKwEnd);
+                spansBuilder.add(Collections.singleton(styleClass), matcher.end() - matcher.start());
+            }
             lastKwEnd = matcher.end();
         }
-        spansBuilder.add(Collections.emptyList(), text.length() - lastKwEnd);
-        return spansBuilder.create();
+        if (spansBuilder != null) {
+            spansBuilder.add(Collections.emptyList(), text.length() - lastKwEnd);
+        }
+        return endsInComment;
+    }
+
+    /**
+     * Helper method to get the style class of a kind of token.
+     *
+     * @param kind the kind of the token
+     * @return the style class; null if the tokens of the kind are not styled
+     */
+    private static String getStyleClass(Token.Kind kind) {
+        switch (kind) {
+            case BREAK: case CAST: case CLASS: case VAR: case ELSE: case EXTENDS: case FOR: case IF:
+            case INSTANCEOF: case NEW: case RETURN: case WHILE: case THIS: case SUPER: case BOOLEAN:
+                return keywordColorClass;
+            case LPAREN: case RPAREN: case LBRACKET: case RBRACKET: case LCURLY: case RCURLY:
+                return parenColorClass;
+            case SEMICOLON:
+                return "semicolon";
+            case STRCONST:
+                return stringColorClass;
+            case INTCONST:
+                return intColorClass;
+            case COMMENT:
+                return "comment";
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * The lexer state of a paragraph and whether its styles are current.
+     */
+    static class ParagraphState {
+        /**
+         * whether the text of the paragraph changed since it was lexed
+         */
+        private boolean textChanged = true;
+        /**
+         * whether the paragraph started inside a multi-line comment when it was lexed
+         */
+        private boolean startsInComment;
+        /**
+         * whether the paragraph ended inside a multi-line comment when it was lexed
+         */
+        private boolean endsInComment;
+        /**
+         * whether the styles of the paragraph were set when it was last lexed
+         */
+        private boolean styled;
+
+        /**
+         * Constructor of the ParagraphState class, for a paragraph not lexed yet.
+         */
+        private ParagraphState() { }
+
+        /**
+         * Constructor of the ParagraphState class, copying a state.
+         *
+         * @param state the state to copy
+         */
+        private ParagraphState(ParagraphState state) {
+            this.textChanged = state.textChanged;
+            this.startsInComment = state.startsInComment;
+            this.endsInComment = state.endsInComment;
+            this.styled = state.styled;
+        }
     }
-}
\ No newline at end of file
+}
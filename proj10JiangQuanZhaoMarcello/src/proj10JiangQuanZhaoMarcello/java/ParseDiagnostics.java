@@ -0,0 +1,81 @@
+/*
+ * File: ParseDiagnostics.java
+ * F18 CS361 Project 10
+ * Names: Liwei Jiang, Tracy Quan, Danqing Zhao, Chris Marcello
+ * Date: 12/07/2018
+ * This file contains the ParseDiagnostics class, which finds the errors of a text
+ * with the Bantam Parser, to be shown in its code area.
+ */
+
+package proj10JiangQuanZhaoMarcello.java;
+
+import proj10JiangQuanZhaoMarcello.bantam.parser.Parser;
+import proj10JiangQuanZhaoMarcello.bantam.util.CompilationException;
+import proj10JiangQuanZhaoMarcello.bantam.util.Error;
+import proj10JiangQuanZhaoMarcello.bantam.util.ErrorHandler;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * This class parses a text with the Bantam Parser, only building its AST, and gathers the errors found
+ * by the paragraph they are on, so that they are shown inline in the code area of the text.
+ * The parser stops at the first syntactic error, so that a text has at most one syntactic error,
+ * after the lexical errors found before it.
+ *
+ * @author Liwei Jiang
+ * @author Tracy Quan
+ * @author Danqing Zhao
+ * @author Chris Marcello
+ */
+class ParseDiagnostics {
+    /**
+     * the style class of the paragraphs with errors
+     */
+    static final String STYLE_CLASS = "diagnostic";
+
+    /**
+     * Parses a text and gets its errors.
+     *
+     * @param text the text
+     * @param paragraphs the number of paragraphs of the text
+     * @return a map from the index of each paragraph with errors to their messages, one per line;
+     *         the errors whose line is not known are on the first paragraph
+     */
+    static Map<Integer, String> compute(String text, int paragraphs) {
+        ErrorHandler handler = new ErrorHandler();
+        try {
+            // no file name, so that the messages do not repeat it
+            new Parser(handler).parse(null, text);
+        } catch (CompilationException e) {
+            // the errors are registered in the handler
+        }
+        Map<Integer, String> diagnostics = new HashMap<>();
+        for (Error error : handler.getErrorList()) {
+            int paragraph = Math.max(0, Math.min(error.getLineNum() - 1, paragraphs - 1));
+            diagnostics.merge(paragraph, error.toString(), (first, second) -> first + "\n" + second);
+        }
+        return diagnostics;
+    }
+
+    /**
+     * Adds or removes the style class of the paragraphs with errors to the style classes of a span.
+     *
+     * @param styles the style classes of the span
+     * @param diagnosed true if the paragraph of the span has errors; false otherwise
+     * @return the style classes of the span with or without the style class of the paragraphs with errors
+     */
+    static Collection<String> withStyle(Collection<String> styles, boolean diagnosed) {
+        if (styles.contains(STYLE_CLASS) == diagnosed) {
+            return styles;
+        }
+        Collection<String> newStyles = new ArrayList<>(styles);
+        if (diagnosed) {
+            newStyles.add(STYLE_CLASS);
+        } else {
+            newStyles.remove(STYLE_CLASS);
+        }
+        return newStyles;
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * File: TokenHighlighter.java
+ * F18 CS361 Project 10
+ * Names: Liwei Jiang, Tracy Quan, Danqing Zhao, Chris Marcello
+ * Date: 12/07/2018
+ * This file contains the TokenHighlighter class, which highlights a paragraph
+ * with the tokens of the Bantam Scanner.
+ */
+
+package proj10JiangQuanZhaoMarcello.java;
+
+import proj10JiangQuanZhaoMarcello.bantam.lexer.Scanner;
+import proj10JiangQuanZhaoMarcello.bantam.lexer.Token;
+import proj10JiangQuanZhaoMarcello.bantam.util.ErrorHandler;
+import org.fxmisc.richtext.model.StyleSpansBuilder;
+import java.io.StringReader;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.function.Function;
+
+/**
+ * This class highlights a paragraph by scanning it with the Bantam Scanner
+ * and styling each token according to its kind, so that the highlighting agrees with the compiler.
+ * The scanner resumes a block comment opened in a previous paragraph,
+ * and the tokens the scanner reports as errors are styled inline.
+ *
+ * @author Liwei Jiang
+ * @author Tracy Quan
+ * @author Danqing Zhao
+ * @author Chris Marcello
+ */
+class TokenHighlighter {
+    /**
+     * the style class of the tokens the scanner reports as errors
+     */
+    static final String ERROR_STYLE_CLASS = "error";
+
+    /**
+     * Computes the highlighting of the tokens of a paragraph to build the style of each substring.
+     *
+     * @param text the text of the paragraph
+     * @param startsInComment whether the paragraph starts inside a block comment
+     * @param spansBuilder the builder the styles are added to; null if only the scanner state is needed
+     * @param styleClasses gives the style class of a kind of token; null for the kinds not styled
+     * @return true if the paragraph ends inside a block comment; false otherwise
+     */
+    static boolean computeHighlighting(String text, boolean startsInComment,
+                                       StyleSpansBuilder<Collection<String>> spansBuilder,
+                                       Function<Token.Kind, String> styleClasses) {
+        Scanner scanner = new Scanner("", new StringReader(text), new ErrorHandler(), startsInComment);
+        int lastTokenEnd = 0;
+        Token token = scanner.scan();
+        while (token != null && token.getKind() != Token.Kind.EOF) {
+            if (spansBuilder != null) {
+                String styleClass = token.getKind() != Token.Kind.ERROR ? styleClasses.apply(token.getKind())
+                        // a block comment left open goes on in the next paragraph
+                        : scanner.isInBlockComment() ? styleClasses.apply(Token.Kind.COMMENT) : ERROR_STYLE_CLASS;
+                int start = Math.max(token.getStartOffset(), lastTokenEnd);
+                int end = Math.min(token.getEndOffset(), text.length());
+                if (styleClass != null && start < end) {
+                    spansBuilder.add(Collections.emptyList(), start - lastTokenEnd);
+                    spansBuilder.add(Collections.singleton(styleClass), end - start);
+                    lastTokenEnd = end;
+                }
+            }
+            token = scanner.scan();
+        }
+        if (spansBuilder != null) {
+            spansBuilder.add(Collections.emptyList(), text.length() - lastTokenEnd);
+        }
+        return scanner.isInBlockComment();
+    }
+}